@@ -89,12 +89,16 @@ public class ConstructionSite{
      * Update delivered quantity
      * @param commodityId Commodity id
      * @param delivered Delivered quantity
+     * @return true if the site requires the commodity and its delivered quantity changed
      */
-    public void updateDeliveredQuantity(long commodityId , int delivered){
+    public boolean updateDeliveredQuantity(long commodityId , int delivered){
+        boolean changed = false;
         for (MaterialRequirement req : requirements) {
             if (req.getCommodity().getId() == commodityId) {
                 req.addDeliveredQuantity(delivered);//TODO: check negative values
+                changed |= delivered != 0;
                }
         }
+        return changed;
     }
 }
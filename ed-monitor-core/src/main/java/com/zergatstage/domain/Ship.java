@@ -1,11 +1,9 @@
 package com.zergatstage.domain;
 
 import com.zergatstage.domain.dictionary.CargoItem;
+import com.zergatstage.tools.ConcurrentLongObjectMap;
 import lombok.*;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-
 @Data
 @Builder
 @NoArgsConstructor
@@ -15,7 +13,7 @@ public class Ship {
     String ship;
     int cargoCapacity;
     String shipName;
-    private final ConcurrentMap<Long, CargoItem> commodities = new ConcurrentHashMap<>(); //id, Cargo
+    private final ConcurrentLongObjectMap<CargoItem> commodities = new ConcurrentLongObjectMap<>(); //id, Cargo
     @Synchronized
     public boolean isCargoStateKnown() {
         return isCargoStateKnown;
@@ -29,9 +27,7 @@ public class Ship {
 
 
     public void clearCargo() {
-        if (!commodities.isEmpty()) {
-            commodities.clear();
-        }
+        commodities.clear();
     }
 
     public int getCurrentCargoCount() {
@@ -26,6 +26,12 @@ public class Market {
     private String stationType;
     private String systemName;
 
+    /**
+     * When the game wrote this market data, in epoch milliseconds; null if unknown. Decides which of two
+     * copies of a market is newer and how long it stays cached.
+     */
+    private Long updatedMillis;
+
     @OneToMany(mappedBy = "market", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @Builder.Default
     private Map<Long, MarketItem> items = new HashMap<>();
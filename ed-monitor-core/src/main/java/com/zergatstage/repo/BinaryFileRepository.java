@@ -0,0 +1,339 @@
+package com.zergatstage.repo;
+
+import com.zergatstage.tools.ConcurrentLongObjectMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * {@link GenericRepository} kept in memory and persisted to a local append-only binary file.
+ * <p>
+ * {@link #save}, {@link #update} and {@link #delete} only change the in-memory map and mark the id;
+ * {@link #flush()}, called from a background thread, appends one record per marked id. On
+ * {@link #load()} the records are replayed, the last one per id wins. When the file holds more than
+ * twice as many records as live entities it is rewritten compactly on the next flush.
+ * </p>
+ * <p>
+ * File layout: {@link #MAGIC}, the format {@link #VERSION} and the codec's version, then records of
+ * {@code [op:byte][id:long][length:int][payload][crc32:int]}. A record cut short or corrupted by a crash
+ * ends the replay; everything before it is kept. A file written with another codec version is ignored.
+ * </p>
+ *
+ * @param <T> the entity type.
+ */
+public class BinaryFileRepository<T> implements GenericRepository<T>, Closeable {
+
+    /** "EDBS". */
+    public static final int MAGIC = 0x45444253;
+    public static final short VERSION = 1;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private final Path file;
+    private final Codec<T> codec;
+    private final ConcurrentLongObjectMap<T> entities = new ConcurrentLongObjectMap<>();
+    // guarded by itself
+    private final Set<Long> dirty = new LinkedHashSet<>();
+    // guarded by this
+    private DataOutputStream out;
+    private long recordsInFile;
+    private boolean rewrite;
+
+    /**
+     * @param file  the store file; created with its parent directories on the first flush.
+     * @param codec converts entities to and from bytes.
+     */
+    public BinaryFileRepository(Path file, Codec<T> codec) {
+        this.file = file;
+        this.codec = codec;
+    }
+
+    /**
+     * Replaces the in-memory content with the content of the file.
+     *
+     * @return the number of entities loaded; 0 if there is no usable file.
+     * @throws IOException if the file exists but cannot be read.
+     */
+    public synchronized int load() throws IOException {
+        closeOutput();
+        entities.clear();
+        synchronized (dirty) {
+            dirty.clear();
+        }
+        recordsInFile = 0;
+        rewrite = false;
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION || in.readInt() != codec.version()) {
+                rewrite = true;
+                return 0;
+            }
+            CRC32 crc = new CRC32();
+            boolean damaged = false;
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                long id;
+                byte[] payload;
+                try {
+                    id = in.readLong();
+                    int length = in.readInt();
+                    if (length < 0 || length > MAX_RECORD_BYTES) {
+                        damaged = true;
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(op);
+                    crc.update(payload);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        damaged = true;
+                        break;
+                    }
+                } catch (EOFException e) {
+                    damaged = true;
+                    break;
+                }
+                recordsInFile++;
+                if (op == PUT) {
+                    entities.put(id, codec.read(new DataInputStream(new ByteArrayInputStream(payload))));
+                } else if (op == DELETE) {
+                    entities.remove(id);
+                }
+            }
+            // records appended after a damaged tail would never be read; rewrite the file on the next flush
+            rewrite = damaged;
+        }
+        return entities.size();
+    }
+
+    @Override
+    public T findById(Object id) {
+        return id instanceof Number number ? entities.get(number.longValue()) : null;
+    }
+
+    public T findById(long id) {
+        return entities.get(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return entities.values();
+    }
+
+    @Override
+    public void save(T entity) {
+        long id = codec.id(entity);
+        entities.put(id, entity);
+        mark(id);
+    }
+
+    @Override
+    public void update(T entity) {
+        save(entity);
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(codec.id(entity));
+    }
+
+    public void deleteById(long id) {
+        if (entities.remove(id) != null) {
+            mark(id);
+        }
+    }
+
+    public int size() {
+        return entities.size();
+    }
+
+    /**
+     * @return number of changes not yet written.
+     */
+    public int pending() {
+        synchronized (dirty) {
+            return dirty.size();
+        }
+    }
+
+    /**
+     * Writes the pending changes, or the whole content if the file is due for compaction.
+     *
+     * @return number of records written.
+     * @throws IOException if the file cannot be written; the changes stay pending.
+     */
+    public synchronized int flush() throws IOException {
+        List<Long> ids;
+        synchronized (dirty) {
+            if (dirty.isEmpty()) {
+                return 0;
+            }
+            ids = new ArrayList<>(dirty);
+            dirty.clear();
+        }
+        try {
+            if (rewrite || recordsInFile + ids.size() > 2L * entities.size() + 64) {
+                return compact();
+            }
+            if (out == null) {
+                openForAppend();
+            }
+            for (Long id : ids) {
+                T entity = entities.get(id);
+                writeRecord(out, entity != null ? PUT : DELETE, id, entity);
+            }
+            out.flush();
+            recordsInFile += ids.size();
+            return ids.size();
+        } catch (IOException | RuntimeException e) {
+            synchronized (dirty) {
+                dirty.addAll(ids);
+            }
+            // part of a record may have reached the file; appending after it would hide everything that follows
+            rewrite = true;
+            closeOutput();
+            throw e;
+        }
+    }
+
+    /**
+     * Flushes and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            closeOutput();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private int compact() throws IOException {
+        closeOutput();
+        createParent();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int written = 0;
+        try (DataOutputStream tempOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+            writeHeader(tempOut);
+            List<T> all = entities.values();
+            for (T entity : all) {
+                writeRecord(tempOut, PUT, codec.id(entity), entity);
+                written++;
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        recordsInFile = written;
+        rewrite = false;
+        return written;
+    }
+
+    private void openForAppend() throws IOException {
+        createParent();
+        boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+        OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+        if (fresh) {
+            writeHeader(out);
+        }
+    }
+
+    private void writeHeader(DataOutputStream target) throws IOException {
+        target.writeInt(MAGIC);
+        target.writeShort(VERSION);
+        target.writeInt(codec.version());
+    }
+
+    private void writeRecord(DataOutputStream target, byte op, long id, T entity) throws IOException {
+        byte[] payload = new byte[0];
+        if (op == PUT) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            codec.write(new DataOutputStream(bytes), entity);
+            payload = bytes.toByteArray();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(op);
+        crc.update(payload);
+        target.writeByte(op);
+        target.writeLong(id);
+        target.writeInt(payload.length);
+        target.write(payload);
+        target.writeInt((int) crc.getValue());
+    }
+
+    private void createParent() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+    }
+
+    private void mark(long id) {
+        synchronized (dirty) {
+            dirty.add(id);
+        }
+    }
+
+    private void closeOutput() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // the next flush reopens the file
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * Binary form of one entity type.
+     *
+     * @param <T> the entity type.
+     */
+    public interface Codec<T> {
+        /**
+         * @return the entity's id.
+         */
+        long id(T entity);
+
+        /**
+         * @return the layout version; bump it when {@link #write} changes so old files are ignored.
+         */
+        int version();
+
+        void write(DataOutput out, T entity) throws IOException;
+
+        T read(DataInput in) throws IOException;
+    }
+}
@@ -0,0 +1,157 @@
+package com.zergatstage.tools;
+
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+
+/**
+ * Thread-safe {@link LongObjectMap}.
+ * <p>
+ * Writes take a {@link StampedLock} write lock. {@link #get} first reads optimistically without locking
+ * and only falls back to the read lock if a write happened meanwhile, so readers on the journal and UI
+ * threads do not block each other and rarely block on writers. Compute functions run under the write lock
+ * and must be short. Iteration works on a consistent copy taken under the read lock.
+ * </p>
+ *
+ * @param <V> the value type.
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    private final LongObjectMap<V> map;
+    private final StampedLock lock = new StampedLock();
+
+    public ConcurrentLongObjectMap() {
+        this.map = new LongObjectMap<>();
+    }
+
+    public ConcurrentLongObjectMap(int expectedSize) {
+        this.map = new LongObjectMap<>(expectedSize);
+    }
+
+    public V get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            V value = map.get(key);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return map.get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        long stamp = lock.writeLock();
+        try {
+            return map.put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public V remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            return map.remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public V computeIfAbsent(long key, LongFunction<? extends V> mapping) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        long stamp = lock.writeLock();
+        try {
+            return map.computeIfAbsent(key, mapping);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public V computeIfPresent(long key, LongObjectMap.Remapping<V> remapping) {
+        long stamp = lock.writeLock();
+        try {
+            return map.computeIfPresent(key, remapping);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public V compute(long key, LongObjectMap.Remapping<V> remapping) {
+        long stamp = lock.writeLock();
+        try {
+            return map.compute(key, remapping);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            map.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Calls the consumer with every key and its value, outside the lock, on a copy of the map.
+     */
+    public void forEach(LongObjectMap.EntryConsumer<? super V> consumer) {
+        snapshot().forEach(consumer);
+    }
+
+    /**
+     * @return a new list of the values.
+     */
+    public List<V> values() {
+        long stamp = lock.readLock();
+        try {
+            return map.values();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return a consistent, unshared copy of the entries.
+     */
+    public LongObjectMap<V> snapshot() {
+        long stamp = lock.readLock();
+        try {
+            return map.copy();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
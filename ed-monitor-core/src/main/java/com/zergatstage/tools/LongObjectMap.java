@@ -0,0 +1,304 @@
+package com.zergatstage.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * Hash map from primitive {@code long} keys to objects.
+ * <p>
+ * Keys and values are kept in two parallel arrays with open addressing and linear probing, so a lookup
+ * neither boxes the key nor follows an entry node: an entry costs 8 bytes for the key and one reference
+ * for the value, against roughly 48 bytes (node + boxed {@code Long}) in a {@link java.util.HashMap}.
+ * Removal shifts the following entries back instead of leaving tombstones.
+ * </p>
+ * <p>
+ * Null values are not allowed; {@code null} means "absent". Not thread-safe, see
+ * {@link ConcurrentLongObjectMap}. Iteration order is unspecified.
+ * </p>
+ *
+ * @param <V> the value type.
+ */
+public class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeAt;
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of entries the map should hold without resizing.
+     */
+    public LongObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return a map with the same entries.
+     */
+    public LongObjectMap<V> copy() {
+        LongObjectMap<V> copy = new LongObjectMap<>(0);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        copy.resizeAt = resizeAt;
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long[] k = keys;
+        Object[] v = values;
+        // k and v are read once, so a reader racing a writer (see ConcurrentLongObjectMap) never indexes out of bounds
+        if (k.length != v.length) {
+            return null;
+        }
+        int mask = k.length - 1;
+        for (int i = slot(key, mask), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            Object value = v[i];
+            if (value == null) {
+                return null;
+            }
+            if (k[i] == key) {
+                return (V) value;
+            }
+        }
+        return null;
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the previous value, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeAt) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return the removed value, or null if the key was absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V removed = (V) values[i];
+                shiftBack(i, mask);
+                size--;
+                return removed;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<? extends V> mapping) {
+        V value = get(key);
+        if (value == null) {
+            value = mapping.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Replaces the value of a present key; a null result removes the entry.
+     *
+     * @return the new value, or null.
+     */
+    public V computeIfPresent(long key, Remapping<V> remapping) {
+        V current = get(key);
+        return current == null ? null : apply(key, current, remapping);
+    }
+
+    /**
+     * Sets the value to the function's result for the current value, which may be null; a null result removes the entry.
+     *
+     * @return the new value, or null.
+     */
+    public V compute(long key, Remapping<V> remapping) {
+        return apply(key, get(key), remapping);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Calls the consumer with every key and its value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        long[] k = keys;
+        Object[] v = values;
+        for (int i = 0; i < v.length; i++) {
+            if (v[i] != null) {
+                consumer.accept(k[i], (V) v[i]);
+            }
+        }
+    }
+
+    /**
+     * @return a new list of the values.
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEach((key, value) -> result.add(value));
+        return result;
+    }
+
+    /**
+     * @return a new array of the keys.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int[] n = {0};
+        forEach((key, value) -> result[n[0]++] = key);
+        return result;
+    }
+
+    /**
+     * @return number of slots in the table, for footprint estimates.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    private V apply(long key, V current, Remapping<V> remapping) {
+        V next = remapping.apply(key, current);
+        if (next == null) {
+            if (current != null) {
+                remove(key);
+            }
+        } else {
+            put(key, next);
+        }
+        return next;
+    }
+
+    /**
+     * Closes the gap at {@code gap} by moving back every following entry of the same probe run that
+     * would otherwise become unreachable.
+     */
+    private void shiftBack(int gap, int mask) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) {
+                break;
+            }
+            int home = slot(keys[i], mask);
+            // move the entry if its home slot is not in the cyclic range (gap, i]
+            boolean reachable = gap <= i ? (gap < home && home <= i) : (gap < home || home <= i);
+            if (!reachable) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        Object[] newValues = new Object[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != null) {
+                int i = slot(oldKeys[j], mask);
+                while (newValues[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                newKeys[i] = oldKeys[j];
+                newValues[i] = oldValues[j];
+            }
+        }
+        // publish values last; a racing reader sees mismatched lengths and retries under the lock
+        keys = newKeys;
+        values = newValues;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    /** Home slot of a key; package-private for tests that need colliding keys. */
+    static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Computes a new value from a key and its current value.
+     */
+    @FunctionalInterface
+    public interface Remapping<V> {
+        V apply(long key, V current);
+    }
+
+    /**
+     * Receives an entry of the map without boxing its key.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
@@ -0,0 +1,95 @@
+package com.zergatstage.tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Compares the heap taken by the market index layouts: boxed {@link HashMap} / {@link ConcurrentHashMap}
+ * against {@link LongObjectMap} / {@link ConcurrentLongObjectMap}, for a number of markets with a number of
+ * items each. Values are shared, so only the maps themselves are measured.
+ * <p>
+ * Run with {@code java -cp ed-monitor-core/target/test-classes:ed-monitor-core/target/classes
+ * com.zergatstage.tools.LongMapFootprint [markets] [items]} after {@code mvn -pl ed-monitor-core test-compile};
+ * the defaults are 2000 markets of 400 items.
+ * </p>
+ */
+public final class LongMapFootprint {
+
+    private static final Object VALUE = new Object();
+
+    private LongMapFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int markets = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int items = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        long entries = (long) markets * items;
+        System.out.printf("%d markets x %d items = %d entries%n", markets, items, entries);
+        report("HashMap<Long, V>", entries, measure(markets, market -> {
+            Map<Long, Object> map = new HashMap<>();
+            for (long i = 0; i < items; i++) {
+                map.put(128_000_000L + i * 7 + market, VALUE);
+            }
+            return map;
+        }));
+        report("LongObjectMap<V>", entries, measure(markets, market -> {
+            LongObjectMap<Object> map = new LongObjectMap<>();
+            for (long i = 0; i < items; i++) {
+                map.put(128_000_000L + i * 7 + market, VALUE);
+            }
+            return map;
+        }));
+        report("ConcurrentHashMap<Long, V>", entries, measure(markets, market -> {
+            Map<Long, Object> map = new ConcurrentHashMap<>();
+            for (long i = 0; i < items; i++) {
+                map.put(128_000_000L + i * 7 + market, VALUE);
+            }
+            return map;
+        }));
+        report("ConcurrentLongObjectMap<V>", entries, measure(markets, market -> {
+            ConcurrentLongObjectMap<Object> map = new ConcurrentLongObjectMap<>();
+            for (long i = 0; i < items; i++) {
+                map.put(128_000_000L + i * 7 + market, VALUE);
+            }
+            return map;
+        }));
+    }
+
+    /**
+     * @return bytes retained by {@code markets} maps built by the factory.
+     */
+    static long measure(int markets, IntFunction<Object> factory) {
+        long before = usedHeap();
+        List<Object> retained = new ArrayList<>(markets);
+        for (int m = 0; m < markets; m++) {
+            retained.add(factory.apply(m));
+        }
+        long after = usedHeap();
+        if (retained.size() != markets) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static void report(String layout, long entries, long bytes) {
+        System.out.printf("%-28s %8.1f MiB  %6.1f bytes/entry%n",
+                layout, bytes / (1024.0 * 1024.0), (double) bytes / entries);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
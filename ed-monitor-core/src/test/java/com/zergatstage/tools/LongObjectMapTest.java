@@ -0,0 +1,198 @@
+package com.zergatstage.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongObjectMapTest {
+
+    private static final int MASK = 7;
+
+    @Test
+    void collidingKeysWrapAroundTheEndOfTheTable() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        assertEquals(MASK + 1, map.capacity());
+        long[] last = keysWithSlot(MASK, 3);
+
+        for (long key : last) {
+            assertNull(map.put(key, "v" + key));
+        }
+
+        assertEquals(3, map.size());
+        for (long key : last) {
+            assertEquals("v" + key, map.get(key));
+        }
+        assertEquals("v" + last[1], map.put(last[1], "replaced"));
+        assertEquals("replaced", map.get(last[1]));
+        assertEquals(3, map.size());
+        assertNull(map.get(keysWithSlot(MASK, 4)[3]));
+    }
+
+    @Test
+    void removingInTheMiddleOfAProbeRunKeepsTheRestReachable() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        long[] last = keysWithSlot(MASK, 2);
+        long first = keysWithSlot(0, 1)[0];
+        long second = keysWithSlot(1, 1)[0];
+        // one run across the end of the table: last[0]@7, last[1]@0, first@1, second@2
+        map.put(last[0], "a");
+        map.put(last[1], "b");
+        map.put(first, "c");
+        map.put(second, "d");
+
+        assertEquals("b", map.remove(last[1]));
+
+        assertNull(map.get(last[1]));
+        assertEquals("a", map.get(last[0]));
+        assertEquals("c", map.get(first));
+        assertEquals("d", map.get(second));
+        assertEquals(3, map.size());
+        assertNull(map.remove(last[1]));
+        assertEquals("a", map.remove(last[0]));
+        assertEquals("c", map.get(first));
+        assertEquals("d", map.get(second));
+    }
+
+    @Test
+    void behavesLikeAHashMapAcrossResizesAndRemovals() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000) - 1_000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        assertTrue(map.capacity() > 1_000);
+        for (long key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        Map<Long, Long> iterated = new HashMap<>();
+        map.forEach((key, value) -> iterated.put(key, value));
+        assertEquals(expected, iterated);
+        assertEquals(expected.size(), map.keys().length);
+        assertEquals(expected.size(), map.values().size());
+    }
+
+    @Test
+    void copyIsIndependentOfTheOriginal() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+
+        LongObjectMap<String> copy = map.copy();
+        copy.put(3, "three");
+        copy.remove(1);
+        map.put(2, "deux");
+
+        assertEquals("one", map.get(1));
+        assertNull(map.get(3));
+        assertNull(copy.get(1));
+        assertEquals("two", copy.get(2));
+        assertEquals("three", copy.get(3));
+        for (int i = 10; i < 100; i++) {
+            copy.put(i, "n" + i);
+        }
+        assertEquals(2, map.size());
+        assertEquals(92, copy.size());
+    }
+
+    @Test
+    void computeRemovesTheEntryOnANullResult() {
+        LongObjectMap<Integer> map = new LongObjectMap<>();
+        map.put(1, 10);
+        map.put(2, 20);
+
+        assertNull(map.computeIfPresent(1, (key, current) -> null));
+        assertFalse(map.containsKey(1));
+        assertNull(map.compute(2, (key, current) -> null));
+        assertFalse(map.containsKey(2));
+        assertNull(map.compute(3, (key, current) -> null));
+        assertFalse(map.containsKey(3));
+        assertNull(map.computeIfPresent(4, (key, current) -> 1));
+        assertTrue(map.isEmpty());
+
+        assertEquals(5, map.compute(5, (key, current) -> current == null ? 5 : current + 1));
+        assertEquals(6, map.compute(5, (key, current) -> current == null ? 5 : current + 1));
+        assertEquals(60, map.computeIfPresent(5, (key, current) -> current * 10));
+        assertEquals(7, map.computeIfAbsent(7, key -> 7));
+        assertEquals(7, map.computeIfAbsent(7, key -> 8));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void concurrentReadersSeeStableKeysWhileWritersResizeAndShift() throws Exception {
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>();
+        int stable = 64;
+        for (long key = 0; key < stable; key++) {
+            map.put(key, "s" + key);
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch readersDone = new CountDownLatch(3);
+        for (int r = 0; r < 3; r++) {
+            new Thread(() -> {
+                try {
+                    while (writing.get() && failure.get() == null) {
+                        for (long key = 0; key < stable; key++) {
+                            String value = map.get(key);
+                            if (!("s" + key).equals(value)) {
+                                failure.set("key " + key + " read as " + value);
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    failure.set(e.toString());
+                } finally {
+                    readersDone.countDown();
+                }
+            }).start();
+        }
+
+        // growing keys resize the table again and again, removals shift probe runs back
+        for (long key = 1_000; key < 200_000; key++) {
+            map.put(key, "w");
+            if (key % 2 == 0) {
+                map.remove(key - 1);
+            }
+        }
+        writing.set(false);
+
+        assertTrue(readersDone.await(5, TimeUnit.SECONDS));
+        assertNull(failure.get());
+        assertEquals(stable + 99_501, map.size());
+        for (long key = 0; key < stable; key++) {
+            assertEquals("s" + key, map.get(key));
+        }
+    }
+
+    /**
+     * @return the first {@code count} non-negative keys whose home slot in a table of 8 is {@code slot}.
+     */
+    private static long[] keysWithSlot(int slot, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 0; found < count; key++) {
+            if (LongObjectMap.slot(key, MASK) == slot) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
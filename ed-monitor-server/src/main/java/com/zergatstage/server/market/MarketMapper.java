@@ -20,6 +20,7 @@ public class MarketMapper {
                 .stationName(dto.getStationName())
                 .stationType(dto.getStationType())
                 .systemName(dto.getSystemName())
+                .updatedMillis(dto.getUpdatedMillis())
                 .items(new HashMap<>())
                 .build();
 
@@ -59,6 +60,7 @@ public class MarketMapper {
         dto.setStationName(entity.getStationName());
         dto.setStationType(entity.getStationType());
         dto.setSystemName(entity.getSystemName());
+        dto.setUpdatedMillis(entity.getUpdatedMillis());
         List<MarketItemDto> items = entity.getItems().values().stream()
                 .map(MarketMapper::toDto)
                 .collect(Collectors.toList());
@@ -26,5 +26,8 @@ public class MarketDto {
 
     @Valid
     private List<MarketItemDto> items = new ArrayList<>();
+
+    /** When the game wrote the market data, in epoch milliseconds; null if unknown. */
+    private Long updatedMillis;
 }
 
@@ -2,15 +2,24 @@ package com.zergatstage;
 
 import com.zergatstage.monitor.MonitorController;
 import com.zergatstage.monitor.MonitorView;
+import com.zergatstage.monitor.component.LoadingWindow;
 import com.zergatstage.monitor.config.LogMonitorConfig;
+import com.zergatstage.monitor.factory.DefaultManagerFactory;
 import com.zergatstage.monitor.factory.MonitorServiceFactory;
 import com.zergatstage.monitor.factory.MonitorServiceFactoryImpl;
 import com.zergatstage.monitor.handlers.DefaultExitHandler;
+import com.zergatstage.monitor.service.AppRuntime;
+import com.zergatstage.monitor.service.CompanionFileWatcher;
 import com.zergatstage.monitor.service.JournalLogMonitor;
+import com.zergatstage.monitor.service.StartupPlan;
+import com.zergatstage.monitor.service.StartupPlan.Task;
 import com.zergatstage.monitor.service.StatusMonitor;
 import com.zergatstage.monitor.theme.ThemeManager;
 import lombok.extern.log4j.Log4j2;
+
+import javax.swing.SwingUtilities;
 import java.nio.file.Path;
+import java.util.concurrent.Executor;
 
 /**
  * @author S.Brusentsov
@@ -26,26 +35,58 @@ public class ClientApp {
 
         log.info("Debug enabled? {}", log.isDebugEnabled());
 
-        ThemeManager themeManager = ThemeManager.getInstance();
-        themeManager.initialize();
+        StartupPlan plan = new StartupPlan(LogMonitorConfig.firstFrameBudget());
+        Executor io = AppRuntime.getInstance().io();
+        Executor edt = SwingUtilities::invokeLater;
+        Path logDir = LogMonitorConfig.logDirectory();
 
-        // 2) hand it to the factory
-        MonitorServiceFactory factory =
-                new MonitorServiceFactoryImpl();
+        // 1) a window first: the theme and the loading window need nothing else
+        Task<ThemeManager> theme = plan.task("theme", edt, () -> {
+            ThemeManager themeManager = ThemeManager.getInstance();
+            themeManager.initialize();
+            return themeManager;
+        });
+        Task<LoadingWindow> loading = plan.task("loading-window", edt, () -> {
+            LoadingWindow window = LoadingWindow.show();
+            plan.firstFrame();
+            return window;
+        }, theme);
 
-        Path logDir = LogMonitorConfig.logDirectory();
+        // 2) meanwhile the managers (with the local store) and the journal services
+        Task<DefaultManagerFactory> managers = plan.task("managers", io, DefaultManagerFactory::getInstance);
+        MonitorServiceFactory factory = new MonitorServiceFactoryImpl();
+        Task<JournalLogMonitor> logService = plan.task("journal-handlers", io,
+                () -> factory.createLogService(logDir));
+        Task<CompanionFileWatcher> companionWatcher = plan.task("companion-watcher", io,
+                () -> factory.createCompanionWatcher(logDir));
+        Task<StatusMonitor> statusService = plan.task("status-monitor", io,
+                () -> factory.createStatusService(logDir), companionWatcher);
 
-        // 3) create services (they’ll share that scheduler)
-        JournalLogMonitor logService =
-                factory.createLogService(logDir);
-        StatusMonitor statusService =
-                factory.createStatusService(logDir);
+        // 3) the controller, the bundled market and the main window
+        Task<MonitorController> controller = plan.task("controller", io,
+                () -> new MonitorController(logService.get(), statusService.get(), companionWatcher.get(),
+                        new DefaultExitHandler()),
+                managers, logService, statusService, companionWatcher);
+        Task<Void> defaultMarket = plan.run("default-market", io, () -> controller.get().loadDefaultMarket(),
+                controller);
+        Task<MonitorView> view = plan.task("main-window", edt, () -> {
+            MonitorView monitorView = new MonitorView(controller.get(), logDir, theme.get());
+            loading.get().close();
+            return monitorView;
+        }, loading, defaultMarket);
 
-        // 4) pass services into your controller
-        MonitorController controller =
-                new MonitorController(logService, statusService, new DefaultExitHandler());
+        // 4) monitors and network last, so neither can delay the window
+        plan.run("monitors", io, () -> {
+            // registered after the local store, so queued events and checkpoints are handled before it closes
+            AppRuntime.getInstance().onShutdown("journal-services", factory::shutdown);
+            controller.get().startAll();
+        }, view);
+        plan.run("server-refresh", io, () -> managers.get().getMarketDataUpdateService().refreshFromServer(), view);
 
-        // 5) build the UI
-        new MonitorView(controller, logDir, themeManager);
+        if (!plan.await() && view.isFailed()) {
+            log.error("The main window could not be built, exiting");
+            AppRuntime.getInstance().shutdown();
+            System.exit(1);
+        }
     }
 }
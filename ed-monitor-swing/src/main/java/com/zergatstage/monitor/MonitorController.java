@@ -4,55 +4,74 @@ import java.awt.event.ActionEvent;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import com.zergatstage.ClientApp;
 import com.zergatstage.monitor.config.ServerManagementProperties;
 import com.zergatstage.monitor.factory.DefaultManagerFactory;
+import com.zergatstage.monitor.config.LogMonitorConfig;
 import com.zergatstage.monitor.handlers.ExitHandler;
+import com.zergatstage.monitor.service.AppRuntime;
+import com.zergatstage.monitor.service.CompanionFileWatcher;
 import com.zergatstage.monitor.service.JournalLogMonitor;
 import com.zergatstage.monitor.service.MarketDataIOService;
 import com.zergatstage.monitor.service.StatusMonitor;
 import com.zergatstage.monitor.service.managers.MarketDataUpdateEvent;
 import com.zergatstage.monitor.service.managers.MarketDataUpdateService;
+import com.zergatstage.monitor.service.readers.HashedRewriteFileReadStrategy;
+import com.zergatstage.monitor.service.telemetry.StatusTelemetry;
 import com.zergatstage.monitor.service.server.ServerCommandResult;
 import com.zergatstage.monitor.service.server.ServerLifecycleService;
 
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class MonitorController {
     private final JournalLogMonitor logService;
     private final StatusMonitor statusService;
+    private final CompanionFileWatcher companionWatcher;
     private final MarketDataIOService marketDataIOService;
     private final MarketDataUpdateService marketDataUpdateService;
-    @Getter
-    private final ScheduledExecutorService scheduler;
+    private final AppRuntime.Lane marketDataLane;
+    private final AtomicBoolean running = new AtomicBoolean(false);
     private final ExitHandler exitHandler;
     private final ServerLifecycleService serverLifecycleService;
 
     public MonitorController(JournalLogMonitor logService,
                              StatusMonitor statusService,
                              ExitHandler exitHandler) {
+        this(logService, statusService, new CompanionFileWatcher(LogMonitorConfig.logDirectory()), exitHandler);
+    }
+
+    /**
+     * @param companionWatcher watcher of the journal directory shared by Market.json, Status.json, Cargo.json, ...;
+     *                         started and stopped together with the journal monitor.
+     */
+    public MonitorController(JournalLogMonitor logService,
+                             StatusMonitor statusService,
+                             CompanionFileWatcher companionWatcher,
+                             ExitHandler exitHandler) {
 
         this.logService = logService;
         this.statusService = statusService;
+        this.companionWatcher = companionWatcher;
         this.exitHandler = exitHandler;
-        this.scheduler = Executors.newScheduledThreadPool(4);
+        this.marketDataLane = AppRuntime.getInstance().lane("market-data");
 
         Consumer<MarketDataUpdateEvent> marketConsumer = this::onMarketDataUpdate;
-        this.marketDataIOService = new MarketDataIOService(marketConsumer);
+        this.marketDataIOService = new MarketDataIOService(companionWatcher, new HashedRewriteFileReadStrategy(),
+                marketConsumer);
         marketDataUpdateService = DefaultManagerFactory.getInstance().getMarketDataUpdateService();
-        initCommodityRegisrtyOverMarketDataIOService();
         serverLifecycleService = new ServerLifecycleService(ServerManagementProperties.load());
     }
 
-    private void initCommodityRegisrtyOverMarketDataIOService() {
+    /**
+     * Feeds the bundled Market-default.json to the market service, so the commodity registry knows every
+     * commodity before the first Market.json is read. Call it before {@link #startAll()}.
+     */
+    public void loadDefaultMarket() {
         try (InputStream in = ClientApp.class
                 .getClassLoader()
                 .getResourceAsStream("Market-default.json")) {
@@ -69,14 +88,24 @@ public class MonitorController {
     public void startAll() {
         logService.startMonitoring();
         marketDataIOService.start();
-        Runtime.getRuntime().addShutdownHook(new Thread(this::stopAll));
+        statusService.start();
+        companionWatcher.start();
+        running.set(true);
+        AppRuntime.getInstance().onShutdown("monitor-controller", this::stopAll);
     }
 
+    /**
+     * Stops every monitor and the backend. Runs once per {@link #startAll()}, whether called on exit
+     * or by the runtime's shutdown.
+     */
     public void stopAll() {
-        scheduler.shutdownNow();
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
         logService.stopMonitoring();
         statusService.stop();
         marketDataIOService.stop();
+        companionWatcher.stop();
         stopBackendOnShutdown();
         serverLifecycleService.close();
     }
@@ -107,11 +136,17 @@ public class MonitorController {
         // TODO: replace with factory
 
         //marketDataUpdateService.onMarketDataUpdate(event);
-        scheduler.schedule(() -> marketDataUpdateService.onMarketDataUpdate(event)
-                , 0, TimeUnit.SECONDS);
+        marketDataLane.execute(() -> marketDataUpdateService.onMarketDataUpdate(event));
 
     }
 
+    /**
+     * @return the live ship status; reading it does not touch disk.
+     */
+    public StatusTelemetry getStatusTelemetry() {
+        return statusService.getTelemetry();
+    }
+
     public ServerLifecycleService getServerLifecycleService() {
         return serverLifecycleService;
     }
@@ -70,7 +70,6 @@ public class MonitorView {
         KeyBindingUtil.installDoubleEscapeToMinimize(frame);
 
         buildUI();
-        controller.startAll();
     }
 
     private void buildUI() {
@@ -13,6 +13,9 @@ import com.zergatstage.monitor.routes.ui.RouteOptimizerDialog;
 import com.zergatstage.monitor.routes.ui.RouteOptimizerModel;
 import com.zergatstage.monitor.service.ConstructionSiteManager;
 import com.zergatstage.monitor.service.ConstructionSiteUpdateListener;
+import com.zergatstage.monitor.service.SiteChange;
+import com.zergatstage.monitor.service.SiteSnapshot;
+import com.zergatstage.monitor.service.managers.CargoChange;
 import com.zergatstage.monitor.service.managers.CargoInventoryManager;
 import com.zergatstage.monitor.service.managers.MarketDataUpdateService;
 import com.zergatstage.monitor.theme.AppTheme;
@@ -29,6 +32,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The ConstructionSitePanel class provides a UI panel for managing
@@ -41,11 +45,19 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
 
     // zero-based column indices in commoditiesTable:
     private static final int MATERIAL_COL = 1;
+    private static final int REQUIRED_COL = 2;
+    private static final int IN_CARGO_COL = 3;
+    private static final int DELIVERED_COL = 4;
     private static final int REMAINING_COL = 5;  // adjust if your column order differs
+    private static final int PROGRESS_COL = 1;
     // Top table: site progress
     private final JTable siteProgressTable;
     private final DefaultTableModel siteProgressTableModel;
+    private final JTable commoditiesTable;
     private final DefaultTableModel commoditiesTableModel;
+    // model rows by market id and by commodity id, rebuilt whenever the rows are
+    private final Map<Long, Integer> siteRows = new LinkedHashMap<>();
+    private final Map<Long, Integer> commodityRows = new LinkedHashMap<>();
     private final ConstructionSiteManager siteManager;
     private final CargoInventoryManager cargoInventoryManager;
     private final MarketDataUpdateService marketDataService;
@@ -58,6 +70,8 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
     private JLabel remainingLabel;
     private JLabel estimatedRunsLabel;
     private JLabel capacityLabel;
+    private int totalDelivered;
+    private int totalRemaining;
     private static final int DEFAULT_CARGO_CAPACITY = 1298;
     private static final String ALL_SITES_LABEL = "All Sites";
     private static final String SELECTED_SITES_LABEL = "Selected Sites";
@@ -116,7 +130,7 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
             }
         };
         // Bottom table: commodities
-        JTable commoditiesTable = new JTable(commoditiesTableModel);
+        commoditiesTable = new JTable(commoditiesTableModel);
         commoditiesTable.setAutoCreateRowSorter(true);
         // apply our highlighter
         commoditiesTable.getColumnModel().getColumn(MATERIAL_COL)
@@ -184,10 +198,11 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
 
         add(controlPanel, BorderLayout.SOUTH);
 
-        // Register as a listener so that the panel updates when the siteManager data changes.
-        siteManager.addListener(() -> SwingUtilities.invokeLater(this::refreshAll));
-        cargoInventoryManager.addListener(() -> SwingUtilities.invokeLater(this::refreshAll));
-        marketDataService.addListener(() -> SwingUtilities.invokeLater(this::refreshAll));
+        // Listeners run on the EDT with the changes of a frame; only the affected rows are updated.
+        siteManager.addListener(this);
+        cargoInventoryManager.addCargoListener(this::onCargoChanged);
+        // market stock only changes the highlighting
+        marketDataService.addListener(commoditiesTable::repaint);
 
     }
 
@@ -249,8 +264,9 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
 
     private void populateCommoditiesTableForSite(String siteId) {
         commoditiesTableModel.setRowCount(0);
+        commodityRows.clear();
 
-        ConstructionSite site = siteManager.getSites().values().stream()
+        ConstructionSite site = siteManager.getSnapshot().sites().stream()
                 .filter(s -> s.getSiteId().equals(siteId))
                 .findFirst()
                 .orElse(null);
@@ -265,6 +281,7 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
                         req.getDeliveredQuantity(),
                         req.getRemainingQuantity()
                 };
+                commodityRows.put(req.getCommodity().getId(), commoditiesTableModel.getRowCount());
                 commoditiesTableModel.addRow(row);
             }
         }
@@ -272,6 +289,7 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
 
     private void populateAggregatedCommoditiesTable(Collection<ConstructionSite> sites, String siteLabel) {
         commoditiesTableModel.setRowCount(0);
+        commodityRows.clear();
 
         Map<Long, CommodityAggregate> aggregates = new LinkedHashMap<>();
         for (ConstructionSite site : sites) {
@@ -288,6 +306,7 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
         }
 
         for (CommodityAggregate aggregate : aggregates.values()) {
+            commodityRows.put(aggregate.item.getId(), commoditiesTableModel.getRowCount());
             commoditiesTableModel.addRow(new Object[]{
                     siteLabel,
                     aggregate.item,
@@ -314,15 +333,17 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
         suppressSiteSelectionEvents = true;
         try {
             siteProgressTableModel.setRowCount(0);
+            siteRows.clear();
             LinkedHashSet<String> previousSelection = new LinkedHashSet<>(selectedSiteIds);
             selectedSiteIds.clear();
             List<Integer> modelRowsToSelect = new ArrayList<>();
             int rowIndex = 0;
-            for (ConstructionSite site : siteManager.getSites().values()) {
+            for (ConstructionSite site : siteManager.getSnapshot().sites()) {
                 Object[] row = {
                         site.getSiteId(),
                         site.getProgressPercent()
                 };
+                siteRows.put(site.getMarketId(), rowIndex);
                 siteProgressTableModel.addRow(row);
                 if (previousSelection.contains(site.getSiteId())) {
                     selectedSiteIds.add(site.getSiteId());
@@ -350,7 +371,7 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
      */
     private void refreshCommoditiesTable() {
         if (selectedSiteIds.isEmpty()) {
-            populateAggregatedCommoditiesTable(siteManager.getSites().values(), ALL_SITES_LABEL);
+            populateAggregatedCommoditiesTable(siteManager.getSnapshot().sites(), ALL_SITES_LABEL);
         } else if (selectedSiteIds.size() == 1) {
             populateCommoditiesTableForSite(selectedSiteIds.iterator().next());
         } else {
@@ -367,6 +388,135 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
         refreshAll();
     }
 
+    /**
+     * Updates the rows of the changed requirements in place. Sites that were added, removed or renamed and
+     * requirements that appeared or went away change the rows themselves and refresh the tables.
+     */
+    @Override
+    public void onConstructionSiteChanged(List<SiteChange> changes) {
+        Set<Long> changedSites = new LinkedHashSet<>();
+        Set<Long> changedCommodities = new LinkedHashSet<>();
+        boolean rowsChanged = false;
+        for (SiteChange change : changes) {
+            switch (change) {
+                case SiteChange.RequirementChanged c -> {
+                    changedSites.add(c.marketId());
+                    changedCommodities.add(c.commodityId());
+                }
+                case SiteChange.RequirementAdded c -> {
+                    changedSites.add(c.marketId());
+                    rowsChanged = true;
+                }
+                case SiteChange.RequirementRemoved c -> {
+                    changedSites.add(c.marketId());
+                    rowsChanged = true;
+                }
+                case SiteChange.Added c -> {
+                    refreshAll();
+                    return;
+                }
+                case SiteChange.Removed c -> {
+                    refreshAll();
+                    return;
+                }
+                case SiteChange.Renamed c -> {
+                    refreshAll();
+                    return;
+                }
+            }
+        }
+        // the rows are read from the current snapshot, so a delta that a full refresh already showed is harmless
+        SiteSnapshot snapshot = siteManager.getSnapshot();
+        for (long marketId : changedSites) {
+            Integer row = siteRows.get(marketId);
+            ConstructionSite site = snapshot.get(marketId);
+            if (row == null || site == null) {
+                refreshAll();
+                return;
+            }
+            siteProgressTableModel.setValueAt(site.getProgressPercent(), row, PROGRESS_COL);
+        }
+        List<ConstructionSite> shown = shownSites(snapshot, changedSites);
+        if (shown.isEmpty()) {
+            return;
+        }
+        if (rowsChanged) {
+            refreshCommoditiesTable();
+            return;
+        }
+        Collection<ConstructionSite> scope;
+        if (selectedSiteIds.isEmpty()) {
+            scope = snapshot.sites();
+        } else if (selectedSiteIds.size() == 1) {
+            scope = shown;
+        } else {
+            scope = resolveSites(selectedSiteIds);
+        }
+        for (long commodityId : changedCommodities) {
+            if (!updateCommodityRow(scope, commodityId)) {
+                refreshCommoditiesTable();
+                return;
+            }
+        }
+        updateSummaryLabels();
+    }
+
+    /**
+     * Sets the In Cargo cell of the changed commodities.
+     */
+    private void onCargoChanged(List<CargoChange> changes) {
+        for (CargoChange change : changes) {
+            Integer row = commodityRows.get(change.commodityId());
+            if (row != null) {
+                commoditiesTableModel.setValueAt(change.after(), row, IN_CARGO_COL);
+            }
+        }
+    }
+
+    /**
+     * @return the changed sites that the commodities table shows.
+     */
+    private List<ConstructionSite> shownSites(SiteSnapshot snapshot, Collection<Long> marketIds) {
+        List<ConstructionSite> shown = new ArrayList<>();
+        for (long marketId : marketIds) {
+            ConstructionSite site = snapshot.get(marketId);
+            if (site != null && (selectedSiteIds.isEmpty() || selectedSiteIds.contains(site.getSiteId()))) {
+                shown.add(site);
+            }
+        }
+        return shown;
+    }
+
+    /**
+     * Recomputes one commodity row over the shown sites and adjusts the summary totals by the difference.
+     *
+     * @return false if the table has no row for the commodity.
+     */
+    private boolean updateCommodityRow(Collection<ConstructionSite> sites, long commodityId) {
+        Integer row = commodityRows.get(commodityId);
+        if (row == null) {
+            return false;
+        }
+        int required = 0;
+        int delivered = 0;
+        int remaining = 0;
+        for (ConstructionSite site : sites) {
+            for (MaterialRequirement req : site.getRequirements()) {
+                if (req.getCommodity() != null && req.getCommodity().getId() == commodityId) {
+                    required += req.getRequiredQuantity();
+                    delivered += req.getDeliveredQuantity();
+                    remaining += req.getRemainingQuantity();
+                }
+            }
+        }
+        totalDelivered += delivered - (Integer) commoditiesTableModel.getValueAt(row, DELIVERED_COL);
+        totalRemaining += remaining - (Integer) commoditiesTableModel.getValueAt(row, REMAINING_COL);
+        commoditiesTableModel.setValueAt(required, row, REQUIRED_COL);
+        commoditiesTableModel.setValueAt(delivered, row, DELIVERED_COL);
+        commoditiesTableModel.setValueAt(remaining, row, REMAINING_COL);
+        return true;
+    }
+
     private void populateMarketComboBox() {
         marketComboBox.removeAllItems();
         Arrays.stream(marketDataService.getAllMarkets()).toList()
@@ -435,11 +585,11 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
         }
     }
     private void updateSummaryPanel() {
-        int totalDelivered = 0;
-        int totalRemaining = 0;
+        totalDelivered = 0;
+        totalRemaining = 0;
 
         Collection<ConstructionSite> targetSites = selectedSiteIds.isEmpty()
-                ? siteManager.getSites().values()
+                ? siteManager.getSnapshot().sites()
                 : resolveSites(selectedSiteIds);
 
         for (ConstructionSite site : targetSites) {
@@ -448,7 +598,10 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
                 totalRemaining += req.getRemainingQuantity();
             }
         }
+        updateSummaryLabels();
+    }
 
+    private void updateSummaryLabels() {
         // Calculate estimated runs needed
         int estimatedRuns = (totalRemaining > 0) ?
                 (int) Math.ceil((double) totalRemaining / DEFAULT_CARGO_CAPACITY) : 0;
@@ -514,7 +667,7 @@ public class ConstructionSitePanel extends JPanel implements ConstructionSiteUpd
 
     private Collection<ConstructionSite> resolveSites(Collection<String> siteIds) {
         List<ConstructionSite> result = new ArrayList<>();
-        for (ConstructionSite site : siteManager.getSites().values()) {
+        for (ConstructionSite site : siteManager.getSnapshot().sites()) {
             if (siteIds.contains(site.getSiteId())) {
                 result.add(site);
             }
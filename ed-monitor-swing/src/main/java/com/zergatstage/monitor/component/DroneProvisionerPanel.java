@@ -74,8 +74,9 @@ public class DroneProvisionerPanel extends JPanel {
         // try to register as listener with managers if they expose typical addListener methods.
         // Uncomment/adapt to your manager API:
 //         asteroidManager.addListener(this::onAsteroidProspected);
-         asteroidManager.addListener(() -> SwingUtilities.invokeLater(this::onAsteroidProspected));
-         droneManager.addListener(() -> SwingUtilities.invokeLater(this::onDroneLaunched)); //addDroneListener(() -> onDroneLaunched());
+         // listeners already run on the EDT
+         asteroidManager.addListener(this::onAsteroidProspected);
+         droneManager.addListener(this::onDroneLaunched); //addDroneListener(() -> onDroneLaunched());
 
     }
 
@@ -0,0 +1,66 @@
+package com.zergatstage.monitor.component;
+
+import com.zergatstage.monitor.config.UiConstants;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Small window shown while the managers and monitors start, replaced by the main window once it is built.
+ * It depends on nothing but Swing, so it can appear before any service is loaded.
+ */
+@Slf4j
+public class LoadingWindow {
+
+    private final JFrame frame;
+
+    private LoadingWindow() {
+        frame = new JFrame(UiConstants.TITLE);
+        frame.setUndecorated(true);
+        frame.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        try (InputStream in = getClass().getResourceAsStream("/app-logo.png")) {
+            if (in != null) {
+                frame.setIconImage(ImageIO.read(in));
+            }
+        } catch (IOException e) {
+            log.debug("Application icon not loaded: {}", e.getMessage());
+        }
+
+        JPanel content = new JPanel(new BorderLayout(8, 8));
+        content.setBorder(BorderFactory.createEmptyBorder(16, 24, 16, 24));
+        JLabel title = new JLabel(UiConstants.TITLE);
+        title.setFont(title.getFont().deriveFont(Font.BOLD, title.getFont().getSize2D() + 2f));
+        JLabel stepLabel = new JLabel("Loading…");
+        JProgressBar progress = new JProgressBar();
+        progress.setIndeterminate(true);
+        content.add(title, BorderLayout.NORTH);
+        content.add(progress, BorderLayout.CENTER);
+        content.add(stepLabel, BorderLayout.SOUTH);
+
+        frame.setContentPane(content);
+        frame.setSize(360, 110);
+        frame.setLocationRelativeTo(null);
+    }
+
+    /**
+     * Creates and shows the window. Must be called on the EDT.
+     *
+     * @return the visible window.
+     */
+    public static LoadingWindow show() {
+        LoadingWindow window = new LoadingWindow();
+        window.frame.setVisible(true);
+        return window;
+    }
+
+    /**
+     * Closes the window. Must be called on the EDT.
+     */
+    public void close() {
+        frame.dispose();
+    }
+}
@@ -1,9 +1,13 @@
 package com.zergatstage.monitor.config;
 
+import com.zergatstage.monitor.service.managers.MarketCache;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Configuration class for the LogMonitor and related beans.
@@ -25,4 +29,106 @@ public class LogMonitorConfig {
         return Paths.get(System.getProperty("user.home"),
                 "Saved Games", "Frontier Developments", "Elite Dangerous");
     }
+
+    /**
+     * Whether older journals are replayed on startup before the latest one is tailed.
+     * Enabled with {@code -Ded.journal.backfill=true}.
+     *
+     * @return true if historical backfill is enabled.
+     */
+    public static boolean backfillEnabled() {
+        return Boolean.getBoolean("ed.journal.backfill");
+    }
+
+    /**
+     * Directory for the application's own state, such as journal read checkpoints.
+     * Defaults to {@code ~/.ed-monitor}; override with {@code -Ded.monitor.home=<dir>}.
+     *
+     * @return the application data directory (not necessarily existing yet).
+     */
+    public static Path appDataDirectory() {
+        String override = System.getProperty("ed.monitor.home");
+        if (override != null && !override.isBlank()) {
+            return Paths.get(override);
+        }
+        return Paths.get(System.getProperty("user.home"), ".ed-monitor");
+    }
+
+    /**
+     * Where the journal monitor records how far it has read.
+     * Checkpointing is switched off with {@code -Ded.journal.checkpoint=false}.
+     *
+     * @return the checkpoint file, or null if checkpointing is disabled.
+     */
+    public static Path journalCheckpointFile() {
+        if (!Boolean.parseBoolean(System.getProperty("ed.journal.checkpoint", "true"))) {
+            return null;
+        }
+        return appDataDirectory().resolve("journal.checkpoint");
+    }
+
+    /**
+     * Where this session's Status.json changes are recorded, one file per application start; older sessions
+     * are pruned down to {@link #statusRecordingsKept()}.
+     * Recording is switched off with {@code -Ded.status.recording=false}.
+     *
+     * @return the recording file, or null if recording is disabled.
+     */
+    public static Path statusRecordingFile() {
+        if (!Boolean.parseBoolean(System.getProperty("ed.status.recording", "true"))) {
+            return null;
+        }
+        String session = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return appDataDirectory().resolve("telemetry").resolve("status-" + session + ".bin");
+    }
+
+    /**
+     * How many session recordings of Status.json are kept, the current one included;
+     * {@code -Ded.status.recording.keep=<n>}, default 10, 0 keeps all of them.
+     *
+     * @return the number of recordings to keep.
+     */
+    public static int statusRecordingsKept() {
+        return Integer.getInteger("ed.status.recording.keep", 10);
+    }
+
+    /**
+     * How many markets the market cache keeps; {@code -Ded.market.cache.size=<n>}, default 500.
+     *
+     * @return the maximum number of cached markets.
+     */
+    public static int marketCacheSize() {
+        return Integer.getInteger("ed.market.cache.size", MarketCache.DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * How long a market stays cached without an update; {@code -Ded.market.cache.maxAgeHours=<h>}, default 7 days.
+     *
+     * @return the maximum age of a cached market.
+     */
+    public static Duration marketCacheMaxAge() {
+        return Duration.ofHours(Long.getLong("ed.market.cache.maxAgeHours", MarketCache.DEFAULT_MAX_AGE.toHours()));
+    }
+
+    /**
+     * Where the markets and construction sites are kept between sessions.
+     * The store is switched off with {@code -Ded.store=false}.
+     *
+     * @return the store directory, or null if the store is disabled.
+     */
+    public static Path localStoreDirectory() {
+        if (!Boolean.parseBoolean(System.getProperty("ed.store", "true"))) {
+            return null;
+        }
+        return appDataDirectory().resolve("store");
+    }
+
+    /**
+     * How long the first window may take to appear after start; {@code -Ded.startup.firstFrameMs=<ms>}, default 500.
+     *
+     * @return the time-to-first-frame budget.
+     */
+    public static Duration firstFrameBudget() {
+        return Duration.ofMillis(Long.getLong("ed.startup.firstFrameMs", 500));
+    }
 }
@@ -0,0 +1,89 @@
+package com.zergatstage.monitor.events;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Typed model of the journal events ed-monitor subscribes to.
+ * <p>
+ * Instances are produced by {@link JournalEventDecoder} straight from the raw journal line, so handlers
+ * that accept typed events never see an {@code org.json} tree. Field names follow the journal keys
+ * (see Docs/EVENT_TYPES.md); numeric fields that are absent from the line default to {@code -1}
+ * unless noted otherwise, string and list fields to {@code null}.
+ * </p>
+ */
+public sealed interface JournalEvent {
+
+    /**
+     * @return the event's journal timestamp, or null if the line had none.
+     */
+    Instant timestamp();
+
+    /** Full cargo snapshot: {@code "event":"Cargo"}. */
+    record Cargo(Instant timestamp, String vessel, int count, List<CargoItem> inventory) implements JournalEvent {
+    }
+
+    /** One {@code Inventory} entry of a {@link Cargo} snapshot. */
+    record CargoItem(String name, String nameLocalised, int count, int stolen) {
+    }
+
+    /** Cargo moved between ship and fleet carrier: {@code "event":"CargoTransfer"}. */
+    record CargoTransfer(Instant timestamp, List<Transfer> transfers) implements JournalEvent {
+    }
+
+    /** One {@code Transfers} entry of a {@link CargoTransfer}. */
+    record Transfer(String type, String typeLocalised, int count, String direction) {
+    }
+
+    /** Commodity bought on a market: {@code "event":"MarketBuy"}. */
+    record MarketBuy(Instant timestamp, long marketId, String type, String typeLocalised, int count,
+                     long buyPrice, long totalCost) implements JournalEvent {
+    }
+
+    /** Commodity sold on a market: {@code "event":"MarketSell"}. */
+    record MarketSell(Instant timestamp, long marketId, String type, String typeLocalised, int count,
+                      long sellPrice, long totalSale) implements JournalEvent {
+    }
+
+    /** Ship fitting summary: {@code "event":"Loadout"}. */
+    record Loadout(Instant timestamp, String ship, int shipId, String shipName, int cargoCapacity)
+            implements JournalEvent {
+    }
+
+    /**
+     * Construction depot status snapshot: {@code "event":"ColonisationConstructionDepot"}.
+     *
+     * @param siteName the first non-blank of {@code StationName}, {@code ConstructionSite}, {@code Body}
+     *                 and {@code Name}, or null.
+     */
+    record ColonisationConstructionDepot(Instant timestamp, long marketId, double constructionProgress,
+                                         boolean constructionComplete, boolean constructionFailed,
+                                         List<Resource> resourcesRequired, String siteName) implements JournalEvent {
+    }
+
+    /** One {@code ResourcesRequired} entry of a {@link ColonisationConstructionDepot}. */
+    record Resource(String name, String nameLocalised, int requiredAmount, int providedAmount, long payment) {
+    }
+
+    /** Commodities handed in at a construction depot: {@code "event":"ColonisationContribution"}. */
+    record ColonisationContribution(Instant timestamp, long marketId, List<Contribution> contributions)
+            implements JournalEvent {
+    }
+
+    /** One {@code Contributions} entry of a {@link ColonisationContribution}. */
+    record Contribution(String name, String nameLocalised, int amount) {
+    }
+
+    /** Prospector limpet result: {@code "event":"ProspectedAsteroid"}. */
+    record ProspectedAsteroid(Instant timestamp, List<Material> materials, String content, double remaining)
+            implements JournalEvent {
+    }
+
+    /** One {@code Materials} entry of a {@link ProspectedAsteroid}. */
+    record Material(String name, double proportion) {
+    }
+
+    /** A limpet was launched: {@code "event":"LaunchDrone"}. */
+    record LaunchDrone(Instant timestamp, String type) implements JournalEvent {
+    }
+}
@@ -0,0 +1,440 @@
+package com.zergatstage.monitor.events;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes journal lines into {@link JournalEvent} records with Jackson's streaming parser.
+ * <p>
+ * Only the fields of the target record are read; everything else is skipped token by token,
+ * so no intermediate tree is built. The event type is supplied by the caller (the journal
+ * monitor already knows it from the pre-filter), which keeps decoding independent of the
+ * position of the {@code "event"} key.
+ * </p>
+ */
+public final class JournalEventDecoder {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final Map<String, Decoder> DECODERS = Map.of(
+            "Cargo", JournalEventDecoder::cargo,
+            "CargoTransfer", JournalEventDecoder::cargoTransfer,
+            "MarketBuy", JournalEventDecoder::marketBuy,
+            "MarketSell", JournalEventDecoder::marketSell,
+            "Loadout", JournalEventDecoder::loadout,
+            "ColonisationConstructionDepot", JournalEventDecoder::constructionDepot,
+            "ColonisationContribution", JournalEventDecoder::contribution,
+            "ProspectedAsteroid", JournalEventDecoder::prospectedAsteroid,
+            "LaunchDrone", JournalEventDecoder::launchDrone
+    );
+
+    private JournalEventDecoder() {
+    }
+
+    /**
+     * @param eventType a journal event name.
+     * @return true if lines of this type can be decoded into a {@link JournalEvent}.
+     */
+    public static boolean supports(String eventType) {
+        return DECODERS.containsKey(eventType);
+    }
+
+    /**
+     * Decodes one journal line.
+     *
+     * @param eventType the line's event name.
+     * @param line      the JSON line.
+     * @return the typed event, or null if the type is not supported.
+     * @throws IOException if the line is not a valid JSON object.
+     */
+    public static JournalEvent decode(String eventType, String line) throws IOException {
+        Decoder decoder = DECODERS.get(eventType);
+        if (decoder == null) {
+            return null;
+        }
+        try (JsonParser parser = FACTORY.createParser(line)) {
+            return decodeObject(decoder, parser);
+        }
+    }
+
+    /**
+     * Decodes one UTF-8 encoded journal line without materializing it as a string.
+     *
+     * @param eventType the line's event name.
+     * @param buffer    buffer holding the line.
+     * @param offset    index of the first byte of the line.
+     * @param length    number of bytes in the line.
+     * @return the typed event, or null if the type is not supported.
+     * @throws IOException if the line is not a valid JSON object.
+     */
+    public static JournalEvent decode(String eventType, byte[] buffer, int offset, int length) throws IOException {
+        Decoder decoder = DECODERS.get(eventType);
+        if (decoder == null) {
+            return null;
+        }
+        try (JsonParser parser = FACTORY.createParser(buffer, offset, length)) {
+            return decodeObject(decoder, parser);
+        }
+    }
+
+    /**
+     * Converts an already parsed event, for callers that still work with {@code org.json}.
+     *
+     * @param eventType the event name.
+     * @param json      the parsed event.
+     * @return the typed event, or null if the type is not supported.
+     * @throws IllegalArgumentException if the event cannot be decoded.
+     */
+    public static JournalEvent fromJson(String eventType, JSONObject json) {
+        try {
+            return decode(eventType, json.toString());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot decode " + eventType + " event: " + e.getMessage(), e);
+        }
+    }
+
+    private static JournalEvent decodeObject(Decoder decoder, JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Journal line is not a JSON object");
+        }
+        return decoder.decode(parser);
+    }
+
+    private static JournalEvent.Cargo cargo(JsonParser p) throws IOException {
+        Instant timestamp = null;
+        String vessel = null;
+        int count = -1;
+        List<JournalEvent.CargoItem> inventory = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = instant(p);
+                case "Vessel" -> vessel = p.getValueAsString();
+                case "Count" -> count = p.getValueAsInt(-1);
+                case "Inventory" -> inventory = array(p, JournalEventDecoder::cargoItem);
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.Cargo(timestamp, vessel, count, inventory);
+    }
+
+    private static JournalEvent.CargoItem cargoItem(JsonParser p) throws IOException {
+        String name = null;
+        String nameLocalised = null;
+        int count = 0;
+        int stolen = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "Name" -> name = p.getValueAsString();
+                case "Name_Localised" -> nameLocalised = p.getValueAsString();
+                case "Count" -> count = p.getValueAsInt();
+                case "Stolen" -> stolen = p.getValueAsInt();
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.CargoItem(name, nameLocalised, count, stolen);
+    }
+
+    private static JournalEvent.CargoTransfer cargoTransfer(JsonParser p) throws IOException {
+        Instant timestamp = null;
+        List<JournalEvent.Transfer> transfers = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = instant(p);
+                case "Transfers" -> transfers = array(p, JournalEventDecoder::transfer);
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.CargoTransfer(timestamp, transfers);
+    }
+
+    private static JournalEvent.Transfer transfer(JsonParser p) throws IOException {
+        String type = null;
+        String typeLocalised = null;
+        int count = 0;
+        String direction = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "Type" -> type = p.getValueAsString();
+                case "Type_Localised" -> typeLocalised = p.getValueAsString();
+                case "Count" -> count = p.getValueAsInt();
+                case "Direction" -> direction = p.getValueAsString();
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.Transfer(type, typeLocalised, count, direction);
+    }
+
+    private static JournalEvent.MarketBuy marketBuy(JsonParser p) throws IOException {
+        Instant timestamp = null;
+        long marketId = -1;
+        String type = null;
+        String typeLocalised = null;
+        int count = -1;
+        long price = -1;
+        long total = -1;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = instant(p);
+                case "MarketID" -> marketId = p.getValueAsLong(-1);
+                case "Type" -> type = p.getValueAsString();
+                case "Type_Localised" -> typeLocalised = p.getValueAsString();
+                case "Count" -> count = p.getValueAsInt(-1);
+                case "BuyPrice" -> price = p.getValueAsLong(-1);
+                case "TotalCost" -> total = p.getValueAsLong(-1);
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.MarketBuy(timestamp, marketId, type, typeLocalised, count, price, total);
+    }
+
+    private static JournalEvent.MarketSell marketSell(JsonParser p) throws IOException {
+        Instant timestamp = null;
+        long marketId = -1;
+        String type = null;
+        String typeLocalised = null;
+        int count = -1;
+        long price = -1;
+        long total = -1;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = instant(p);
+                case "MarketID" -> marketId = p.getValueAsLong(-1);
+                case "Type" -> type = p.getValueAsString();
+                case "Type_Localised" -> typeLocalised = p.getValueAsString();
+                case "Count" -> count = p.getValueAsInt(-1);
+                case "SellPrice" -> price = p.getValueAsLong(-1);
+                case "TotalSale" -> total = p.getValueAsLong(-1);
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.MarketSell(timestamp, marketId, type, typeLocalised, count, price, total);
+    }
+
+    private static JournalEvent.Loadout loadout(JsonParser p) throws IOException {
+        Instant timestamp = null;
+        String ship = null;
+        int shipId = -1;
+        String shipName = null;
+        int cargoCapacity = -1;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = instant(p);
+                case "Ship" -> ship = p.getValueAsString();
+                case "ShipID" -> shipId = p.getValueAsInt(-1);
+                case "ShipName" -> shipName = p.getValueAsString();
+                case "CargoCapacity" -> cargoCapacity = p.getValueAsInt(-1);
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.Loadout(timestamp, ship, shipId, shipName, cargoCapacity);
+    }
+
+    private static JournalEvent.ColonisationConstructionDepot constructionDepot(JsonParser p) throws IOException {
+        Instant timestamp = null;
+        long marketId = -1;
+        double progress = 0.0;
+        boolean complete = false;
+        boolean failed = false;
+        List<JournalEvent.Resource> resources = null;
+        // site name candidates in order of preference
+        String[] names = new String[4];
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = instant(p);
+                case "MarketID" -> marketId = p.getValueAsLong(-1);
+                case "ConstructionProgress" -> progress = p.getValueAsDouble();
+                case "ConstructionComplete" -> complete = p.getValueAsBoolean();
+                case "ConstructionFailed" -> failed = p.getValueAsBoolean();
+                case "ResourcesRequired" -> resources = array(p, JournalEventDecoder::resource);
+                case "StationName" -> names[0] = p.getValueAsString();
+                case "ConstructionSite" -> names[1] = p.getValueAsString();
+                case "Body" -> names[2] = p.getValueAsString();
+                case "Name" -> names[3] = p.getValueAsString();
+                default -> p.skipChildren();
+            }
+        }
+        String siteName = null;
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                siteName = name.trim();
+                break;
+            }
+        }
+        return new JournalEvent.ColonisationConstructionDepot(timestamp, marketId, progress, complete, failed,
+                resources, siteName);
+    }
+
+    private static JournalEvent.Resource resource(JsonParser p) throws IOException {
+        String name = null;
+        String nameLocalised = null;
+        int required = 0;
+        int provided = 0;
+        long payment = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "Name" -> name = p.getValueAsString();
+                case "Name_Localised" -> nameLocalised = p.getValueAsString();
+                case "RequiredAmount" -> required = p.getValueAsInt();
+                case "ProvidedAmount" -> provided = p.getValueAsInt();
+                case "Payment" -> payment = p.getValueAsLong();
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.Resource(name, nameLocalised, required, provided, payment);
+    }
+
+    private static JournalEvent.ColonisationContribution contribution(JsonParser p) throws IOException {
+        Instant timestamp = null;
+        long marketId = -1;
+        List<JournalEvent.Contribution> contributions = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = instant(p);
+                case "MarketID" -> marketId = p.getValueAsLong(-1);
+                case "Contributions" -> contributions = array(p, JournalEventDecoder::contributionItem);
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.ColonisationContribution(timestamp, marketId, contributions);
+    }
+
+    private static JournalEvent.Contribution contributionItem(JsonParser p) throws IOException {
+        String name = null;
+        String nameLocalised = null;
+        int amount = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "Name" -> name = p.getValueAsString();
+                case "Name_Localised" -> nameLocalised = p.getValueAsString();
+                case "Amount" -> amount = p.getValueAsInt();
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.Contribution(name, nameLocalised, amount);
+    }
+
+    private static JournalEvent.ProspectedAsteroid prospectedAsteroid(JsonParser p) throws IOException {
+        Instant timestamp = null;
+        List<JournalEvent.Material> materials = null;
+        String content = null;
+        double remaining = -1;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = instant(p);
+                case "Materials" -> materials = array(p, JournalEventDecoder::material);
+                case "Content" -> content = p.getValueAsString();
+                case "Remaining" -> remaining = p.getValueAsDouble(-1);
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.ProspectedAsteroid(timestamp, materials, content, remaining);
+    }
+
+    private static JournalEvent.Material material(JsonParser p) throws IOException {
+        String name = null;
+        double proportion = 0.0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "Name" -> name = p.getValueAsString();
+                case "Proportion" -> proportion = p.getValueAsDouble();
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.Material(name, proportion);
+    }
+
+    private static JournalEvent.LaunchDrone launchDrone(JsonParser p) throws IOException {
+        Instant timestamp = null;
+        String type = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = instant(p);
+                case "Type" -> type = p.getValueAsString();
+                default -> p.skipChildren();
+            }
+        }
+        return new JournalEvent.LaunchDrone(timestamp, type);
+    }
+
+    /**
+     * Reads an array of objects; the parser must be positioned on the array's first token.
+     *
+     * @return the decoded elements, or null if the value is not an array.
+     */
+    private static <T> List<T> array(JsonParser p, ElementDecoder<T> element) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return null;
+        }
+        List<T> items = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() == JsonToken.START_OBJECT) {
+                items.add(element.decode(p));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    private static Instant instant(JsonParser p) throws IOException {
+        String text = p.getValueAsString();
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        JournalEvent decode(JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementDecoder<T> {
+        T decode(JsonParser parser) throws IOException;
+    }
+}
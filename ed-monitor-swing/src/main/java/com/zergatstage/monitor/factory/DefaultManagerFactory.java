@@ -1,5 +1,6 @@
 package com.zergatstage.monitor.factory;
 
+import com.zergatstage.monitor.config.LogMonitorConfig;
 import com.zergatstage.monitor.service.managers.AsteroidManager;
 import com.zergatstage.monitor.service.CommodityRegistry;
 import com.zergatstage.monitor.service.ConstructionSiteManager;
@@ -7,8 +8,11 @@ import com.zergatstage.monitor.service.managers.DroneManager;
 import com.zergatstage.monitor.service.managers.MarketDataParser;
 import com.zergatstage.monitor.service.managers.MarketDataUpdateService;
 import com.zergatstage.monitor.service.MarketDataHttpService;
+import com.zergatstage.monitor.service.store.LocalStore;
 import lombok.Getter;
 
+import java.nio.file.Path;
+
 @Getter
 public class DefaultManagerFactory implements ManagerFactory {
 
@@ -19,6 +23,7 @@ public class DefaultManagerFactory implements ManagerFactory {
     private final CommodityRegistry commodityRegistry;
     private final MarketDataParser marketDataParser;
     private final MarketDataUpdateService marketDataUpdateService;
+    private final LocalStore localStore;
 
     public static  DefaultManagerFactory getInstance() {
         if (instance == null) {
@@ -41,17 +46,35 @@ public class DefaultManagerFactory implements ManagerFactory {
         this.marketDataUpdateService = new MarketDataUpdateService(
                this.commodityRegistry,
                 this.getMarketDataParser());
+        this.localStore = openLocalStore();
 
         String baseUrl = System.getProperty("ed.server.baseUrl", System.getenv().getOrDefault("ED_SERVER_BASE_URL", "http://localhost:8080"));
         try {
             this.marketDataUpdateService.setHttpService(new MarketDataHttpService(baseUrl));
             // Hook up construction site HTTP sync (every ~10s inside manager)
             this.constructionSiteManager.setHttpService(new com.zergatstage.monitor.service.ConstructionSitesHttpService(baseUrl));
-            // Initial pull from server to populate cache after restart (best-effort)
-            this.marketDataUpdateService.refreshFromServer();
+            // the initial pull from the server runs after the first frame, see ClientApp
         } catch (IllegalArgumentException ignored) {
             // Invalid base URL provided; proceed without HTTP sync.
         }
     }
 
+    /**
+     * Restores the markets and construction sites of the last session, so they are available before
+     * (and without) the server.
+     *
+     * @return the started store, or null if it is disabled.
+     */
+    private LocalStore openLocalStore() {
+        Path directory = LogMonitorConfig.localStoreDirectory();
+        if (directory == null) {
+            return null;
+        }
+        LocalStore store = new LocalStore(directory);
+        store.load();
+        this.marketDataUpdateService.restore(store.markets());
+        this.constructionSiteManager.restore(store.constructionSites());
+        store.start();
+        return store;
+    }
 }
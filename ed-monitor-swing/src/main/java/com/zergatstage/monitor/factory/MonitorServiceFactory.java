@@ -1,5 +1,6 @@
 package com.zergatstage.monitor.factory;
 
+import com.zergatstage.monitor.service.CompanionFileWatcher;
 import com.zergatstage.monitor.service.JournalLogMonitor;
 import com.zergatstage.monitor.service.StatusMonitor;
 
@@ -8,4 +9,10 @@ import java.nio.file.Path;
 public interface MonitorServiceFactory {
     JournalLogMonitor createLogService(Path logDirectory);
     StatusMonitor createStatusService(Path logDirectory);
+    CompanionFileWatcher createCompanionWatcher(Path logDirectory);
+
+    /**
+     * Stops the shared services and handles the events still queued for them.
+     */
+    void shutdown() throws InterruptedException;
 }
@@ -1,38 +1,33 @@
 package com.zergatstage.monitor.factory;
 
+import com.zergatstage.monitor.config.LogMonitorConfig;
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
+import com.zergatstage.monitor.handlers.CargoInventoryEventHandler;
 import com.zergatstage.monitor.handlers.HandlerConfiguration;
 import com.zergatstage.monitor.handlers.LogEventHandler;
+import com.zergatstage.monitor.service.CompanionFileWatcher;
 import com.zergatstage.monitor.service.JournalLogMonitor;
+import com.zergatstage.monitor.service.ShardedEventDispatcher;
 import com.zergatstage.monitor.service.StatusMonitor;
+import com.zergatstage.monitor.service.readers.HashedRewriteFileReadStrategy;
+import com.zergatstage.monitor.service.telemetry.StatusRecorder;
+import com.zergatstage.monitor.service.telemetry.StatusTelemetry;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 @Log4j2
 public class MonitorServiceFactoryImpl implements MonitorServiceFactory {
-    private final ExecutorService cargoExecutor;
-    private final ExecutorService generalExecutor;
-    int treadCount = 0;
+    private static final Duration CARGO_DEBOUNCE = Duration.ofMillis(50);
+    private final ShardedEventDispatcher dispatcher;
+    private CompanionFileWatcher companionWatcher;
     public MonitorServiceFactoryImpl() {
-        // Single‐threaded executor to process *all* cargo events in strict order:
-        this.cargoExecutor   = Executors.newSingleThreadExecutor(r -> {
-            Thread t = new Thread(r, "cargo‐processor");
-            t.setDaemon(true);
-            return t;
-        });
-        // A pool for everything else:
-        this.generalExecutor = Executors.newFixedThreadPool(
-
-                1,//Math.max(Runtime.getRuntime().availableProcessors() - 10, 4), // leave some threads for UI
-                r -> {
-                    Thread t = new Thread(r, "general‐worker-" + treadCount++);
-                    t.setDaemon(true);
-                    return t;
-                }
-        );
+        // Events are handled in order per key (ship for cargo, market for construction sites),
+        // independent keys run in parallel on one shard per core
+        this.dispatcher = new ShardedEventDispatcher();
     }
 
     @Override
@@ -40,34 +35,60 @@ public class MonitorServiceFactoryImpl implements MonitorServiceFactory {
         Map<String, LogEventHandler> handlers = HandlerConfiguration.getLogEventHandlers();
         return new JournalLogMonitor(
                 logDirectory,
-                // inject a dispatcher that picks the right executor per event:
-
                 handlers,
-                (eventJson, handler) -> {
-                    if (handler.isCargoRelated()) {
-                        cargoExecutor.execute(() -> {
-                            log.debug("Dispatching cargo event: {}", handler.getEventType());
-                            handler.handleEvent(eventJson);}
-                        );
-                    } else {
-                        generalExecutor.execute(() -> handler.handleEvent(eventJson));
-                    }
-                }
+                dispatcher
         );
     }
 
     @Override
     public StatusMonitor createStatusService(Path logDirectory) {
+        // recorded under the application's own directory, never into the game's journal folder
+        Path recording = LogMonitorConfig.statusRecordingFile();
         return new StatusMonitor(
-                logDirectory.resolve("Status.json"),
-                logDirectory.resolve("Journal.log")
+                createCompanionWatcher(logDirectory),
+                new StatusTelemetry(recording == null ? null : new StatusRecorder(recording,
+                        LogMonitorConfig.statusRecordingsKept()))
         );
     }
 
+    /**
+     * Returns the watcher shared by all companion files of the journal directory, creating it on first use.
+     * Cargo.json is subscribed right away: it carries the full cargo snapshot that the journal's
+     * {@code Cargo} event often omits, and is fed to the same handler on the ship's dispatcher shard.
+     */
+    @Override
+    public synchronized CompanionFileWatcher createCompanionWatcher(Path logDirectory) {
+        if (companionWatcher != null) {
+            if (!companionWatcher.getDirectory().equals(logDirectory)) {
+                throw new IllegalStateException("Companion files are already watched in "
+                        + companionWatcher.getDirectory());
+            }
+            return companionWatcher;
+        }
+        companionWatcher = new CompanionFileWatcher(logDirectory);
+        CargoInventoryEventHandler cargoHandler = new CargoInventoryEventHandler();
+        companionWatcher.subscribe("Cargo.json", new HashedRewriteFileReadStrategy(), CARGO_DEBOUNCE, content -> {
+            try {
+                JournalEvent snapshot = JournalEventDecoder.decode(cargoHandler.getEventType(), content);
+                if (snapshot != null) {
+                    dispatcher.dispatch(snapshot, cargoHandler);
+                }
+            } catch (IOException e) {
+                log.warn("Unreadable Cargo.json: {}", e.getMessage());
+            }
+        });
+        return companionWatcher;
+    }
+
+    public ShardedEventDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    @Override
     public void shutdown() throws InterruptedException {
-        cargoExecutor.shutdown();
-        generalExecutor.shutdown();
-        cargoExecutor.awaitTermination(5, TimeUnit.SECONDS);
-        generalExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        if (companionWatcher != null) {
+            companionWatcher.stop();
+        }
+        dispatcher.shutdown();
     }
 }
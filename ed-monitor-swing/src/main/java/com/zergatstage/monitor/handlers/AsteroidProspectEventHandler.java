@@ -1,5 +1,7 @@
 package com.zergatstage.monitor.handlers;
 
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
 import org.json.JSONObject;
 
 import com.zergatstage.monitor.service.managers.AsteroidManager;
@@ -8,7 +10,7 @@ import com.zergatstage.monitor.service.managers.AsteroidManager;
  * The AsteroidProspectEventHandler handles "ProspectedAsteroid" events by extracting material information
  * and updating the asteroid prospecting label with color-coded feedback based on Tritium levels.
  */
-public class AsteroidProspectEventHandler implements LogEventHandler {
+public class AsteroidProspectEventHandler implements TypedEventHandler {
 
     private final AsteroidManager asteroidManager;
 
@@ -25,12 +27,21 @@ public class AsteroidProspectEventHandler implements LogEventHandler {
     @Override
     public void handleEvent(JSONObject event) {
         try {
-            if (event.has("Materials")) {
-                asteroidManager.updateProspectingLabel(event);
-            }
+            handle(JournalEventDecoder.fromJson(getEventType(), event));
         } catch (Exception e) {
             System.err.println("Error processing asteroid prospect event: " + e.getMessage());
         }
+    }
+
+    @Override
+    public HandlerPriority getPriority() {
+        return HandlerPriority.REALTIME;
+    }
 
+    @Override
+    public void handle(JournalEvent event) {
+        if (event instanceof JournalEvent.ProspectedAsteroid prospected && prospected.materials() != null) {
+            asteroidManager.updateProspectingLabel(prospected);
+        }
     }
 }
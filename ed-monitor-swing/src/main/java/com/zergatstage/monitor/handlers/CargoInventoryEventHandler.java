@@ -1,11 +1,15 @@
 package com.zergatstage.monitor.handlers;
 
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
 import com.zergatstage.monitor.service.managers.CargoInventoryManager;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONObject;
 
+import java.util.List;
+
 @Slf4j
-public class CargoInventoryEventHandler implements LogEventHandler{
+public class CargoInventoryEventHandler implements TypedEventHandler {
 
     private final CargoInventoryManager cargoInventoryManager;
 
@@ -28,6 +32,11 @@ public class CargoInventoryEventHandler implements LogEventHandler{
         return true;
     }
 
+    @Override
+    public boolean isSnapshot() {
+        return true;
+    }
+
     /**
      * Processes the given log event.
      * "event":"Cargo", "Vessel":"Ship", "Count":1232, "Inventory":[]
@@ -35,9 +44,27 @@ public class CargoInventoryEventHandler implements LogEventHandler{
      */
     @Override
     public void handleEvent(JSONObject event) {
-        if (event.has("Inventory")) {
-            cargoInventoryManager.setCargoFromSnapshot(event);
+        handle(JournalEventDecoder.fromJson(getEventType(), event));
+    }
+
+    @Override
+    public void handle(JournalEvent event) {
+        if (event instanceof JournalEvent.Cargo cargo && cargo.inventory() != null) {
+            cargoInventoryManager.setCargoFromSnapshot(cargo);
             cargoInventoryManager.notifyListeners();
         }
     }
+
+    /**
+     * Every snapshot replaces the previous one, so only the latest complete snapshot is applied.
+     */
+    @Override
+    public void handleBatch(List<JournalEvent> events) {
+        for (int i = events.size() - 1; i >= 0; i--) {
+            if (events.get(i) instanceof JournalEvent.Cargo cargo && cargo.inventory() != null) {
+                handle(cargo);
+                return;
+            }
+        }
+    }
 }
@@ -1,19 +1,21 @@
 package com.zergatstage.monitor.handlers;
 
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
 import com.zergatstage.monitor.service.CommodityRegistry;
 import com.zergatstage.monitor.service.managers.CargoInventoryManager;
 import com.zergatstage.monitor.service.ConstructionSiteManager;
 import com.zergatstage.tools.CommodityHelper;
 import lombok.extern.log4j.Log4j2;
-import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.List;
+
 /**
  * Handles cargo update events and updates the construction site requirements.
  */
 @Log4j2
-public class CargoUpdateEventHandler implements LogEventHandler {
+public class CargoUpdateEventHandler implements TypedEventHandler {
 
     private final CargoInventoryManager cargoInventoryManager;
     private final CommodityRegistry commodityRegistry;
@@ -40,41 +42,59 @@ public class CargoUpdateEventHandler implements LogEventHandler {
 
     @Override
     public void handleEvent(JSONObject event) {
+        handle(JournalEventDecoder.fromJson(getEventType(), event));
+    }
+
+    @Override
+    public void handle(JournalEvent event) {
+        if (apply(event)) {
+            cargoInventoryManager.notifyListeners();
+        }
+    }
 
+    /**
+     * Applies several transfers to the cargo and notifies listeners once.
+     */
+    @Override
+    public void handleBatch(List<JournalEvent> events) {
+        boolean changed = false;
+        for (JournalEvent event : events) {
+            changed |= apply(event);
+        }
+        if (changed) {
+            cargoInventoryManager.notifyListeners();
+        }
+    }
 
+    private boolean apply(JournalEvent event) {
         if (!cargoInventoryManager.getShipVariant().isCargoStateKnown()) {
             log.warn("Cargo state is unknown, cannot handle CargoTransfer event.");
-            return;
+            return false;
         }
-        String material;
-        long commodityId;
-        int quantity;
-        CargoTransferDirection direction;
-        try {
-            // Extract the "Transfers" array from the event JSON object sw
-            JSONArray transfers = event.getJSONArray("Transfers");
-
-            // Assuming the first element in the transfers array holds the relevant cargo details.
-            JSONObject transfer = transfers.getJSONObject(0);
-
-            material = transfer.getString("Type");
-            String materialName = CommodityHelper.normalizeSystemName(material);
-            commodityId = commodityRegistry.findCommodityId(materialName, null);
-            quantity = transfer.getInt("Count");
-            direction = transfer.getString("Direction")
-                    .equalsIgnoreCase("tocarrier") ? CargoTransferDirection.TO_CARRIER
-                                                                : CargoTransferDirection.TO_SHIP;
-            //cargoInventoryManager.modifyCargoAmount();
-            log.info("Trying to update site commodities list...");
-            if (direction == CargoTransferDirection.TO_SHIP) {
-                cargoInventoryManager.modifyCargoAmount(commodityId, quantity);
-            } else {
-                cargoInventoryManager.modifyCargoAmount(commodityId, -quantity);
-            }
-        } catch (JSONException e) {
-            throw new RuntimeException(e);
+        if (!(event instanceof JournalEvent.CargoTransfer cargoTransfer)
+                || cargoTransfer.transfers() == null || cargoTransfer.transfers().isEmpty()) {
+            log.warn("CargoTransfer event without transfers: {}", event);
+            return false;
+        }
+        // Assuming the first element in the transfers array holds the relevant cargo details.
+        JournalEvent.Transfer transfer = cargoTransfer.transfers().get(0);
+        if (transfer.type() == null || transfer.direction() == null) {
+            log.warn("Incomplete CargoTransfer entry: {}", transfer);
+            return false;
         }
 
+        String materialName = CommodityHelper.normalizeSystemName(transfer.type());
+        long commodityId = commodityRegistry.findCommodityId(materialName, null);
+        int quantity = transfer.count();
+        CargoTransferDirection direction = transfer.direction()
+                .equalsIgnoreCase("tocarrier") ? CargoTransferDirection.TO_CARRIER
+                                                : CargoTransferDirection.TO_SHIP;
+        log.info("Trying to update site commodities list...");
+        if (direction == CargoTransferDirection.TO_SHIP) {
+            return cargoInventoryManager.applyCargoDelta(commodityId, quantity);
+        } else {
+            return cargoInventoryManager.applyCargoDelta(commodityId, -quantity);
+        }
     }
 }
 
@@ -1,20 +1,15 @@
 package com.zergatstage.monitor.handlers;
 
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
 import com.zergatstage.monitor.service.ConstructionSiteManager;
 import lombok.extern.log4j.Log4j2;
-import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.zip.CRC32;
-
 
 @Log4j2
-public class ColonisationConstructionDepot implements LogEventHandler {
+public class ColonisationConstructionDepot implements TypedEventHandler {
     private final ConstructionSiteManager siteManager;
-    private final Map<Long, Long> lastFingerprints = new ConcurrentHashMap<>();
     public ColonisationConstructionDepot() {
         siteManager =  ConstructionSiteManager.getInstance();
     }
@@ -38,29 +33,39 @@ public class ColonisationConstructionDepot implements LogEventHandler {
     @Override
     public void handleEvent(JSONObject event) {
         try {
-            if (!event.has("MarketID")) {
-                log.warn("There is no any required attributes (StationName, MarketID)");
-                return;
-            }
-            long marketId = event.getLong("MarketID");
-            long currFingerprint = computeFingerprint(event);
-            if (currFingerprint == lastFingerprints.getOrDefault(marketId, -1L)) {
-                log.trace("\tskip line processing due the non-unique fingerprint ");
-                return;
-            }
-
-            log.debug("Event: ColonisationConstructionDepot -> MarketId: {}, fingerprint: {}", marketId, currFingerprint);
-            siteManager.updateSite(marketId, event);
-            lastFingerprints.put(marketId, currFingerprint);
-        }catch (JSONException e) {
-            log.error("An error with parsing JSON at {}: {}",event, e.getMessage());
+            handle(JournalEventDecoder.fromJson(getEventType(), event));
+        } catch (IllegalArgumentException e) {
+            log.error("An error with parsing JSON at {}: {}", event, e.getMessage());
         }
     }
 
-    private long computeFingerprint(JSONObject event) throws JSONException {
-        CRC32 crc = new CRC32();
-        crc.update(event.getJSONArray("ResourcesRequired").toString().getBytes(StandardCharsets.UTF_8));
-        crc.update(Long.toString(event.getLong("MarketID")).getBytes(StandardCharsets.UTF_8));
-        return crc.getValue();
+    /**
+     * The game repeats identical depot snapshots while docked; the journal monitor drops them
+     * before they reach this handler.
+     */
+    @Override
+    public boolean isSnapshot() {
+        return true;
+    }
+
+    /**
+     * Processes a depot snapshot.
+     *
+     * @param event the decoded depot event.
+     */
+    @Override
+    public void handle(JournalEvent event) {
+        if (!(event instanceof JournalEvent.ColonisationConstructionDepot depot) || depot.marketId() < 0) {
+            log.warn("There is no any required attributes (StationName, MarketID)");
+            return;
+        }
+        if (depot.resourcesRequired() == null) {
+            log.error("An error with parsing depot event at {}: no ResourcesRequired", depot);
+            return;
+        }
+        long marketId = depot.marketId();
+        log.debug("Event: ColonisationConstructionDepot -> MarketId: {}, resources: {}",
+                marketId, depot.resourcesRequired().size());
+        siteManager.updateSite(marketId, depot);
     }
 }
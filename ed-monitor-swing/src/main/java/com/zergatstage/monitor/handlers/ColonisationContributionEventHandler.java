@@ -1,14 +1,17 @@
 package com.zergatstage.monitor.handlers;
 
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
 import com.zergatstage.monitor.factory.DefaultManagerFactory;
 import com.zergatstage.monitor.service.managers.CargoInventoryManager;
 import com.zergatstage.monitor.service.CommodityRegistry;
 import lombok.extern.log4j.Log4j2;
-import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.util.List;
+
 @Log4j2
-public class ColonisationContributionEventHandler implements LogEventHandler {
+public class ColonisationContributionEventHandler implements TypedEventHandler {
 
     private final CargoInventoryManager cargoInventoryManager;
     private final CommodityRegistry commodityRegistry;
@@ -40,25 +43,46 @@ public class ColonisationContributionEventHandler implements LogEventHandler {
      */
     @Override
     public void handleEvent(JSONObject event) {
-        if (event.has("Contributions")){
-            int amount;
+        try {
+            handle(JournalEventDecoder.fromJson(getEventType(), event));
+        } catch (IllegalArgumentException e) {
+            log.error("Error processing Colonisation Contribution event: {}", e.getMessage());
+        }
+    }
 
-            try {
-                JSONArray contributions = event.getJSONArray("Contributions");
-                for (int i = 0; i < contributions.length(); i++) {
-                    amount = contributions.getJSONObject(i).getInt("Amount");
-                    String commodityName = contributions.getJSONObject(i).getString("Name");
-                    long commodityId = commodityRegistry.findCommodityId(commodityName,"");
-                    int finalAmount = amount * -1;
-                    //update the cargo inventory
-                    if (cargoInventoryManager.getShipVariant() != null && cargoInventoryManager.getShipVariant().isCargoStateKnown()) {
-                        cargoInventoryManager.modifyCargoAmount(commodityId,finalAmount);
-                    }
+    @Override
+    public void handle(JournalEvent event) {
+        apply(event);
+        cargoInventoryManager.notifyListeners();
+    }
+
+    /**
+     * Removes the contributed commodities of several events from the cargo and notifies listeners once.
+     */
+    @Override
+    public void handleBatch(List<JournalEvent> events) {
+        for (JournalEvent event : events) {
+            apply(event);
+        }
+        cargoInventoryManager.notifyListeners();
+    }
+
+    private void apply(JournalEvent event) {
+        if (!(event instanceof JournalEvent.ColonisationContribution contribution)
+                || contribution.contributions() == null) {
+            return;
+        }
+        try {
+            for (JournalEvent.Contribution item : contribution.contributions()) {
+                long commodityId = commodityRegistry.findCommodityId(item.name(), "");
+                int finalAmount = item.amount() * -1;
+                //update the cargo inventory
+                if (cargoInventoryManager.getShipVariant() != null && cargoInventoryManager.getShipVariant().isCargoStateKnown()) {
+                    cargoInventoryManager.applyCargoDelta(commodityId, finalAmount);
                 }
-            } catch (Exception e) {
-                log.error("Error processing Colonisation Contribution event: {}", e.getMessage());
             }
-            cargoInventoryManager.notifyListeners();
+        } catch (Exception e) {
+            log.error("Error processing Colonisation Contribution event: {}", e.getMessage());
         }
     }
 }
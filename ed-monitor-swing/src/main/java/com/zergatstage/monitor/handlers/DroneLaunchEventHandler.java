@@ -1,13 +1,17 @@
 package com.zergatstage.monitor.handlers;
 
 import com.zergatstage.monitor.service.managers.DroneManager;
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
+import lombok.extern.log4j.Log4j2;
 import org.json.JSONObject;
 
 /**
  * The DroneLaunchEventHandler handles "LaunchDrone" events by updating UI labels.
  * Decoupled from any specific frame implementation.
  */
-public class DroneLaunchEventHandler implements LogEventHandler {
+@Log4j2
+public class DroneLaunchEventHandler implements TypedEventHandler {
 
 
     private final DroneManager droneManager;
@@ -29,12 +33,24 @@ public class DroneLaunchEventHandler implements LogEventHandler {
     @Override
     public void handleEvent(JSONObject event) {
         try {
-            String droneType = event.getString("Type");
-            boolean isProspector = "Prospector".equals(droneType);
-            droneManager.updateDroneStatus(isProspector);
-
+            handle(JournalEventDecoder.fromJson(getEventType(), event));
         } catch (Exception e) {
-            System.err.println("Error processing drone launch event: " + e.getMessage());
+            log.error("Error processing drone launch event: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public HandlerPriority getPriority() {
+        return HandlerPriority.REALTIME;
+    }
+
+    @Override
+    public void handle(JournalEvent event) {
+        if (!(event instanceof JournalEvent.LaunchDrone launch) || launch.type() == null) {
+            log.warn("Skipping drone launch event: no drone type");
+            return;
         }
+        boolean isProspector = "Prospector".equals(launch.type());
+        droneManager.updateDroneStatus(isProspector);
     }
 }
\ No newline at end of file
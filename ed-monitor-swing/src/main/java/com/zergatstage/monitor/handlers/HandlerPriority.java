@@ -0,0 +1,17 @@
+package com.zergatstage.monitor.handlers;
+
+/**
+ * How urgently a handler's events must reach the UI.
+ */
+public enum HandlerPriority {
+    /**
+     * Alerts the pilot acts on within the same second, such as prospector results. Handled one by one on
+     * a dedicated lane, never batched, and their notifications go to the EDT without coalescing.
+     * Handlers must be quick and must not depend on the order of events of other handlers.
+     */
+    REALTIME,
+    /**
+     * Everything else: ordered per key on the dispatcher shards, batched and coalesced under load.
+     */
+    NORMAL
+}
@@ -1,9 +1,13 @@
 package com.zergatstage.monitor.handlers;
 
 import com.zergatstage.monitor.service.managers.CargoInventoryManager;
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
+import lombok.extern.log4j.Log4j2;
 import org.json.JSONObject;
 
-public class LoadoutEventHandler implements LogEventHandler {
+@Log4j2
+public class LoadoutEventHandler implements TypedEventHandler {
 
     private final CargoInventoryManager cargoInventoryManager;
 
@@ -33,14 +37,20 @@ public class LoadoutEventHandler implements LogEventHandler {
     @Override
     public void handleEvent(JSONObject event) {
         try {
-            if (!event.has("Ship") || !event.has("ShipName") || !event.has("CargoCapacity") || !event.has("ShipID")) {
-                throw new IllegalArgumentException("Missing required attributes in Loadout event");
-            }
-            cargoInventoryManager.initShip(event);
+            handle(JournalEventDecoder.fromJson(getEventType(), event));
         } catch (IllegalArgumentException e) {
-            System.err.println("Error processing Loadout event: " + e.getMessage());
+            log.error("Error processing Loadout event: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void handle(JournalEvent event) {
+        if (!(event instanceof JournalEvent.Loadout loadout) || loadout.ship() == null || loadout.shipName() == null
+                || loadout.cargoCapacity() < 0 || loadout.shipId() < 0) {
+            log.warn("Skipping Loadout event: missing required attributes");
             return;
         }
+        cargoInventoryManager.initShip(loadout);
         cargoInventoryManager.notifyListeners();
     }
 }
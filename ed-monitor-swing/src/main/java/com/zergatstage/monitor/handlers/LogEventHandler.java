@@ -22,4 +22,24 @@ public interface LogEventHandler {
      * @param event the JSON object representing the log event.
      */
     void handleEvent(JSONObject event);
+
+    /**
+     * How urgently events of this type must reach the UI.
+     *
+     * @return {@link HandlerPriority#REALTIME} for time-critical alerts; {@link HandlerPriority#NORMAL} by default.
+     */
+    default HandlerPriority getPriority() {
+        return HandlerPriority.NORMAL;
+    }
+
+    /**
+     * Whether every event of this type carries the complete state of its subject, so that a line identical
+     * to the previous one (apart from its timestamp) changes nothing. The journal monitor drops such repeats
+     * before parsing them, see {@link com.zergatstage.monitor.service.EventDeduplicator}.
+     *
+     * @return true for snapshot events such as {@code Cargo}; false for events that record an action.
+     */
+    default boolean isSnapshot() {
+        return false;
+    }
 }
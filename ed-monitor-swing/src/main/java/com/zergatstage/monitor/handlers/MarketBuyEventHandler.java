@@ -1,16 +1,19 @@
 package com.zergatstage.monitor.handlers;
 
 import com.zergatstage.domain.dictionary.Commodity;
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
 import com.zergatstage.monitor.factory.DefaultManagerFactory;
 import com.zergatstage.monitor.service.managers.CargoInventoryManager;
 import com.zergatstage.monitor.service.CommodityRegistry;
 import com.zergatstage.tools.CommodityHelper;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.List;
+
 @Slf4j
-public class MarketBuyEventHandler implements LogEventHandler{
+public class MarketBuyEventHandler implements TypedEventHandler {
 
     private final CargoInventoryManager cargoInventoryManager;
     private final CommodityRegistry commodityRegistry;
@@ -42,18 +45,48 @@ public class MarketBuyEventHandler implements LogEventHandler{
     @Override
     public void handleEvent(JSONObject event) {
         try {
-            if (cargoInventoryManager.getShipVariant().isCargoStateKnown()){
-                String commodityType = event.getString("Type");
-                String commodityKey = event.optString("Type_Localised",
-                        CommodityHelper.normalizeSystemName(commodityType));
-                int amount = event.getInt("Count");
-                long commodityId = commodityRegistry.findCommodityId(commodityType, commodityKey);
-                Commodity commodity = commodityRegistry.getCommodityById(commodityId);
-                cargoInventoryManager.addCommodityToCargo(commodity, amount);
-                cargoInventoryManager.notifyListeners();
-            }
-        } catch (JSONException e) {
+            handle(JournalEventDecoder.fromJson(getEventType(), event));
+        } catch (IllegalArgumentException e) {
             log.error("Error processing Market Buy event: {}", e.getMessage());
         }
     }
+
+    @Override
+    public void handle(JournalEvent event) {
+        if (apply(event)) {
+            cargoInventoryManager.notifyListeners();
+        }
+    }
+
+    /**
+     * Applies a run of trades to the cargo and notifies listeners once.
+     */
+    @Override
+    public void handleBatch(List<JournalEvent> events) {
+        boolean changed = false;
+        for (JournalEvent event : events) {
+            changed |= apply(event);
+        }
+        if (changed) {
+            cargoInventoryManager.notifyListeners();
+        }
+    }
+
+    private boolean apply(JournalEvent event) {
+        if (!cargoInventoryManager.getShipVariant().isCargoStateKnown()) {
+            return false;
+        }
+        if (!(event instanceof JournalEvent.MarketBuy trade) || trade.type() == null || trade.count() < 0) {
+            log.error("Error processing Market Buy event: missing Type or Count in {}", event);
+            return false;
+        }
+        String commodityType = trade.type();
+        String commodityKey = trade.typeLocalised() != null ? trade.typeLocalised()
+                : CommodityHelper.normalizeSystemName(commodityType);
+        int amount = trade.count();
+        long commodityId = commodityRegistry.findCommodityId(commodityType, commodityKey);
+        Commodity commodity = commodityRegistry.getCommodityById(commodityId);
+        cargoInventoryManager.addCommodityToCargo(commodity, amount);
+        return true;
+    }
 }
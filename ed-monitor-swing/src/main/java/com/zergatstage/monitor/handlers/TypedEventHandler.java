@@ -0,0 +1,34 @@
+package com.zergatstage.monitor.handlers;
+
+import com.zergatstage.monitor.events.JournalEvent;
+
+import java.util.List;
+
+/**
+ * A {@link LogEventHandler} that takes {@link JournalEvent} records instead of JSON objects.
+ * The journal monitor decodes the events of such handlers with the streaming decoder and never builds
+ * a JSON tree; {@link #handleEvent} is only used for lines the decoder does not understand.
+ */
+public interface TypedEventHandler extends LogEventHandler {
+
+    /**
+     * Processes the given typed log event.
+     *
+     * @param event the decoded journal event.
+     */
+    void handle(JournalEvent event);
+
+    /**
+     * Processes several consecutive typed events of this handler's type at once, in journal order.
+     * Dispatchers use it for events that queued up together, e.g. a run of {@code MarketBuy} lines;
+     * handlers can override it to apply them as one state change with a single listener notification.
+     * The default calls {@link #handle(JournalEvent)} for each event.
+     *
+     * @param events the decoded events; the list is only valid for the duration of the call.
+     */
+    default void handleBatch(List<JournalEvent> events) {
+        for (JournalEvent event : events) {
+            handle(event);
+        }
+    }
+}
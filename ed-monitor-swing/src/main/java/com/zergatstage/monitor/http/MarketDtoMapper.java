@@ -16,6 +16,7 @@ public class MarketDtoMapper {
         dto.setStationName(market.getStationName());
         dto.setStationType(market.getStationType());
         dto.setSystemName(market.getSystemName());
+        dto.setUpdatedMillis(market.getUpdatedMillis());
         List<MarketItemDto> items = market.getItems().values().stream()
                 .map(MarketDtoMapper::toDto)
                 .collect(Collectors.toList());
@@ -40,6 +41,7 @@ public class MarketDtoMapper {
                 .stationName(dto.getStationName())
                 .stationType(dto.getStationType())
                 .systemName(dto.getSystemName())
+                .updatedMillis(dto.getUpdatedMillis())
                 .items(new java.util.HashMap<>())
                 .build();
         for (MarketItemDto itemDto : dto.getItems()) {
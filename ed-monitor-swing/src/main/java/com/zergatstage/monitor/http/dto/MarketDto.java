@@ -16,5 +16,6 @@ public class MarketDto {
     private String stationType;
     private String systemName;
     private List<MarketItemDto> items = new ArrayList<>();
+    private Long updatedMillis;
 }
 
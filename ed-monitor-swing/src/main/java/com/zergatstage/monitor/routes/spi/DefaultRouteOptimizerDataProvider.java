@@ -101,7 +101,8 @@ public class DefaultRouteOptimizerDataProvider implements RouteOptimizerDataProv
                     market.getStationName(),
                     market.getStationType(),
                     market.getSystemName(),
-                    new ArrayList<>(matchingItems)
+                    new ArrayList<>(matchingItems),
+                    market.getUpdatedMillis()
                 ));
             }
         }
@@ -6,13 +6,14 @@ import com.zergatstage.monitor.routes.dto.RouteOptimizationRequest;
 import com.zergatstage.monitor.routes.dto.RoutePlanDto;
 import com.zergatstage.monitor.routes.service.RouteOptimizationService;
 import com.zergatstage.monitor.routes.spi.RouteOptimizerDataProvider;
+import com.zergatstage.monitor.service.AppRuntime;
 
 import javax.swing.SwingUtilities;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 /**
@@ -25,13 +26,15 @@ public class RouteOptimizerController {
     private final RouteOptimizerModel model;
     private final RouteOptimizerDataProvider dataProvider;
     private final RouteOptimizationService optimizationService;
-    private final ExecutorService executorService;
+    private final Executor loadExecutor;
+    private final Executor planExecutor;
     private Consumer<Throwable> errorHandler = throwable -> {
         throwable.printStackTrace();
     };
 
     /**
-     * Creates a controller with default background execution.
+     * Creates a controller that loads data on a virtual-thread lane and runs the optimizer on a CPU lane
+     * of the {@link AppRuntime}.
      *
      * @param model                model backing the UI
      * @param dataProvider         facade that supplies construction site and market data
@@ -41,11 +44,8 @@ public class RouteOptimizerController {
                                     RouteOptimizerDataProvider dataProvider,
                                     RouteOptimizationService optimizationService) {
         this(model, dataProvider, optimizationService,
-            Executors.newSingleThreadExecutor(r -> {
-                Thread t = new Thread(r, "route-optimizer-controller");
-                t.setDaemon(true);
-                return t;
-            }));
+            AppRuntime.getInstance().lane("route-optimizer-load"),
+            AppRuntime.getInstance().cpuLane("route-optimizer"));
     }
 
     /**
@@ -55,10 +55,19 @@ public class RouteOptimizerController {
                              RouteOptimizerDataProvider dataProvider,
                              RouteOptimizationService optimizationService,
                              ExecutorService executorService) {
+        this(model, dataProvider, optimizationService, executorService, executorService);
+    }
+
+    private RouteOptimizerController(RouteOptimizerModel model,
+                                     RouteOptimizerDataProvider dataProvider,
+                                     RouteOptimizationService optimizationService,
+                                     Executor loadExecutor,
+                                     Executor planExecutor) {
         this.model = Objects.requireNonNull(model, "model");
         this.dataProvider = Objects.requireNonNull(dataProvider, "dataProvider");
         this.optimizationService = Objects.requireNonNull(optimizationService, "optimizationService");
-        this.executorService = Objects.requireNonNull(executorService, "executorService");
+        this.loadExecutor = Objects.requireNonNull(loadExecutor, "loadExecutor");
+        this.planExecutor = Objects.requireNonNull(planExecutor, "planExecutor");
     }
 
     /**
@@ -76,7 +85,7 @@ public class RouteOptimizerController {
      * @param constructionSiteId identifier of the site to load
      */
     public void loadConstructionSite(long constructionSiteId) {
-        executorService.submit(() -> {
+        loadExecutor.execute(() -> {
             try {
                 ConstructionSiteDto site = dataProvider.loadConstructionSite(constructionSiteId);
                 if (site == null) {
@@ -119,7 +128,7 @@ public class RouteOptimizerController {
             handleError(new IllegalStateException("Select a construction site before planning routes."));
             return;
         }
-        executorService.submit(() -> {
+        planExecutor.execute(() -> {
             try {
                 RoutePlanDto plan = optimizationService.buildRoutePlan(requestSnapshot);
                 SwingUtilities.invokeLater(() -> model.setRoutePlan(plan));
@@ -133,7 +142,16 @@ public class RouteOptimizerController {
      * Stops internal background processing. Should be invoked when the UI is disposed.
      */
     public void shutdown() {
-        executorService.shutdownNow();
+        stop(loadExecutor);
+        stop(planExecutor);
+    }
+
+    private static void stop(Executor executor) {
+        if (executor instanceof AppRuntime.Lane lane) {
+            lane.close();
+        } else if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
     }
 
     private void handleError(Throwable throwable) {
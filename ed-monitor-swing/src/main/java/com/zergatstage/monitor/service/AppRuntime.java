@@ -0,0 +1,354 @@
+package com.zergatstage.monitor.service;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The client's one managed runtime for background work.
+ * <ul>
+ *     <li>a single platform timer thread fires every delayed and periodic task, but never runs one;</li>
+ *     <li>blocking work (HTTP, file reads, watch loops) runs on virtual threads;</li>
+ *     <li>CPU-bound work runs on a fixed pool with one platform thread per core;</li>
+ *     <li>{@link Lane}s run the tasks of one component one at a time and in order, on either of them,
+ *     replacing the single-thread executors each component used to create;</li>
+ *     <li>components register what must be closed, and {@link #shutdown()} closes it in reverse order
+ *     before stopping the threads. A JVM shutdown hook calls it if the application did not.</li>
+ * </ul>
+ * {@link #summary()} describes all of it in one place.
+ */
+@Log4j2
+public final class AppRuntime {
+
+    private static volatile AppRuntime instance;
+
+    private final ScheduledThreadPoolExecutor timer;
+    private final ExecutorService virtualThreads;
+    private final ThreadPoolExecutor cpu;
+    private final Set<Lane> lanes = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private final Map<String, AutoCloseable> closeables = new LinkedHashMap<>();
+    private final Set<Thread> loops = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean shutdown = new AtomicBoolean(false);
+    private final AtomicInteger activeIo = new AtomicInteger();
+    private final LongAdder ioTasks = new LongAdder();
+
+    public static AppRuntime getInstance() {
+        if (instance == null) {
+            synchronized (AppRuntime.class) {
+                if (instance == null) {
+                    instance = new AppRuntime();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Use {@link #getInstance()}; separate instances are for tests.
+     */
+    AppRuntime() {
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "app-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        virtualThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 0).factory());
+        AtomicInteger cpuThreads = new AtomicInteger();
+        int cores = Runtime.getRuntime().availableProcessors();
+        cpu = new ThreadPoolExecutor(cores, cores, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "cpu-" + cpuThreads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        cpu.allowCoreThreadTimeOut(true);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "app-runtime-shutdown"));
+    }
+
+    /**
+     * @return an executor that runs every task on its own virtual thread; for blocking I/O.
+     */
+    public Executor io() {
+        return this::runOnVirtualThread;
+    }
+
+    /**
+     * @return the shared pool of platform threads for CPU-bound work; never blocks on I/O.
+     */
+    public Executor cpu() {
+        return cpu;
+    }
+
+    /**
+     * @param name shown in thread names and {@link #summary()}.
+     * @return a new lane whose tasks run one at a time on virtual threads.
+     */
+    public Lane lane(String name) {
+        return register(new Lane(name, io()));
+    }
+
+    /**
+     * @param name shown in thread names and {@link #summary()}.
+     * @return a new lane whose tasks run one at a time on the CPU pool.
+     */
+    public Lane cpuLane(String name) {
+        return register(new Lane(name, cpu));
+    }
+
+    /**
+     * Starts a long-running loop, such as a watch service loop, on a named virtual thread.
+     *
+     * @return the thread, to interrupt it; listed in {@link #summary()} until the loop returns.
+     */
+    public Thread startThread(String name, Runnable loop) {
+        Thread thread = Thread.ofVirtual().name(name).unstarted(() -> {
+            try {
+                loop.run();
+            } finally {
+                loops.remove(Thread.currentThread());
+            }
+        });
+        loops.add(thread);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Registers something to close on {@link #shutdown()}. Registering a name again replaces the previous entry.
+     *
+     * @param name     shown in the shutdown log.
+     * @param resource closed in reverse registration order.
+     */
+    public void onShutdown(String name, AutoCloseable resource) {
+        synchronized (closeables) {
+            closeables.remove(name);
+            closeables.put(name, resource);
+        }
+    }
+
+    /**
+     * Closes every registered resource, newest first, then stops the timer and the thread pools.
+     * Calling it again has no effect.
+     */
+    public void shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return;
+        }
+        List<Map.Entry<String, AutoCloseable>> toClose;
+        synchronized (closeables) {
+            toClose = new ArrayList<>(closeables.entrySet());
+            closeables.clear();
+        }
+        Collections.reverse(toClose);
+        for (Map.Entry<String, AutoCloseable> entry : toClose) {
+            try {
+                entry.getValue().close();
+            } catch (Exception e) {
+                log.warn("Closing {} failed: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        log.info("Shutting down runtime: {}", summary());
+        timer.shutdownNow();
+        cpu.shutdownNow();
+        virtualThreads.shutdownNow();
+    }
+
+    public boolean isShutdown() {
+        return shutdown.get();
+    }
+
+    /**
+     * @return timer, lane, loop, pool and JVM thread figures on one line.
+     */
+    public String summary() {
+        List<String> laneSummaries = new ArrayList<>();
+        synchronized (lanes) {
+            for (Lane lane : lanes) {
+                laneSummaries.add(lane.summary());
+            }
+        }
+        List<String> loopNames = loops.stream().map(Thread::getName).sorted().toList();
+        return String.format("threads=%d, timer tasks=%d, io tasks=%d (active %d), cpu active=%d queued=%d, "
+                        + "lanes %s, loops %s, closeables=%d",
+                ManagementFactory.getThreadMXBean().getThreadCount(), timer.getQueue().size(), ioTasks.sum(),
+                activeIo.get(), cpu.getActiveCount(), cpu.getQueue().size(), laneSummaries, loopNames,
+                closeables.size());
+    }
+
+    private void runOnVirtualThread(Runnable task) {
+        ioTasks.increment();
+        virtualThreads.execute(() -> {
+            activeIo.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeIo.decrementAndGet();
+            }
+        });
+    }
+
+    private Lane register(Lane lane) {
+        lanes.add(lane);
+        return lane;
+    }
+
+    /**
+     * Runs its tasks one at a time, in submission order, on a shared executor; a lightweight replacement
+     * for a single-thread (scheduled) executor. Timed tasks are fired by the runtime's timer.
+     */
+    public final class Lane implements Executor, AutoCloseable {
+        private final String name;
+        private final Executor backing;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private final Set<ScheduledFuture<?>> timed = Collections.synchronizedSet(new HashSet<>());
+        private final LongAdder completed = new LongAdder();
+        private volatile boolean closed;
+
+        private Lane(String name, Executor backing) {
+            this.name = name;
+            this.backing = backing;
+        }
+
+        /**
+         * @throws RejectedExecutionException once the lane is closed.
+         */
+        @Override
+        public void execute(Runnable task) {
+            if (closed) {
+                throw new RejectedExecutionException("Lane " + name + " is closed");
+            }
+            tasks.add(task);
+            scheduleDrain();
+        }
+
+        /**
+         * Runs the task once after the delay; a zero or negative delay queues it as soon as the timer fires.
+         *
+         * @return the pending run; cancelling it before it is queued prevents the run.
+         */
+        public ScheduledFuture<?> schedule(Runnable task, Duration delay) {
+            long nanos = Math.max(0, delay.toNanos());
+            return track(timer.schedule(() -> submitQuietly(task), nanos, TimeUnit.NANOSECONDS));
+        }
+
+        /**
+         * Runs the task periodically. A run is skipped while the previous one is still queued or running,
+         * so a slow task never piles up.
+         */
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration initialDelay, Duration period) {
+            AtomicBoolean pending = new AtomicBoolean(false);
+            Runnable once = () -> {
+                try {
+                    task.run();
+                } finally {
+                    pending.set(false);
+                }
+            };
+            return track(timer.scheduleAtFixedRate(() -> {
+                if (pending.compareAndSet(false, true) && !submitQuietly(once)) {
+                    pending.set(false);
+                }
+            }, initialDelay.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS));
+        }
+
+        /**
+         * Rejects further tasks, drops queued ones and cancels the lane's timed tasks.
+         * A task that is already running completes.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            tasks.clear();
+            synchronized (timed) {
+                timed.forEach(future -> future.cancel(false));
+                timed.clear();
+            }
+            lanes.remove(this);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        String summary() {
+            return name + "(queued " + tasks.size() + ", done " + completed.sum() + ")";
+        }
+
+        private ScheduledFuture<?> track(ScheduledFuture<?> future) {
+            timed.removeIf(ScheduledFuture::isDone);
+            timed.add(future);
+            if (closed) {
+                future.cancel(false);
+            }
+            return future;
+        }
+
+        private boolean submitQuietly(Runnable task) {
+            try {
+                execute(task);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+        private void scheduleDrain() {
+            if (!tasks.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    backing.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                    log.debug("Lane {} cannot run, runtime is shut down", name);
+                }
+            }
+        }
+
+        private void drain() {
+            Thread thread = Thread.currentThread();
+            String threadName = thread.getName();
+            thread.setName(name);
+            try {
+                Runnable task;
+                while (!closed && (task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        log.error("Task on lane {} failed: {}", name, e.getMessage(), e);
+                    }
+                    completed.increment();
+                }
+            } finally {
+                thread.setName(threadName);
+                draining.set(false);
+            }
+            // a task may have arrived after the last poll but before the flag was cleared
+            scheduleDrain();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.zergatstage.monitor.service;
 
-import javax.swing.*;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -19,8 +18,15 @@ public abstract class BaseManager implements Observable {
 
     @Override
     public void notifyListeners() {
-        SwingUtilities.invokeLater(() ->
-                listeners.forEach(Runnable::run));
+        NotificationGate.publish(this, () -> UiNotificationBus.getInstance().post(this, this::fireListeners));
+    }
+
+    /**
+     * Runs the listeners, on the EDT and at most once per frame. Managers that hand out typed changes
+     * override this to compute them first.
+     */
+    protected void fireListeners() {
+        listeners.forEach(Runnable::run);
     }
 }
 
@@ -0,0 +1,226 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.service.metrics.LatencyStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size hand-off between two pipeline stages, with a single consumer.
+ * <p>
+ * All slots are allocated up front and reused: a producer fills the next free slot in place through a
+ * {@link Writer}, and the consumer works on the slot returned by {@link #take()} and gives it back with
+ * {@link #release()}. Nothing is allocated per hand-off. When every slot is taken, {@link #put} blocks
+ * the producer until the consumer catches up, so a slow stage slows down the stages in front of it
+ * instead of letting the heap grow. The time producers spend blocked is recorded in {@link #getPutStalls()}.
+ * </p>
+ *
+ * @param <S> slot type.
+ */
+public final class BoundedRingBuffer<S> {
+
+    /**
+     * Fills a slot in place. Called with the buffer lock held, so it should only copy references.
+     */
+    @FunctionalInterface
+    public interface Writer<S, A, B> {
+        void write(S slot, A first, B second);
+    }
+
+    private final String name;
+    private final Object[] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final LatencyStats putStalls;
+    /** Next slot to write; guarded by {@link #lock}. */
+    private long tail;
+    /** Next slot to consume; guarded by {@link #lock}. */
+    private long head;
+    private boolean taken;
+    private boolean closed;
+    private int highWaterMark;
+    private long stalledPuts;
+
+    /**
+     * @param name        stage name used in {@link #summary()}.
+     * @param capacity    number of slots.
+     * @param slotFactory creates the slots once.
+     */
+    public BoundedRingBuffer(String name, int capacity, Supplier<S> slotFactory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.name = name;
+        this.slots = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = slotFactory.get();
+        }
+        this.putStalls = new LatencyStats(name + " put stall");
+    }
+
+    /**
+     * Fills the next free slot, waiting while the buffer is full.
+     *
+     * @return false if the buffer has been {@link #close() closed}; nothing is written then.
+     */
+    public <A, B> boolean put(Writer<? super S, A, B> writer, A first, B second) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (tail - head == slots.length && !closed) {
+                stalledPuts++;
+                long started = System.nanoTime();
+                try {
+                    while (tail - head == slots.length && !closed) {
+                        notFull.await();
+                    }
+                } finally {
+                    putStalls.record(System.nanoTime() - started);
+                }
+            }
+            if (closed) {
+                return false;
+            }
+            writer.write(slot(tail), first, second);
+            tail++;
+            highWaterMark = Math.max(highWaterMark, (int) (tail - head));
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for the oldest filled slot. The slot stays reserved until {@link #release()} is called.
+     *
+     * @return the slot, or null once the buffer is closed and drained.
+     */
+    public S take() throws InterruptedException {
+        return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Like {@link #take()}, but gives up after the timeout.
+     *
+     * @return the slot, or null if none was filled in time or the buffer is closed and drained.
+     */
+    public S poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (taken) {
+                throw new IllegalStateException(name + ": previous slot has not been released");
+            }
+            while (tail == head) {
+                if (closed || remaining <= 0) {
+                    return null;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            taken = true;
+            return slot(head);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the slot returned by the last {@link #take()} back to the producers.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            if (!taken) {
+                throw new IllegalStateException(name + ": no slot taken");
+            }
+            taken = false;
+            head++;
+            notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rejects further puts and wakes every waiting thread. Filled slots can still be taken.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return number of filled slots, including one being consumed.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return (int) (tail - head);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the highest occupancy seen so far.
+     */
+    public int getHighWaterMark() {
+        lock.lock();
+        try {
+            return highWaterMark;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of puts that had to wait for a free slot.
+     */
+    public long getStalledPuts() {
+        lock.lock();
+        try {
+            return stalledPuts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return time producers spent waiting for a free slot, one sample per stalled put.
+     */
+    public LatencyStats getPutStalls() {
+        return putStalls;
+    }
+
+    /**
+     * @return occupancy and stall figures on one line.
+     */
+    public String summary() {
+        lock.lock();
+        try {
+            return name + ": size=" + (tail - head) + "/" + slots.length + ", peak=" + highWaterMark
+                    + ", stalled puts=" + stalledPuts + " (" + String.format("%.2f", putStalls.meanMillis())
+                    + " ms avg, " + String.format("%.2f", putStalls.maxMillis()) + " ms max)";
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private S slot(long sequence) {
+        return (S) slots[(int) (sequence % slots.length)];
+    }
+}
@@ -6,22 +6,34 @@ import com.zergatstage.domain.makret.MarketItem;
 import com.zergatstage.dto.CommodityDTO;
 import com.zergatstage.dto.CommodityMapper;
 import com.zergatstage.tools.CommodityHelper;
+import com.zergatstage.tools.LongObjectMap;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Dictionary of known commodities, built from the markets seen so far.
+ * <p>
+ * The lookup maps live in an immutable {@link Snapshot} that is replaced atomically, so lookups from the
+ * journal, cargo and UI threads are a single volatile read and never see a half-applied update. Updates
+ * are serialized and merge only the commodities that are new or changed; when nothing changed the current
+ * snapshot is kept. Normalized names are computed once per commodity, and the raw names the game writes
+ * (e.g. {@code "$gold_name;"}) are indexed as well, so most lookups need no string processing.
+ * </p>
+ */
 @Slf4j
 public class CommodityRegistry {
 
     private static volatile CommodityRegistry instance;
-    // Multiple maps for fast lookups using different keys
-    private final Map<Long, Commodity> lookupById = new HashMap<>();
-    private final Map<String, Commodity> lookupByLocalisedName = new HashMap<>();
-    private final Map<String, Commodity> lookupByNormalizedSystemName = new HashMap<>();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
 
     public static synchronized CommodityRegistry getInstance() {
         if (instance == null) {
@@ -34,26 +46,57 @@ public class CommodityRegistry {
         return instance;
     }
 
-    public void loadMarketData(Map<Long, Market> markets) throws JSONException {
+    /**
+     * Merges the commodities of all given markets in one update.
+     *
+     * @param markets the markets; may be null or empty.
+     */
+    public void loadMarketData(Collection<Market> markets) {
         if (markets == null || markets.isEmpty()) {
             log.debug("Markets are empty, return without processing");
             return;
         }
-        for (Market market: markets.values()){
-            processCommodities(market.getItems());
+        List<MarketItem> items = new ArrayList<>();
+        for (Market market : markets) {
+            items.addAll(market.getItems().values());
         }
+        merge(items);
     }
 
-    private void processCommodities(Map<Long, MarketItem> items) {
-        if (items.isEmpty()) return;
-        items.values()
-                .forEach( marketItem -> {
-                    Commodity commodity =  marketItem.getCommodity();
-                    lookupById.put(commodity.getId(), commodity);//not null safe!
-                    lookupByLocalisedName.put(commodity.getNameLocalised().toLowerCase(), commodity);
-                    String normalizedKey = CommodityHelper.normalizeSystemName(commodity.getName());
-                    lookupByNormalizedSystemName.put(normalizedKey, commodity);
-                });
+    /**
+     * Merges the commodities of a single market, e.g. the one that just arrived from Market.json.
+     *
+     * @param market the market; may be null.
+     */
+    public void loadMarket(Market market) {
+        if (market == null || market.getItems().isEmpty()) {
+            return;
+        }
+        merge(market.getItems().values());
+    }
+
+    private synchronized void merge(Iterable<MarketItem> items) {
+        Snapshot current = snapshot.get();
+        Snapshot.Builder next = null;
+        for (MarketItem item : items) {
+            Commodity commodity = item.getCommodity();
+            if (commodity == null || commodity.getId() == null) {
+                continue;
+            }
+            Commodity known = (next != null ? next.byId : current.byId).get(commodity.getId());
+            if (known != null && sameContent(known, commodity)) {
+                continue;
+            }
+            if (next == null) {
+                next = current.toBuilder();
+            }
+            next.put(commodity, known);
+        }
+        if (next != null) {
+            Snapshot built = next.build();
+            snapshot.set(built);
+            log.debug("Commodity registry updated: {} -> {} commodities", current.byId.size(), built.byId.size());
+        }
     }
 
     /**
@@ -64,26 +107,34 @@ public class CommodityRegistry {
      * @return The commodity ID, or a default/error ID if not found.
      */
     public long findCommodityId(String systemName, String localisedName) {
+        Snapshot current = snapshot.get();
         // 1. Try to find by the most reliable key: the localised name.
         if (localisedName != null && !localisedName.isEmpty()) {
-            Commodity found = lookupByLocalisedName.get(localisedName.toLowerCase());
+            Commodity found = current.byLocalisedName.get(localisedName);
+            if (found == null) {
+                found = current.byLocalisedName.get(localisedName.toLowerCase());
+            }
             if (found != null) {
                 return found.getId();
             }
         }
 
-        // 2. Fallback: Try to find by the normalized system name.
-        String normalizedKey = CommodityHelper.normalizeSystemName(systemName);
-        Commodity found = lookupByNormalizedSystemName.get(normalizedKey);
-        if (found != null) {
-            return found.getId();
+        // 2. Fallback: the system name exactly as written, then normalized.
+        if (systemName != null) {
+            Commodity found = current.bySystemName.get(systemName);
+            if (found == null) {
+                found = current.bySystemName.get(CommodityHelper.normalizeSystemName(systemName));
+            }
+            if (found != null) {
+                return found.getId();
+            }
         }
 
         return -1; // Not found
     }
 
     public Commodity getCommodityById(long id) {
-        return lookupById.get(id);
+        return snapshot.get().byId.get(id);
     }
 
     /**
@@ -92,13 +143,85 @@ public class CommodityRegistry {
      * @return Map[Long, CommodityDTO]
      */
     public Map<Long, CommodityDTO> getAllCommodityDTO() {
-        return lookupById.values().stream()
+        return snapshot.get().byId.values().stream()
                 .map(CommodityMapper.INSTANCE::commodityToDTO)
                 .collect(Collectors.toMap(CommodityDTO::getId, Function.identity()));
     }
 
     public String[] getAllNames() {
-        return lookupByLocalisedName.keySet().toArray(new String[0]);
+        return snapshot.get().localisedNames.clone();
     }
 
-}
\ No newline at end of file
+    /**
+     * @return number of known commodities.
+     */
+    public int size() {
+        return snapshot.get().byId.size();
+    }
+
+    private static boolean sameContent(Commodity a, Commodity b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getNameLocalised(), b.getNameLocalised())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getCategoryLocalised(), b.getCategoryLocalised());
+    }
+
+    /**
+     * Immutable lookup maps; a new instance is published for every change.
+     */
+    private record Snapshot(LongObjectMap<Commodity> byId,
+                            Map<String, Commodity> byLocalisedName,
+                            Map<String, Commodity> bySystemName,
+                            String[] localisedNames) {
+
+        static final Snapshot EMPTY = new Snapshot(new LongObjectMap<>(), Map.of(), Map.of(), new String[0]);
+
+        Builder toBuilder() {
+            return new Builder(this);
+        }
+
+        static final class Builder {
+            private final LongObjectMap<Commodity> byId;
+            private final Map<String, Commodity> byLocalisedName;
+            private final Map<String, Commodity> bySystemName;
+
+            private Builder(Snapshot from) {
+                byId = from.byId.copy();
+                byLocalisedName = new HashMap<>(from.byLocalisedName);
+                bySystemName = new HashMap<>(from.bySystemName);
+            }
+
+            void put(Commodity commodity, Commodity replaced) {
+                if (replaced != null) {
+                    // names may have changed; drop the keys of the previous version
+                    byLocalisedName.values().removeIf(c -> c.getId().equals(replaced.getId()));
+                    bySystemName.values().removeIf(c -> c.getId().equals(replaced.getId()));
+                }
+                byId.put(commodity.getId(), commodity);
+                String localised = commodity.getNameLocalised();
+                if (localised != null) {
+                    // exact spelling first, so lookups with the game's casing skip toLowerCase()
+                    byLocalisedName.put(localised, commodity);
+                    byLocalisedName.put(localised.toLowerCase(), commodity);
+                }
+                String name = commodity.getName();
+                if (name != null) {
+                    // as written in Market.json, e.g. "$gold_name;"
+                    bySystemName.put(name, commodity);
+                }
+                bySystemName.put(CommodityHelper.normalizeSystemName(name), commodity);
+            }
+
+            Snapshot build() {
+                String[] names = byId.values().stream()
+                        .map(Commodity::getNameLocalised)
+                        .filter(Objects::nonNull)
+                        .map(String::toLowerCase)
+                        .distinct()
+                        .toArray(String[]::new);
+                // byId is not touched after this point; the snapshot owns it
+                return new Snapshot(byId, Map.copyOf(byLocalisedName), Map.copyOf(bySystemName), names);
+            }
+        }
+    }
+}
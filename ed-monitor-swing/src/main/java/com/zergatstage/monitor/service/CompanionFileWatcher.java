@@ -0,0 +1,314 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.service.readers.FileReadStrategy;
+import com.zergatstage.monitor.service.readers.FileReadStrategy.ReadResult;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * One watcher for the companion files the game keeps next to its journals (Market.json, Status.json,
+ * Cargo.json, NavRoute.json, ...).
+ * <p>
+ * A single {@link WatchService} thread observes the directory and fans change notifications out to the
+ * {@link #subscribe subscribed} files; a single {@link AppRuntime.Lane lane} performs the debounced reads with each
+ * subscriber's own {@link FileReadStrategy}, and a slow safety poll re-reads every subscribed file in case
+ * a notification was missed. If the directory does not exist yet, its parent is watched until it appears.
+ * </p>
+ */
+@Log4j2
+public class CompanionFileWatcher {
+
+    /** Default interval of the safety poll that catches missed notifications. */
+    public static final Duration DEFAULT_SAFETY_POLL = Duration.ofSeconds(60);
+
+    @Getter
+    private final Path directory;
+    private final Duration safetyPoll;
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final List<Periodic> periodics = new CopyOnWriteArrayList<>();
+    private volatile AppRuntime.Lane lane;
+    private WatchService watchService;
+    private Thread watchThread;
+    private volatile boolean directoryRegistered;
+    private volatile boolean running;
+
+    public CompanionFileWatcher(Path directory) {
+        this(directory, DEFAULT_SAFETY_POLL);
+    }
+
+    /**
+     * @param directory  the directory holding the companion files.
+     * @param safetyPoll interval at which every subscribed file is re-checked regardless of notifications.
+     */
+    public CompanionFileWatcher(Path directory, Duration safetyPoll) {
+        this.directory = directory;
+        this.safetyPoll = safetyPoll;
+    }
+
+    /**
+     * Registers a companion file. If the watcher is running, the file is read right away.
+     *
+     * @param fileName  file name inside the watched directory, e.g. {@code "Market.json"}.
+     * @param strategy  decides whether the file changed and what content to deliver.
+     * @param debounce  quiet time after a notification before the file is read; bursts of writes
+     *                  within it result in a single read.
+     * @param onContent receives new content on the watcher's lane.
+     * @return the subscription, to {@link Subscription#cancel() cancel} it.
+     * @throws IllegalStateException if the file already has a subscriber.
+     */
+    public Subscription subscribe(String fileName, FileReadStrategy strategy, Duration debounce,
+                                  Consumer<String> onContent) {
+        Subscription subscription = new Subscription(fileName, strategy, debounce, onContent);
+        if (subscriptions.putIfAbsent(fileName, subscription) != null) {
+            throw new IllegalStateException(fileName + " already has a subscriber");
+        }
+        if (running) {
+            subscription.requestRead(Duration.ZERO);
+        }
+        return subscription;
+    }
+
+    /**
+     * Runs a task on the watcher's lane at a fixed rate while the watcher is running, e.g. to flush what a
+     * subscriber buffered. The task never runs concurrently with a read.
+     *
+     * @param period time between two runs; the first run is one period after start.
+     * @param task   the task.
+     * @return the registration, to {@link Periodic#cancel() cancel} it.
+     */
+    public synchronized Periodic every(Duration period, Runnable task) {
+        Periodic periodic = new Periodic(period, task);
+        periodics.add(periodic);
+        if (running) {
+            periodic.schedule();
+        }
+        return periodic;
+    }
+
+    /**
+     * Starts watching and reads every subscribed file once. Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        lane = AppRuntime.getInstance().lane("companion-files");
+        running = true;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerDirectory();
+            watchThread = AppRuntime.getInstance().startThread("companion-watch", this::watchLoop);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("WatchService setup failed for {}: {}. Relying on the safety poll.", directory, e.getMessage());
+            closeWatchService();
+        }
+        long pollMillis = safetyPoll.toMillis();
+        lane.scheduleAtFixedRate(this::safetyCheck, safetyPoll, safetyPoll);
+        periodics.forEach(Periodic::schedule);
+        subscriptions.values().forEach(subscription -> subscription.requestRead(Duration.ZERO));
+        log.info("Companion file watcher started for {} ({} file(s), safety poll {} ms)",
+                directory, subscriptions.size(), pollMillis);
+    }
+
+    /**
+     * Stops watching. Subscriptions are kept and resume on the next {@link #start()}.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        closeWatchService();
+        lane.close();
+        // reads scheduled on the closed lane never run; let the next start schedule them again
+        subscriptions.values().forEach(subscription -> subscription.readPending.set(false));
+        directoryRegistered = false;
+        log.info("Companion file watcher stopped for {}", directory);
+    }
+
+    /**
+     * Watches the directory if it exists, otherwise its parent so that its creation is noticed.
+     */
+    private void registerDirectory() throws IOException {
+        if (Files.isDirectory(directory)) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            directoryRegistered = true;
+            return;
+        }
+        Path parent = directory.toAbsolutePath().getParent();
+        if (parent != null && Files.isDirectory(parent)) {
+            parent.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+            log.info("{} does not exist yet, waiting for it", directory);
+        }
+    }
+
+    private void watchLoop() {
+        WatchService service = watchService;
+        try {
+            while (running) {
+                WatchKey key = service.take();
+                Path watched = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        subscriptions.values().forEach(subscription -> subscription.requestRead(Duration.ZERO));
+                        continue;
+                    }
+                    Path name = (Path) event.context();
+                    if (!directoryRegistered) {
+                        if (watched.resolve(name).equals(directory.toAbsolutePath())) {
+                            registerDirectory();
+                            subscriptions.values().forEach(subscription -> subscription.requestRead(Duration.ZERO));
+                        }
+                        continue;
+                    }
+                    Subscription subscription = subscriptions.get(name.toString());
+                    if (subscription != null && watched.equals(directory)) {
+                        subscription.requestRead(subscription.debounce);
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopping
+        } catch (IOException e) {
+            log.warn("Companion file watch for {} ended: {}", directory, e.getMessage());
+        }
+    }
+
+    private void safetyCheck() {
+        if (!directoryRegistered && watchService != null) {
+            try {
+                registerDirectory();
+            } catch (IOException e) {
+                log.debug("Cannot watch {} yet: {}", directory, e.getMessage());
+            }
+        }
+        subscriptions.values().forEach(Subscription::read);
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+                // closing anyway
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * A task run periodically on the watcher's lane, see {@link #every}.
+     */
+    public final class Periodic {
+        private final Duration period;
+        private final Runnable task;
+        private ScheduledFuture<?> future;
+
+        private Periodic(Duration period, Runnable task) {
+            this.period = period;
+            this.task = task;
+        }
+
+        /**
+         * Stops running the task; a run already in progress completes.
+         */
+        public void cancel() {
+            synchronized (CompanionFileWatcher.this) {
+                periodics.remove(this);
+                if (future != null) {
+                    future.cancel(false);
+                    future = null;
+                }
+            }
+        }
+
+        /** Called with the watcher locked; {@link #stop()} cancels the run along with the lane. */
+        private void schedule() {
+            future = lane.scheduleAtFixedRate(task, period, period);
+        }
+    }
+
+    /**
+     * A companion file with its own read strategy, debounce and consumer.
+     */
+    public final class Subscription {
+        @Getter
+        private final String fileName;
+        private final FileReadStrategy strategy;
+        private final Duration debounce;
+        private final Consumer<String> onContent;
+        private final AtomicBoolean readPending = new AtomicBoolean(false);
+        private Object state;
+
+        private Subscription(String fileName, FileReadStrategy strategy, Duration debounce,
+                             Consumer<String> onContent) {
+            this.fileName = fileName;
+            this.strategy = strategy;
+            this.debounce = debounce;
+            this.onContent = onContent;
+        }
+
+        /**
+         * Stops delivering changes of this file.
+         */
+        public void cancel() {
+            subscriptions.remove(fileName, this);
+        }
+
+        private void requestRead(Duration delay) {
+            AppRuntime.Lane worker = lane;
+            if (!running || worker == null || !readPending.compareAndSet(false, true)) {
+                return;
+            }
+            worker.schedule(() -> {
+                readPending.set(false);
+                read();
+            }, delay);
+        }
+
+        /** Runs on the lane only. */
+        private void read() {
+            if (!running || subscriptions.get(fileName) != this) {
+                return;
+            }
+            Path file = directory.resolve(fileName);
+            try {
+                ReadResult result = strategy.readChanges(file, state);
+                state = result.getNewState();
+                if (!result.getNewContent().isEmpty()) {
+                    onContent.accept(result.getNewContent());
+                }
+            } catch (NoSuchFileException e) {
+                log.trace("{} does not exist yet", file);
+            } catch (IOException e) {
+                log.error("Error reading {}: {}", file, e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Subscriber of {} failed: {}", fileName, e.getMessage(), e);
+            }
+        }
+    }
+}
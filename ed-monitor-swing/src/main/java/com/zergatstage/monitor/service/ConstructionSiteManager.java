@@ -4,18 +4,19 @@ import com.zergatstage.domain.ConstructionSite;
 import com.zergatstage.domain.MaterialRequirement;
 import com.zergatstage.dto.ConstructionSiteDTO;
 import com.zergatstage.dto.ConstructionSiteMapper;
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
+import com.zergatstage.repo.GenericRepository;
 import com.zergatstage.tools.CommodityHelper;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import lombok.Synchronized;
 import lombok.extern.log4j.Log4j2;
-import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * Manages construction sites and their material requirements.
@@ -26,12 +27,18 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class ConstructionSiteManager {
 
     private static volatile ConstructionSiteManager instance;
-    private final Map<Long, ConstructionSite> sites = new HashMap<>();
-    private final Set<ConstructionSiteUpdateListener> listeners = new HashSet<>();
+    // written from several dispatcher shards (one per market) and the sync thread, read on the EDT
+    private final SiteStore siteStore = new SiteStore();
+    private final Set<ConstructionSiteUpdateListener> listeners = new CopyOnWriteArraySet<>();
     private final Set<Long> dirtySites = java.util.Collections.synchronizedSet(new java.util.HashSet<>());
     private final CommodityRegistry commodityRegistry;
     private com.zergatstage.monitor.service.ConstructionSitesHttpService httpService;
-    private java.util.concurrent.ScheduledExecutorService scheduler;
+    private AppRuntime.Lane syncLane;
+    private volatile GenericRepository<ConstructionSite> store;
+    // the snapshot the listeners saw last; only used on the EDT
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private SiteSnapshot notified = SiteSnapshot.EMPTY;
     private static final String STUB_PREFIX = "STUB_";
 
     private ConstructionSiteManager() {
@@ -56,10 +63,38 @@ public class ConstructionSiteManager {
      */
     public void addSite(ConstructionSiteDTO site) {
         ConstructionSite savedSite = ConstructionSiteMapper.INSTANCE.constructionSiteDtoToEntity(site);
-        sites.put(savedSite.getMarketId(), savedSite);
+        siteStore.put(savedSite);
+        persist(savedSite);
         notifyListeners();
     }
 
+    /**
+     * Adds the sites of the local store that are not known yet and keeps the store updated from then on.
+     * Restored sites are not marked dirty: the next sync reconciles them with the server by version.
+     *
+     * @param store the local construction site store.
+     */
+    public void restore(GenericRepository<ConstructionSite> store) {
+        int restored = 0;
+        for (ConstructionSite site : store.findAll()) {
+            if (siteStore.putIfAbsent(site)) {
+                restored++;
+            }
+        }
+        this.store = store;
+        if (restored > 0) {
+            notifyListeners();
+        }
+        log.info("Construction sites restored from local store: {}", restored);
+    }
+
+    private void persist(ConstructionSite site) {
+        GenericRepository<ConstructionSite> target = store;
+        if (target != null) {
+            target.save(site);
+        }
+    }
+
     /**
      * Updates all construction sites with the delivered cargo.
      *
@@ -69,8 +104,9 @@ public class ConstructionSiteManager {
     // todo: rework it - this is a GPT a result of hallucination.
     public void updateSitesWithCargo(String material, int deliveredQuantity) {
         long commodityId = commodityRegistry.findCommodityId(material, null);
-        for (ConstructionSite site : sites.values()) {
-            site.updateDeliveredQuantity(commodityId, deliveredQuantity);
+        SiteSnapshot before = siteStore.snapshot();
+        if (siteStore.updateAll(site -> site.updateDeliveredQuantity(commodityId, deliveredQuantity))) {
+            siteStore.snapshot().changedSince(before).forEach(this::persist);
             notifyListeners();
         }
     }
@@ -88,8 +124,22 @@ public class ConstructionSiteManager {
      * Notifies all registered listeners about the data update.
      */
     private void notifyListeners() {
+        NotificationGate.publish(this, () -> UiNotificationBus.getInstance().post(this, this::deliverChanges));
+    }
+
+    /**
+     * Hands the listeners the changes since the snapshot they saw last. Runs on the EDT once per frame, so
+     * the updates of a burst arrive as one list.
+     */
+    private void deliverChanges() {
+        SiteSnapshot current = siteStore.snapshot();
+        List<SiteChange> changes = SiteChange.between(notified, current);
+        notified = current;
+        if (changes.isEmpty()) {
+            return;
+        }
         for (ConstructionSiteUpdateListener listener : listeners) {
-            listener.onConstructionSiteUpdated();
+            listener.onConstructionSiteChanged(changes);
         }
     }
 
@@ -99,24 +149,26 @@ public class ConstructionSiteManager {
     }
 
     private void startAutoSync() {
-        if (scheduler != null)
+        if (syncLane != null)
             return;
-        scheduler = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "construction-sync");
-            t.setDaemon(true);
-            return t;
-        });
-        scheduler.scheduleAtFixedRate(() -> {
+        syncLane = AppRuntime.getInstance().lane("construction-sync");
+        syncLane.scheduleAtFixedRate(() -> {
             try {
                 syncWithServer();
             } catch (Exception ignored) {
             }
-        }, 5, 10, java.util.concurrent.TimeUnit.SECONDS);
+        }, java.time.Duration.ofSeconds(5), java.time.Duration.ofSeconds(10));
     }
 
+    /**
+     * Pushes dirty sites, then reconciles the store with the server by version. Decisions are taken on one
+     * snapshot; every write replaces a site only if it is still the one the decision was based on, so a
+     * site changed by the journal meanwhile is kept and retried on the next cycle.
+     */
     private void syncWithServer() {
         if (httpService == null)
             return;
+        SiteSnapshot before = siteStore.snapshot();
         boolean changed = false;
         try {
             // 1) Flush local dirty sites first so local truth wins
@@ -125,7 +177,7 @@ public class ConstructionSiteManager {
                 toFlush = new java.util.ArrayList<>(dirtySites);
             }
             for (Long id : toFlush) {
-                ConstructionSite local = sites.get(id);
+                ConstructionSite local = siteStore.get(id);
                 if (local == null) {
                     dirtySites.remove(id);
                     continue;
@@ -146,8 +198,9 @@ public class ConstructionSiteManager {
                         } catch (Exception ignore) { /* proceed with current dto */ }
                     }
                     var updated = httpService.putSite(dto);
-                    sites.put(id, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(updated));
-                    dirtySites.remove(id);
+                    if (siteStore.replace(local, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(updated))) {
+                        dirtySites.remove(id);
+                    }
                     changed = true;
                 } catch (com.zergatstage.monitor.service.ConstructionSitesHttpService.VersionConflictException cf) {
                     var latest = cf.getLatest();
@@ -163,8 +216,9 @@ public class ConstructionSiteManager {
                                 dto.setSiteId(latest.getSiteId());
                             }
                             var updated = httpService.putSite(dto);
-                            sites.put(id, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(updated));
-                            dirtySites.remove(id);
+                            if (siteStore.replace(local, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(updated))) {
+                                dirtySites.remove(id);
+                            }
                             changed = true;
                         } catch (com.zergatstage.monitor.service.ConstructionSitesHttpService.VersionConflictException ignore) {
                             // keep dirty, retry on next cycle
@@ -184,73 +238,67 @@ public class ConstructionSiteManager {
                 }
             }
 
-            // Reconcile with local cache
+            // Reconcile with the local snapshot
+            SiteSnapshot local = siteStore.snapshot();
             for (var entry : remoteMap.entrySet()) {
                 long id = entry.getKey();
                 var serverDto = entry.getValue();
-                ConstructionSite local = sites.get(id);
-                if (local == null) {
+                ConstructionSite site = local.get(id);
+                if (site == null) {
                     // Not present locally → adopt server
-                    sites.put(id, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(serverDto));
-                    changed = true;
+                    changed |= siteStore.putIfAbsent(com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(serverDto));
                     continue;
                 }
-                Long lv = local.getVersion();
-                Long sv = serverDto.getVersion();
-                lv = lv == null ? 0L : lv;
-                sv = sv == null ? 0L : sv;
+                long lv = site.getVersion();
+                long sv = serverDto.getVersion() == null ? 0L : serverDto.getVersion();
                 if (lv < sv) {
                     // If local site is dirty, skip replacing to avoid losing unsynced changes
                     if (dirtySites.contains(id)) {
                         continue;
                     }
                     // Server newer → replace local
-                    sites.put(id, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(serverDto));
-                    changed = true;
+                    changed |= siteStore.replace(site, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(serverDto));
                 } else if (lv > sv) {
                     // Local ahead (e.g., offline change) → resend local via PUT
                     log.debug(" \t...updating server data ConstructionSite");
                     try {
                         var updated = httpService
-                                .putSite(com.zergatstage.monitor.http.ConstructionSiteDtoMapper.toDto(local));
-                        sites.put(id, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(updated));
-                        changed = true;
+                                .putSite(com.zergatstage.monitor.http.ConstructionSiteDtoMapper.toDto(site));
+                        changed |= siteStore.replace(site, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(updated));
                     } catch (com.zergatstage.monitor.service.ConstructionSitesHttpService.VersionConflictException cf) {
                         log.debug("\t ... updating local data from event {}", cf.getMessage());
                         var latest = cf.getLatest();
-                        if (latest != null && local.getLastUpdated().isBefore(latest.getLastUpdated())) {
-                            sites.put(id, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(latest));
-                            changed = true; // TODO: manual merge if needed
+                        if (latest != null && site.getLastUpdated().isBefore(latest.getLastUpdated())) {
+                            // TODO: manual merge if needed
+                            changed |= siteStore.replace(site, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(latest));
                         }
                     }
                 }
             }
 
             // Handle local sites missing on server → push them (insert)
-            for (ConstructionSite local : new java.util.ArrayList<>(sites.values())) {
-                if (!remoteMap.containsKey(local.getMarketId())) {
+            for (ConstructionSite site : local.sites()) {
+                if (!remoteMap.containsKey(site.getMarketId())) {
                     try {
                         var updated = httpService
-                                .putSite(com.zergatstage.monitor.http.ConstructionSiteDtoMapper.toDto(local));
-                        sites.put(local.getMarketId(),
-                                com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(updated));
-                        changed = true;
+                                .putSite(com.zergatstage.monitor.http.ConstructionSiteDtoMapper.toDto(site));
+                        changed |= siteStore.replace(site, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(updated));
                     } catch (com.zergatstage.monitor.service.ConstructionSitesHttpService.VersionConflictException cf) {
                         var latest = cf.getLatest();
                         if (latest != null) {
-                            sites.put(local.getMarketId(),
-                                    com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(latest));
-                            changed = true; // TODO: manual merge if needed
+                            // TODO: manual merge if needed
+                            changed |= siteStore.replace(site, com.zergatstage.monitor.http.ConstructionSiteDtoMapper.fromDto(latest));
                         }
                     }
                 }
             }
-
-            if (changed)
-                notifyListeners();
         } catch (Exception e) {
             // swallow periodic sync errors to avoid UI noise
         }
+        if (changed) {
+            siteStore.snapshot().changedSince(before).forEach(this::persist);
+            notifyListeners();
+        }
     }
 
     /**
@@ -262,99 +310,101 @@ public class ConstructionSiteManager {
     }
 
     // TODO: WIP
-    @Synchronized
     public void updateSite(long marketId, JSONObject event) {
-        ConstructionSite currentSite = sites.get(marketId);
+        updateSite(marketId, (JournalEvent.ColonisationConstructionDepot)
+                JournalEventDecoder.fromJson("ColonisationConstructionDepot", event));
+    }
 
-        if (currentSite == null) {
-            currentSite = createConstructionSite(event);
-        } else {
-            promoteSiteNameIfNeeded(currentSite, event);
-        }
-        if (!event.has("ResourcesRequired")) {
+    /**
+     * Creates or updates the site with the requirements of a decoded depot snapshot.
+     *
+     * @param marketId the site's market id.
+     * @param event    the decoded "ColonisationConstructionDepot" event.
+     */
+    public void updateSite(long marketId, JournalEvent.ColonisationConstructionDepot event) {
+        long siteMarketId = event.marketId() >= 0 ? event.marketId() : marketId;
+        if (event.resourcesRequired() == null) {
             log.warn("No required materials found!");
-            return;
         }
-        try {
-            JSONArray commodityRequirements = event.getJSONArray("ResourcesRequired");
-            // Find matching commodity
-            List<MaterialRequirement> requirementList = currentSite.getRequirements();
-
-            for (int i = 0; i < commodityRequirements.length(); i++) {
-                JSONObject resource = commodityRequirements.getJSONObject(i);
-                String name = resource.getString("Name");
-                String nameLocalised = resource.optString("Name_Localised", null);
-                String commodityKey = CommodityHelper.normalizeSystemName(name);
-                long commodityId = commodityRegistry.findCommodityId(commodityKey, nameLocalised);
-                int requiredAmount = resource.getInt("RequiredAmount");
-                int providedAmount = resource.getInt("ProvidedAmount");
-                Optional<MaterialRequirement> first = Optional.empty();
-                if (!requirementList.isEmpty()) {
-                    first = requirementList.stream()
-                            .filter(c -> c.getCommodity().getId() == commodityId)
-                            .findFirst();
-                }
-                if (first.isEmpty()) {
-                    MaterialRequirement requirement = MaterialRequirement.builder().build();
-                    requirement.setCommodity(commodityRegistry.getCommodityById(commodityId));
-
-                    requirement.setRequiredQuantity(requiredAmount);
-                    requirement.setDeliveredQuantity(providedAmount);
-
-                    requirementList.add(requirement);
-                } else {
-                    first.get().setRequiredQuantity(requiredAmount);
-                    first.get().setDeliveredQuantity(providedAmount);
-                }
+        ConstructionSite site = siteStore.update(siteMarketId, current -> {
+            ConstructionSite next = current != null ? current : createConstructionSite(siteMarketId, event.siteName());
+            if (current != null) {
+                promoteSiteNameIfNeeded(next, event.siteName());
             }
-        } catch (JSONException e) {
-            log.error("Dropped NPE or something else: {}", e.getMessage());
+            if (event.resourcesRequired() != null) {
+                applyRequirements(next, event.resourcesRequired());
+            }
+            return next;
+        });
+        if (event.resourcesRequired() == null) {
+            return;
         }
         // mark as dirty so sync pushes local truth first
-        if (currentSite != null) {
-            dirtySites.add(currentSite.getMarketId());
-        } else {
-            dirtySites.add(marketId);
-        }
+        dirtySites.add(site.getMarketId());
+        persist(site);
         notifyListeners();
     }
 
-    private ConstructionSite createConstructionSite(JSONObject event) {
-        try {
-            long marketId = event.getLong("MarketID");
-            ConstructionSite site = ConstructionSite.builder()
-                    .marketId(marketId)
-                    .siteId(resolveSiteName(event).orElseGet(() -> buildStubSiteId(marketId)))
-                    .requirements(new CopyOnWriteArrayList<>())
-                    .version(99)
-                    .lastUpdated(Instant.now())
-                    .build();
-            promoteSiteNameIfNeeded(site, event);
-            sites.put(site.getMarketId(), site);
-            return site;
-        } catch (JSONException e) {
-            throw new IllegalArgumentException("Invalid event data for creating construction site: " + e.getMessage(),
-                    e);
+    /**
+     * Sets the required and delivered amounts of a site copy from a depot snapshot.
+     */
+    private void applyRequirements(ConstructionSite site, List<JournalEvent.Resource> resources) {
+        List<MaterialRequirement> requirementList = site.getRequirements();
+        for (JournalEvent.Resource resource : resources) {
+            String commodityKey = CommodityHelper.normalizeSystemName(resource.name());
+            long commodityId = commodityRegistry.findCommodityId(commodityKey, resource.nameLocalised());
+            int requiredAmount = resource.requiredAmount();
+            int providedAmount = resource.providedAmount();
+            Optional<MaterialRequirement> first = requirementList.stream()
+                    .filter(c -> c.getCommodity() != null && c.getCommodity().getId() == commodityId)
+                    .findFirst();
+            if (first.isEmpty()) {
+                MaterialRequirement requirement = MaterialRequirement.builder().build();
+                requirement.setCommodity(commodityRegistry.getCommodityById(commodityId));
+
+                requirement.setRequiredQuantity(requiredAmount);
+                requirement.setDeliveredQuantity(providedAmount);
+
+                requirementList.add(requirement);
+            } else {
+                first.get().setRequiredQuantity(requiredAmount);
+                first.get().setDeliveredQuantity(providedAmount);
+            }
         }
     }
 
+    private ConstructionSite createConstructionSite(long marketId, String siteName) {
+        return ConstructionSite.builder()
+                .marketId(marketId)
+                .siteId(siteName != null ? siteName : buildStubSiteId(marketId))
+                .requirements(new ArrayList<>())
+                .version(99)
+                .lastUpdated(Instant.now())
+                .build();
+    }
+
     public ConstructionSite getSite(long marketId) {
-        return sites.get(marketId);
+        return siteStore.get(marketId);
+    }
+
+    /**
+     * @return the current version of all sites; it never changes, later updates publish a new snapshot.
+     */
+    public SiteSnapshot getSnapshot() {
+        return siteStore.snapshot();
     }
 
     public ConstructionSite getSiteById(String siteId) {
-        return sites.values().stream()
+        return siteStore.snapshot().sites().stream()
                 .filter(site -> site.getSiteId().equals(siteId))
                 .findFirst()
                 .orElse(null);
     }
 
-    private void promoteSiteNameIfNeeded(ConstructionSite site, JSONObject event) {
-        if (site == null) return;
-        Optional<String> resolvedName = resolveSiteName(event);
-        if (resolvedName.isEmpty()) return;
+    private void promoteSiteNameIfNeeded(ConstructionSite site, String resolvedName) {
+        if (site == null || resolvedName == null) return;
         if (isStubSiteId(site.getSiteId(), site.getMarketId())) {
-            site.setSiteId(resolvedName.get());
+            site.setSiteId(resolvedName);
         }
     }
 
@@ -368,17 +418,6 @@ public class ConstructionSiteManager {
         return Long.toString(marketId).equals(currentSiteId);
     }
 
-    private Optional<String> resolveSiteName(JSONObject event) {
-        String[] candidateKeys = {"StationName", "ConstructionSite", "Body", "Name"};
-        for (String key : candidateKeys) {
-            String value = event.optString(key, null);
-            if (value != null && !value.isBlank()) {
-                return Optional.of(value.trim());
-            }
-        }
-        return Optional.empty();
-    }
-
     private String buildStubSiteId(long marketId) {
         return STUB_PREFIX + marketId;
     }
@@ -1,5 +1,6 @@
 package com.zergatstage.monitor.service;
 
+import java.util.List;
 
 /**
  * Listener interface for receiving updates when construction site data changes.
@@ -9,4 +10,14 @@ public interface ConstructionSiteUpdateListener {
      * Invoked when the construction site data has been updated.
      */
     void onConstructionSiteUpdated();
-}
\ No newline at end of file
+
+    /**
+     * Invoked on the EDT with what changed since the previous call; all changes of one frame arrive together.
+     * Listeners that can update only the affected rows override this, the default refreshes everything.
+     *
+     * @param changes the changes, never empty.
+     */
+    default void onConstructionSiteChanged(List<SiteChange> changes) {
+        onConstructionSiteUpdated();
+    }
+}
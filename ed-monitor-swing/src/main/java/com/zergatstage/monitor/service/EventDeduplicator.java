@@ -0,0 +1,126 @@
+package com.zergatstage.monitor.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drops journal lines that repeat the previous snapshot of the same thing, before they are parsed.
+ * <p>
+ * The game writes some events again and again with identical content, e.g. {@code ColonisationConstructionDepot}
+ * while docked at a site, or {@code Cargo} after every screen change. For such snapshot events a line is
+ * fingerprinted with a 64-bit FNV-1a hash of its raw characters, leaving out the {@code timestamp} value.
+ * Fingerprints are kept per event type and per identity ({@code MarketID} if the line has one) in an LRU
+ * map bounded to {@link #DEFAULT_KEYS_PER_TYPE} identities per type.
+ * </p>
+ * <p>
+ * A line is a repeat only if it equals the <em>last</em> fingerprint of its identity. Comparing against
+ * every recently seen fingerprint would drop the third snapshot of A, B, A and leave B's state in place.
+ * </p>
+ */
+public final class EventDeduplicator {
+
+    public static final int DEFAULT_KEYS_PER_TYPE = 64;
+
+    private static final String TIMESTAMP_KEY = "\"timestamp\"";
+    private static final String MARKET_ID_KEY = "\"MarketID\"";
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int keysPerType;
+    private final Map<String, Map<Long, Long>> lastFingerprints = new HashMap<>();
+    private final LongAdder repeats = new LongAdder();
+
+    public EventDeduplicator() {
+        this(DEFAULT_KEYS_PER_TYPE);
+    }
+
+    /**
+     * @param keysPerType how many identities (e.g. markets) are remembered per event type.
+     */
+    public EventDeduplicator(int keysPerType) {
+        if (keysPerType <= 0) {
+            throw new IllegalArgumentException("keysPerType must be positive: " + keysPerType);
+        }
+        this.keysPerType = keysPerType;
+    }
+
+    /**
+     * Records the line and tells whether it repeats the previous one of the same event type and identity.
+     *
+     * @param eventType the line's event type, as found by the {@link JournalEventScanner}.
+     * @param line      one raw journal line.
+     * @return true if the line carries nothing new and can be dropped.
+     */
+    public synchronized boolean isRepeat(String eventType, String line) {
+        long fingerprint = fingerprint(line);
+        Map<Long, Long> fingerprints = lastFingerprints.computeIfAbsent(eventType,
+                type -> new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                        return size() > keysPerType;
+                    }
+                });
+        Long previous = fingerprints.put(identity(line), fingerprint);
+        if (previous != null && previous == fingerprint) {
+            repeats.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return number of lines reported as repeats.
+     */
+    public long getRepeats() {
+        return repeats.sum();
+    }
+
+    /**
+     * Hashes the line, skipping the characters of the timestamp value.
+     */
+    static long fingerprint(String line) {
+        int skipFrom = -1;
+        int skipTo = -1;
+        int key = line.indexOf(TIMESTAMP_KEY);
+        if (key >= 0) {
+            int open = line.indexOf('"', key + TIMESTAMP_KEY.length());
+            int close = open < 0 ? -1 : line.indexOf('"', open + 1);
+            if (close > 0) {
+                skipFrom = open + 1;
+                skipTo = close;
+            }
+        }
+        long hash = FNV_OFFSET;
+        for (int i = 0, n = line.length(); i < n; i++) {
+            if (i == skipFrom) {
+                i = skipTo;
+            }
+            char c = line.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * @return the line's {@code MarketID}, or 0 if it has none.
+     */
+    static long identity(String line) {
+        int key = line.indexOf(MARKET_ID_KEY);
+        if (key < 0) {
+            return 0L;
+        }
+        int i = key + MARKET_ID_KEY.length();
+        int n = line.length();
+        while (i < n && (line.charAt(i) == ':' || line.charAt(i) == ' ')) {
+            i++;
+        }
+        long value = 0L;
+        while (i < n && Character.isDigit(line.charAt(i))) {
+            value = value * 10 + (line.charAt(i++) - '0');
+        }
+        return value;
+    }
+}
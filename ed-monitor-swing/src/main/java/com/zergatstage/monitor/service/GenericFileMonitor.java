@@ -6,9 +6,12 @@ import lombok.extern.log4j.Log4j2;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.*;
+import java.util.concurrent.ScheduledFuture;
 import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
 
 /**
  * A generic file monitor that polls a file for updates using a specified file reading strategy.
@@ -16,12 +19,16 @@ import java.util.function.Consumer;
 @Log4j2
 public class GenericFileMonitor {
 
-    private final Path file;
+    protected volatile Path file;
     private final FileReadStrategy readStrategy;
     private final Consumer<String> onUpdate;
-    private final ScheduledExecutorService executor;
+    private final ObjLongConsumer<String> onLine;
+    private final Delivery delivery;
+    protected final AppRuntime.Lane executor;
     private ScheduledFuture<?> scheduledTask;
     private Object previousState;
+    private volatile long lastModifiedMillis;
+    private volatile Supplier<Path> latestFileSupplier;
 
     /**
      * Constructs a GenericFileMonitor.
@@ -31,10 +38,41 @@ public class GenericFileMonitor {
      * @param onUpdate a callback function that processes new content.
      */
     public GenericFileMonitor(Path file, FileReadStrategy readStrategy, Consumer<String> onUpdate) {
+        this(file, readStrategy, onUpdate, Delivery.CONTENT);
+    }
+
+    /**
+     * Constructs a GenericFileMonitor with an explicit delivery mode.
+     *
+     * @param file the file to monitor.
+     * @param readStrategy the strategy for reading file updates.
+     * @param onUpdate a callback function that processes new content or individual lines.
+     * @param delivery whether {@code onUpdate} receives whole updates or one line at a time.
+     */
+    public GenericFileMonitor(Path file, FileReadStrategy readStrategy, Consumer<String> onUpdate,
+                              Delivery delivery) {
+        this(file, readStrategy, onUpdate, (line, endOffset) -> onUpdate.accept(line), delivery);
+    }
+
+    /**
+     * Constructs a GenericFileMonitor that delivers one line at a time together with its position.
+     *
+     * @param file the file to monitor.
+     * @param readStrategy the strategy for reading file updates.
+     * @param onLine receives each line and the byte offset just past it, or -1 if the strategy cannot tell.
+     */
+    public GenericFileMonitor(Path file, FileReadStrategy readStrategy, ObjLongConsumer<String> onLine) {
+        this(file, readStrategy, line -> onLine.accept(line, -1L), onLine, Delivery.LINES);
+    }
+
+    private GenericFileMonitor(Path file, FileReadStrategy readStrategy, Consumer<String> onUpdate,
+                               ObjLongConsumer<String> onLine, Delivery delivery) {
         this.file = file;
         this.readStrategy = readStrategy;
         this.onUpdate = onUpdate;
-        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.onLine = onLine;
+        this.delivery = delivery;
+        this.executor = AppRuntime.getInstance().lane("file-monitor " + (file != null ? file.getFileName() : ""));
         this.previousState = null;
     }
 
@@ -43,7 +81,7 @@ public class GenericFileMonitor {
      */
     public void start() {
         if (scheduledTask == null || scheduledTask.isCancelled() || scheduledTask.isDone()) {
-            scheduledTask = executor.scheduleAtFixedRate(this::checkFile, 0, 1, TimeUnit.SECONDS);
+            scheduledTask = executor.scheduleAtFixedRate(this::checkFile, Duration.ZERO, Duration.ofSeconds(1));
             log.info("File monitoring started for {}\t at: {}", file, Instant.now());
         }
     }
@@ -53,16 +91,83 @@ public class GenericFileMonitor {
      */
     public void stop() {
         if (scheduledTask != null && !scheduledTask.isCancelled()) {
-            scheduledTask.cancel(true);
+            scheduledTask.cancel(false);
             log.info("File monitoring stopped for {} at: {}", file, Instant.now());
         }
     }
 
+    /**
+     * Makes the monitor follow file rotation: on every check the supplier is asked for the
+     * file that should be monitored. When it differs from the current one, the remaining tail
+     * of the current file is drained first and the new file is then read from its beginning,
+     * all on the monitor thread, so no content is lost or reordered across the handoff.
+     * The supplier is asked again after each handoff, so one that names the file following the
+     * current one steps through several files in a single check.
+     *
+     * @param latestFileSupplier returns the file to follow; must be cheap, it runs on every check.
+     */
+    public void followRotation(Supplier<Path> latestFileSupplier) {
+        this.latestFileSupplier = latestFileSupplier;
+    }
+
+    /**
+     * Continues reading {@code file} from a previously saved reader state instead of its beginning.
+     * Must be called before {@link #start()}.
+     *
+     * @param file  the file to monitor.
+     * @param state the reader state to resume from, as returned by the read strategy
+     *              (a byte offset for {@link com.zergatstage.monitor.service.readers.AppendFileReadStrategy}).
+     */
+    public void resumeAt(Path file, Object state) {
+        this.file = file;
+        this.previousState = state;
+        log.info("Resuming {} from {}", file, state);
+    }
+
+    /**
+     * @return the file currently being monitored, or null if there is none yet.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the modification time of the file as observed by the latest check.
+     * Consumers use it to estimate how long a line waited between being written and being processed.
+     *
+     * @return epoch millis of the last observed modification, or 0 if the file has not been read yet.
+     */
+    public long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
     /**
      * Checks the file for updates using the provided file read strategy.
      */
-    private void checkFile() {
+    protected void checkFile() {
+        readChanges();
+        Supplier<Path> supplier = latestFileSupplier;
+        Path next = supplier != null ? supplier.get() : null;
+        while (next != null && !next.equals(file)) {
+            // readChanges() has drained the old file; continue with the new one from offset 0
+            log.info("File rotated: {} -> {}", file, next);
+            file = next;
+            previousState = null;
+            readChanges();
+            next = supplier.get();
+        }
+    }
+
+    private void readChanges() {
+        if (file == null) {
+            return;
+        }
         try {
+            lastModifiedMillis = file.toFile().lastModified();
+            if (delivery == Delivery.LINES) {
+                previousState = readStrategy.readPositionedLines(file, previousState, onLine);
+                return;
+            }
             ReadResult result = readStrategy.readChanges(file, previousState);
             if (!result.getNewContent().isEmpty()) {
                 // Process the new content using the provided callback
@@ -74,4 +179,14 @@ public class GenericFileMonitor {
             log.error("Error monitoring file {}: {}", file, e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * How new content is handed to the update callback.
+     */
+    public enum Delivery {
+        /** The whole update is delivered as one string. */
+        CONTENT,
+        /** Every complete line is delivered separately, as soon as it is read. */
+        LINES
+    }
+}
@@ -0,0 +1,259 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
+import com.zergatstage.monitor.handlers.LogEventHandler;
+import com.zergatstage.monitor.handlers.TypedEventHandler;
+import lombok.extern.log4j.Log4j2;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays historical journals so that cargo, construction and market state from earlier
+ * sessions is known before the live journal is tailed.
+ * <p>
+ * Every journal is memory-mapped and cut into chunks that end on a newline. Chunks are parsed in
+ * parallel on a dedicated {@link ForkJoinPool}; the {@link JournalEventScanner} drops lines without a
+ * registered handler before they are decoded or parsed.
+ * The parsed events are then put back into (timestamp, file, offset) order and sent through the
+ * regular {@link JournalLogMonitor.Dispatcher}, with manager notifications held back by the
+ * {@link NotificationGate} so listeners are refreshed once at the end.
+ * </p>
+ */
+@Log4j2
+public class JournalBackfillService {
+
+    /** Default upper bound of a parse chunk; the actual chunk extends to the next newline. */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final long IDLE_TIMEOUT_SECONDS = 120;
+
+    private static final Comparator<ParsedEvent> REPLAY_ORDER = Comparator
+            .comparingLong(ParsedEvent::timestamp)
+            .thenComparingInt(ParsedEvent::file)
+            .thenComparingLong(ParsedEvent::offset);
+
+    private final JournalEventScanner eventScanner;
+    private final JournalLogMonitor.Dispatcher dispatcher;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public JournalBackfillService(Map<String, LogEventHandler> handlers, JournalLogMonitor.Dispatcher dispatcher) {
+        this(handlers, dispatcher, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param handlers    registered handlers by event type; events without a handler are dropped while parsing.
+     * @param dispatcher  the dispatcher the live monitor uses.
+     * @param chunkSize   approximate number of bytes parsed by one task.
+     * @param parallelism number of parser threads.
+     */
+    public JournalBackfillService(Map<String, LogEventHandler> handlers, JournalLogMonitor.Dispatcher dispatcher,
+                                  int chunkSize, int parallelism) {
+        if (chunkSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("chunkSize and parallelism must be positive");
+        }
+        this.eventScanner = new JournalEventScanner(handlers);
+        this.dispatcher = dispatcher;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Parses and dispatches the given journals. Blocks until the dispatched events have been handled
+     * (as far as the dispatcher can tell) and the coalesced notifications have been published.
+     *
+     * @param journals journal files, oldest first; the order breaks ties between equal timestamps.
+     * @return statistics of the run.
+     */
+    public BackfillResult backfill(List<Path> journals) {
+        long started = System.nanoTime();
+        List<Chunk> chunks = new ArrayList<>();
+        long bytes = 0;
+        for (int i = 0; i < journals.size(); i++) {
+            try {
+                List<Chunk> fileChunks = split(i, journals.get(i));
+                for (Chunk chunk : fileChunks) {
+                    bytes += chunk.length();
+                }
+                chunks.addAll(fileChunks);
+            } catch (IOException e) {
+                log.warn("Skipping journal {} in backfill: {}", journals.get(i), e.getMessage());
+            }
+        }
+
+        LongAdder lines = new LongAdder();
+        List<ParsedEvent> events = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<List<ParsedEvent>> parsed = pool
+                    .submit(() -> chunks.parallelStream().map(chunk -> parse(chunk, lines)).toList())
+                    .get();
+            parsed.forEach(events::addAll);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Journal backfill interrupted while parsing");
+            return new BackfillResult(journals.size(), bytes, lines.sum(), 0, elapsedMillis(started));
+        } catch (ExecutionException e) {
+            log.error("Journal backfill failed while parsing: {}", e.getCause().getMessage(), e.getCause());
+            return new BackfillResult(journals.size(), bytes, lines.sum(), 0, elapsedMillis(started));
+        } finally {
+            pool.shutdown();
+        }
+        // chunks arrive file by file and mostly in time order already, which the merge sort exploits
+        events.sort(REPLAY_ORDER);
+
+        NotificationGate.suspend();
+        try {
+            for (ParsedEvent event : events) {
+                if (event.typed() != null && event.handler() instanceof TypedEventHandler typedHandler) {
+                    dispatcher.dispatch(event.typed(), typedHandler);
+                } else {
+                    dispatcher.dispatch(event.json(), event.handler());
+                }
+            }
+            if (!dispatcher.awaitIdle(IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Backfilled events still pending after {} s", IDLE_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Journal backfill interrupted while dispatching");
+        } finally {
+            NotificationGate.resume();
+        }
+
+        BackfillResult result = new BackfillResult(journals.size(), bytes, lines.sum(), events.size(),
+                elapsedMillis(started));
+        log.info("Journal backfill: {} files, {} bytes, {} lines, {} events dispatched in {} ms",
+                result.files(), result.bytes(), result.lines(), result.events(), result.elapsedMillis());
+        return result;
+    }
+
+    /**
+     * Maps a journal and cuts it into chunks of roughly {@link #chunkSize} bytes ending on a newline.
+     */
+    private List<Chunk> split(int fileIndex, Path journal) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return chunks;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Journal too large to map: " + size + " bytes");
+            }
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int limit = (int) size;
+            int start = 0;
+            while (start < limit) {
+                int end = (int) Math.min((long) start + chunkSize, limit);
+                while (end < limit && mapped.get(end - 1) != '\n') {
+                    end++;
+                }
+                chunks.add(new Chunk(fileIndex, mapped, start, end - start));
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    private List<ParsedEvent> parse(Chunk chunk, LongAdder lines) {
+        List<ParsedEvent> events = new ArrayList<>();
+        MappedByteBuffer buffer = chunk.buffer();
+        int end = chunk.start() + chunk.length();
+        byte[] line = new byte[256];
+        long lastTimestamp = 0L;
+        int lineStart = chunk.start();
+        for (int i = chunk.start(); i <= end; i++) {
+            if (i < end && buffer.get(i) != '\n') {
+                continue;
+            }
+            int length = i - lineStart;
+            if (length > 0 && buffer.get(lineStart + length - 1) == '\r') {
+                length--;
+            }
+            if (length > 0) {
+                if (line.length < length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                buffer.get(lineStart, line, 0, length);
+                lines.increment();
+                LogEventHandler handler = eventScanner.find(line, 0, length);
+                ParsedEvent event = handler == null ? null
+                        : toEvent(chunk.file(), lineStart, line, length, handler, lastTimestamp);
+                if (event != null) {
+                    lastTimestamp = event.timestamp();
+                    events.add(event);
+                }
+            }
+            lineStart = i + 1;
+        }
+        return events;
+    }
+
+    private ParsedEvent toEvent(int file, long offset, byte[] line, int length, LogEventHandler handler,
+                                long fallbackTimestamp) {
+        try {
+            if (handler instanceof TypedEventHandler) {
+                JournalEvent typed = JournalEventDecoder.decode(handler.getEventType(), line, 0, length);
+                if (typed != null) {
+                    long timestamp = typed.timestamp() != null ? typed.timestamp().toEpochMilli() : fallbackTimestamp;
+                    return new ParsedEvent(timestamp, file, offset, null, typed, handler);
+                }
+            }
+            JSONObject json = new JSONObject(new String(line, 0, length, StandardCharsets.UTF_8));
+            long timestamp = fallbackTimestamp;
+            String value = json.optString("timestamp", null);
+            if (value != null) {
+                try {
+                    timestamp = Instant.parse(value).toEpochMilli();
+                } catch (DateTimeParseException ignored) {
+                    // keep the previous timestamp so the line stays next to its neighbours
+                }
+            }
+            return new ParsedEvent(timestamp, file, offset, json, null, handler);
+        } catch (Exception e) {
+            log.debug("Skipping unparsable journal line at offset {}: {}", offset, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
+    /**
+     * Outcome of a backfill run.
+     *
+     * @param files         number of journals processed.
+     * @param bytes         number of bytes mapped.
+     * @param lines         number of non-empty lines seen.
+     * @param events        number of events handed to the dispatcher.
+     * @param elapsedMillis wall-clock duration of the run.
+     */
+    public record BackfillResult(int files, long bytes, long lines, int events, long elapsedMillis) {
+    }
+
+    private record Chunk(int file, MappedByteBuffer buffer, int start, int length) {
+    }
+
+    private record ParsedEvent(long timestamp, int file, long offset, JSONObject json, JournalEvent typed,
+                               LogEventHandler handler) {
+    }
+}
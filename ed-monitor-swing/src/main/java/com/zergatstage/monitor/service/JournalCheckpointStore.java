@@ -0,0 +1,217 @@
+package com.zergatstage.monitor.service;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * Durable record of how far the journal monitor has processed the journal.
+ * <p>
+ * A checkpoint is the journal's file name, the byte offset just past the last processed line and the
+ * CRC32 and length of that line. On startup the monitor resumes at the offset when the line found
+ * there still matches, which guards against a journal that was replaced or truncated in the meantime.
+ * </p>
+ * <p>
+ * Lines are {@link #record recorded} in memory; the file is rewritten only every
+ * {@link #DEFAULT_BATCH_LINES} lines, after {@link #DEFAULT_BATCH_INTERVAL}, or on {@link #flush()}.
+ * Each write goes to a temporary file that is then renamed over the checkpoint, so a crash leaves
+ * either the previous or the new checkpoint, never a partial one.
+ * </p>
+ */
+@Log4j2
+public class JournalCheckpointStore {
+
+    /** Default number of recorded lines after which the checkpoint is written. */
+    public static final int DEFAULT_BATCH_LINES = 256;
+    /** Default time after which a recorded line is written even if the batch is not full. */
+    public static final Duration DEFAULT_BATCH_INTERVAL = Duration.ofSeconds(2);
+
+    private static final String KEY_JOURNAL = "journal";
+    private static final String KEY_OFFSET = "offset";
+    private static final String KEY_CRC = "crc";
+    private static final String KEY_LENGTH = "length";
+
+    private final Path location;
+    private final int batchLines;
+    private final long batchIntervalNanos;
+    private Path pendingJournal;
+    private long pendingOffset;
+    private String pendingLine;
+    private int linesSinceWrite;
+    private long lastWriteNanos = System.nanoTime();
+    private long writes;
+
+    public JournalCheckpointStore(Path location) {
+        this(location, DEFAULT_BATCH_LINES, DEFAULT_BATCH_INTERVAL);
+    }
+
+    /**
+     * @param location      the checkpoint file.
+     * @param batchLines    number of recorded lines after which the checkpoint is written.
+     * @param batchInterval time after which a recorded line is written even if the batch is not full.
+     */
+    public JournalCheckpointStore(Path location, int batchLines, Duration batchInterval) {
+        if (batchLines <= 0) {
+            throw new IllegalArgumentException("batchLines must be positive: " + batchLines);
+        }
+        this.location = location;
+        this.batchLines = batchLines;
+        this.batchIntervalNanos = batchInterval.toNanos();
+    }
+
+    /**
+     * Reads the saved checkpoint.
+     *
+     * @return the checkpoint, or null if there is none or it cannot be read.
+     */
+    public Checkpoint load() {
+        if (!Files.isRegularFile(location)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(location)) {
+            properties.load(in);
+            return new Checkpoint(
+                    properties.getProperty(KEY_JOURNAL),
+                    Long.parseLong(properties.getProperty(KEY_OFFSET)),
+                    Long.parseLong(properties.getProperty(KEY_CRC)),
+                    Integer.parseInt(properties.getProperty(KEY_LENGTH)));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable journal checkpoint {}: {}", location, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Notes that {@code line} of {@code journal}, ending at {@code endOffset}, has been processed, and writes
+     * the checkpoint if the current batch is due.
+     *
+     * @param journal   the journal the line was read from.
+     * @param endOffset the offset just past the line's terminator.
+     * @param line      the line, without its terminator.
+     */
+    public synchronized void record(Path journal, long endOffset, String line) {
+        pendingJournal = journal;
+        pendingOffset = endOffset;
+        pendingLine = line;
+        linesSinceWrite++;
+        if (linesSinceWrite >= batchLines || System.nanoTime() - lastWriteNanos >= batchIntervalNanos) {
+            write();
+        }
+    }
+
+    /**
+     * Writes the most recently recorded line, if it has not been written yet.
+     */
+    public synchronized void flush() {
+        if (linesSinceWrite > 0) {
+            write();
+        }
+    }
+
+    /**
+     * @return number of times the checkpoint file has been written.
+     */
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    /**
+     * Checks that {@code journal} still ends the checkpointed line at the checkpointed offset.
+     *
+     * @return true if reading can safely resume at {@link Checkpoint#offset()}.
+     */
+    public static boolean matches(Path journal, Checkpoint checkpoint) {
+        if (checkpoint.offset() <= 0 || checkpoint.lineLength() < 0) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            if (channel.size() < checkpoint.offset()) {
+                return false;
+            }
+            // the line, an optional '\r' and the '\n' just before the offset
+            int window = (int) Math.min(checkpoint.lineLength() + 2L, checkpoint.offset());
+            ByteBuffer buffer = ByteBuffer.allocate(window);
+            long position = checkpoint.offset() - window;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    return false;
+                }
+            }
+            byte[] bytes = buffer.array();
+            int end = window;
+            if (bytes[end - 1] != '\n') {
+                return false;
+            }
+            end--;
+            if (end > 0 && bytes[end - 1] == '\r') {
+                end--;
+            }
+            int start = end - checkpoint.lineLength();
+            if (start < 0) {
+                return false;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes, start, checkpoint.lineLength());
+            return crc.getValue() == checkpoint.lineCrc();
+        } catch (IOException e) {
+            log.warn("Cannot verify journal checkpoint against {}: {}", journal, e.getMessage());
+            return false;
+        }
+    }
+
+    private void write() {
+        byte[] line = pendingLine.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(line);
+        Properties properties = new Properties();
+        properties.setProperty(KEY_JOURNAL, pendingJournal.getFileName().toString());
+        properties.setProperty(KEY_OFFSET, Long.toString(pendingOffset));
+        properties.setProperty(KEY_CRC, Long.toString(crc.getValue()));
+        properties.setProperty(KEY_LENGTH, Integer.toString(line.length));
+        Path temp = location.resolveSibling(location.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(location.toAbsolutePath().getParent());
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "ed-monitor journal checkpoint");
+            }
+            try {
+                Files.move(temp, location, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, location, StandardCopyOption.REPLACE_EXISTING);
+            }
+            writes++;
+            linesSinceWrite = 0;
+            lastWriteNanos = System.nanoTime();
+        } catch (IOException e) {
+            log.warn("Failed to write journal checkpoint {}: {}", location, e.getMessage());
+            // still pending, but retry with the next batch rather than on every line
+            linesSinceWrite = 1;
+            lastWriteNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * A saved read position.
+     *
+     * @param journal    file name of the journal, relative to the journal directory.
+     * @param offset     offset just past the last processed line.
+     * @param lineCrc    CRC32 of the last processed line's UTF-8 bytes, without terminator.
+     * @param lineLength length of that line in bytes, without terminator.
+     */
+    public record Checkpoint(String journal, long offset, long lineCrc, int lineLength) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.zergatstage.monitor.service;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cached view of the {@code Journal.*.log} files in the Elite Dangerous log directory.
+ * <p>
+ * The directory is only listed again when its modification time changes (or the index is
+ * explicitly invalidated by a watcher), so asking for the latest journal costs a single
+ * {@code stat} of the directory in the common case. Modification times of individual files
+ * are captured once, when the file is first discovered.
+ * </p>
+ */
+@Log4j2
+public class JournalDirectoryIndex {
+
+    static final String JOURNAL_GLOB = "Journal.*.log";
+
+    private final Path directory;
+    private final Map<Path, Long> discovered = new HashMap<>();
+    private final Comparator<Path> byAge = Comparator
+            .comparingLong((Path p) -> discovered.getOrDefault(p, 0L))
+            .thenComparing(p -> p.getFileName().toString());
+    private long directoryStamp = Long.MIN_VALUE;
+    private Path latest;
+
+    public JournalDirectoryIndex(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the most recent journal file, rescanning the directory only if it changed.
+     *
+     * @return the latest journal file, or null if none exists.
+     */
+    public synchronized Path latest() {
+        refreshIfChanged();
+        return latest;
+    }
+
+    /**
+     * Returns all known journal files ordered from oldest to newest.
+     *
+     * @return an ordered copy of the cached journal list.
+     */
+    public synchronized List<Path> journals() {
+        refreshIfChanged();
+        List<Path> journals = new ArrayList<>(discovered.keySet());
+        journals.sort(byAge);
+        return journals;
+    }
+
+    /**
+     * Returns the journal written after {@code current}, so that a reader resuming in an older journal
+     * visits every later one in order instead of jumping to the latest.
+     *
+     * @param current the journal being read, or null.
+     * @return the next journal; {@code current} if it is the latest; the latest if {@code current} is null
+     *         or no longer listed.
+     */
+    public synchronized Path next(Path current) {
+        refreshIfChanged();
+        if (current == null || current.equals(latest) || !discovered.containsKey(current)) {
+            return latest;
+        }
+        List<Path> journals = new ArrayList<>(discovered.keySet());
+        journals.sort(byAge);
+        return journals.get(journals.indexOf(current) + 1);
+    }
+
+    /**
+     * Forces the next lookup to list the directory again, e.g. after a watcher reported a new file.
+     */
+    public synchronized void invalidate() {
+        directoryStamp = Long.MIN_VALUE;
+    }
+
+    /**
+     * @param file a file name or path.
+     * @return true if the file name follows the {@code Journal.*.log} pattern.
+     */
+    public static boolean isJournal(Path file) {
+        if (file == null || file.getFileName() == null) {
+            return false;
+        }
+        String name = file.getFileName().toString();
+        return name.startsWith("Journal.") && name.endsWith(".log");
+    }
+
+    private void refreshIfChanged() {
+        long stamp = directory.toFile().lastModified();
+        if (stamp == directoryStamp) {
+            return;
+        }
+        directoryStamp = stamp;
+        if (stamp == 0L) {
+            // directory does not exist (yet)
+            discovered.clear();
+            latest = null;
+            return;
+        }
+        rescan();
+    }
+
+    private void rescan() {
+        Map<Path, Long> seen = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, JOURNAL_GLOB)) {
+            for (Path path : stream) {
+                Long known = discovered.get(path);
+                seen.put(path, known != null ? known : path.toFile().lastModified());
+            }
+        } catch (IOException e) {
+            log.error("Error reading log directory: {}", e.getMessage());
+            return;
+        }
+        discovered.clear();
+        discovered.putAll(seen);
+        latest = discovered.keySet().stream().max(byAge).orElse(null);
+        log.debug("Journal index refreshed: {} files, latest {}", discovered.size(), latest);
+    }
+}
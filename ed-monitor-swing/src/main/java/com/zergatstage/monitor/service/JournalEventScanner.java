@@ -0,0 +1,197 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.handlers.LogEventHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Finds the handler for a raw journal line without parsing the JSON.
+ * <p>
+ * Journal lines carry the event name as a plain string value of the {@code "event"} key, e.g.
+ * {@code { "timestamp":"...", "event":"Music", ... }}. The scanner locates that value in the raw
+ * characters or bytes and compares it in place against the subscribed event types, so lines for
+ * events nobody handles are rejected without allocating anything.
+ * </p>
+ */
+public final class JournalEventScanner {
+
+    private static final String KEY = "\"event\"";
+    private static final byte[] KEY_BYTES = KEY.getBytes(StandardCharsets.US_ASCII);
+
+    private final String[] types;
+    private final byte[][] typeBytes;
+    private final LogEventHandler[] handlers;
+
+    /**
+     * @param handlers handlers by event type, as built by {@code HandlerConfiguration.getLogEventHandlers()}.
+     */
+    public JournalEventScanner(Map<String, LogEventHandler> handlers) {
+        int size = handlers.size();
+        this.types = new String[size];
+        this.typeBytes = new byte[size][];
+        this.handlers = new LogEventHandler[size];
+        int i = 0;
+        for (Map.Entry<String, LogEventHandler> entry : handlers.entrySet()) {
+            types[i] = entry.getKey();
+            typeBytes[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            this.handlers[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    /**
+     * @param line one journal line.
+     * @return the handler subscribed to the line's event, or null if there is none or the line has no event.
+     */
+    public LogEventHandler find(CharSequence line) {
+        int length = line.length();
+        int from = 0;
+        while (true) {
+            int key = indexOfKey(line, from, length);
+            if (key < 0) {
+                return null;
+            }
+            int start = valueStart(line, key + KEY.length(), length);
+            if (start < 0) {
+                // the text matched inside some other string; keep looking
+                from = key + 1;
+                continue;
+            }
+            int end = start;
+            while (end < length && line.charAt(end) != '"') {
+                end++;
+            }
+            return end < length ? match(line, start, end - start) : null;
+        }
+    }
+
+    /**
+     * @param line   buffer holding a UTF-8 encoded journal line.
+     * @param offset index of the first byte of the line.
+     * @param length number of bytes in the line.
+     * @return the handler subscribed to the line's event, or null if there is none or the line has no event.
+     */
+    public LogEventHandler find(byte[] line, int offset, int length) {
+        int limit = offset + length;
+        int from = offset;
+        while (true) {
+            int key = indexOfKey(line, from, limit);
+            if (key < 0) {
+                return null;
+            }
+            int start = valueStart(line, key + KEY_BYTES.length, limit);
+            if (start < 0) {
+                from = key + 1;
+                continue;
+            }
+            int end = start;
+            while (end < limit && line[end] != '"') {
+                end++;
+            }
+            return end < limit ? match(line, start, end - start) : null;
+        }
+    }
+
+    private LogEventHandler match(CharSequence line, int start, int length) {
+        for (int i = 0; i < types.length; i++) {
+            String type = types[i];
+            if (type.length() == length && regionEquals(line, start, type)) {
+                return handlers[i];
+            }
+        }
+        return null;
+    }
+
+    private LogEventHandler match(byte[] line, int start, int length) {
+        for (int i = 0; i < typeBytes.length; i++) {
+            byte[] type = typeBytes[i];
+            if (type.length == length && Arrays.equals(line, start, start + length, type, 0, length)) {
+                return handlers[i];
+            }
+        }
+        return null;
+    }
+
+    private static boolean regionEquals(CharSequence line, int start, String type) {
+        for (int i = 0; i < type.length(); i++) {
+            if (line.charAt(start + i) != type.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOfKey(CharSequence line, int from, int length) {
+        if (line instanceof String s) {
+            return s.indexOf(KEY, from);
+        }
+        outer:
+        for (int i = from; i <= length - KEY.length(); i++) {
+            for (int k = 0; k < KEY.length(); k++) {
+                if (line.charAt(i + k) != KEY.charAt(k)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int indexOfKey(byte[] line, int from, int limit) {
+        outer:
+        for (int i = from; i <= limit - KEY_BYTES.length; i++) {
+            for (int k = 0; k < KEY_BYTES.length; k++) {
+                if (line[i + k] != KEY_BYTES[k]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Skips {@code : "} after the key.
+     *
+     * @return index of the first character of the value, or -1 if the key is not followed by a string value.
+     */
+    private static int valueStart(CharSequence line, int pos, int length) {
+        pos = skipSpaces(line, pos, length);
+        if (pos >= length || line.charAt(pos) != ':') {
+            return -1;
+        }
+        pos = skipSpaces(line, pos + 1, length);
+        if (pos >= length || line.charAt(pos) != '"') {
+            return -1;
+        }
+        return pos + 1;
+    }
+
+    private static int valueStart(byte[] line, int pos, int limit) {
+        pos = skipSpaces(line, pos, limit);
+        if (pos >= limit || line[pos] != ':') {
+            return -1;
+        }
+        pos = skipSpaces(line, pos + 1, limit);
+        if (pos >= limit || line[pos] != '"') {
+            return -1;
+        }
+        return pos + 1;
+    }
+
+    private static int skipSpaces(CharSequence line, int pos, int length) {
+        while (pos < length && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipSpaces(byte[] line, int pos, int limit) {
+        while (pos < limit && (line[pos] == ' ' || line[pos] == '\t' || line[pos] == '\r' || line[pos] == '\n')) {
+            pos++;
+        }
+        return pos;
+    }
+}
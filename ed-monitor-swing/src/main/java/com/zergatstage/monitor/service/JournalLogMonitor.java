@@ -1,26 +1,32 @@
 package com.zergatstage.monitor.service;
 
+import com.zergatstage.monitor.config.LogMonitorConfig;
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
 import com.zergatstage.monitor.handlers.LogEventHandler;
+import com.zergatstage.monitor.handlers.TypedEventHandler;
 import com.zergatstage.monitor.service.readers.AppendFileReadStrategy;
+import com.zergatstage.monitor.service.metrics.LatencyStats;
+import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
-import java.nio.file.*;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The JournalLogMonitor class is responsible for monitoring the Elite Dangerous log directory
- * for new Journal's logs entries. It is controlled now
+ * for new Journal's logs entries. When the game starts a new {@code Journal.*.log}, the monitor
+ * drains the old file and continues with the new one. It is controlled now
  * via UI interactions (start/stop). This makes the service lifecycle fully managed by user.
  * Scheduling is provided by MonitorController.
  */
@@ -28,10 +34,92 @@ import java.util.concurrent.Executors;
 public class JournalLogMonitor {
     public interface Dispatcher {
         void dispatch(JSONObject eventJson, LogEventHandler handler);
+
+        /**
+         * Dispatches a decoded event to a handler that takes typed events.
+         * The default hands it over on the calling thread.
+         */
+        default void dispatch(JournalEvent event, TypedEventHandler handler) {
+            handler.handle(event);
+        }
+
+        /**
+         * Waits until everything dispatched so far has been handled.
+         * Dispatchers that handle events synchronously are always idle.
+         *
+         * @return false if the timeout elapsed first.
+         */
+        default boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+            return true;
+        }
+
+        /**
+         * Runs the callback once everything dispatched before this call has been handled, without waiting
+         * for it. Dispatchers that handle events synchronously run it right away.
+         */
+        default void afterHandled(Runnable callback) {
+            callback.run();
+        }
     }
+    /** Number of read lines that may wait for the parser before the reader is held back. */
+    public static final int LINE_QUEUE_CAPACITY = 4096;
+    private static final long CHECKPOINT_IDLE_FLUSH_SECONDS = 1;
+    private static final long STOP_JOIN_SECONDS = 5;
+    /** Parsed lines after which their position is handed to the dispatcher for the checkpoint. */
+    static final int CHECKPOINT_MARK_LINES = 64;
+
+    private static final BoundedRingBuffer.Writer<LineSlot, String, ReadPosition> LINE = (slot, line, position) -> {
+        slot.line = line;
+        slot.journal = position.journal;
+        slot.endOffset = position.endOffset;
+        slot.writtenAt = position.writtenAt;
+    };
+
     private final GenericFileMonitor fileMonitor;
+    private final JournalDirectoryIndex journalIndex;
     private final Dispatcher dispatcher;
-    private final ExecutorService parsingPool;
+    private final Map<String, LogEventHandler> eventHandlers;
+    private final JournalEventScanner eventScanner;
+    private final JournalCheckpointStore checkpoints;
+    /** Position of the line being queued; only touched by the reader thread. */
+    private final ReadPosition readPosition = new ReadPosition();
+    // last parsed line not yet handed to the dispatcher for the checkpoint; only touched by the parser thread
+    private Path parsedJournal;
+    private long parsedOffset;
+    private String parsedLine;
+    private int linesSinceMark;
+    private long marks;
+    private boolean unflushedMark;
+    /** Newest mark recorded in the checkpoint; guarded by {@link #checkpoints}. */
+    private long recordedMark;
+    private boolean resumedFromCheckpoint;
+    private final LongAdder skippedLines = new LongAdder();
+    private final LongAdder parsedLines = new LongAdder();
+    /** Drops repeated snapshot lines; used by the parser thread only. */
+    private final EventDeduplicator deduplicator = new EventDeduplicator();
+    private final boolean backfillEnabled;
+    private final AtomicBoolean backfillStarted = new AtomicBoolean(false);
+    private final Object parserLock = new Object();
+    /** The parser thread while it runs; it is started with the first queued line. */
+    private volatile Thread parser;
+    // guarded by parserLock: the parser is only interrupted while it waits for a line, never while dispatching
+    private boolean parserIdle;
+    private boolean parserStopping;
+    private Thread backfillThread;
+    /**
+     * Hand-off from the reader thread to the parser thread. It is bounded: when the parser (or the
+     * dispatcher behind it) falls behind, the reader blocks instead of buffering the journal in memory.
+     */
+    private final BoundedRingBuffer<LineSlot> lineQueue =
+            new BoundedRingBuffer<>("journal lines", LINE_QUEUE_CAPACITY, LineSlot::new);
+    private boolean backfilling;
+    private boolean active;
+    /**
+     * Time between the journal file being written (its modification time) and the line
+     * being handed to the dispatcher.
+     */
+    @Getter
+    private final LatencyStats dispatchLatency = new LatencyStats("journal line-to-dispatch");
     /**
      * Constructs a LogMonitor.
      *
@@ -40,111 +128,387 @@ public class JournalLogMonitor {
      */
     public JournalLogMonitor(Path logDirectoryPath,
                              Map<String, LogEventHandler> eventHandlers, Dispatcher dispatcher) {
+        this(logDirectoryPath, eventHandlers, dispatcher, LogMonitorConfig.journalCheckpointFile() != null
+                ? new JournalCheckpointStore(LogMonitorConfig.journalCheckpointFile())
+                : null);
+    }
+
+    /**
+     * Constructs a LogMonitor that resumes from, and keeps updating, a read checkpoint.
+     *
+     * @param logDirectoryPath   the path to the folder containing your Journal.log
+     * @param eventHandlers      the list of event handlers to dispatch incoming events to
+     * @param checkpoints        where the read position is kept across restarts, or null to always
+     *                           start at the beginning of the latest journal
+     */
+    public JournalLogMonitor(Path logDirectoryPath, Map<String, LogEventHandler> eventHandlers,
+                             Dispatcher dispatcher, JournalCheckpointStore checkpoints) {
         this.dispatcher = dispatcher;
+        this.checkpoints = checkpoints;
+        this.eventHandlers = eventHandlers;
+        this.eventScanner = new JournalEventScanner(eventHandlers);
+        this.backfillEnabled = LogMonitorConfig.backfillEnabled();
 
-        // Process lastest log file in the directory
-        List<Path> logFiles = findLogFiles(logDirectoryPath);
-        Path latestLogFile = findLatestLogFile(logFiles);
-        // Use AppendFileReadStrategy so we only process new lines added to the file
-        this.fileMonitor = new GenericFileMonitor(
+        // Process the latest journal and follow the game when it starts a new one
+        this.journalIndex = new JournalDirectoryIndex(logDirectoryPath);
+        Path latestLogFile = journalIndex.latest();
+        if (latestLogFile == null) {
+            log.warn("No journal files found in {}, waiting for the game to create one", logDirectoryPath);
+        }
+        // Use AppendFileReadStrategy so we only process new lines added to the file;
+        // the watching monitor reacts to file system notifications instead of a 1s poll
+        WatchingFileMonitor watchingMonitor = new WatchingFileMonitor(
+                logDirectoryPath,
                 latestLogFile,
                 new AppendFileReadStrategy(),
-                // onUpdate callback: process each JSON line
-                newContent ->
-                    processAppendedLines(newContent, eventHandlers)
+                // each complete JSON line is handed over as soon as it is read, with the offset just past it
+                this::processAppendedLine,
+                WatchingFileMonitor.DEFAULT_SAFETY_POLL
         );
-        this.parsingPool = Executors.newFixedThreadPool(1);
+        watchingMonitor.setOnEntryCreated(created -> {
+            if (JournalDirectoryIndex.isJournal(created)) {
+                journalIndex.invalidate();
+            }
+        });
+        // one journal at a time, so a resumed reader also replays those written while the app was down
+        watchingMonitor.followRotation(() -> journalIndex.next(watchingMonitor.getFile()));
+        resumeFromCheckpoint(watchingMonitor, logDirectoryPath);
+        this.fileMonitor = watchingMonitor;
+    }
+
+    /**
+     * Continues in the checkpointed journal, right after the last line processed before the restart,
+     * provided the journal still has that line at that offset. Rotation then reads every later journal
+     * in order before tailing the latest one.
+     */
+    private void resumeFromCheckpoint(GenericFileMonitor monitor, Path logDirectoryPath) {
+        if (checkpoints == null) {
+            return;
+        }
+        JournalCheckpointStore.Checkpoint checkpoint = checkpoints.load();
+        if (checkpoint == null || checkpoint.journal() == null) {
+            return;
+        }
+        Path journal = logDirectoryPath.resolve(checkpoint.journal());
+        if (!JournalCheckpointStore.matches(journal, checkpoint)) {
+            log.info("Journal checkpoint {}@{} no longer matches, reading from the start",
+                    checkpoint.journal(), checkpoint.offset());
+            return;
+        }
+        monitor.resumeAt(journal, checkpoint.offset());
+        resumedFromCheckpoint = true;
     }
 
     /**
      * Enables the log monitoring process.
      * This method can be called from the UI to start processing log entries.
      */
-    public void startMonitoring() {
+    public synchronized void startMonitoring() {
+        active = true;
+        // a checkpoint means the history was already consumed by an earlier run
+        if (backfillEnabled && !resumedFromCheckpoint && backfillStarted.compareAndSet(false, true)) {
+            // older journals first; the live journal is tailed once they have been replayed
+            backfilling = true;
+            backfillThread = AppRuntime.getInstance().startThread("journal-backfill", this::backfillThenTail);
+            return;
+        }
+        if (backfilling) {
+            return;
+        }
         this.fileMonitor.start();
+        if (lineQueue.size() > 0) {
+            // lines left over from before a stop
+            startParser();
+        }
         log.info("Log monitoring started at: {} ",Instant.now());
     }
 
+    private void backfillThenTail() {
+        try {
+            Path tailed = fileMonitor.getFile() != null ? fileMonitor.getFile() : journalIndex.latest();
+            List<Path> history = new ArrayList<>();
+            for (Path journal : journalIndex.journals()) {
+                if (journal.equals(tailed)) {
+                    break;
+                }
+                history.add(journal);
+            }
+            new JournalBackfillService(eventHandlers, dispatcher).backfill(history);
+        } catch (Exception e) {
+            log.error("Journal backfill failed: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                backfilling = false;
+                if (active) {
+                    startMonitoring();
+                }
+            }
+        }
+    }
+
     /**
      * Disables the log monitoring process.
      * This method can be called from the UI to stop processing log entries.
+     * The backfill and parser threads are stopped; lines still queued are parsed after the next start.
      */
     public void stopMonitoring() {
-       this.fileMonitor.stop();
-       this.parsingPool.shutdown();
-        log.info("Log monitoring ({}) stopped at: {}",this, Instant.now());
+        Thread backfill;
+        synchronized (this) {
+            active = false;
+            this.fileMonitor.stop();
+            backfill = backfillThread;
+            backfillThread = null;
+        }
+        // outside the lock: the backfill thread takes it on its way out
+        if (backfill != null) {
+            backfill.interrupt();
+            join(backfill);
+        }
+        stopParser();
+        if (checkpoints != null) {
+            checkpoints.flush();
+        }
+        log.info("Log monitoring ({}) stopped at: {}; {}; lines parsed={}, skipped unparsed={}, duplicates={}; {}",
+                this, Instant.now(), dispatchLatency.summary(), getParsedLines(), getSkippedLines(),
+                getDuplicateLines(), lineQueue.summary());
     }
     /**
-     * Finds all log files in the specified directory.
+     * Queues a single complete journal line for the parser thread, blocking while the queue is full.
      *
-     * @param directory the log directory.
-     * @return a list of log file paths.
-     */
-    private List<Path> findLogFiles(Path directory){
-        List<Path> logFiles = new ArrayList<>();
-        if (Files.exists(directory) && Files.isDirectory(directory)) {
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.log")) {//*.log
-                stream.forEach(logFiles::add);
-            } catch (IOException e) {
-                log.error("Error reading log directory: {}", e.getMessage());
-                System.err.println("Error reading log directory: " + e.getMessage());
+     * @param line      one JSON line, without its line terminator
+     * @param endOffset offset just past the line in the current journal
+     */
+    private void processAppendedLine(String line, long endOffset) {
+        readPosition.journal = fileMonitor.getFile();
+        readPosition.endOffset = endOffset;
+        readPosition.writtenAt = fileMonitor.getLastModifiedMillis();
+        enqueue(line, readPosition);
+    }
+
+    private void enqueue(String line, ReadPosition position) {
+        if (line.isBlank()) {
+            return;
+        }
+        if (parser == null) {
+            startParser();
+        }
+        try {
+            lineQueue.put(LINE, line, position);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while queueing a journal line");
+        }
+    }
+
+    private void startParser() {
+        synchronized (parserLock) {
+            if (parser == null) {
+                parserStopping = false;
+                parser = AppRuntime.getInstance().startThread("journal-parser", this::parseQueuedLines);
             }
         }
-        return logFiles;
     }
 
+    /**
+     * Stops the parser once it has dispatched the line in hand, and waits for it.
+     */
+    private void stopParser() {
+        Thread thread;
+        synchronized (parserLock) {
+            thread = parser;
+            if (thread == null) {
+                return;
+            }
+            parserStopping = true;
+            if (parserIdle) {
+                thread.interrupt();
+            }
+        }
+        join(thread);
+        synchronized (parserLock) {
+            if (parser == thread) {
+                parser = null;
+            }
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            if (!thread.join(Duration.ofSeconds(STOP_JOIN_SECONDS))) {
+                log.warn("{} did not stop within {} s", thread.getName(), STOP_JOIN_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
     /**
-     * Determines the latest log file based on the last modified time.
-     *
-     * @param logFiles the list of log files.
-     * @return the latest log file, or null if none found.
-     */
-    private Path findLatestLogFile(List<Path> logFiles) {
-        return logFiles.stream()
-                .max((f1, f2) -> {
-                    try {
-                        return Files.getLastModifiedTime(f1).compareTo(Files.getLastModifiedTime(f2));
-                    } catch (IOException e) {
-                        return 0;
+     * Parser thread: dispatches queued lines and records them in the checkpoint once the dispatcher has
+     * handled them, so a restart neither repeats nor skips them. Every {@link #CHECKPOINT_MARK_LINES} lines,
+     * whenever the queue runs dry and when the parser stops, the position of the last line is handed to
+     * {@link Dispatcher#afterHandled}; the checkpoint advances when every line before it has been handled.
+     */
+    private void parseQueuedLines() {
+        try {
+            while (true) {
+                synchronized (parserLock) {
+                    if (parserStopping) {
+                        return;
+                    }
+                    parserIdle = true;
+                }
+                LineSlot slot = lineQueue.poll(CHECKPOINT_IDLE_FLUSH_SECONDS, TimeUnit.SECONDS);
+                synchronized (parserLock) {
+                    parserIdle = false;
+                    // a stop that raced with the line is honoured after it, not in the middle of dispatching
+                    Thread.interrupted();
+                }
+                if (slot == null) {
+                    markParsed(true);
+                    continue;
+                }
+                String line = slot.line;
+                Path journal = slot.journal;
+                long endOffset = slot.endOffset;
+                long writtenAt = slot.writtenAt;
+                slot.line = null;
+                slot.journal = null;
+                lineQueue.release();
+                parseLine(line, writtenAt);
+                if (checkpoints != null && journal != null && endOffset > 0) {
+                    parsedJournal = journal;
+                    parsedOffset = endOffset;
+                    parsedLine = line;
+                    if (++linesSinceMark >= CHECKPOINT_MARK_LINES) {
+                        markParsed(false);
                     }
-                })
-                .orElse(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            // stopped while waiting for a line
+        } finally {
+            markParsed(true);
+        }
     }
 
     /**
-     * Parses a chunk of appended text into individual JSON lines,
-     * then finds and invokes the appropriate handler(s) for each event.
+     * Asks the dispatcher to record the last parsed line in the checkpoint once it has been handled.
      *
-     * @param newContent     the raw text newly appended to Journal.log
-     * @param handlers       the registered list of LogEventHandler implementations
+     * @param flush write the checkpoint right away rather than with the next batch.
      */
-    private void processAppendedLines(String newContent, Map<String, LogEventHandler> handlers) {
-        // instead of split() → array, stream each line:
-        try (BufferedReader reader = new BufferedReader(new StringReader(newContent))) {
-            log.trace("processAppendedLines: processing new content of length {}", newContent.length());
-            reader.lines().forEach(line ->
-                    parsingPool.submit(() -> processLine(handlers, line))
-            );
-        } catch (IOException e) {
-            log.error("Error reading appended lines stream", e);
+    private void markParsed(boolean flush) {
+        if (parsedLine == null) {
+            if (flush && unflushedMark) {
+                unflushedMark = false;
+                dispatcher.afterHandled(checkpoints::flush);
+            }
+            return;
         }
+        unflushedMark = !flush;
+        long mark = ++marks;
+        Path journal = parsedJournal;
+        long offset = parsedOffset;
+        String line = parsedLine;
+        parsedLine = null;
+        parsedJournal = null;
+        linesSinceMark = 0;
+        dispatcher.afterHandled(() -> recordHandled(mark, journal, offset, line, flush));
     }
 
-    private void processLine(Map<String, LogEventHandler> handlers, String line) {
-        try {
-            JSONObject json = new JSONObject(new JSONTokener(line));
-            String eventType = json.getString("event");
-            // Dispatch to all handlers that claim they can handle this event
-            LogEventHandler logEventHandler = handlers.get(eventType);
-            if (logEventHandler != null) {
-                log.trace("Dispatching event '{}' to handler: {}", eventType, logEventHandler.getClass().getName());
-                dispatcher.dispatch(json, logEventHandler);
+    private void recordHandled(long mark, Path journal, long offset, String line, boolean flush) {
+        synchronized (checkpoints) {
+            // shards pass marks in order, but the callbacks of two marks may race; never move back
+            if (mark <= recordedMark) {
+                return;
+            }
+            recordedMark = mark;
+            checkpoints.record(journal, offset, line);
+            if (flush) {
+                checkpoints.flush();
             }
+        }
+    }
 
+    /**
+     * Lines whose event has no handler, and snapshot lines that repeat the previous one,
+     * are dropped here, before any JSON is built.
+     */
+    private void parseLine(String line, long writtenAt) {
+        LogEventHandler logEventHandler = eventScanner.find(line);
+        if (logEventHandler == null) {
+            skippedLines.increment();
+            return;
+        }
+        if (logEventHandler.isSnapshot() && deduplicator.isRepeat(logEventHandler.getEventType(), line)) {
+            return;
+        }
+        parsedLines.increment();
+        // the dispatcher provides the parallelism, per ordering key; it blocks when a shard is full
+        processLine(logEventHandler, line, writtenAt);
+    }
+
+    private void processLine(LogEventHandler logEventHandler, String line, long writtenAt) {
+        try {
+            log.trace("Dispatching event '{}' to handler: {}", logEventHandler.getEventType(),
+                    logEventHandler.getClass().getName());
+            TypedEventHandler typedHandler = logEventHandler instanceof TypedEventHandler typed ? typed : null;
+            JournalEvent event = typedHandler != null
+                    ? JournalEventDecoder.decode(logEventHandler.getEventType(), line)
+                    : null;
+            if (event != null) {
+                dispatcher.dispatch(event, typedHandler);
+            } else {
+                dispatcher.dispatch(new JSONObject(new JSONTokener(line)), logEventHandler);
+            }
+            if (writtenAt > 0) {
+                dispatchLatency.record(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - writtenAt));
+            }
         } catch (Exception e) {
             System.err.println("Error parsing or handling line: " + line + " – " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    /**
+     * @return the reader-to-parser queue, for its occupancy and stall figures.
+     */
+    public BoundedRingBuffer<?> getLineQueue() {
+        return lineQueue;
+    }
+
+    /**
+     * @return number of lines dropped by the event-type pre-filter without being parsed.
+     */
+    public long getSkippedLines() {
+        return skippedLines.sum();
+    }
+
+    /**
+     * @return number of snapshot lines dropped as repeats of the previous one.
+     */
+    public long getDuplicateLines() {
+        return deduplicator.getRepeats();
+    }
+
+    /**
+     * @return number of lines that matched a handler and were parsed into JSON.
+     */
+    public long getParsedLines() {
+        return parsedLines.sum();
+    }
+
+    /** Reusable entry of the {@link #lineQueue}. */
+    private static final class LineSlot {
+        private String line;
+        private Path journal;
+        private long endOffset;
+        private long writtenAt;
+    }
+
+    /** Where a queued line came from; journal is null for lines without a known position. */
+    private static final class ReadPosition {
+        private Path journal;
+        private long endOffset = -1L;
+        private long writtenAt;
+    }
 }
@@ -0,0 +1,123 @@
+package com.zergatstage.monitor.service;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide switch that lets bulk operations hold back manager change notifications.
+ * <p>
+ * While the gate is suspended, notifications published by a manager are not delivered; only the
+ * most recent one per source is remembered. When the last {@link #resume()} call closes the
+ * suspension, every source that changed is notified exactly once, in the order in which it first
+ * changed. Suspensions nest, so independent bulk operations may overlap safely.
+ * </p>
+ */
+@Log4j2
+public final class NotificationGate {
+
+    private static final Object LOCK = new Object();
+    private static final Map<Object, Runnable> deferred = new LinkedHashMap<>();
+    private static final ThreadLocal<Boolean> IMMEDIATE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static int suspensions;
+
+    private NotificationGate() {
+    }
+
+    /**
+     * Starts (or nests) a suspension; notifications are collected until the matching {@link #resume()}.
+     */
+    public static void suspend() {
+        synchronized (LOCK) {
+            suspensions++;
+        }
+    }
+
+    /**
+     * Ends one suspension. When no suspension is left, the collected notifications are delivered.
+     */
+    public static void resume() {
+        List<Runnable> toRun;
+        synchronized (LOCK) {
+            if (suspensions == 0) {
+                log.warn("NotificationGate.resume() called without a matching suspend()");
+                return;
+            }
+            if (--suspensions > 0) {
+                return;
+            }
+            toRun = new ArrayList<>(deferred.values());
+            deferred.clear();
+        }
+        log.debug("Delivering {} coalesced notification(s)", toRun.size());
+        for (Runnable notification : toRun) {
+            deliver(notification);
+        }
+    }
+
+    /**
+     * @return true while at least one suspension is active.
+     */
+    public static boolean isSuspended() {
+        synchronized (LOCK) {
+            return suspensions > 0;
+        }
+    }
+
+    /**
+     * Runs an action whose notifications are delivered right away even while the gate is suspended,
+     * e.g. a time-critical handler that must not wait for a bulk operation on another thread.
+     *
+     * @param action the code that publishes notifications.
+     */
+    public static void runImmediate(Runnable action) {
+        if (IMMEDIATE.get()) {
+            action.run();
+            return;
+        }
+        IMMEDIATE.set(Boolean.TRUE);
+        try {
+            action.run();
+        } finally {
+            IMMEDIATE.set(Boolean.FALSE);
+        }
+    }
+
+    /**
+     * @return true inside {@link #runImmediate}, i.e. while a time-critical handler runs on this thread.
+     */
+    public static boolean isImmediate() {
+        return IMMEDIATE.get();
+    }
+
+    /**
+     * Delivers a notification now, or defers it if the gate is suspended.
+     *
+     * @param source       the publishing manager; later notifications from the same source replace earlier ones.
+     * @param notification the action that informs the source's listeners.
+     */
+    public static void publish(Object source, Runnable notification) {
+        if (IMMEDIATE.get()) {
+            deliver(notification);
+            return;
+        }
+        synchronized (LOCK) {
+            if (suspensions > 0) {
+                deferred.put(source, notification);
+                return;
+            }
+        }
+        deliver(notification);
+    }
+
+    private static void deliver(Runnable notification) {
+        try {
+            notification.run();
+        } catch (RuntimeException e) {
+            log.error("Listener notification failed: {}", e.getMessage(), e);
+        }
+    }
+}
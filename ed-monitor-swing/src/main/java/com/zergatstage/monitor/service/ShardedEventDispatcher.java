@@ -0,0 +1,471 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.handlers.HandlerPriority;
+import com.zergatstage.monitor.handlers.LogEventHandler;
+import com.zergatstage.monitor.handlers.TypedEventHandler;
+import com.zergatstage.monitor.service.metrics.LatencyStats;
+import lombok.extern.log4j.Log4j2;
+import org.json.JSONObject;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dispatcher that runs handlers on a fixed set of single-threaded shards selected by an ordering key.
+ * <p>
+ * Events with the same key always land on the same shard and are handled strictly in dispatch order;
+ * events with different keys run in parallel. The keys are:
+ * <ul>
+ *     <li>all cargo-related handlers share one key, because they mutate the single tracked ship;</li>
+ *     <li>events carrying a {@code MarketID} (construction depots, docking) are keyed by market;</li>
+ *     <li>everything else is keyed by its event type.</li>
+ * </ul>
+ * Each shard owns a {@link BoundedRingBuffer}: when a shard falls behind, dispatching to it blocks, which
+ * in turn slows down the journal reader rather than queueing without limit. Every shard exposes its
+ * queue depth, the time dispatchers waited for it and the latency of the handlers it ran.
+ * </p>
+ * <p>
+ * A shard hands over everything that queued up while it was busy in one go: runs of typed events for the
+ * same handler are delivered through {@link TypedEventHandler#handleBatch}. Manager notifications are posted to
+ * the {@link UiNotificationBus}, which coalesces them per source, so a burst costs one UI refresh without the
+ * shards having to hold back notifications of each other.
+ * </p>
+ * <p>
+ * Handlers with {@link HandlerPriority#REALTIME} priority bypass the shards: a dedicated lane handles their
+ * events one at a time, publishes their notifications {@link NotificationGate#runImmediate immediately}
+ * and measures the time from dispatch until the EDT has processed them, against {@link #REALTIME_BUDGET_MILLIS}.
+ * </p>
+ */
+@Log4j2
+public class ShardedEventDispatcher implements JournalLogMonitor.Dispatcher {
+
+    /** Ordering key shared by every cargo-related handler. */
+    static final String SHIP_KEY = "ship";
+    /** Default number of queued events per shard. */
+    public static final int DEFAULT_SHARD_CAPACITY = 1024;
+    /** Most events a shard takes from its queue in one delivery cycle. */
+    static final int MAX_DRAIN = 256;
+    /** Target for dispatch-to-EDT latency of realtime events; slower ones are counted and logged. */
+    public static final long REALTIME_BUDGET_MILLIS = 20;
+    private static final int REALTIME_CAPACITY = 64;
+
+    private static final BoundedRingBuffer.Writer<Slot, LogEventHandler, Object> FILL = (slot, handler, event) -> {
+        slot.handler = handler;
+        slot.event = event;
+        slot.enqueuedNanos = System.nanoTime();
+    };
+
+    private final Shard[] shards;
+    private final RealtimeLane realtime = new RealtimeLane();
+
+    /**
+     * Creates one shard per available processor.
+     */
+    public ShardedEventDispatcher() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param shardCount number of shards (worker threads).
+     */
+    public ShardedEventDispatcher(int shardCount) {
+        this(shardCount, DEFAULT_SHARD_CAPACITY);
+    }
+
+    /**
+     * @param shardCount    number of shards (worker threads).
+     * @param shardCapacity number of events a shard queues before dispatching to it blocks.
+     */
+    public ShardedEventDispatcher(int shardCount, int shardCapacity) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, shardCapacity);
+        }
+    }
+
+    @Override
+    public void dispatch(JSONObject eventJson, LogEventHandler handler) {
+        if (handler.getPriority() == HandlerPriority.REALTIME) {
+            realtime.enqueue(handler, eventJson);
+            return;
+        }
+        Object key;
+        if (handler.isCargoRelated()) {
+            key = SHIP_KEY;
+        } else if (eventJson.has("MarketID")) {
+            key = eventJson.optLong("MarketID");
+        } else {
+            key = handler.getEventType();
+        }
+        shardFor(key).enqueue(handler, eventJson);
+    }
+
+    @Override
+    public void dispatch(JournalEvent event, TypedEventHandler handler) {
+        if (handler.getPriority() == HandlerPriority.REALTIME) {
+            realtime.enqueue(handler, event);
+            return;
+        }
+        shardFor(orderingKey(event, handler)).enqueue(handler, event);
+    }
+
+    /**
+     * Waits until every shard and the realtime lane have drained the work queued before this call.
+     */
+    @Override
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        CountDownLatch idle = new CountDownLatch(1);
+        if (!mark(idle::countDown)) {
+            log.warn("Dispatcher idle check on a stopped dispatcher");
+            return false;
+        }
+        return idle.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Queues a mark behind the work of every shard and the realtime lane; the last of them to pass it
+     * runs the callback, right after its handlers returned.
+     */
+    @Override
+    public void afterHandled(Runnable callback) {
+        try {
+            if (!mark(callback)) {
+                log.debug("Dropping handled callback, dispatcher is stopped");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting to queue a handled callback");
+        }
+    }
+
+    /**
+     * @return number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param shard shard index.
+     * @return number of events waiting on the shard.
+     */
+    public int getQueueDepth(int shard) {
+        return shards[shard].ring.size();
+    }
+
+    /**
+     * @param shard shard index.
+     * @return the shard's queue, for its occupancy and stall figures.
+     */
+    public BoundedRingBuffer<?> getQueue(int shard) {
+        return shards[shard].ring;
+    }
+
+    /**
+     * @param shard shard index.
+     * @return latency of the handlers that ran on the shard.
+     */
+    public LatencyStats getHandlerLatency(int shard) {
+        return shards[shard].latency;
+    }
+
+    /**
+     * @return time from dispatching a realtime event until the EDT processed its notifications.
+     */
+    public LatencyStats getRealtimeLatency() {
+        return realtime.latency;
+    }
+
+    /**
+     * @return number of realtime events that missed {@link #REALTIME_BUDGET_MILLIS}.
+     */
+    public long getRealtimeOverBudget() {
+        return realtime.overBudget.sum();
+    }
+
+    /**
+     * @return one line per shard with queue occupancy, stalls and handler latency, and one for the realtime lane.
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (Shard shard : shards) {
+            if (!summary.isEmpty()) {
+                summary.append('\n');
+            }
+            summary.append(shard.ring.summary()).append(", ").append(shard.latency.summary());
+        }
+        summary.append('\n').append(realtime.ring.summary()).append(", ").append(realtime.latency.summary())
+                .append(", over budget ").append(realtime.overBudget.sum());
+        return summary.toString();
+    }
+
+    /**
+     * Stops accepting events and waits briefly for the queued ones, and the {@link #afterHandled} callbacks
+     * behind them, to be handled.
+     */
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.ring.close();
+        }
+        realtime.ring.close();
+        for (Shard shard : shards) {
+            shard.worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        realtime.worker.join(TimeUnit.SECONDS.toMillis(5));
+        log.info("Event dispatcher stopped\n{}", summary());
+    }
+
+    static Object orderingKey(JournalEvent event, LogEventHandler handler) {
+        if (handler.isCargoRelated()) {
+            return SHIP_KEY;
+        }
+        if (event instanceof JournalEvent.ColonisationConstructionDepot depot) {
+            return depot.marketId();
+        }
+        return handler.getEventType();
+    }
+
+    private Shard shardFor(Object key) {
+        return shards[Math.floorMod(key.hashCode(), shards.length)];
+    }
+
+    /**
+     * @return false if the dispatcher is stopped; the callback never runs then.
+     */
+    private boolean mark(Runnable callback) throws InterruptedException {
+        Mark mark = new Mark(shards.length + 1, callback);
+        for (Shard shard : shards) {
+            if (!shard.ring.put(FILL, null, mark)) {
+                return false;
+            }
+        }
+        return realtime.ring.put(FILL, null, mark);
+    }
+
+    /** Runs its callback once every shard and the realtime lane have delivered the events queued before it. */
+    private static final class Mark {
+        private final AtomicInteger remaining;
+        private final Runnable callback;
+
+        private Mark(int queues, Runnable callback) {
+            this.remaining = new AtomicInteger(queues);
+            this.callback = callback;
+        }
+
+        private void pass() {
+            if (remaining.decrementAndGet() == 0) {
+                try {
+                    callback.run();
+                } catch (RuntimeException e) {
+                    log.error("Handled callback failed: {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /** Reusable queue entry: a handler with a JSON or typed event, or a {@link Mark} without handler. */
+    private static final class Slot {
+        private LogEventHandler handler;
+        private Object event;
+        private long enqueuedNanos;
+    }
+
+    /**
+     * Single worker for {@link HandlerPriority#REALTIME} handlers: no batching, no notification coalescing.
+     */
+    private static final class RealtimeLane {
+        private final BoundedRingBuffer<Slot> ring = new BoundedRingBuffer<>("realtime", REALTIME_CAPACITY, Slot::new);
+        private final LatencyStats latency = new LatencyStats("realtime dispatch-to-EDT");
+        private final LongAdder overBudget = new LongAdder();
+        private final Thread worker;
+
+        private RealtimeLane() {
+            this.worker = AppRuntime.getInstance().startThread("journal-realtime", this::run);
+        }
+
+        private void enqueue(LogEventHandler handler, Object event) {
+            try {
+                if (!ring.put(FILL, handler, event)) {
+                    log.debug("Dropping {} event, dispatcher is stopped", handler.getEventType());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting to dispatch {} event", handler.getEventType());
+            }
+        }
+
+        private void run() {
+            try {
+                Slot slot;
+                while ((slot = ring.take()) != null) {
+                    LogEventHandler handler = slot.handler;
+                    Object event = slot.event;
+                    long enqueued = slot.enqueuedNanos;
+                    slot.handler = null;
+                    slot.event = null;
+                    ring.release();
+                    if (event instanceof Mark mark) {
+                        mark.pass();
+                    } else {
+                        deliver(handler, event, enqueued);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void deliver(LogEventHandler handler, Object event, long enqueued) {
+            try {
+                NotificationGate.runImmediate(() -> {
+                    if (event instanceof JournalEvent typed && handler instanceof TypedEventHandler typedHandler) {
+                        typedHandler.handle(typed);
+                    } else {
+                        handler.handleEvent((JSONObject) event);
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.error("Handler {} failed: {}", handler.getEventType(), e.getMessage(), e);
+            }
+            // queued behind the handler's own notifications, so it runs once the EDT has processed them
+            SwingUtilities.invokeLater(() -> {
+                long nanos = System.nanoTime() - enqueued;
+                latency.record(nanos);
+                if (nanos > TimeUnit.MILLISECONDS.toNanos(REALTIME_BUDGET_MILLIS)) {
+                    overBudget.increment();
+                    log.warn("{} event reached the UI after {} ms (budget {} ms)", handler.getEventType(),
+                            TimeUnit.NANOSECONDS.toMillis(nanos), REALTIME_BUDGET_MILLIS);
+                }
+            });
+        }
+    }
+
+    private static final class Shard {
+        private final BoundedRingBuffer<Slot> ring;
+        private final LatencyStats latency;
+        private final Thread worker;
+        // drain buffers, only touched by the worker thread
+        private final LogEventHandler[] drainedHandlers = new LogEventHandler[MAX_DRAIN];
+        private final Object[] drainedEvents = new Object[MAX_DRAIN];
+        private final List<JournalEvent> batch = new ArrayList<>(MAX_DRAIN);
+        private int drained;
+
+        private Shard(int index, int capacity) {
+            this.ring = new BoundedRingBuffer<>("shard-" + index, capacity, Slot::new);
+            this.latency = new LatencyStats("shard-" + index + " handler");
+            this.worker = AppRuntime.getInstance().startThread("journal-shard-" + index, this::run);
+        }
+
+        private void enqueue(LogEventHandler handler, Object event) {
+            try {
+                if (!ring.put(FILL, handler, event)) {
+                    log.debug("Dropping {} event, dispatcher is stopped", handler.getEventType());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting to dispatch {} event", handler.getEventType());
+            }
+        }
+
+        private void run() {
+            try {
+                while (drain()) {
+                    deliver();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Waits for the next event, then takes whatever else is already queued, up to {@link #MAX_DRAIN}.
+         * A mark ends the cycle so that it is passed only after everything before it is delivered.
+         *
+         * @return false once the ring is closed and empty.
+         */
+        private boolean drain() throws InterruptedException {
+            Slot slot = ring.take();
+            while (slot != null) {
+                drainedHandlers[drained] = slot.handler;
+                drainedEvents[drained] = slot.event;
+                slot.handler = null;
+                slot.event = null;
+                // release first so the queue depth does not count events being handled
+                ring.release();
+                drained++;
+                if (drained == MAX_DRAIN || drainedEvents[drained - 1] instanceof Mark) {
+                    break;
+                }
+                slot = ring.poll(0, TimeUnit.NANOSECONDS);
+            }
+            return drained > 0;
+        }
+
+        /**
+         * Delivers the drained events in order. Consecutive typed events for the same handler go out as
+         * one {@link TypedEventHandler#handleBatch} call.
+         */
+        private void deliver() {
+            Mark mark = null;
+            try {
+                int i = 0;
+                while (i < drained) {
+                    LogEventHandler handler = drainedHandlers[i];
+                    Object event = drainedEvents[i];
+                    if (event instanceof Mark passed) {
+                        mark = passed;
+                        i++;
+                    } else if (event instanceof JournalEvent && handler instanceof TypedEventHandler typedHandler) {
+                        int end = i + 1;
+                        while (end < drained && drainedHandlers[end] == handler
+                                && drainedEvents[end] instanceof JournalEvent) {
+                            end++;
+                        }
+                        for (int j = i; j < end; j++) {
+                            batch.add((JournalEvent) drainedEvents[j]);
+                        }
+                        timed(handler, batch.size(), () -> typedHandler.handleBatch(batch));
+                        batch.clear();
+                        i = end;
+                    } else {
+                        timed(handler, 1, () -> handler.handleEvent((JSONObject) event));
+                        i++;
+                    }
+                }
+            } finally {
+                Arrays.fill(drainedHandlers, 0, drained, null);
+                Arrays.fill(drainedEvents, 0, drained, null);
+                drained = 0;
+            }
+            if (mark != null) {
+                mark.pass();
+            }
+        }
+
+        private void timed(LogEventHandler handler, int events, Runnable delivery) {
+            long started = System.nanoTime();
+            try {
+                delivery.run();
+            } catch (RuntimeException e) {
+                log.error("Handler {} failed: {}", handler.getEventType(), e.getMessage(), e);
+            } finally {
+                // one sample per event, so batched and single deliveries stay comparable
+                long perEvent = (System.nanoTime() - started) / events;
+                for (int i = 0; i < events; i++) {
+                    latency.record(perEvent);
+                }
+            }
+        }
+    }
+}
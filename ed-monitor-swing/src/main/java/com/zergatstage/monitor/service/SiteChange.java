@@ -0,0 +1,117 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.domain.ConstructionSite;
+import com.zergatstage.domain.MaterialRequirement;
+import com.zergatstage.tools.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One change of the construction sites between two {@link SiteSnapshot}s, as delivered to
+ * {@link ConstructionSiteUpdateListener#onConstructionSiteChanged}.
+ * <p>
+ * Requirements are identified by commodity id. Only sites whose reference differs between the snapshots are
+ * compared, so {@link #between} costs the size of the change, not the number of sites × materials.
+ * </p>
+ */
+public sealed interface SiteChange {
+
+    /**
+     * @return the market of the changed site.
+     */
+    long marketId();
+
+    record Added(ConstructionSite site) implements SiteChange {
+        @Override
+        public long marketId() {
+            return site.getMarketId();
+        }
+    }
+
+    record Removed(long marketId) implements SiteChange {
+    }
+
+    record Renamed(long marketId, String before, String after) implements SiteChange {
+    }
+
+    record RequirementAdded(long marketId, long commodityId, int required, int delivered) implements SiteChange {
+    }
+
+    record RequirementRemoved(long marketId, long commodityId) implements SiteChange {
+    }
+
+    record RequirementChanged(long marketId, long commodityId, int requiredBefore, int requiredAfter,
+                              int deliveredBefore, int deliveredAfter) implements SiteChange {
+    }
+
+    /**
+     * @param before the snapshot the listener saw last.
+     * @param after  a later snapshot of the same store.
+     * @return the changes, sites in the order of {@code after}, removed sites last; empty if nothing changed.
+     */
+    static List<SiteChange> between(SiteSnapshot before, SiteSnapshot after) {
+        if (before == after) {
+            return List.of();
+        }
+        List<SiteChange> changes = new ArrayList<>();
+        for (ConstructionSite site : after.changedSince(before)) {
+            ConstructionSite old = before.get(site.getMarketId());
+            if (old == null) {
+                changes.add(new Added(site));
+            } else {
+                compare(old, site, changes);
+            }
+        }
+        // after = before - removed + added
+        if (before.size() > after.size() - countAdded(changes)) {
+            for (ConstructionSite site : before.sites()) {
+                if (after.get(site.getMarketId()) == null) {
+                    changes.add(new Removed(site.getMarketId()));
+                }
+            }
+        }
+        return changes;
+    }
+
+    private static int countAdded(List<SiteChange> changes) {
+        int added = 0;
+        for (SiteChange change : changes) {
+            if (change instanceof Added) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private static void compare(ConstructionSite before, ConstructionSite after, List<SiteChange> changes) {
+        long marketId = after.getMarketId();
+        if (!Objects.equals(before.getSiteId(), after.getSiteId())) {
+            changes.add(new Renamed(marketId, before.getSiteId(), after.getSiteId()));
+        }
+        LongObjectMap<MaterialRequirement> old = new LongObjectMap<>();
+        for (MaterialRequirement requirement : before.getRequirements()) {
+            if (requirement.getCommodity() != null) {
+                old.put(requirement.getCommodity().getId(), requirement);
+            }
+        }
+        for (MaterialRequirement requirement : after.getRequirements()) {
+            if (requirement.getCommodity() == null) {
+                continue;
+            }
+            long commodityId = requirement.getCommodity().getId();
+            MaterialRequirement previous = old.remove(commodityId);
+            if (previous == null) {
+                changes.add(new RequirementAdded(marketId, commodityId,
+                        requirement.getRequiredQuantity(), requirement.getDeliveredQuantity()));
+            } else if (previous.getRequiredQuantity() != requirement.getRequiredQuantity()
+                    || previous.getDeliveredQuantity() != requirement.getDeliveredQuantity()) {
+                changes.add(new RequirementChanged(marketId, commodityId,
+                        previous.getRequiredQuantity(), requirement.getRequiredQuantity(),
+                        previous.getDeliveredQuantity(), requirement.getDeliveredQuantity()));
+            }
+        }
+        old.forEach((commodityId, requirement) -> changes.add(new RequirementRemoved(marketId, commodityId)));
+    }
+}
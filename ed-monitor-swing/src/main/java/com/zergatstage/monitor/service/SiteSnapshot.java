@@ -0,0 +1,87 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.domain.ConstructionSite;
+import com.zergatstage.tools.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One immutable version of all construction sites, published by {@link SiteStore}.
+ * <p>
+ * Neither the snapshot nor the sites in it change after publication: writers copy a site, change the
+ * copy and publish a new snapshot. A reader that keeps a snapshot therefore sees every site as it was
+ * at that version, and two snapshots can be compared site by site with {@code ==}.
+ * </p>
+ */
+public final class SiteSnapshot {
+
+    static final SiteSnapshot EMPTY = new SiteSnapshot(0, new LongObjectMap<>());
+
+    private final long version;
+    private final LongObjectMap<ConstructionSite> byId;
+    private final List<ConstructionSite> sites;
+
+    /**
+     * @param byId taken over, must not be changed afterwards.
+     */
+    SiteSnapshot(long version, LongObjectMap<ConstructionSite> byId) {
+        this.version = version;
+        this.byId = byId;
+        this.sites = Collections.unmodifiableList(byId.values());
+    }
+
+    /**
+     * @return the number of changes published before this snapshot.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return the site of the market, or null.
+     */
+    public ConstructionSite get(long marketId) {
+        return byId.get(marketId);
+    }
+
+    /**
+     * @return all sites, unmodifiable.
+     */
+    public List<ConstructionSite> sites() {
+        return sites;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    /**
+     * @param older an earlier snapshot of the same store.
+     * @return the sites added or replaced since {@code older}.
+     */
+    public List<ConstructionSite> changedSince(SiteSnapshot older) {
+        if (older == this) {
+            return List.of();
+        }
+        List<ConstructionSite> changed = new ArrayList<>();
+        for (ConstructionSite site : sites) {
+            if (older.get(site.getMarketId()) != site) {
+                changed.add(site);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return a mutable copy of the index, for building the next version.
+     */
+    LongObjectMap<ConstructionSite> copyIndex() {
+        return byId.copy();
+    }
+}
@@ -0,0 +1,192 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.domain.ConstructionSite;
+import com.zergatstage.domain.MaterialRequirement;
+import com.zergatstage.tools.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lock-free store of the construction sites as a sequence of immutable {@link SiteSnapshot}s.
+ * <p>
+ * Every write copies the index, applies the change and publishes the result with a compare-and-set on
+ * the current snapshot, retrying if another writer won. Readers never lock or retry: {@link #snapshot()}
+ * is a volatile read. Sites are never changed in place; {@link #update} hands the change a private copy.
+ * </p>
+ */
+public final class SiteStore {
+
+    private final AtomicReference<SiteSnapshot> current = new AtomicReference<>(SiteSnapshot.EMPTY);
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * @return the latest snapshot.
+     */
+    public SiteSnapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * @return the current site of the market, or null.
+     */
+    public ConstructionSite get(long marketId) {
+        return current.get().get(marketId);
+    }
+
+    /**
+     * Adds or replaces a site.
+     */
+    public void put(ConstructionSite site) {
+        publish(index -> {
+            index.put(site.getMarketId(), site);
+            return true;
+        });
+    }
+
+    /**
+     * @return true if the site was added, false if the market already had one.
+     */
+    public boolean putIfAbsent(ConstructionSite site) {
+        return publish(index -> {
+            if (index.containsKey(site.getMarketId())) {
+                return false;
+            }
+            index.put(site.getMarketId(), site);
+            return true;
+        });
+    }
+
+    /**
+     * Replaces a site only if it is still the one the caller based its change on.
+     *
+     * @param expected the site as read before, or null if there was none.
+     * @param next     the new site for the same market.
+     * @return false if another writer replaced the site meanwhile; nothing is changed then.
+     */
+    public boolean replace(ConstructionSite expected, ConstructionSite next) {
+        return publish(index -> {
+            if (index.get(next.getMarketId()) != expected) {
+                return false;
+            }
+            index.put(next.getMarketId(), next);
+            return true;
+        });
+    }
+
+    /**
+     * Changes one site. The change gets a copy of the current site, or null if there is none, and returns
+     * the site to publish, or null to leave the store unchanged. It may run more than once under
+     * contention and must not have side effects.
+     *
+     * @return the published site, or null if the change returned null.
+     */
+    public ConstructionSite update(long marketId, UnaryOperator<ConstructionSite> change) {
+        while (true) {
+            SiteSnapshot base = current.get();
+            ConstructionSite existing = base.get(marketId);
+            ConstructionSite next = change.apply(existing != null ? copy(existing) : null);
+            if (next == null) {
+                return null;
+            }
+            LongObjectMap<ConstructionSite> index = base.copyIndex();
+            index.put(marketId, next);
+            if (current.compareAndSet(base, new SiteSnapshot(base.version() + 1, index))) {
+                return next;
+            }
+            retries.increment();
+        }
+    }
+
+    /**
+     * Applies a change to a copy of every site and publishes the changed ones together. Sites the change
+     * leaves alone keep their published instance. Like {@link #update}, the change may run more than once.
+     *
+     * @param change edits one site copy in place and returns true if it changed it.
+     * @return true if at least one site was changed and published.
+     */
+    public boolean updateAll(Predicate<ConstructionSite> change) {
+        return publish(index -> {
+            List<ConstructionSite> changed = new ArrayList<>();
+            index.forEach((id, site) -> {
+                ConstructionSite copy = copy(site);
+                if (change.test(copy)) {
+                    changed.add(copy);
+                }
+            });
+            for (ConstructionSite site : changed) {
+                index.put(site.getMarketId(), site);
+            }
+            return !changed.isEmpty();
+        });
+    }
+
+    /**
+     * Removes all sites.
+     */
+    public void clear() {
+        publish(index -> {
+            boolean changed = !index.isEmpty();
+            index.clear();
+            return changed;
+        });
+    }
+
+    /**
+     * @return number of writes that had to be retried because another writer published first.
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return a deep copy of the site that can be changed without affecting published snapshots.
+     */
+    public static ConstructionSite copy(ConstructionSite site) {
+        List<MaterialRequirement> requirements = new ArrayList<>(site.getRequirements().size());
+        for (MaterialRequirement requirement : site.getRequirements()) {
+            requirements.add(MaterialRequirement.builder()
+                    .id(requirement.getId())
+                    .commodity(requirement.getCommodity())
+                    .requiredQuantity(requirement.getRequiredQuantity())
+                    .deliveredQuantity(requirement.getDeliveredQuantity())
+                    .build());
+        }
+        return ConstructionSite.builder()
+                .marketId(site.getMarketId())
+                .siteId(site.getSiteId())
+                .version(site.getVersion())
+                .lastUpdated(site.getLastUpdated())
+                .requirements(requirements)
+                .build();
+    }
+
+    /**
+     * Copy-on-write loop around an edit of the index.
+     *
+     * @param edit changes the index copy; returns false to publish nothing.
+     * @return the edit's result.
+     */
+    private boolean publish(IndexEdit edit) {
+        while (true) {
+            SiteSnapshot base = current.get();
+            LongObjectMap<ConstructionSite> index = base.copyIndex();
+            if (!edit.apply(index)) {
+                return false;
+            }
+            if (current.compareAndSet(base, new SiteSnapshot(base.version() + 1, index))) {
+                return true;
+            }
+            retries.increment();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexEdit {
+        boolean apply(LongObjectMap<ConstructionSite> index);
+    }
+}
@@ -0,0 +1,183 @@
+package com.zergatstage.monitor.service;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Startup as a graph of named tasks.
+ * <p>
+ * Each task starts as soon as the tasks it depends on are done, so independent tasks run in parallel.
+ * A task fails if one of its dependencies failed, without running. Every task is timed from the start
+ * of the plan; {@link #firstFrame()} records when the first window became visible and compares it with
+ * the time-to-first-frame budget, and {@link #await()} logs the timeline once everything has finished.
+ * </p>
+ */
+@Log4j2
+public class StartupPlan {
+
+    private final Duration firstFrameBudget;
+    private final long startNanos = System.nanoTime();
+    private final List<Task<?>> tasks = Collections.synchronizedList(new ArrayList<>());
+    private volatile long firstFrameNanos = -1;
+
+    /**
+     * @param firstFrameBudget how long the first window may take to appear; exceeding it is logged as a warning.
+     */
+    public StartupPlan(Duration firstFrameBudget) {
+        this.firstFrameBudget = firstFrameBudget;
+    }
+
+    /**
+     * Adds a task that runs on the given executor once its dependencies are done.
+     *
+     * @param name      the task's name in the log.
+     * @param executor  where the task runs, e.g. {@link AppRuntime#io()} or the EDT.
+     * @param body      the work; its result is available to dependent tasks via {@link Task#get()}.
+     * @param dependsOn tasks that must finish first.
+     * @return the new task.
+     */
+    public <T> Task<T> task(String name, Executor executor, Supplier<T> body, Task<?>... dependsOn) {
+        Task<T> task = new Task<>(name);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[dependsOn.length];
+        for (int i = 0; i < dependsOn.length; i++) {
+            futures[i] = dependsOn[i].future;
+        }
+        CompletableFuture.allOf(futures).thenApplyAsync(ignored -> {
+            task.startNanos = System.nanoTime();
+            try {
+                return body.get();
+            } finally {
+                task.endNanos = System.nanoTime();
+            }
+        }, executor).whenComplete((result, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (task.startNanos != 0) {
+                    log.error("Startup task {} failed: {}", name, cause.getMessage(), cause);
+                }
+                task.future.completeExceptionally(cause);
+            } else {
+                task.future.complete(result);
+            }
+        });
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Adds a task without a result.
+     */
+    public Task<Void> run(String name, Executor executor, Runnable body, Task<?>... dependsOn) {
+        return task(name, executor, () -> {
+            body.run();
+            return null;
+        }, dependsOn);
+    }
+
+    /**
+     * Records that the first window is visible. Only the first call counts.
+     */
+    public void firstFrame() {
+        if (firstFrameNanos >= 0) {
+            return;
+        }
+        firstFrameNanos = System.nanoTime();
+        long millis = elapsedMillis(firstFrameNanos);
+        if (millis > firstFrameBudget.toMillis()) {
+            log.warn("First frame after {} ms, over the {} ms budget", millis, firstFrameBudget.toMillis());
+        } else {
+            log.info("First frame after {} ms (budget {} ms)", millis, firstFrameBudget.toMillis());
+        }
+    }
+
+    /**
+     * @return milliseconds from the start of the plan to the first frame, or -1 if there was none yet.
+     */
+    public long getFirstFrameMillis() {
+        long frame = firstFrameNanos;
+        return frame < 0 ? -1 : elapsedMillis(frame);
+    }
+
+    /**
+     * Waits until every task has finished and logs the timeline.
+     *
+     * @return true if all tasks succeeded.
+     */
+    public boolean await() {
+        List<Task<?>> all;
+        synchronized (tasks) {
+            all = new ArrayList<>(tasks);
+        }
+        CompletableFuture.allOf(all.stream().map(task -> task.future).toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .join();
+        boolean ok = true;
+        StringBuilder timeline = new StringBuilder("Startup finished in ")
+                .append(elapsedMillis(System.nanoTime())).append(" ms:");
+        for (Task<?> task : all) {
+            timeline.append(System.lineSeparator()).append(String.format("  %-20s", task.name));
+            if (task.future.isCompletedExceptionally()) {
+                ok = false;
+                timeline.append(task.startNanos == 0 ? "skipped" : "FAILED");
+            } else {
+                timeline.append(String.format("%6d ms +%5d ms", elapsedMillis(task.startNanos),
+                        (task.endNanos - task.startNanos) / 1_000_000));
+            }
+        }
+        log.info(timeline);
+        return ok;
+    }
+
+    private long elapsedMillis(long nanos) {
+        return (nanos - startNanos) / 1_000_000;
+    }
+
+    /**
+     * One step of the startup.
+     *
+     * @param <T> the step's result type.
+     */
+    public static final class Task<T> {
+        private final String name;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private volatile long startNanos;
+        private volatile long endNanos;
+
+        private Task(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Waits for the task.
+         *
+         * @return its result.
+         * @throws CompletionException if the task or one of its dependencies failed.
+         */
+        public T get() {
+            return future.join();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        /**
+         * @return true if the task or one of its dependencies failed.
+         */
+        public boolean isFailed() {
+            return future.isCompletedExceptionally();
+        }
+    }
+}
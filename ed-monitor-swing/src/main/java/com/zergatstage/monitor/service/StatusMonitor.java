@@ -1,75 +1,66 @@
 package com.zergatstage.monitor.service;
 
-import com.zergatstage.monitor.service.readers.RewriteFileReadStrategy;
+import com.zergatstage.monitor.service.readers.HashedRewriteFileReadStrategy;
+import com.zergatstage.monitor.service.telemetry.StatusRecorder;
+import com.zergatstage.monitor.service.telemetry.StatusTelemetry;
+import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
-import org.json.JSONObject;
-import org.json.JSONTokener;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 
 /**
- * The StatusMonitor now delegates file monitoring to a GenericFileMonitor,
- * making it extendable to other file types that are rewritten.
+ * The StatusMonitor subscribes to Status.json on the shared {@link CompanionFileWatcher} and feeds
+ * every new state into {@link StatusTelemetry}, where the UI reads it from memory.
  */
 @Log4j2
 public class StatusMonitor {
 
-     private final GenericFileMonitor fileMonitor;
+    /** Name of the status companion file in the journal directory. */
+    public static final String STATUS_FILE = "Status.json";
+    private static final Duration DEBOUNCE = Duration.ofMillis(50);
+
+    private final CompanionFileWatcher watcher;
+    @Getter
+    private final StatusTelemetry telemetry;
+    private CompanionFileWatcher.Subscription subscription;
+    private CompanionFileWatcher.Periodic flushing;
 
     /**
      * Constructs a StatusMonitor.
      *
-     * @param statusFilePath the path to the Status.json file.
-     * @param sessionSummaryFilePath the path to the session summary file.
+     * @param watcher   the watcher of the directory holding Status.json.
+     * @param telemetry receives the decoded states.
      */
-    public StatusMonitor(Path statusFilePath, Path sessionSummaryFilePath) {
-        // Here we use the RewriteFileReadStrategy because the file is rewritten.
-        fileMonitor = new GenericFileMonitor(statusFilePath, new RewriteFileReadStrategy(),
-                newStatusContent -> {
-            try {
-                // Validate and parse the JSON to ensure we have a valid state update
-                JSONObject jsonState = new JSONObject(new JSONTokener(newStatusContent));
-                // Append the new state to the session summary
-                appendStateToSessionSummary(jsonState, sessionSummaryFilePath);
-            } catch (Exception e) {
-                log.error("Error processing status file content: {}", e.getMessage());
-                System.err.println("Error processing status file content: " + e.getMessage());
-            }
-        });
+    public StatusMonitor(CompanionFileWatcher watcher, StatusTelemetry telemetry) {
+        this.watcher = watcher;
+        this.telemetry = telemetry;
     }
 
     /**
      * Starts monitoring the status file.
      */
-    public void start() {
-        //fileMonitor.start();
-    }
-
-    /**
-     * Stops monitoring the status file.
-     */
-    public void stop() {
-        fileMonitor.stop();
+    public synchronized void start() {
+        if (subscription != null) {
+            return;
+        }
+        // The file is rewritten in place several times a second; the hashed strategy skips
+        // unchanged and half-written states before they are parsed.
+        subscription = watcher.subscribe(STATUS_FILE, new HashedRewriteFileReadStrategy(), DEBOUNCE,
+                telemetry::accept);
+        // on the same lane as the reads, so a flush never races a record
+        flushing = watcher.every(StatusRecorder.FLUSH_INTERVAL, telemetry::flush);
     }
 
     /**
-     * Appends the given JSON state to the session summary file.
-     *
-     * @param jsonState the JSON object representing the current status.
-     * @param sessionSummaryFilePath the path to the session summary file.
+     * Stops monitoring the status file and flushes the recording.
      */
-    private void appendStateToSessionSummary(JSONObject jsonState, Path sessionSummaryFilePath) {
-        try (BufferedWriter writer = Files.newBufferedWriter(sessionSummaryFilePath,
-                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-            writer.write(jsonState.toString());
-            writer.newLine();
-            log.debug("Status updated: {}", jsonState);
-        } catch (IOException e) {
-            log.error("Error writing to session summary file: {}", e.getMessage());
+    public synchronized void stop() {
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+            flushing.cancel();
+            flushing = null;
         }
+        telemetry.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,228 @@
+package com.zergatstage.monitor.service;
+
+import lombok.extern.log4j.Log4j2;
+
+import javax.swing.SwingUtilities;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Delivers UI notifications on the EDT at most once per frame.
+ * <p>
+ * {@link #post} marks a source dirty and remembers its latest notification; repeated posts before the next
+ * flush are merged. One flush per frame (at most {@code maxFps} per second, default 60) runs every pending
+ * notification once, in the order the sources first changed. Notifications posted on the EDT during a
+ * flush, e.g. a panel that refreshes itself for several managers, join that same flush and are merged too.
+ * Posts from a realtime handler ({@link NotificationGate#runImmediate}) flush right away, so prospecting and
+ * drone events stay within the dispatcher's realtime budget.
+ * </p>
+ * <p>
+ * {@link #summary()} reports posts, merges, flushes and how long the EDT took to pick up a flush that was
+ * due: a growing lag means the EDT queue is backing up.
+ * </p>
+ */
+@Log4j2
+public final class UiNotificationBus {
+
+    public static final int DEFAULT_MAX_FPS = 60;
+
+    private static volatile UiNotificationBus instance;
+
+    private final long frameNanos;
+    private final Executor edt;
+    private final BiConsumer<Runnable, Duration> timer;
+    private final Object lock = new Object();
+    // guarded by lock
+    private final Map<Object, Runnable> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+    private long dueNanos;
+    private long lastFlushNanos;
+    // the EDT while it flushes; flushing and flushed are only touched by it
+    private volatile Thread flushingThread;
+    private Map<Object, Runnable> flushing;
+    private Set<Object> flushed;
+
+    private final LongAdder posts = new LongAdder();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+    private volatile int maxBatch;
+
+    public static UiNotificationBus getInstance() {
+        if (instance == null) {
+            synchronized (UiNotificationBus.class) {
+                if (instance == null) {
+                    AppRuntime.Lane lane = AppRuntime.getInstance().lane("ui-notifications");
+                    UiNotificationBus bus = new UiNotificationBus(Integer.getInteger("ed.ui.maxFps", DEFAULT_MAX_FPS),
+                            SwingUtilities::invokeLater, lane::schedule);
+                    AppRuntime.getInstance().onShutdown("ui-notifications", () -> log.info(bus.summary()));
+                    instance = bus;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @param maxFps most flushes per second, clamped to 1..240.
+     * @param edt    runs a flush on the UI thread.
+     * @param timer  runs a task after a delay.
+     */
+    UiNotificationBus(int maxFps, Executor edt, BiConsumer<Runnable, Duration> timer) {
+        this.frameNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, Math.min(240, maxFps));
+        this.edt = edt;
+        this.timer = timer;
+        this.lastFlushNanos = System.nanoTime() - frameNanos;
+    }
+
+    /**
+     * Schedules a notification for the next frame; a later post from the same source replaces it.
+     *
+     * @param source       the publisher, e.g. a manager or a panel.
+     * @param notification runs on the EDT.
+     */
+    public void post(Object source, Runnable notification) {
+        posts.increment();
+        if (Thread.currentThread() == flushingThread && !flushed.contains(source)) {
+            if (flushing.put(source, notification) != null) {
+                merged.increment();
+            }
+            return;
+        }
+        boolean urgent = NotificationGate.isImmediate();
+        long delayNanos;
+        synchronized (lock) {
+            if (pending.put(source, notification) != null) {
+                merged.increment();
+            }
+            long now = System.nanoTime();
+            delayNanos = urgent ? 0 : Math.max(0, lastFlushNanos + frameNanos - now);
+            if (scheduled && dueNanos <= now + delayNanos) {
+                return;
+            }
+            scheduled = true;
+            dueNanos = now + delayNanos;
+        }
+        if (delayNanos == 0) {
+            edt.execute(this::flush);
+        } else {
+            timer.accept(() -> edt.execute(this::flush), Duration.ofNanos(delayNanos));
+        }
+    }
+
+    /**
+     * Runs the pending notifications. Called on the EDT; a flush without pending notifications does nothing.
+     */
+    void flush() {
+        Map<Object, Runnable> batch;
+        long now = System.nanoTime();
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+            long lag = Math.max(0, now - dueNanos);
+            lastLagNanos = lag;
+            maxLagNanos = Math.max(maxLagNanos, lag);
+            scheduled = false;
+            lastFlushNanos = now;
+        }
+        flushes.increment();
+        flushing = batch;
+        flushed = new HashSet<>();
+        flushingThread = Thread.currentThread();
+        int count = 0;
+        try {
+            while (!batch.isEmpty()) {
+                Iterator<Map.Entry<Object, Runnable>> first = batch.entrySet().iterator();
+                Map.Entry<Object, Runnable> entry = first.next();
+                first.remove();
+                flushed.add(entry.getKey());
+                count++;
+                try {
+                    entry.getValue().run();
+                } catch (RuntimeException e) {
+                    log.error("UI notification failed: {}", e.getMessage(), e);
+                }
+            }
+        } finally {
+            flushingThread = null;
+            flushing = null;
+            flushed = null;
+        }
+        delivered.add(count);
+        if (count > maxBatch) {
+            maxBatch = count;
+        }
+    }
+
+    /**
+     * @return notifications posted.
+     */
+    public long getPosts() {
+        return posts.sum();
+    }
+
+    /**
+     * @return posts merged into one already pending for the same source.
+     */
+    public long getMerged() {
+        return merged.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    /**
+     * @return notifications actually run.
+     */
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * @return how long the last flush waited in the EDT queue after it was due, in milliseconds.
+     */
+    public long getLastEdtLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLagNanos);
+    }
+
+    public long getMaxEdtLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLagNanos);
+    }
+
+    /**
+     * @return most notifications run by one flush.
+     */
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    /**
+     * @return the pending notifications, waiting for the next frame.
+     */
+    public int getPending() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    public String summary() {
+        return String.format("UI notifications: %d posted, %d merged, %d flushes (%d run, max %d per flush), "
+                        + "%d pending, EDT lag %d ms (max %d ms), frame %.1f ms",
+                getPosts(), getMerged(), getFlushes(), getDelivered(), getMaxBatch(), getPending(),
+                getLastEdtLagMillis(), getMaxEdtLagMillis(), frameNanos / 1_000_000.0);
+    }
+}
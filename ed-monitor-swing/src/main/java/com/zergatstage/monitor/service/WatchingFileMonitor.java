@@ -0,0 +1,217 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.service.readers.FileReadStrategy;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A {@link GenericFileMonitor} that reacts to file system notifications instead of polling every second.
+ * <p>
+ * The parent directory is registered with a {@link WatchService}; every modify event for the
+ * monitored file, and every newly created file (a possible rotation target), schedules a read on
+ * the monitor's lane, so reads stay serialized and in order.
+ * A slow safety poll covers platforms where notifications are delayed or lost. If the watcher cannot
+ * be created the monitor falls back to the inherited fixed-rate polling.
+ * </p>
+ */
+@Log4j2
+public class WatchingFileMonitor extends GenericFileMonitor {
+
+    /** Default interval of the safety poll that catches missed notifications. */
+    public static final Duration DEFAULT_SAFETY_POLL = Duration.ofSeconds(5);
+
+    private final Path directory;
+    private final Duration safetyPoll;
+    private volatile Consumer<Path> onEntryCreated = path -> { };
+    private final AtomicBoolean checkPending = new AtomicBoolean(false);
+    private WatchService watchService;
+    private Thread watchThread;
+    private ScheduledFuture<?> safetyTask;
+    private volatile boolean watching;
+
+    /**
+     * Constructs a WatchingFileMonitor with the default safety poll.
+     *
+     * @param file         the file to monitor.
+     * @param readStrategy the strategy for reading file updates.
+     * @param onUpdate     a callback function that processes new content.
+     */
+    public WatchingFileMonitor(Path file, FileReadStrategy readStrategy, Consumer<String> onUpdate) {
+        this(file, readStrategy, onUpdate, DEFAULT_SAFETY_POLL);
+    }
+
+    /**
+     * Constructs a WatchingFileMonitor.
+     *
+     * @param file         the file to monitor.
+     * @param readStrategy the strategy for reading file updates.
+     * @param onUpdate     a callback function that processes new content.
+     * @param safetyPoll   interval of the fallback poll used when notifications are missed.
+     */
+    public WatchingFileMonitor(Path file, FileReadStrategy readStrategy, Consumer<String> onUpdate,
+                               Duration safetyPoll) {
+        this(file.toAbsolutePath().getParent(), file, readStrategy, onUpdate, Delivery.CONTENT, safetyPoll);
+    }
+
+    /**
+     * Constructs a WatchingFileMonitor for a directory whose file may not exist yet.
+     * Combine with {@link #followRotation} to pick the file up once it is created.
+     *
+     * @param directory    the directory to watch.
+     * @param file         the file to monitor, or null if there is none yet.
+     * @param readStrategy the strategy for reading file updates.
+     * @param onUpdate     a callback function that processes new content or individual lines.
+     * @param delivery     whether {@code onUpdate} receives whole updates or one line at a time.
+     * @param safetyPoll   interval of the fallback poll used when notifications are missed.
+     */
+    public WatchingFileMonitor(Path directory, Path file, FileReadStrategy readStrategy,
+                               Consumer<String> onUpdate, Delivery delivery, Duration safetyPoll) {
+        super(file, readStrategy, onUpdate, delivery);
+        this.directory = directory;
+        this.safetyPoll = safetyPoll;
+    }
+
+    /**
+     * Constructs a WatchingFileMonitor that delivers every line together with the byte offset just past it.
+     *
+     * @param directory    the directory to watch.
+     * @param file         the file to monitor, or null if there is none yet.
+     * @param readStrategy the strategy for reading file updates.
+     * @param onLine       receives each line and its end offset (-1 if the strategy cannot tell).
+     * @param safetyPoll   interval of the fallback poll used when notifications are missed.
+     */
+    public WatchingFileMonitor(Path directory, Path file, FileReadStrategy readStrategy,
+                               ObjLongConsumer<String> onLine, Duration safetyPoll) {
+        super(file, readStrategy, onLine);
+        this.directory = directory;
+        this.safetyPoll = safetyPoll;
+    }
+
+    /**
+     * Registers a callback for files created in the watched directory.
+     * It runs on the watcher thread before the resulting check is scheduled.
+     *
+     * @param onEntryCreated receives the path of every created entry.
+     */
+    public void setOnEntryCreated(Consumer<Path> onEntryCreated) {
+        this.onEntryCreated = onEntryCreated != null ? onEntryCreated : path -> { };
+    }
+
+    /**
+     * Starts watching the file. Any content already present is read immediately.
+     */
+    @Override
+    public synchronized void start() {
+        if (watching) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("WatchService setup failed for {}: {}. Falling back to polling.", file, e.getMessage());
+            closeWatchService();
+            super.start();
+            return;
+        }
+        watching = true;
+        watchThread = AppRuntime.getInstance().startThread("journal-watch", this::watchLoop);
+
+        long pollMillis = safetyPoll.toMillis();
+        safetyTask = executor.scheduleAtFixedRate(this::checkFile, safetyPoll, safetyPoll);
+        requestCheck();
+        log.info("File watching started for {} in {}\t at: {} (safety poll {} ms)",
+                file, directory, Instant.now(), pollMillis);
+    }
+
+    /**
+     * Stops watching the file and cancels the safety poll.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!watching) {
+            super.stop();
+            return;
+        }
+        watching = false;
+        if (safetyTask != null) {
+            safetyTask.cancel(false);
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        closeWatchService();
+        log.info("File watching stopped for {} at: {}", file, Instant.now());
+    }
+
+    /**
+     * Schedules a single read on the monitor lane. Bursts of notifications collapse
+     * into one pending read, because one read consumes everything appended so far.
+     */
+    private void requestCheck() {
+        if (checkPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                checkPending.set(false);
+                checkFile();
+            });
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (watching && !Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                Path current = file;
+                Path fileName = current != null ? current.getFileName() : null;
+                boolean relevant = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    WatchEvent.Kind<?> kind = event.kind();
+                    if (kind == StandardWatchEventKinds.OVERFLOW) {
+                        relevant = true;
+                        continue;
+                    }
+                    Path name = (Path) event.context();
+                    if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                        // a new file may be a rotation target
+                        onEntryCreated.accept(directory.resolve(name));
+                        relevant = true;
+                    } else if (name.equals(fileName)) {
+                        relevant = true;
+                    }
+                }
+                if (relevant) {
+                    requestCheck();
+                }
+                if (!key.reset()) {
+                    log.warn("WatchKey no longer valid for {}", key.watchable());
+                    break;
+                }
+            }
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+        } catch (Exception e) {
+            log.warn("Watch loop error: {}", e.getMessage());
+        }
+    }
+
+    private void closeWatchService() {
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException ignored) {
+        }
+        watchService = null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.zergatstage.monitor.service.managers;
 
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
 import com.zergatstage.monitor.service.BaseManager;
 import lombok.Setter;
 import org.json.JSONObject;
@@ -10,22 +12,24 @@ public class AsteroidManager extends BaseManager {
     double proportion = 0.0;
 
     public void updateProspectingLabel(JSONObject event) {
-
         try {
-            if (event.has("Materials")) {
-                var materials = event.getJSONArray("Materials");
-                for (int i = 0; i < materials.length(); i++) {
-                    var material = materials.getJSONObject(i);
-                    if (selectedMaterial.equalsIgnoreCase(material.getString("Name"))) {
-                        proportion = material.getDouble("Proportion");
-                        break;
-                    }
-                    proportion = 0.0;
-                }
-            }
+            updateProspectingLabel((JournalEvent.ProspectedAsteroid)
+                    JournalEventDecoder.fromJson("ProspectedAsteroid", event));
         } catch (Exception e) {
             System.err.println("Error processing asteroid data: " + e.getMessage());
         }
+    }
+
+    public void updateProspectingLabel(JournalEvent.ProspectedAsteroid event) {
+        if (event.materials() != null) {
+            for (JournalEvent.Material material : event.materials()) {
+                if (selectedMaterial.equalsIgnoreCase(material.name())) {
+                    proportion = material.proportion();
+                    break;
+                }
+                proportion = 0.0;
+            }
+        }
         this.notifyListeners();
     }
 
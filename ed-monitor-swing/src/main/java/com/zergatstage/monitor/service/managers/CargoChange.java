@@ -0,0 +1,15 @@
+package com.zergatstage.monitor.service.managers;
+
+/**
+ * A commodity whose count in the cargo hold changed, as delivered to {@link CargoChangeListener}.
+ *
+ * @param commodityId the canonical ID of the commodity.
+ * @param before      the count the listeners saw last, 0 if it was not in cargo.
+ * @param after       the current count, 0 if it left the cargo.
+ */
+public record CargoChange(long commodityId, int before, int after) {
+
+    public int delta() {
+        return after - before;
+    }
+}
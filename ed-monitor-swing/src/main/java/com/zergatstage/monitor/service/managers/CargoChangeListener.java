@@ -0,0 +1,15 @@
+package com.zergatstage.monitor.service.managers;
+
+import java.util.List;
+
+/**
+ * Receives the cargo changes of {@link CargoInventoryManager}, on the EDT and at most once per frame.
+ */
+@FunctionalInterface
+public interface CargoChangeListener {
+
+    /**
+     * @param changes the commodities whose count changed since the previous call, never empty.
+     */
+    void onCargoChanged(List<CargoChange> changes);
+}
@@ -1,19 +1,25 @@
 package com.zergatstage.monitor.service.managers;
 
-import java.util.Map;
-
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import com.zergatstage.domain.Ship;
 import com.zergatstage.domain.dictionary.CargoItem;
 import com.zergatstage.domain.dictionary.Commodity;
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.events.JournalEventDecoder;
 import com.zergatstage.monitor.factory.DefaultManagerFactory;
 import com.zergatstage.monitor.service.BaseManager;
 import com.zergatstage.monitor.service.CommodityRegistry;
 import com.zergatstage.monitor.service.JournalLogMonitor;
+import com.zergatstage.tools.ConcurrentLongObjectMap;
+import com.zergatstage.tools.LongObjectMap;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,6 +35,11 @@ public class CargoInventoryManager extends BaseManager {
     private static volatile CargoInventoryManager instance;
     private final CommodityRegistry commodityRegistry;
     private Ship shipVariant;
+    @Getter(AccessLevel.NONE)
+    private final List<CargoChangeListener> cargoListeners = new CopyOnWriteArrayList<>();
+    // counts the cargo listeners saw last; only used on the EDT
+    @Getter(AccessLevel.NONE)
+    private LongObjectMap<Integer> notifiedCounts = new LongObjectMap<>();
 
     private CargoInventoryManager() {
         this.shipVariant = Ship.builder().build();
@@ -55,21 +66,30 @@ public class CargoInventoryManager extends BaseManager {
      */
     public void initShip(JSONObject event) {
         try {
-            if (shipVariant == null) {
-                shipVariant = new Ship();
-                //shipVariant.setCommodities(new HashMap<>()); // Initialize with the correct Map type
-            }
-            shipVariant.setShipId(event.getInt("ShipID"));
-            shipVariant.setShip(event.getString("Ship"));
-            shipVariant.setShipName(event.getString("ShipName"));
-            shipVariant.setCargoCapacity(event.getInt("CargoCapacity"));
-            shipVariant.setCargoStateKnown(false); // Reset state on new loadout
-            shipVariant.clearCargo();
-
+            initShip(new JournalEvent.Loadout(null, event.getString("Ship"), event.getInt("ShipID"),
+                    event.getString("ShipName"), event.getInt("CargoCapacity")));
         } catch (JSONException e) {
             log.error("Failed to initialize ship from Loadout event", e);
             throw new RuntimeException(e);
         }
+    }
+
+    /**
+     * Initializes or updates the current ship based on a decoded "Loadout" event.
+     * This resets the cargo state to unknown.
+     *
+     * @param event the decoded "Loadout" event.
+     */
+    public void initShip(JournalEvent.Loadout event) {
+        if (shipVariant == null) {
+            shipVariant = new Ship();
+        }
+        shipVariant.setShipId(event.shipId());
+        shipVariant.setShip(event.ship());
+        shipVariant.setShipName(event.shipName());
+        shipVariant.setCargoCapacity(event.cargoCapacity());
+        shipVariant.setCargoStateKnown(false); // Reset state on new loadout
+        shipVariant.clearCargo();
         notifyListeners();
     }
 
@@ -81,12 +101,26 @@ public class CargoInventoryManager extends BaseManager {
      * @param amountDelta The amount to add or remove.
      */
     public void modifyCargoAmount(long commodityId, int amountDelta) {
+        if (applyCargoDelta(commodityId, amountDelta)) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Same as {@link #modifyCargoAmount} but without notifying listeners, for callers that apply
+     * several changes and notify once.
+     *
+     * @param commodityId The canonical ID of the commodity.
+     * @param amountDelta The amount to add or remove.
+     * @return false if the cargo state is not known yet and nothing was changed.
+     */
+    public boolean applyCargoDelta(long commodityId, int amountDelta) {
         if (shipVariant == null || !shipVariant.isCargoStateKnown()) {
             log.warn("Cannot modify cargo, ship state is not yet known.");
-            return;
+            return false;
         }
 
-        Map<Long, CargoItem> commodities = shipVariant.getCommodities();
+        ConcurrentLongObjectMap<CargoItem> commodities = shipVariant.getCommodities();
         CargoItem currentItem = commodities.get(commodityId);
 
         if (currentItem != null) {
@@ -106,7 +140,7 @@ public class CargoInventoryManager extends BaseManager {
                 log.error("Attempted to add unknown commodity with ID: {}", commodityId);
             }
         }
-        notifyListeners();
+        return true;
     }
 
     /**
@@ -116,6 +150,15 @@ public class CargoInventoryManager extends BaseManager {
      * @param event JSON object from a "Cargo" event.
      */
     public void setCargoFromSnapshot(JSONObject event) {
+        setCargoFromSnapshot((JournalEvent.Cargo) JournalEventDecoder.fromJson("Cargo", event));
+    }
+
+    /**
+     * Replaces the entire cargo inventory based on a decoded "Cargo" event snapshot.
+     *
+     * @param event the decoded "Cargo" event.
+     */
+    public void setCargoFromSnapshot(JournalEvent.Cargo event) {
         if (shipVariant == null) {
             log.error("Ship is not initialized. Cannot process Cargo event.");
             return;
@@ -123,31 +166,20 @@ public class CargoInventoryManager extends BaseManager {
 
         shipVariant.clearCargo(); // Always start fresh from a snapshot
 
-        try {
-            if (event.has("Inventory")) {
-                JSONArray cargoInventory = event.getJSONArray("Inventory");
-                for (int i = 0; i < cargoInventory.length(); i++) {
-                    JSONObject itemJson = cargoInventory.getJSONObject(i);
-                    String systemName = itemJson.getString("Name");
-                    String localisedName = itemJson.optString("Name_Localised");
-
-                    long commodityId = commodityRegistry.findCommodityId(systemName, localisedName);
-
-                    if (commodityId != -1) {
-                        CargoItem cargoItem = new CargoItem(
-                                commodityId,
-                                itemJson.getInt("Count"),
-                                itemJson.getInt("Stolen")
-                        );
-                        shipVariant.getCommodities().put(commodityId, cargoItem);
-                    } else {
-                        log.warn("Could not find commodity ID for: {}. Skipping item.", systemName);
-                    }
+        if (event.inventory() != null) {
+            for (JournalEvent.CargoItem item : event.inventory()) {
+                String systemName = item.name();
+                String localisedName = item.nameLocalised() != null ? item.nameLocalised() : "";
+
+                long commodityId = commodityRegistry.findCommodityId(systemName, localisedName);
+
+                if (commodityId != -1) {
+                    CargoItem cargoItem = new CargoItem(commodityId, item.count(), item.stolen());
+                    shipVariant.getCommodities().put(commodityId, cargoItem);
+                } else {
+                    log.warn("Could not find commodity ID for: {}. Skipping item.", systemName);
                 }
             }
-        } catch (JSONException e) {
-            log.error("Failed to parse Cargo event.", e);
-            throw new RuntimeException(e);
         }
         shipVariant.setCargoStateKnown(true); // State is now synchronized
         log.debug("Cargo state synchronized. Current cargo count: {}", shipVariant.getCurrentCargoCount());
@@ -168,9 +200,57 @@ public class CargoInventoryManager extends BaseManager {
         return (item != null) ? item.getCount() : 0;
     }
 
+    /**
+     * Registers a listener for the commodities whose count changed, for consumers that update only the
+     * affected rows. Plain {@link #addListener} listeners still run after it.
+     */
+    public void addCargoListener(CargoChangeListener listener) {
+        cargoListeners.add(listener);
+    }
+
+    public void removeCargoListener(CargoChangeListener listener) {
+        cargoListeners.remove(listener);
+    }
+
+    @Override
+    protected void fireListeners() {
+        List<CargoChange> changes = collectChanges();
+        if (!changes.isEmpty()) {
+            for (CargoChangeListener listener : cargoListeners) {
+                listener.onCargoChanged(changes);
+            }
+        }
+        super.fireListeners();
+    }
+
+    /**
+     * Compares the current counts with the ones delivered last and remembers the current ones.
+     */
+    private List<CargoChange> collectChanges() {
+        LongObjectMap<Integer> counts = new LongObjectMap<>();
+        if (shipVariant != null) {
+            shipVariant.getCommodities().forEach((commodityId, item) -> counts.put(commodityId, item.getCount()));
+        }
+        List<CargoChange> changes = new ArrayList<>();
+        LongObjectMap<Integer> previous = notifiedCounts;
+        counts.forEach((commodityId, count) -> {
+            int before = previous.getOrDefault(commodityId, 0);
+            if (before != count) {
+                changes.add(new CargoChange(commodityId, before, count));
+            }
+        });
+        previous.forEach((commodityId, before) -> {
+            if (!counts.containsKey(commodityId) && before != 0) {
+                changes.add(new CargoChange(commodityId, before, 0));
+            }
+        });
+        notifiedCounts = counts;
+        return changes;
+    }
+
     public void addCommodityToCargo(Commodity commodity, int amount) {
 
-        Map<Long, CargoItem> commoditiesInCargo = shipVariant.getCommodities();
+        ConcurrentLongObjectMap<CargoItem> commoditiesInCargo = shipVariant.getCommodities();
 
         commoditiesInCargo.compute(commodity.getId(), (e, existingItem) -> {
             if (existingItem == null) {
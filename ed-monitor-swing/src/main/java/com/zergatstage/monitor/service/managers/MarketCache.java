@@ -0,0 +1,254 @@
+package com.zergatstage.monitor.service.managers;
+
+import com.zergatstage.domain.makret.Market;
+import com.zergatstage.tools.ConcurrentLongObjectMap;
+import com.zergatstage.tools.LongObjectMap;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of the markets seen in this session, most recently updated first.
+ * <p>
+ * Holds at most {@code maxSize} markets; adding one more evicts the least recently updated. Markets not
+ * updated for {@code maxAge} are evicted on the next change. The latest market is never evicted, the UI
+ * shows it by default.
+ * </p>
+ * <p>
+ * A market is as old as its {@link Market#getUpdatedMillis() update time}, so markets restored from the
+ * local store or the server keep their age and order; markets without one count as updated when added.
+ * </p>
+ * <p>
+ * Writers are serialized and cost O(1): the recency order is an intrusive linked list indexed by market id.
+ * Readers do not lock: {@link #get} reads a concurrent map, {@link #latest()} a volatile field, and
+ * {@link #snapshot()} returns an immutable list that is rebuilt at most once per change.
+ * </p>
+ */
+public class MarketCache {
+
+    public static final int DEFAULT_MAX_SIZE = 500;
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofDays(7);
+
+    private final int maxSize;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+    private final ConcurrentLongObjectMap<Market> markets = new ConcurrentLongObjectMap<>();
+    // guarded by this
+    private final LongObjectMap<Node> nodes = new LongObjectMap<>();
+    private Node newest;
+    private Node oldest;
+    private volatile Market latest;
+    // null when a change made it stale
+    private volatile List<Market> snapshot = List.of();
+    private final LongAdder evictions = new LongAdder();
+
+    public MarketCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * @param maxSize most markets kept.
+     * @param maxAge  markets not updated for this long are evicted.
+     */
+    public MarketCache(int maxSize, Duration maxAge) {
+        this(maxSize, maxAge, System::currentTimeMillis);
+    }
+
+    MarketCache(int maxSize, Duration maxAge, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Adds or replaces a market and makes it the latest.
+     */
+    public synchronized void put(Market market) {
+        long now = clock.getAsLong();
+        link(market, updatedMillis(market, now));
+        latest = market;
+        evict(now);
+        snapshot = null;
+    }
+
+    /**
+     * Adds or replaces several markets, e.g. loaded from the server or the local store, behind the latest
+     * market. Markets not among them are kept; all are then ordered by their update time, newest first.
+     *
+     * @param loaded the markets; those updated at the same time are listed in this order.
+     */
+    public synchronized void putAll(Collection<Market> loaded) {
+        long now = clock.getAsLong();
+        Market keep = latest;
+        List<Market> reversed = new ArrayList<>(loaded);
+        Collections.reverse(reversed);
+        for (Market market : reversed) {
+            if (keep == null || market.getMarketId() != keep.getMarketId()) {
+                link(market, updatedMillis(market, now));
+            }
+        }
+        sortByRecency();
+        if (keep != null) {
+            link(keep, nodes.get(keep.getMarketId()).updatedMillis);
+        }
+        latest = newest != null ? newest.market : null;
+        evict(now);
+        snapshot = null;
+    }
+
+    /**
+     * Drops markets older than the maximum age.
+     */
+    public synchronized void evictExpired() {
+        if (evict(clock.getAsLong())) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * @return the market, or null if it is not cached.
+     */
+    public Market get(long marketId) {
+        return markets.get(marketId);
+    }
+
+    /**
+     * @return the most recently updated market, or null if there is none.
+     */
+    public Market latest() {
+        return latest;
+    }
+
+    /**
+     * @return an immutable list of all markets, the most recently updated first.
+     */
+    public List<Market> snapshot() {
+        List<Market> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                List<Market> list = new ArrayList<>(nodes.size());
+                for (Node node = newest; node != null; node = node.older) {
+                    list.add(node.market);
+                }
+                snapshot = Collections.unmodifiableList(list);
+            }
+            return snapshot;
+        }
+    }
+
+    public int size() {
+        return markets.size();
+    }
+
+    /**
+     * @return number of markets evicted for size or age.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static long updatedMillis(Market market, long now) {
+        Long updated = market.getUpdatedMillis();
+        return updated != null ? updated : now;
+    }
+
+    /**
+     * Relinks the recency list by update time, newest first; O(n log n), for bulk loads only.
+     */
+    private void sortByRecency() {
+        List<Node> order = new ArrayList<>(nodes.size());
+        for (Node node = newest; node != null; node = node.older) {
+            order.add(node);
+        }
+        order.sort(Comparator.comparingLong((Node node) -> node.updatedMillis).reversed());
+        newest = null;
+        oldest = null;
+        Node newer = null;
+        for (Node node : order) {
+            node.newer = newer;
+            node.older = null;
+            if (newer != null) {
+                newer.older = node;
+            } else {
+                newest = node;
+            }
+            newer = node;
+        }
+        oldest = newer;
+    }
+
+    private void link(Market market, long updatedMillis) {
+        long id = market.getMarketId();
+        Node node = nodes.get(id);
+        if (node != null) {
+            unlink(node);
+        } else {
+            node = new Node();
+            nodes.put(id, node);
+        }
+        node.market = market;
+        node.updatedMillis = updatedMillis;
+        node.older = newest;
+        node.newer = null;
+        if (newest != null) {
+            newest.newer = node;
+        }
+        newest = node;
+        if (oldest == null) {
+            oldest = node;
+        }
+        markets.put(id, market);
+    }
+
+    private void unlink(Node node) {
+        if (node.newer != null) {
+            node.newer.older = node.older;
+        } else {
+            newest = node.older;
+        }
+        if (node.older != null) {
+            node.older.newer = node.newer;
+        } else {
+            oldest = node.newer;
+        }
+        node.newer = null;
+        node.older = null;
+    }
+
+    /**
+     * @return true if anything was evicted.
+     */
+    private boolean evict(long now) {
+        boolean evicted = false;
+        while (oldest != null && oldest != newest
+                && (nodes.size() > maxSize || now - oldest.updatedMillis > maxAgeMillis)) {
+            Node node = oldest;
+            unlink(node);
+            long id = node.market.getMarketId();
+            nodes.remove(id);
+            markets.remove(id);
+            evictions.increment();
+            evicted = true;
+        }
+        return evicted;
+    }
+
+    private static final class Node {
+        private Market market;
+        private long updatedMillis;
+        private Node newer;
+        private Node older;
+    }
+}
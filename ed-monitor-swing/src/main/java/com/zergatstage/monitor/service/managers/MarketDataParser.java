@@ -1,5 +1,7 @@
 package com.zergatstage.monitor.service.managers;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 
 import org.json.JSONArray;
@@ -29,6 +31,7 @@ public class MarketDataParser {
                 .stationName(stationName)
                 .stationType(stationType)
                 .systemName(systemName)
+                .updatedMillis(parseTimestamp(marketJSONObject.optString("timestamp", null)))
                 .items(new HashMap<>())
                 .build();
 
@@ -69,4 +72,18 @@ public class MarketDataParser {
 
         return market;
     }
+
+    /**
+     * @return the timestamp in epoch milliseconds, or null if it is missing or malformed.
+     */
+    private static Long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
 }
@@ -2,14 +2,19 @@ package com.zergatstage.monitor.service.managers;
 
 import com.zergatstage.domain.makret.Market;
 import com.zergatstage.domain.makret.MarketItem;
+import com.zergatstage.monitor.config.LogMonitorConfig;
 import com.zergatstage.monitor.service.BaseManager;
 import com.zergatstage.monitor.http.MarketDtoMapper;
 import com.zergatstage.monitor.service.MarketDataHttpService;
 import com.zergatstage.monitor.service.CommodityRegistry;
+import com.zergatstage.repo.GenericRepository;
 import lombok.extern.log4j.Log4j2;
 import org.json.JSONException;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Service responsible for handling market data updates.
@@ -24,8 +29,9 @@ public class MarketDataUpdateService extends BaseManager{
 
     private final CommodityRegistry commodityRegistry;
     private final MarketDataParser marketDataParser;
-    private final LinkedHashMap<Long, Market> marketCache = new LinkedHashMap<>();
+    private final MarketCache marketCache;
     private MarketDataHttpService httpService;
+    private volatile GenericRepository<Market> store;
 
     /**
      * Constructs the MarketDataUpdateService with required dependencies.
@@ -34,8 +40,15 @@ public class MarketDataUpdateService extends BaseManager{
      * @param marketDataParser  the parser for converting JSON market data into Market objects.
      */
     public MarketDataUpdateService(CommodityRegistry commodityRegistry, MarketDataParser marketDataParser) {
+        this(commodityRegistry, marketDataParser,
+                new MarketCache(LogMonitorConfig.marketCacheSize(), LogMonitorConfig.marketCacheMaxAge()));
+    }
+
+    MarketDataUpdateService(CommodityRegistry commodityRegistry, MarketDataParser marketDataParser,
+                            MarketCache marketCache) {
         this.commodityRegistry = commodityRegistry;
         this.marketDataParser = marketDataParser;
+        this.marketCache = marketCache;
     }
 
     public void setHttpService(MarketDataHttpService httpService) {
@@ -43,26 +56,84 @@ public class MarketDataUpdateService extends BaseManager{
     }
 
     /**
-     * Loads markets from the server (if configured) and populates local cache.
+     * Fills the cache from the local store and keeps the store updated from then on.
+     * Stored markets the cache does not keep (too old or too many) are removed from the store.
+     *
+     * @param store the local market store.
+     */
+    public void restore(GenericRepository<Market> store) {
+        List<Market> stored = store.findAll();
+        marketCache.putAll(stored);
+        commodityRegistry.loadMarketData(stored);
+        for (Market market : stored) {
+            if (marketCache.get(market.getMarketId()) != market) {
+                store.delete(market);
+            }
+        }
+        this.store = store;
+        if (!stored.isEmpty()) {
+            notifyListeners();
+        }
+        log.info("Market cache restored from local store: {} entries", marketCache.size());
+    }
+
+    /**
+     * Loads markets from the server (if configured) and merges them into the local cache.
+     * Of two copies of a market the newer by {@link Market#getUpdatedMillis() update time} wins; markets known
+     * locally but missing or older on the server, e.g. recorded while it was down, are sent to it.
      */
     public void refreshFromServer() {
         if (httpService == null) return;
         try {
             var dtos = httpService.getMarkets();
-            if (dtos == null || dtos.isEmpty()) return;
-            this.marketCache.clear();
-            for (var dto : dtos) {
-                Market m = MarketDtoMapper.fromDto(dto);
-                this.marketCache.put(m.getMarketId(), m);
+            List<Market> markets = new ArrayList<>(dtos == null ? 0 : dtos.size());
+            Set<Long> known = new HashSet<>();
+            List<Market> sendBack = new ArrayList<>();
+            if (dtos != null) {
+                for (var dto : dtos) {
+                    Market market = MarketDtoMapper.fromDto(dto);
+                    known.add(market.getMarketId());
+                    Market local = marketCache.get(market.getMarketId());
+                    if (local == null || isNewer(market, local)) {
+                        markets.add(market);
+                    } else if (isNewer(local, market)) {
+                        sendBack.add(local);
+                    }
+                }
             }
-            commodityRegistry.loadMarketData(marketCache);
-            notifyListeners();
-            log.info("Market cache refreshed from server: {} entries", marketCache.size());
+            for (Market market : marketCache.snapshot()) {
+                if (!known.contains(market.getMarketId())) {
+                    sendBack.add(market);
+                }
+            }
+            if (!markets.isEmpty()) {
+                marketCache.putAll(markets);
+                commodityRegistry.loadMarketData(markets);
+                GenericRepository<Market> target = store;
+                if (target != null) {
+                    markets.forEach(target::save);
+                }
+                notifyListeners();
+            }
+            if (!sendBack.isEmpty()) {
+                httpService.postMarkets(sendBack.stream().map(market -> MarketDtoMapper.toDto(market)).toList());
+            }
+            log.info("Market cache refreshed from server: {} entries, {} taken, {} sent back",
+                    marketCache.size(), markets.size(), sendBack.size());
         } catch (Exception e) {
             log.warn("Refresh from server failed: {}", e.getMessage());
         }
     }
 
+    /**
+     * @return true if {@code a} was updated after {@code b}; an unknown update time is older than any.
+     */
+    private static boolean isNewer(Market a, Market b) {
+        long updatedA = a.getUpdatedMillis() != null ? a.getUpdatedMillis() : Long.MIN_VALUE;
+        long updatedB = b.getUpdatedMillis() != null ? b.getUpdatedMillis() : Long.MIN_VALUE;
+        return updatedA > updatedB;
+    }
+
     /**
      * Handles market data update events by parsing the JSON data and updating the repository.
      * <p>
@@ -83,8 +154,12 @@ public class MarketDataUpdateService extends BaseManager{
                 log.warn("No market data found from file update. (It's okay)");
                 return;
             }
-            marketCache.putFirst(parsedMarket.getMarketId(), parsedMarket);
-            commodityRegistry.loadMarketData(marketCache);
+            marketCache.put(parsedMarket);
+            commodityRegistry.loadMarket(parsedMarket);
+            GenericRepository<Market> target = store;
+            if (target != null) {
+                target.save(parsedMarket);
+            }
             try {
                 if (httpService != null) {
                     httpService.postMarkets(java.util.List.of(MarketDtoMapper.toDto(parsedMarket)));
@@ -105,7 +180,7 @@ public class MarketDataUpdateService extends BaseManager{
      * If parsing fails, market or commodity is missing, returns 0.
      */
     public int getStockForSite(long materialId) {
-        Market market = marketCache.sequencedValues().getFirst();
+        Market market = marketCache.latest();
         if (market == null || market.getItems() == null) {
             return 0;
         }
@@ -130,7 +205,10 @@ public class MarketDataUpdateService extends BaseManager{
         return market.getItems().getOrDefault(materialId, new MarketItem()).getStock() ;
     }
 
+    /**
+     * @return all cached markets, the latest one first.
+     */
     public Market[] getAllMarkets() {
-        return this.marketCache.values().toArray(new Market[0]);
+        return marketCache.snapshot().toArray(new Market[0]);
     }
 }
@@ -0,0 +1,102 @@
+package com.zergatstage.monitor.service.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency recorder used to observe the journal pipeline.
+ * <p>
+ * Samples are kept in power-of-two microsecond buckets, so percentiles are
+ * reported as the upper bound of the matching bucket. This is coarse, but it
+ * is cheap enough to record every line and accurate enough to spot regressions.
+ * </p>
+ */
+public class LatencyStats {
+
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a single latency sample.
+     *
+     * @param nanos elapsed time in nanoseconds; negative values are clamped to zero.
+     */
+    public void record(long nanos) {
+        long sample = Math.max(nanos, 0L);
+        long micros = TimeUnit.NANOSECONDS.toMicros(sample);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(sample);
+        maxNanos.accumulateAndGet(sample, Math::max);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double meanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / (double) n / 1_000_000.0;
+    }
+
+    public double maxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Returns the approximate latency below which the given share of samples fall.
+     *
+     * @param percentile value between 0 and 100.
+     * @return upper bound of the matching bucket in milliseconds.
+     */
+    public double percentileMillis(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0.0;
+        }
+        long threshold = (long) Math.ceil(n * Math.min(Math.max(percentile, 0.0), 100.0) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= Math.max(threshold, 1)) {
+                long upperMicros = i == 0 ? 1L : 1L << i;
+                return Math.min(upperMicros / 1_000.0, maxMillis());
+            }
+        }
+        return maxMillis();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    /**
+     * @return a one-line human-readable summary suitable for logging.
+     */
+    public String summary() {
+        return String.format("%s: n=%d mean=%.2fms p50=%.2fms p99=%.2fms max=%.2fms",
+                name, count(), meanMillis(), percentileMillis(50), percentileMillis(99), maxMillis());
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
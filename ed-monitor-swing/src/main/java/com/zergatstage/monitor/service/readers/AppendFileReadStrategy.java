@@ -3,40 +3,152 @@ package com.zergatstage.monitor.service.readers;
 import lombok.extern.log4j.Log4j2;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 /**
  * File read strategy for files that are appended with new lines.
+ * <p>
+ * The file is read through a {@link FileChannel} in large blocks and decoded as UTF-8.
+ * Only complete, newline-terminated lines are delivered; the returned position always
+ * points just past the last complete line, so a line that is still being written is
+ * read again, in full, on the next call.
+ * </p>
  */
 @Log4j2
 public class  AppendFileReadStrategy implements FileReadStrategy {
 
+    /** Default size of a single read from the channel. */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    private final int blockSize;
+
+    public AppendFileReadStrategy() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param blockSize number of bytes requested from the channel per read.
+     */
+    public AppendFileReadStrategy(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+
     /**
      * Reads new content appended to the file.
      *
      * @param file the file to read from.
      * @param previousState the last read position (expected to be a Long).
-     * @return a ReadResult containing the appended content and the new file pointer.
+     * @return a ReadResult containing the appended complete lines and the new position.
      * @throws IOException if an I/O error occurs.
      */
     @Override
     public ReadResult readChanges(Path file, Object previousState) throws IOException {
-
-        long lastPosition = previousState instanceof Long ? (Long) previousState : 0L;
-        long fileSize = file.toFile().length();
         StringBuilder newContent = new StringBuilder();
+        Object newState = readLines(file, previousState, line -> newContent.append(line).append('\n'));
+        return new ReadResult(newContent.toString(), newState);
+    }
 
-        if (fileSize > lastPosition) {
-            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
-                raf.seek(lastPosition);
-                String line;
-                while ((line = raf.readLine()) != null) {
-                    newContent.append(line).append("\n");
+    /**
+     * Reads complete lines appended since {@code previousState} and hands them to the consumer one by one.
+     *
+     * @param file          the file to read from.
+     * @param previousState the last read position (expected to be a Long).
+     * @param lineConsumer  receives each complete line without its line terminator.
+     * @return the position just past the last complete line, as a Long.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public Object readLines(Path file, Object previousState, Consumer<String> lineConsumer) throws IOException {
+        return readPositionedLines(file, previousState, (line, endOffset) -> lineConsumer.accept(line));
+    }
+
+    /**
+     * Reads complete lines appended since {@code previousState}, reporting for each line the offset just
+     * past its terminator, i.e. the position to resume from once that line has been processed.
+     *
+     * @param file          the file to read from.
+     * @param previousState the last read position (expected to be a Long).
+     * @param lineConsumer  receives each complete line without its line terminator, and its end offset.
+     * @return the position just past the last complete line, as a Long.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public Object readPositionedLines(Path file, Object previousState, ObjLongConsumer<String> lineConsumer)
+            throws IOException {
+        long committed = previousState instanceof Long ? (Long) previousState : 0L;
+        long fileSize = file.toFile().length();
+        if (fileSize <= committed) {
+            return committed;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(blockSize, fileSize - committed));
+            byte[] block = buffer.array();
+            byte[] carry = new byte[0];
+            int carryLength = 0;
+            long position = committed;
+            while (position < fileSize) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
                 }
-                lastPosition = raf.getFilePointer();
+                position += read;
+                int lineStart = 0;
+                for (int i = 0; i < read; i++) {
+                    if (block[i] != '\n') {
+                        continue;
+                    }
+                    int length = i - lineStart;
+                    String line;
+                    if (carryLength == 0) {
+                        line = decode(block, lineStart, length);
+                    } else {
+                        carry = ensureCapacity(carry, carryLength + length);
+                        System.arraycopy(block, lineStart, carry, carryLength, length);
+                        line = decode(carry, 0, carryLength + length);
+                    }
+                    committed += carryLength + length + 1;
+                    lineConsumer.accept(line, committed);
+                    carryLength = 0;
+                    lineStart = i + 1;
+                }
+                // keep the unterminated remainder; it is either completed by the next block or re-read next time
+                int remainder = read - lineStart;
+                if (remainder > 0) {
+                    carry = ensureCapacity(carry, carryLength + remainder);
+                    System.arraycopy(block, lineStart, carry, carryLength, remainder);
+                    carryLength += remainder;
+                }
+            }
+            if (carryLength > 0) {
+                log.trace("Holding back {} bytes of a partial line in {}", carryLength, file);
             }
         }
-        return new ReadResult(newContent.toString(), lastPosition);
+        return committed;
+    }
+
+    private static String decode(byte[] bytes, int offset, int length) {
+        // tolerate CRLF line endings
+        if (length > 0 && bytes[offset + length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ensureCapacity(byte[] bytes, int required) {
+        if (bytes.length >= required) {
+            return bytes;
+        }
+        return Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
     }
 }
@@ -4,6 +4,8 @@ import lombok.Getter;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 /**
  * Strategy interface for reading file changes.
@@ -20,6 +22,38 @@ public interface FileReadStrategy {
      */
     ReadResult readChanges(Path file, Object previousState) throws IOException;
 
+    /**
+     * Reads updates from the specified file and delivers them line by line.
+     * The default implementation splits the content returned by {@link #readChanges};
+     * strategies that can stream lines directly should override it.
+     *
+     * @param file          the file to read updates from.
+     * @param previousState an object representing the previous state.
+     * @param lineConsumer  receives each new line without its line terminator.
+     * @return the updated state.
+     * @throws IOException if an I/O error occurs.
+     */
+    default Object readLines(Path file, Object previousState, Consumer<String> lineConsumer) throws IOException {
+        ReadResult result = readChanges(file, previousState);
+        result.getNewContent().lines().forEach(lineConsumer);
+        return result.getNewState();
+    }
+
+    /**
+     * Like {@link #readLines}, but also reports the byte offset just past each line, so callers can
+     * remember exactly how far they got. The default implementation cannot tell and reports -1.
+     *
+     * @param file          the file to read updates from.
+     * @param previousState an object representing the previous state.
+     * @param lineConsumer  receives each new line without its terminator, and its end offset.
+     * @return the updated state.
+     * @throws IOException if an I/O error occurs.
+     */
+    default Object readPositionedLines(Path file, Object previousState, ObjLongConsumer<String> lineConsumer)
+            throws IOException {
+        return readLines(file, previousState, line -> lineConsumer.accept(line, -1L));
+    }
+
     @Getter
     class ReadResult {
         /**
@@ -0,0 +1,208 @@
+package com.zergatstage.monitor.service.readers;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * File read strategy for JSON files that the game rewrites in place, such as Market.json and Status.json.
+ * <p>
+ * Unlike {@link RewriteFileReadStrategy} it does not keep the previous content. The state is a
+ * {@link Fingerprint} of size, modification time and a CRC32C of the bytes:
+ * <ol>
+ *     <li>if size and modification time are unchanged, the file is not read at all;</li>
+ *     <li>otherwise the bytes are read into a reused buffer and hashed; an equal hash means no change;</li>
+ *     <li>only a real change is decoded into a string.</li>
+ * </ol>
+ * The game does not write these files atomically, so a changed file is also checked for a complete
+ * JSON document. A truncated or still-growing file is re-read after a short settle delay; if it is still
+ * incomplete after a few attempts nothing is published and the next check tries again.
+ * </p>
+ * <p>
+ * Instances keep a read buffer and should be used for one file.
+ * </p>
+ */
+@Log4j2
+public class HashedRewriteFileReadStrategy implements FileReadStrategy {
+
+    /** Default pause before re-reading a file that looked half-written. */
+    public static final Duration DEFAULT_SETTLE_DELAY = Duration.ofMillis(50);
+    /** Default number of re-reads of a half-written file within one check. */
+    public static final int DEFAULT_SETTLE_ATTEMPTS = 3;
+    /**
+     * Modification times this close to the moment a fingerprint was taken are not trusted on their own:
+     * a second write within the file system's timestamp granularity would keep size and time unchanged.
+     */
+    private static final long RACY_WINDOW_MILLIS = 2_000;
+
+    private final Duration settleDelay;
+    private final int settleAttempts;
+    private byte[] buffer = new byte[16 * 1024];
+
+    public HashedRewriteFileReadStrategy() {
+        this(DEFAULT_SETTLE_DELAY, DEFAULT_SETTLE_ATTEMPTS);
+    }
+
+    /**
+     * @param settleDelay    pause before re-reading a file that looked half-written.
+     * @param settleAttempts number of re-reads within one check before giving up until the next one.
+     */
+    public HashedRewriteFileReadStrategy(Duration settleDelay, int settleAttempts) {
+        if (settleAttempts < 0) {
+            throw new IllegalArgumentException("settleAttempts must not be negative: " + settleAttempts);
+        }
+        this.settleDelay = settleDelay;
+        this.settleAttempts = settleAttempts;
+    }
+
+    /**
+     * Returns the file content if it changed since {@code previousState}.
+     *
+     * @param file          the file to read from.
+     * @param previousState the previous {@link Fingerprint}; anything else counts as "never read".
+     * @return the new content and fingerprint, or an empty string and the previous state when nothing
+     * changed or the file is still being written.
+     * @throws IOException if the file cannot be read.
+     */
+    @Override
+    public synchronized ReadResult readChanges(Path file, Object previousState) throws IOException {
+        Fingerprint previous = previousState instanceof Fingerprint fingerprint ? fingerprint : null;
+        for (int attempt = 0; ; attempt++) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (previous != null && previous.size() == size && previous.modifiedMillis() == modified
+                    && previous.checkedAtMillis() - modified > RACY_WINDOW_MILLIS) {
+                return new ReadResult("", previous);
+            }
+
+            int length = read(file, size);
+            CRC32C crc = new CRC32C();
+            crc.update(buffer, 0, length);
+            Fingerprint current = new Fingerprint(length, modified, crc.getValue(), System.currentTimeMillis());
+            if (previous != null && previous.size() == length && previous.hash() == current.hash()) {
+                // same bytes, newer timestamp: remember it so the next check can stop at the size/time test
+                return new ReadResult("", current);
+            }
+            if (length == size && isCompleteJson(buffer, length)) {
+                return new ReadResult(new String(buffer, 0, length, StandardCharsets.UTF_8), current);
+            }
+            if (attempt >= settleAttempts) {
+                log.debug("{} still incomplete after {} attempts ({} bytes), retrying on the next check",
+                        file, attempt + 1, length);
+                return new ReadResult("", previousState);
+            }
+            settle();
+        }
+    }
+
+    /**
+     * Reads the whole file into {@link #buffer}.
+     *
+     * @return the number of bytes read, which differs from {@code expectedSize} if the file changed meanwhile.
+     */
+    private int read(Path file, long expectedSize) throws IOException {
+        if (expectedSize > Integer.MAX_VALUE - 8) {
+            throw new IOException("File too large for a rewrite strategy: " + expectedSize + " bytes");
+        }
+        if (buffer.length <= expectedSize) {
+            buffer = new byte[(int) Math.max(expectedSize + 1, buffer.length * 2L)];
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int length = 0;
+            int read;
+            while ((read = channel.read(ByteBuffer.wrap(buffer, length, buffer.length - length))) >= 0) {
+                length += read;
+                if (length == buffer.length) {
+                    // the file grew while being read
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            return length;
+        }
+    }
+
+    private void settle() throws IOException {
+        try {
+            Thread.sleep(settleDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a file write to settle", e);
+        }
+    }
+
+    /**
+     * Checks that the bytes hold exactly one complete JSON object or array: brackets balance outside of
+     * strings and only whitespace follows the closing bracket.
+     */
+    static boolean isCompleteJson(byte[] bytes, int length) {
+        int depth = 0;
+        boolean started = false;
+        boolean inString = false;
+        boolean escaped = false;
+        int start = length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF
+                ? 3 : 0; // UTF-8 byte order mark
+        for (int i = start; i < length; i++) {
+            byte b = bytes[i];
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (b) {
+                case '"' -> {
+                    if (!started || depth == 0) {
+                        return false;
+                    }
+                    inString = true;
+                }
+                case '{', '[' -> {
+                    if (started && depth == 0) {
+                        return false;
+                    }
+                    started = true;
+                    depth++;
+                }
+                case '}', ']' -> {
+                    if (--depth < 0) {
+                        return false;
+                    }
+                }
+                case ' ', '\t', '\r', '\n' -> {
+                }
+                default -> {
+                    if (!started || depth == 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return started && depth == 0 && !inString;
+    }
+
+    /**
+     * What a file looked like when it was last read.
+     *
+     * @param size            file size in bytes.
+     * @param modifiedMillis  last modification time.
+     * @param hash            CRC32C of the content.
+     * @param checkedAtMillis when the content was hashed.
+     */
+    public record Fingerprint(long size, long modifiedMillis, long hash, long checkedAtMillis) {
+    }
+}
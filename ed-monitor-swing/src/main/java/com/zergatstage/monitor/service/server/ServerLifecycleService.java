@@ -1,6 +1,7 @@
 package com.zergatstage.monitor.service.server;
 
 import com.zergatstage.monitor.config.ServerManagementProperties;
+import com.zergatstage.monitor.service.AppRuntime;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
@@ -21,7 +22,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
@@ -33,21 +34,17 @@ import java.util.concurrent.locks.ReentrantLock;
 @Slf4j
 public class ServerLifecycleService implements AutoCloseable {
     private final ServerManagementProperties properties;
-    private final ExecutorService executor;
+    private final Executor executor;
     private final HttpClient httpClient;
     private final ReentrantLock lifecycleLock = new ReentrantLock();
     private final AtomicReference<Process> processRef = new AtomicReference<>();
     private final String sessionIdentifier = "ed-monitor-session-" + UUID.randomUUID();
 
     public ServerLifecycleService(ServerManagementProperties properties) {
-        this(properties, Executors.newSingleThreadExecutor(r -> {
-            Thread t = new Thread(r, "ed-monitor-server-lifecycle");
-            t.setDaemon(true);
-            return t;
-        }));
+        this(properties, AppRuntime.getInstance().lane("ed-monitor-server-lifecycle"));
     }
 
-    ServerLifecycleService(ServerManagementProperties properties, ExecutorService executor) {
+    ServerLifecycleService(ServerManagementProperties properties, Executor executor) {
         this.properties = Objects.requireNonNull(properties, "properties");
         this.executor = Objects.requireNonNull(executor, "executor");
         this.httpClient = HttpClient.newBuilder()
@@ -399,6 +396,10 @@ public class ServerLifecycleService implements AutoCloseable {
 
     @Override
     public void close() {
-        executor.shutdown();
+        if (executor instanceof AppRuntime.Lane lane) {
+            lane.close();
+        } else if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
     }
 }
@@ -0,0 +1,189 @@
+package com.zergatstage.monitor.service.store;
+
+import com.zergatstage.domain.ConstructionSite;
+import com.zergatstage.domain.MaterialRequirement;
+import com.zergatstage.domain.dictionary.Commodity;
+import com.zergatstage.domain.makret.Market;
+import com.zergatstage.domain.makret.MarketItem;
+import com.zergatstage.monitor.service.AppRuntime;
+import com.zergatstage.repo.BinaryFileRepository;
+import com.zergatstage.repo.GenericRepository;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Local copy of the markets and construction sites, so the client starts with its last known data
+ * when the server is not reachable.
+ * <p>
+ * Each entity type lives in its own {@link BinaryFileRepository} file under the store directory; the
+ * commodities are stored once and referred to by id. Changes are kept in memory and appended to the files
+ * every few seconds on the "local-store" lane, and once more on shutdown.
+ * </p>
+ */
+@Log4j2
+public class LocalStore implements AutoCloseable {
+
+    static final Duration FLUSH_PERIOD = Duration.ofSeconds(5);
+
+    private final BinaryFileRepository<Commodity> commodities;
+    private final BinaryFileRepository<Market> markets;
+    private final BinaryFileRepository<ConstructionSite> sites;
+    private final GenericRepository<Market> marketView = new View<>() {
+        @Override
+        BinaryFileRepository<Market> target() {
+            return markets;
+        }
+
+        @Override
+        public void save(Market market) {
+            for (MarketItem item : List.copyOf(market.getItems().values())) {
+                saveCommodity(item.getCommodity());
+            }
+            markets.save(market);
+        }
+    };
+    private final GenericRepository<ConstructionSite> siteView = new View<>() {
+        @Override
+        BinaryFileRepository<ConstructionSite> target() {
+            return sites;
+        }
+
+        @Override
+        public void save(ConstructionSite site) {
+            for (MaterialRequirement requirement : List.copyOf(site.getRequirements())) {
+                saveCommodity(requirement.getCommodity());
+            }
+            sites.save(site);
+        }
+    };
+    private AppRuntime.Lane lane;
+
+    /**
+     * @param directory where the store files are kept; created on the first flush.
+     */
+    public LocalStore(Path directory) {
+        this.commodities = new BinaryFileRepository<>(directory.resolve("commodities.bin"), StoreCodecs.COMMODITY);
+        this.markets = new BinaryFileRepository<>(directory.resolve("markets.bin"),
+                StoreCodecs.market(commodities::findById));
+        this.sites = new BinaryFileRepository<>(directory.resolve("sites.bin"),
+                StoreCodecs.constructionSite(commodities::findById));
+    }
+
+    /**
+     * Reads the store files. A file that cannot be read is logged and treated as empty.
+     */
+    public void load() {
+        long start = System.nanoTime();
+        try {
+            // markets and sites resolve their commodities while loading
+            commodities.load();
+            markets.load();
+            sites.load();
+        } catch (IOException e) {
+            log.warn("Local store could not be read: {}", e.getMessage());
+        }
+        log.info("Local store loaded in {} ms: {} markets, {} sites, {} commodities",
+                (System.nanoTime() - start) / 1_000_000, markets.size(), sites.size(), commodities.size());
+    }
+
+    /**
+     * Starts writing the changes in the background and registers the final flush on shutdown.
+     */
+    public synchronized void start() {
+        if (lane != null) {
+            return;
+        }
+        lane = AppRuntime.getInstance().lane("local-store");
+        lane.scheduleAtFixedRate(this::flushQuietly, FLUSH_PERIOD, FLUSH_PERIOD);
+        AppRuntime.getInstance().onShutdown("local-store", this);
+    }
+
+    /**
+     * Writes the pending changes of all files.
+     *
+     * @throws IOException if a file cannot be written; its changes stay pending.
+     */
+    public void flush() throws IOException {
+        commodities.flush();
+        markets.flush();
+        sites.flush();
+    }
+
+    public GenericRepository<Market> markets() {
+        return marketView;
+    }
+
+    public GenericRepository<ConstructionSite> constructionSites() {
+        return siteView;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (lane != null) {
+                lane.close();
+                lane = null;
+            }
+        }
+        try {
+            commodities.close();
+            markets.close();
+        } finally {
+            sites.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            log.warn("Local store flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void saveCommodity(Commodity commodity) {
+        if (commodity == null || commodity.getId() == null) {
+            return;
+        }
+        Commodity stored = commodities.findById(commodity.getId().longValue());
+        if (stored == null || !Objects.equals(stored.getName(), commodity.getName())
+                || !Objects.equals(stored.getNameLocalised(), commodity.getNameLocalised())
+                || !Objects.equals(stored.getCategory(), commodity.getCategory())
+                || !Objects.equals(stored.getCategoryLocalised(), commodity.getCategoryLocalised())) {
+            commodities.save(commodity);
+        }
+    }
+
+    /**
+     * Repository view that stores the referenced commodities along with the entity.
+     */
+    private abstract static class View<T> implements GenericRepository<T> {
+
+        abstract BinaryFileRepository<T> target();
+
+        @Override
+        public T findById(Object id) {
+            return target().findById(id);
+        }
+
+        @Override
+        public List<T> findAll() {
+            return target().findAll();
+        }
+
+        @Override
+        public void update(T entity) {
+            save(entity);
+        }
+
+        @Override
+        public void delete(T entity) {
+            target().delete(entity);
+        }
+    }
+}
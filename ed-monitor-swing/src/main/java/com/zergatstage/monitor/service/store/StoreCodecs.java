@@ -0,0 +1,199 @@
+package com.zergatstage.monitor.service.store;
+
+import com.zergatstage.domain.ConstructionSite;
+import com.zergatstage.domain.MaterialRequirement;
+import com.zergatstage.domain.dictionary.Commodity;
+import com.zergatstage.domain.makret.Market;
+import com.zergatstage.domain.makret.MarketItem;
+import com.zergatstage.repo.BinaryFileRepository.Codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongFunction;
+
+/**
+ * Binary layouts of the entities kept in the {@link LocalStore}.
+ * <p>
+ * Markets and sites refer to commodities by id only; the commodities are stored once in their own file
+ * and resolved while reading. A market of 400 items takes about 10 KB.
+ * </p>
+ */
+final class StoreCodecs {
+
+    private StoreCodecs() {
+    }
+
+    static final Codec<Commodity> COMMODITY = new Codec<>() {
+        @Override
+        public long id(Commodity commodity) {
+            return commodity.getId();
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, Commodity commodity) throws IOException {
+            out.writeLong(commodity.getId());
+            writeNullable(out, commodity.getName());
+            writeNullable(out, commodity.getNameLocalised());
+            writeNullable(out, commodity.getCategory());
+            writeNullable(out, commodity.getCategoryLocalised());
+        }
+
+        @Override
+        public Commodity read(DataInput in) throws IOException {
+            return Commodity.builder()
+                    .id(in.readLong())
+                    .name(readNullable(in))
+                    .nameLocalised(readNullable(in))
+                    .category(readNullable(in))
+                    .categoryLocalised(readNullable(in))
+                    .build();
+        }
+    };
+
+    /**
+     * @param commodities resolves the commodity ids of the items; items of unknown commodities are dropped.
+     */
+    static Codec<Market> market(LongFunction<Commodity> commodities) {
+        return new Codec<>() {
+            @Override
+            public long id(Market market) {
+                return market.getMarketId();
+            }
+
+            @Override
+            public int version() {
+                return 2;
+            }
+
+            @Override
+            public void write(DataOutput out, Market market) throws IOException {
+                out.writeLong(market.getMarketId());
+                writeNullable(out, market.getStationName());
+                writeNullable(out, market.getStationType());
+                writeNullable(out, market.getSystemName());
+                Long updated = market.getUpdatedMillis();
+                out.writeLong(updated != null ? updated : Long.MIN_VALUE);
+                List<MarketItem> items = List.copyOf(market.getItems().values());
+                out.writeInt(items.size());
+                for (MarketItem item : items) {
+                    out.writeLong(item.getCommodity().getId());
+                    out.writeInt(item.getBuyPrice());
+                    out.writeInt(item.getSellPrice());
+                    out.writeInt(item.getStock());
+                    out.writeInt(item.getDemand());
+                }
+            }
+
+            @Override
+            public Market read(DataInput in) throws IOException {
+                Market market = Market.builder()
+                        .marketId(in.readLong())
+                        .stationName(readNullable(in))
+                        .stationType(readNullable(in))
+                        .systemName(readNullable(in))
+                        .build();
+                long updated = in.readLong();
+                market.setUpdatedMillis(updated != Long.MIN_VALUE ? updated : null);
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Commodity commodity = commodities.apply(in.readLong());
+                    MarketItem item = MarketItem.builder()
+                            .commodity(commodity)
+                            .market(market)
+                            .buyPrice(in.readInt())
+                            .sellPrice(in.readInt())
+                            .stock(in.readInt())
+                            .demand(in.readInt())
+                            .build();
+                    if (commodity != null) {
+                        market.addItem(item);
+                    }
+                }
+                return market;
+            }
+        };
+    }
+
+    /**
+     * @param commodities resolves the commodity ids of the requirements.
+     */
+    static Codec<ConstructionSite> constructionSite(LongFunction<Commodity> commodities) {
+        return new Codec<>() {
+            @Override
+            public long id(ConstructionSite site) {
+                return site.getMarketId();
+            }
+
+            @Override
+            public int version() {
+                return 1;
+            }
+
+            @Override
+            public void write(DataOutput out, ConstructionSite site) throws IOException {
+                out.writeLong(site.getMarketId());
+                writeNullable(out, site.getSiteId());
+                out.writeLong(site.getVersion());
+                Instant lastUpdated = site.getLastUpdated();
+                out.writeLong(lastUpdated != null ? lastUpdated.toEpochMilli() : Long.MIN_VALUE);
+                List<MaterialRequirement> requirements = List.copyOf(site.getRequirements());
+                out.writeInt(requirements.size());
+                for (MaterialRequirement requirement : requirements) {
+                    Commodity commodity = requirement.getCommodity();
+                    out.writeLong(requirement.getId());
+                    out.writeLong(commodity != null && commodity.getId() != null ? commodity.getId() : -1L);
+                    out.writeInt(requirement.getRequiredQuantity());
+                    out.writeInt(requirement.getDeliveredQuantity());
+                }
+            }
+
+            @Override
+            public ConstructionSite read(DataInput in) throws IOException {
+                long marketId = in.readLong();
+                String siteId = readNullable(in);
+                long version = in.readLong();
+                long lastUpdated = in.readLong();
+                int count = in.readInt();
+                List<MaterialRequirement> requirements = new CopyOnWriteArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    long id = in.readLong();
+                    long commodityId = in.readLong();
+                    MaterialRequirement requirement = MaterialRequirement.builder()
+                            .id(id)
+                            .commodity(commodityId >= 0 ? commodities.apply(commodityId) : null)
+                            .requiredQuantity(in.readInt())
+                            .deliveredQuantity(in.readInt())
+                            .build();
+                    requirements.add(requirement);
+                }
+                return ConstructionSite.builder()
+                        .marketId(marketId)
+                        .siteId(siteId)
+                        .version(version)
+                        .lastUpdated(lastUpdated != Long.MIN_VALUE ? Instant.ofEpochMilli(lastUpdated) : null)
+                        .requirements(requirements)
+                        .build();
+            }
+        };
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,122 @@
+package com.zergatstage.monitor.service.telemetry;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Turns successive Status.json documents into {@link StatusSnapshot}s, converting only the fields that changed.
+ * <p>
+ * The raw JSON value of every {@link StatusField} is kept from the previous document. A field whose raw value
+ * is equal is carried over from the previous snapshot untouched; only the others are converted. The result
+ * carries the change mask, so consumers and the recording can skip unchanged fields as well.
+ * </p>
+ * <p>
+ * Not thread-safe: one decoder follows one file.
+ * </p>
+ */
+public class StatusDecoder {
+
+    private final Object[] raw = new Object[StatusField.all().length];
+    private StatusSnapshot current = StatusSnapshot.EMPTY;
+
+    /**
+     * A decoded state and the fields that changed to get there.
+     *
+     * @param snapshot    the new state.
+     * @param changedMask {@link StatusField#bit()} of every changed field.
+     */
+    public record Change(StatusSnapshot snapshot, int changedMask) {
+    }
+
+    /**
+     * Decodes the next Status.json document.
+     *
+     * @param content the whole file.
+     * @return the change, or null if no tracked field changed (only the timestamp did).
+     * @throws JSONException if the content is not a JSON object.
+     */
+    public Change decode(String content) throws JSONException {
+        JSONObject json = new JSONObject(content);
+        int mask = 0;
+        StatusSnapshot.StatusSnapshotBuilder next = null;
+        for (StatusField field : StatusField.all()) {
+            Object value = rawValue(json, field);
+            if (Objects.equals(value, raw[field.ordinal()])) {
+                continue;
+            }
+            raw[field.ordinal()] = value;
+            mask |= field.bit();
+            if (next == null) {
+                next = current.toBuilder();
+            }
+            convert(json, field, next);
+        }
+        if (next == null) {
+            return null;
+        }
+        current = next.timestampMillis(timestamp(json)).build();
+        return new Change(current, mask);
+    }
+
+    public StatusSnapshot current() {
+        return current;
+    }
+
+    private static Object rawValue(JSONObject json, StatusField field) {
+        return switch (field) {
+            case FLAGS -> json.opt("Flags");
+            case FLAGS2 -> json.opt("Flags2");
+            case GUI_FOCUS -> json.opt("GuiFocus");
+            case FUEL -> {
+                JSONObject fuel = json.optJSONObject("Fuel");
+                yield fuel == null ? null : Arrays.asList(fuel.opt("FuelMain"), fuel.opt("FuelReservoir"));
+            }
+            case CARGO -> json.opt("Cargo");
+            case POSITION -> json.has("Latitude")
+                    ? Arrays.asList(json.opt("Latitude"), json.opt("Longitude"), json.opt("Altitude"),
+                    json.opt("Heading"))
+                    : null;
+            case LEGAL_STATE -> json.opt("LegalState");
+            case BALANCE -> json.opt("Balance");
+            case BODY_NAME -> json.opt("BodyName");
+        };
+    }
+
+    private static void convert(JSONObject json, StatusField field, StatusSnapshot.StatusSnapshotBuilder next) {
+        switch (field) {
+            case FLAGS -> next.flags(json.optInt("Flags"));
+            case FLAGS2 -> next.flags2(json.optInt("Flags2"));
+            case GUI_FOCUS -> next.guiFocus(json.optInt("GuiFocus"));
+            case FUEL -> {
+                JSONObject fuel = json.optJSONObject("Fuel");
+                next.fuelMain(fuel == null ? 0.0 : fuel.optDouble("FuelMain", 0.0))
+                        .fuelReservoir(fuel == null ? 0.0 : fuel.optDouble("FuelReservoir", 0.0));
+            }
+            case CARGO -> next.cargo(json.optDouble("Cargo", 0.0));
+            case POSITION -> next.latitude(json.optDouble("Latitude"))
+                    .longitude(json.optDouble("Longitude"))
+                    .altitude(json.optDouble("Altitude"))
+                    .heading(json.optInt("Heading", -1));
+            case LEGAL_STATE -> next.legalState(json.optString("LegalState", null));
+            case BALANCE -> next.balance(json.optLong("Balance"));
+            case BODY_NAME -> next.bodyName(json.optString("BodyName", null));
+        }
+    }
+
+    private static long timestamp(JSONObject json) {
+        String text = json.optString("timestamp", null);
+        if (text != null) {
+            try {
+                return Instant.parse(text).toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                // fall through to the local clock
+            }
+        }
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,33 @@
+package com.zergatstage.monitor.service.telemetry;
+
+/**
+ * The groups of Status.json fields that are tracked for changes. A change mask has bit {@link #bit()}
+ * set for every group whose value differs from the previous state; the recording stores only those.
+ */
+public enum StatusField {
+    FLAGS,
+    FLAGS2,
+    GUI_FOCUS,
+    /** {@code Fuel.FuelMain} and {@code Fuel.FuelReservoir}. */
+    FUEL,
+    CARGO,
+    /** {@code Latitude}, {@code Longitude}, {@code Altitude} and {@code Heading}. */
+    POSITION,
+    LEGAL_STATE,
+    BALANCE,
+    BODY_NAME;
+
+    private static final StatusField[] VALUES = values();
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public boolean in(int mask) {
+        return (mask & bit()) != 0;
+    }
+
+    static StatusField[] all() {
+        return VALUES;
+    }
+}
@@ -0,0 +1,274 @@
+package com.zergatstage.monitor.service.telemetry;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Append-only binary recording of status changes, kept open for the whole session.
+ * <p>
+ * The file starts with a {@link #MAGIC} and {@link #VERSION} header. Each record is the timestamp, the
+ * change mask and then, in {@link StatusField} order, only the fields set in the mask. A typical change
+ * (flags or position) takes 10 to 40 bytes instead of the full ~400 byte JSON document.
+ * Writes go through a buffer that the owner {@link #flush() flushes} every {@link #FLUSH_INTERVAL} and that is
+ * flushed on {@link #close()}.
+ * </p>
+ * <p>
+ * Each session records into its own file. When a recording is opened, all but the newest sessions matching
+ * {@link #SESSION_GLOB} next to it are deleted, so the directory does not grow without bound.
+ * </p>
+ */
+@Log4j2
+public class StatusRecorder implements Closeable {
+
+    /** "EDST". */
+    public static final int MAGIC = 0x45445354;
+    public static final short VERSION = 1;
+    /** How often the buffered records should be {@link #flush() flushed}. */
+    public static final Duration FLUSH_INTERVAL = Duration.ofSeconds(1);
+    /** Names of the session recordings that share a directory, see {@link #StatusRecorder(Path, int)}. */
+    public static final String SESSION_GLOB = "status-*.bin";
+
+    private final Path file;
+    private final int keepSessions;
+    private DataOutputStream out;
+    private boolean dirty;
+    private long records;
+    private boolean failed;
+
+    /**
+     * @param file the recording file; created with its parent directories on the first record.
+     */
+    public StatusRecorder(Path file) {
+        this(file, 0);
+    }
+
+    /**
+     * @param file         the recording file; created with its parent directories on the first record.
+     * @param keepSessions how many session recordings, this one included, to keep in the file's directory;
+     *                     0 keeps all of them.
+     */
+    public StatusRecorder(Path file, int keepSessions) {
+        if (keepSessions < 0) {
+            throw new IllegalArgumentException("keepSessions must not be negative: " + keepSessions);
+        }
+        this.file = file;
+        this.keepSessions = keepSessions;
+    }
+
+    /**
+     * Appends a change. I/O errors are logged once and disable the recorder; telemetry keeps working.
+     */
+    public synchronized void record(StatusDecoder.Change change) {
+        if (failed) {
+            return;
+        }
+        try {
+            if (out == null) {
+                open();
+            }
+            write(out, change.snapshot(), change.changedMask());
+            records++;
+            dirty = true;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes the buffered records to the file; does nothing if nothing was recorded since the last flush.
+     */
+    public synchronized void flush() {
+        if (out == null || !dirty) {
+            return;
+        }
+        try {
+            out.flush();
+            dirty = false;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                log.warn("Could not flush status recording {}: {}", file, e.getMessage());
+            }
+            closeQuietly();
+        }
+    }
+
+    private void open() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 16 * 1024));
+        if (fresh) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+        }
+        log.info("Recording status changes to {}", file);
+        if (keepSessions > 0 && file.getParent() != null) {
+            deleteOldSessions();
+        }
+    }
+
+    /**
+     * Deletes all but the newest {@link #keepSessions} recordings; the session names sort by start time.
+     */
+    private void deleteOldSessions() {
+        List<Path> sessions = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(file.getParent(), SESSION_GLOB)) {
+            for (Path session : stream) {
+                if (!session.equals(file)) {
+                    sessions.add(session);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list old status recordings in {}: {}", file.getParent(), e.getMessage());
+            return;
+        }
+        sessions.sort(Comparator.comparing(Path::getFileName));
+        for (Path old : sessions.subList(0, Math.max(0, sessions.size() - (keepSessions - 1)))) {
+            try {
+                Files.deleteIfExists(old);
+                log.debug("Deleted old status recording {}", old);
+            } catch (IOException e) {
+                log.warn("Could not delete old status recording {}: {}", old, e.getMessage());
+            }
+        }
+    }
+
+    private void fail(IOException e) {
+        failed = true;
+        log.error("Status recording to {} disabled: {}", file, e.getMessage());
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // nothing left to save
+        }
+        out = null;
+    }
+
+    private static void write(DataOutputStream out, StatusSnapshot s, int mask) throws IOException {
+        out.writeLong(s.timestampMillis());
+        out.writeShort(mask);
+        for (StatusField field : StatusField.all()) {
+            if (!field.in(mask)) {
+                continue;
+            }
+            switch (field) {
+                case FLAGS -> out.writeInt(s.flags());
+                case FLAGS2 -> out.writeInt(s.flags2());
+                case GUI_FOCUS -> out.writeByte(s.guiFocus());
+                case FUEL -> {
+                    out.writeFloat((float) s.fuelMain());
+                    out.writeFloat((float) s.fuelReservoir());
+                }
+                case CARGO -> out.writeFloat((float) s.cargo());
+                case POSITION -> {
+                    out.writeDouble(s.latitude());
+                    out.writeDouble(s.longitude());
+                    out.writeFloat((float) s.altitude());
+                    out.writeShort(s.heading());
+                }
+                case LEGAL_STATE -> writeNullableString(out, s.legalState());
+                case BALANCE -> out.writeLong(s.balance());
+                case BODY_NAME -> writeNullableString(out, s.bodyName());
+            }
+        }
+    }
+
+    /**
+     * Reads a recording back into full snapshots, e.g. to replay a session.
+     *
+     * @param file a file written by this class.
+     * @return the recorded states in order; a record cut short by a crash is dropped.
+     * @throws IOException if the file cannot be read or is not a status recording.
+     */
+    public static List<StatusSnapshot> read(Path file) throws IOException {
+        List<StatusSnapshot> snapshots = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not a status recording: " + file);
+            }
+            StatusSnapshot current = StatusSnapshot.EMPTY;
+            while (true) {
+                try {
+                    current = readRecord(in, current);
+                } catch (EOFException e) {
+                    return snapshots;
+                }
+                snapshots.add(current);
+            }
+        }
+    }
+
+    private static StatusSnapshot readRecord(DataInputStream in, StatusSnapshot previous) throws IOException {
+        StatusSnapshot.StatusSnapshotBuilder next = previous.toBuilder().timestampMillis(in.readLong());
+        int mask = in.readUnsignedShort();
+        for (StatusField field : StatusField.all()) {
+            if (!field.in(mask)) {
+                continue;
+            }
+            switch (field) {
+                case FLAGS -> next.flags(in.readInt());
+                case FLAGS2 -> next.flags2(in.readInt());
+                case GUI_FOCUS -> next.guiFocus(in.readUnsignedByte());
+                case FUEL -> next.fuelMain(in.readFloat()).fuelReservoir(in.readFloat());
+                case CARGO -> next.cargo(in.readFloat());
+                case POSITION -> next.latitude(in.readDouble())
+                        .longitude(in.readDouble())
+                        .altitude(in.readFloat())
+                        .heading(in.readShort());
+                case LEGAL_STATE -> next.legalState(readNullableString(in));
+                case BALANCE -> next.balance(in.readLong());
+                case BODY_NAME -> next.bodyName(readNullableString(in));
+            }
+        }
+        return next.build();
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
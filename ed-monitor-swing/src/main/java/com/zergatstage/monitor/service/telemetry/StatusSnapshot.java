@@ -0,0 +1,63 @@
+package com.zergatstage.monitor.service.telemetry;
+
+import lombok.Builder;
+
+/**
+ * One decoded state of Status.json. Immutable, so it can be handed to the UI without copying.
+ * <p>
+ * Position fields are {@link Double#NaN} and {@link #heading()} is -1 while the ship is not near a planet.
+ * </p>
+ *
+ * @param timestampMillis game time of the state.
+ * @param flags           the {@code Flags} bit set, see the {@code FLAG_*} constants.
+ * @param flags2          the {@code Flags2} bit set (on foot states).
+ * @param guiFocus        the {@code GuiFocus} panel code.
+ * @param fuelMain        main tank fuel in tons.
+ * @param fuelReservoir   reservoir fuel in tons.
+ * @param cargo           cargo tonnage.
+ * @param latitude        planetary latitude.
+ * @param longitude       planetary longitude.
+ * @param altitude        altitude above the surface in meters.
+ * @param heading         heading in degrees.
+ * @param legalState      e.g. {@code Clean}, {@code Wanted}; may be null.
+ * @param balance         credit balance.
+ * @param bodyName        the body the position refers to; may be null.
+ */
+@Builder(toBuilder = true)
+public record StatusSnapshot(long timestampMillis, int flags, int flags2, int guiFocus,
+                             double fuelMain, double fuelReservoir, double cargo,
+                             double latitude, double longitude, double altitude, int heading,
+                             String legalState, long balance, String bodyName) {
+
+    public static final int FLAG_DOCKED = 1;
+    public static final int FLAG_LANDED = 1 << 1;
+    public static final int FLAG_LANDING_GEAR_DOWN = 1 << 2;
+    public static final int FLAG_SHIELDS_UP = 1 << 3;
+    public static final int FLAG_SUPERCRUISE = 1 << 4;
+    public static final int FLAG_CARGO_SCOOP_DEPLOYED = 1 << 9;
+    public static final int FLAG_FSD_MASS_LOCKED = 1 << 16;
+    public static final int FLAG_FSD_CHARGING = 1 << 17;
+    public static final int FLAG_LOW_FUEL = 1 << 19;
+    public static final int FLAG_IN_MAIN_SHIP = 1 << 24;
+    public static final int FLAG_IN_SRV = 1 << 26;
+
+    /** The state before Status.json has been read. */
+    public static final StatusSnapshot EMPTY = new StatusSnapshot(0L, 0, 0, 0, 0.0, 0.0, 0.0,
+            Double.NaN, Double.NaN, Double.NaN, -1, null, 0L, null);
+
+    /**
+     * @param flag one or more {@code FLAG_*} constants.
+     * @return true if all given flags are set.
+     */
+    public boolean has(int flag) {
+        return (flags & flag) == flag;
+    }
+
+    public boolean isDocked() {
+        return has(FLAG_DOCKED);
+    }
+
+    public boolean hasPosition() {
+        return !Double.isNaN(latitude);
+    }
+}
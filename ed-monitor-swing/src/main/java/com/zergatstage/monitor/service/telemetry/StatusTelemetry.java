@@ -0,0 +1,132 @@
+package com.zergatstage.monitor.service.telemetry;
+
+import lombok.extern.log4j.Log4j2;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory view of the ship status fed by Status.json.
+ * <p>
+ * {@link #current()} is a single volatile read, so the UI can poll flags, fuel, cargo and position as often
+ * as it repaints without touching disk. The last {@link #DEFAULT_HISTORY} states are kept in a fixed ring
+ * for short trends, and every change is optionally appended to a {@link StatusRecorder}.
+ * </p>
+ */
+@Log4j2
+public class StatusTelemetry {
+
+    public static final int DEFAULT_HISTORY = 512;
+
+    private final StatusDecoder decoder = new StatusDecoder();
+    private final StatusRecorder recorder;
+    private final StatusSnapshot[] history;
+    private final List<Consumer<StatusSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private long updates;
+    private volatile StatusSnapshot current = StatusSnapshot.EMPTY;
+
+    /**
+     * @param recorder where changes are recorded; null to keep them in memory only.
+     */
+    public StatusTelemetry(StatusRecorder recorder) {
+        this(recorder, DEFAULT_HISTORY);
+    }
+
+    public StatusTelemetry(StatusRecorder recorder, int historySize) {
+        if (historySize <= 0) {
+            throw new IllegalArgumentException("historySize must be positive: " + historySize);
+        }
+        this.recorder = recorder;
+        this.history = new StatusSnapshot[historySize];
+    }
+
+    /**
+     * Applies a new Status.json document. Documents that change nothing but the timestamp are dropped.
+     *
+     * @param content the whole file.
+     * @return true if the state changed.
+     */
+    public boolean accept(String content) {
+        StatusDecoder.Change change;
+        synchronized (this) {
+            try {
+                change = decoder.decode(content);
+            } catch (JSONException e) {
+                log.warn("Unreadable Status.json: {}", e.getMessage());
+                return false;
+            }
+            if (change == null) {
+                return false;
+            }
+            history[(int) (updates % history.length)] = change.snapshot();
+            updates++;
+            current = change.snapshot();
+        }
+        if (recorder != null) {
+            recorder.record(change);
+        }
+        for (Consumer<StatusSnapshot> listener : listeners) {
+            listener.accept(change.snapshot());
+        }
+        return true;
+    }
+
+    /**
+     * @return the latest state; {@link StatusSnapshot#EMPTY} until Status.json has been read.
+     */
+    public StatusSnapshot current() {
+        return current;
+    }
+
+    /**
+     * @param max the maximum number of states to return.
+     * @return up to {@code max} most recent states, oldest first.
+     */
+    public synchronized List<StatusSnapshot> recent(int max) {
+        int n = (int) Math.min(Math.min(max, updates), history.length);
+        List<StatusSnapshot> result = new ArrayList<>(n);
+        for (long i = updates - n; i < updates; i++) {
+            result.add(history[(int) (i % history.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of state changes seen since start.
+     */
+    public synchronized long getUpdates() {
+        return updates;
+    }
+
+    /**
+     * Registers a listener called on the reading thread after every change; keep it short.
+     */
+    public void addListener(Consumer<StatusSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<StatusSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Writes buffered changes to the recording, if any.
+     */
+    public void flush() {
+        if (recorder != null) {
+            recorder.flush();
+        }
+    }
+
+    /**
+     * Flushes and closes the recording.
+     */
+    public void close() {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+}
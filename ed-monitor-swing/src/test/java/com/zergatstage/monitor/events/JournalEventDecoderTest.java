@@ -0,0 +1,71 @@
+package com.zergatstage.monitor.events;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalEventDecoderTest {
+
+    @Test
+    void decodesCargoSnapshotAndSkipsUnknownFields() throws IOException {
+        String line = "{ \"timestamp\":\"2025-11-13T12:36:00Z\", \"event\":\"Cargo\", \"Vessel\":\"Ship\", \"Count\":5,"
+                + " \"Extra\":{\"Nested\":[1,2,{\"a\":null}]},"
+                + " \"Inventory\":[ { \"Name\":\"tritium\", \"Name_Localised\":\"Tritium\", \"Count\":5, \"Stolen\":0 } ] }";
+
+        JournalEvent event = JournalEventDecoder.decode("Cargo", line);
+
+        JournalEvent.Cargo cargo = assertInstanceOf(JournalEvent.Cargo.class, event);
+        assertEquals(Instant.parse("2025-11-13T12:36:00Z"), cargo.timestamp());
+        assertEquals("Ship", cargo.vessel());
+        assertEquals(5, cargo.count());
+        assertEquals(List.of(new JournalEvent.CargoItem("tritium", "Tritium", 5, 0)), cargo.inventory());
+    }
+
+    @Test
+    void decodesDepotFromBytesAndResolvesSiteName() throws IOException {
+        String line = "{ \"timestamp\":\"2025-11-13T12:44:00Z\", \"event\":\"ColonisationConstructionDepot\","
+                + " \"MarketID\":3957677570, \"ConstructionProgress\":0.25, \"ConstructionComplete\":false,"
+                + " \"ConstructionFailed\":false, \"Body\":\"Vega 2\", \"StationName\":\"Orbital Construction Site: Vega\","
+                + " \"ResourcesRequired\":[ { \"Name\":\"$steel_name;\", \"Name_Localised\":\"Steel\","
+                + " \"RequiredAmount\":500, \"ProvidedAmount\":120, \"Payment\":5000 } ] }";
+        byte[] bytes = ("xx" + line).getBytes(StandardCharsets.UTF_8);
+
+        JournalEvent event = JournalEventDecoder.decode("ColonisationConstructionDepot", bytes, 2, bytes.length - 2);
+
+        JournalEvent.ColonisationConstructionDepot depot =
+                assertInstanceOf(JournalEvent.ColonisationConstructionDepot.class, event);
+        assertEquals(3957677570L, depot.marketId());
+        assertEquals(0.25, depot.constructionProgress());
+        assertEquals("Orbital Construction Site: Vega", depot.siteName());
+        assertEquals(List.of(new JournalEvent.Resource("$steel_name;", "Steel", 500, 120, 5000)),
+                depot.resourcesRequired());
+    }
+
+    @Test
+    void missingFieldsUseDefaults() throws IOException {
+        JournalEvent.Loadout loadout = (JournalEvent.Loadout)
+                JournalEventDecoder.decode("Loadout", "{\"event\":\"Loadout\",\"Ship\":\"cobramkiii\"}");
+
+        assertNull(loadout.timestamp());
+        assertEquals("cobramkiii", loadout.ship());
+        assertEquals(-1, loadout.shipId());
+        assertNull(loadout.shipName());
+        assertEquals(-1, loadout.cargoCapacity());
+    }
+
+    @Test
+    void convertsParsedJsonAndRejectsUnsupportedTypes() throws Exception {
+        JSONObject json = new JSONObject("{\"event\":\"LaunchDrone\",\"Type\":\"Prospector\"}");
+
+        assertEquals(new JournalEvent.LaunchDrone(null, "Prospector"), JournalEventDecoder.fromJson("LaunchDrone", json));
+        assertNull(JournalEventDecoder.decode("Music", "{\"event\":\"Music\"}"));
+        assertFalse(JournalEventDecoder.supports("Music"));
+        assertThrows(IOException.class, () -> JournalEventDecoder.decode("Cargo", "[1,2]"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.zergatstage.monitor.handlers;
 
+import com.zergatstage.monitor.events.JournalEvent;
 import com.zergatstage.monitor.service.ConstructionSiteManager;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -8,17 +9,10 @@ import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
 
 import java.lang.reflect.Field;
-import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.CyclicBarrier;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -42,18 +36,20 @@ class ColonisationConstructionDepotTest {
     }
 
     @Test
-    void handleEvent_samePayloadTwice_skipsDuplicateUpdate() throws JSONException {
+    void handleEvent_samePayloadTwice_updatesEachTime() throws JSONException {
+        // repeats are dropped by the journal monitor's EventDeduplicator, not by the handler
         JSONObject event = createEvent(42L, "StructuralRegulators");
 
         handlerUnderTest.handleEvent(event);
         handlerUnderTest.handleEvent(event);
 
-        verify(mockSiteManager, times(1)).updateSite(eq(42L), any(JSONObject.class));
+        assertTrue(handlerUnderTest.isSnapshot());
+        verify(mockSiteManager, times(2)).updateSite(eq(42L), any(JournalEvent.ColonisationConstructionDepot.class));
     }
 
     @Test
     @Timeout(5)
-    void handleEvent_parallelMarkets_shouldNotPolluteFingerprintCache() throws InterruptedException, JSONException {
+    void handleEvent_parallelMarkets_updatesEachMarket() throws InterruptedException, JSONException {
         long marketAlpha = 1_000_001L;
         long marketBeta = 9_999_999L;
 
@@ -70,7 +66,7 @@ class ColonisationConstructionDepotTest {
                 assertTrue(releaseAlpha.await(2, TimeUnit.SECONDS), "Timed out waiting to release alpha update");
             }
             return null;
-        }).when(mockSiteManager).updateSite(anyLong(), any(JSONObject.class));
+        }).when(mockSiteManager).updateSite(anyLong(), any(JournalEvent.ColonisationConstructionDepot.class));
 
         Thread alphaThread = new Thread(() -> handlerUnderTest.handleEvent(alphaEvent), "alpha-market-thread");
         alphaThread.start();
@@ -82,70 +78,8 @@ class ColonisationConstructionDepotTest {
         releaseAlpha.countDown();
         alphaThread.join();
 
-        handlerUnderTest.handleEvent(createEvent(marketAlpha, "PowerGridFeed"));
-
-        verify(mockSiteManager, times(1)).updateSite(eq(marketAlpha), any(JSONObject.class));
-    }
-
-    @Test
-    @Disabled
-    @Timeout(5)
-    void handleEvent_concurrentDispatchOfSameMarket_shouldStaySingleWorker() throws Exception {
-        JSONObject event = createEvent(3_957_677_570L, "StructuralRegulators");
-        long marketId = event.getLong("MarketID");
-        int workerCount = 6;
-
-        CyclicBarrier startBarrier = new CyclicBarrier(workerCount);
-        CountDownLatch duplicateWorkers = new CountDownLatch(2);
-        CountDownLatch allowWorkersToFinish = new CountDownLatch(1);
-        AtomicReference<Throwable> workerFailure = new AtomicReference<>();
-
-        doAnswer(invocation -> {
-            duplicateWorkers.countDown();
-            try {
-                if (!allowWorkersToFinish.await(2, TimeUnit.SECONDS)) {
-                    throw new IllegalStateException("Test harness failed to release blocked workers");
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new IllegalStateException("Worker interrupted while waiting for release", e);
-            }
-            return null;
-        }).when(mockSiteManager).updateSite(eq(marketId), any(JSONObject.class));
-
-        ExecutorService executor = Executors.newFixedThreadPool(workerCount);
-        boolean processedByMultipleWorkers;
-        try {
-            for (int i = 0; i < workerCount; i++) {
-                executor.submit(() -> {
-                    try {
-                        startBarrier.await(2, TimeUnit.SECONDS);
-                        handlerUnderTest.handleEvent(event);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        workerFailure.compareAndSet(null, e);
-                    } catch (BrokenBarrierException e) {
-                        workerFailure.compareAndSet(null, e);
-                    } catch (Throwable t) {
-                        workerFailure.compareAndSet(null, t);
-                    }
-                });
-            }
-
-            processedByMultipleWorkers = duplicateWorkers.await(1, TimeUnit.SECONDS);
-        } finally {
-            allowWorkersToFinish.countDown();
-            executor.shutdownNow();
-            executor.awaitTermination(2, TimeUnit.SECONDS);
-        }
-
-        if (workerFailure.get() != null) {
-            fail("Worker thread failed during simulation", workerFailure.get());
-        }
-
-        assertFalse(processedByMultipleWorkers,
-                "Same ColonisationConstructionDepot event should not be processed by multiple general workers");
-        verify(mockSiteManager, times(1)).updateSite(eq(marketId), any(JSONObject.class));
+        verify(mockSiteManager, times(1)).updateSite(eq(marketAlpha), any(JournalEvent.ColonisationConstructionDepot.class));
+        verify(mockSiteManager, times(1)).updateSite(eq(marketBeta), any(JournalEvent.ColonisationConstructionDepot.class));
     }
 
     private JSONObject createEvent(long marketId, String commodityName) throws JSONException {
@@ -0,0 +1,140 @@
+package com.zergatstage.monitor.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppRuntimeTest {
+
+    private final AppRuntime runtime = new AppRuntime();
+
+    @AfterEach
+    void tearDown() {
+        runtime.shutdown();
+    }
+
+    @Test
+    void laneRunsTasksOneAtATimeInOrder() throws Exception {
+        AppRuntime.Lane lane = runtime.lane("test");
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(200);
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            lane.execute(() -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                order.add(n);
+                concurrent.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, order);
+        assertEquals(1, maxConcurrent.get());
+    }
+
+    @Test
+    void periodicTaskSkipsRunsWhileThePreviousOneIsBusy() throws Exception {
+        AppRuntime.Lane lane = runtime.lane("periodic");
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        lane.scheduleAtFixedRate(() -> {
+            if (runs.incrementAndGet() == 1) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, Duration.ZERO, Duration.ofMillis(10));
+
+        Thread.sleep(300);
+        assertEquals(1, runs.get(), "ticks during a busy run must not queue up");
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (runs.get() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(runs.get() >= 3);
+    }
+
+    @Test
+    void scheduleWithoutDelayReturnsTheRun() throws Exception {
+        AppRuntime.Lane lane = runtime.lane("immediate");
+        CountDownLatch ran = new CountDownLatch(1);
+
+        ScheduledFuture<?> run = lane.schedule(ran::countDown, Duration.ZERO);
+
+        assertNotNull(run);
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        run.get(2, TimeUnit.SECONDS);
+        assertTrue(run.isDone());
+    }
+
+    @Test
+    void startedThreadsAreListedUntilTheyReturn() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread loop = runtime.startThread("test-loop", () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(runtime.summary().contains("loops [test-loop]"));
+        release.countDown();
+        loop.join(Duration.ofSeconds(5));
+        assertTrue(runtime.summary().contains("loops []"));
+    }
+
+    @Test
+    void closedLaneRejectsTasksAndStopsItsTimers() throws Exception {
+        AppRuntime.Lane lane = runtime.lane("closing");
+        AtomicInteger runs = new AtomicInteger();
+        lane.scheduleAtFixedRate(runs::incrementAndGet, Duration.ZERO, Duration.ofMillis(10));
+        Thread.sleep(100);
+        lane.close();
+        int afterClose = runs.get();
+        Thread.sleep(100);
+
+        assertTrue(runs.get() <= afterClose + 1);
+        assertThrows(RejectedExecutionException.class, () -> lane.execute(() -> { }));
+    }
+
+    @Test
+    void shutdownClosesRegisteredResourcesNewestFirstAndOnlyOnce() {
+        List<String> closed = new ArrayList<>();
+        runtime.onShutdown("watcher", () -> closed.add("watcher"));
+        runtime.onShutdown("controller", () -> closed.add("controller"));
+        runtime.onShutdown("failing", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        runtime.shutdown();
+        runtime.shutdown();
+
+        assertEquals(List.of("controller", "watcher"), closed);
+        assertTrue(runtime.isShutdown());
+    }
+}
@@ -0,0 +1,90 @@
+package com.zergatstage.monitor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedRingBufferTest {
+
+    private static final BoundedRingBuffer.Writer<Holder, String, Object> SET =
+            (slot, value, unused) -> slot.value = value;
+
+    @Test
+    void reusesSlotsInOrderAcrossWrapAround() throws InterruptedException {
+        BoundedRingBuffer<Holder> ring = new BoundedRingBuffer<>("test", 2, Holder::new);
+        List<Holder> seenSlots = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ring.put(SET, "v" + i, null);
+            Holder slot = ring.take();
+            seenSlots.add(slot);
+            values.add(slot.value);
+            ring.release();
+        }
+
+        assertEquals(List.of("v0", "v1", "v2", "v3", "v4"), values);
+        assertSame(seenSlots.get(0), seenSlots.get(2));
+        assertSame(seenSlots.get(1), seenSlots.get(3));
+        assertEquals(0, ring.size());
+        assertEquals(1, ring.getHighWaterMark());
+    }
+
+    @Test
+    void putBlocksWhileFullAndRecordsTheStall() throws InterruptedException {
+        BoundedRingBuffer<Holder> ring = new BoundedRingBuffer<>("test", 2, Holder::new);
+        ring.put(SET, "a", null);
+        ring.put(SET, "b", null);
+
+        AtomicBoolean stored = new AtomicBoolean();
+        CountDownLatch producerStarted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                producerStarted.countDown();
+                ring.put(SET, "c", null);
+                stored.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        assertTrue(producerStarted.await(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertFalse(stored.get(), "put should wait for a free slot");
+
+        assertEquals("a", ring.take().value);
+        ring.release();
+        producer.join(1000);
+
+        assertTrue(stored.get());
+        assertEquals(2, ring.size());
+        assertEquals(1, ring.getStalledPuts());
+        assertEquals(1, ring.getPutStalls().count());
+        assertTrue(ring.getPutStalls().maxMillis() >= 50);
+    }
+
+    @Test
+    void closeRejectsPutsButDrainsFilledSlots() throws InterruptedException {
+        BoundedRingBuffer<Holder> ring = new BoundedRingBuffer<>("test", 4, Holder::new);
+        ring.put(SET, "a", null);
+        ring.close();
+
+        assertFalse(ring.put(SET, "b", null));
+        assertEquals("a", ring.take().value);
+        ring.release();
+        assertNull(ring.take());
+    }
+
+    private static final class Holder {
+        private String value;
+    }
+}
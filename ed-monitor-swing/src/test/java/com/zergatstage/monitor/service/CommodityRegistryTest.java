@@ -0,0 +1,94 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.domain.dictionary.Commodity;
+import com.zergatstage.domain.makret.Market;
+import com.zergatstage.domain.makret.MarketItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommodityRegistryTest {
+
+    private final CommodityRegistry registry = new CommodityRegistry();
+
+    @Test
+    void findsCommoditiesByLocalisedRawAndNormalizedNames() {
+        registry.loadMarket(market(1L, commodity(128049152L, "$gold_name;", "Gold")));
+
+        assertEquals(128049152L, registry.findCommodityId("$gold_name;", null));
+        assertEquals(128049152L, registry.findCommodityId("gold", null));
+        assertEquals(128049152L, registry.findCommodityId("whatever", "Gold"));
+        assertEquals(128049152L, registry.findCommodityId("whatever", "gold"));
+        assertEquals(-1L, registry.findCommodityId("silver", "Silver"));
+        assertEquals(List.of("gold"), List.of(registry.getAllNames()));
+    }
+
+    @Test
+    void unchangedCommoditiesKeepTheCurrentSnapshot() {
+        registry.loadMarket(market(1L, commodity(1L, "$gold_name;", "Gold")));
+        Commodity first = registry.getCommodityById(1L);
+
+        registry.loadMarket(market(2L, commodity(1L, "$gold_name;", "Gold")));
+
+        assertSame(first, registry.getCommodityById(1L));
+    }
+
+    @Test
+    void changedCommodityReplacesItsOldNames() {
+        registry.loadMarket(market(1L, commodity(1L, "$gold_name;", "Gold")));
+        registry.loadMarket(market(1L, commodity(1L, "$gold_name;", "Or")));
+
+        assertEquals(1L, registry.findCommodityId("x", "Or"));
+        assertEquals(-1L, registry.findCommodityId("x", "Gold"));
+        assertEquals("Or", registry.getCommodityById(1L).getNameLocalised());
+    }
+
+    @Test
+    void lookupsDuringUpdatesNeverFail() throws Exception {
+        registry.loadMarket(market(1L, commodity(1L, "$gold_name;", "Gold")));
+        AtomicInteger misses = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            while (done.getCount() > 0) {
+                if (registry.findCommodityId("$gold_name;", "Gold") != 1L) {
+                    misses.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        for (long id = 2; id < 2_000; id++) {
+            registry.loadMarket(market(id, commodity(id, "$c" + id + "_name;", "C" + id)));
+        }
+        done.countDown();
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertEquals(0, misses.get());
+        assertEquals(1_999, registry.size());
+        assertNull(registry.getCommodityById(5_000L));
+        assertTrue(registry.getAllCommodityDTO().containsKey(1_999L));
+    }
+
+    private static Commodity commodity(long id, String name, String localised) {
+        return Commodity.builder().id(id).name(name).nameLocalised(localised)
+                .category("$MARKET_category_metals;").categoryLocalised("Metals").build();
+    }
+
+    private static Market market(long marketId, Commodity... commodities) {
+        Market market = Market.builder().marketId(marketId).build();
+        List<MarketItem> items = new ArrayList<>();
+        for (Commodity commodity : commodities) {
+            items.add(MarketItem.builder().commodity(commodity).market(market).build());
+        }
+        items.forEach(market::addItem);
+        return market;
+    }
+}
@@ -0,0 +1,110 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.service.readers.HashedRewriteFileReadStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompanionFileWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CompanionFileWatcher watcher;
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    @Test
+    void deliversEachFileToItsOwnSubscriber() throws Exception {
+        Files.writeString(tempDir.resolve("Market.json"), "{\"MarketID\":1}");
+        watcher = new CompanionFileWatcher(tempDir, Duration.ofMillis(200));
+        List<String> market = new CopyOnWriteArrayList<>();
+        List<String> cargo = new CopyOnWriteArrayList<>();
+        watcher.subscribe("Market.json", new HashedRewriteFileReadStrategy(), Duration.ofMillis(20), market::add);
+        watcher.subscribe("Cargo.json", new HashedRewriteFileReadStrategy(), Duration.ofMillis(20), cargo::add);
+
+        watcher.start();
+        awaitSize(market, 1);
+        Files.writeString(tempDir.resolve("Cargo.json"), "{\"Count\":4}");
+        awaitSize(cargo, 1);
+
+        assertEquals(List.of("{\"MarketID\":1}"), market);
+        assertEquals(List.of("{\"Count\":4}"), cargo);
+    }
+
+    @Test
+    void burstOfWritesIsReadOnce() throws Exception {
+        Path file = tempDir.resolve("Status.json");
+        Files.writeString(file, "{\"Flags\":0}");
+        watcher = new CompanionFileWatcher(tempDir, Duration.ofSeconds(60));
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch initialRead = new CountDownLatch(1);
+        watcher.subscribe("Status.json", new HashedRewriteFileReadStrategy(), Duration.ofMillis(300), content -> {
+            received.add(content);
+            initialRead.countDown();
+        });
+        watcher.start();
+        // the initial read on start must not race the burst
+        assertTrue(initialRead.await(2, TimeUnit.SECONDS));
+
+        for (int i = 1; i <= 5; i++) {
+            Files.writeString(file, "{\"Flags\":" + i + "}");
+        }
+        awaitSize(received, 2);
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        assertEquals(List.of("{\"Flags\":0}", "{\"Flags\":5}"), received);
+    }
+
+    @Test
+    void cancelledSubscriptionReceivesNothing() throws Exception {
+        watcher = new CompanionFileWatcher(tempDir, Duration.ofMillis(100));
+        List<String> received = new CopyOnWriteArrayList<>();
+        CompanionFileWatcher.Subscription subscription =
+                watcher.subscribe("Market.json", new HashedRewriteFileReadStrategy(), Duration.ZERO, received::add);
+        watcher.start();
+
+        subscription.cancel();
+        Files.writeString(tempDir.resolve("Market.json"), "{\"MarketID\":2}");
+        TimeUnit.MILLISECONDS.sleep(400);
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void aFileHasOneSubscriber() {
+        watcher = new CompanionFileWatcher(tempDir);
+        watcher.subscribe("Market.json", new HashedRewriteFileReadStrategy(), Duration.ZERO, content -> { });
+
+        assertThrows(IllegalStateException.class, () ->
+                watcher.subscribe("Market.json", new HashedRewriteFileReadStrategy(), Duration.ZERO, content -> { }));
+    }
+
+    private static void awaitSize(List<String> list, int size) throws InterruptedException, IOException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (list.size() < size) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("Timed out waiting for " + size + " deliveries, got " + list);
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+}
@@ -20,7 +20,7 @@ class ConstructionSiteManagerTest {
     void setUp() throws Exception {
         resetSingleton();
         siteManager = ConstructionSiteManager.getInstance();
-        siteManager.getSites().clear();
+        siteManager.getSiteStore().clear();
     }
 
     @AfterEach
@@ -64,7 +64,7 @@ class ConstructionSiteManagerTest {
                 .siteId(Long.toString(marketId))
                 .requirements(new CopyOnWriteArrayList<>())
                 .build();
-        siteManager.getSites().put(marketId, placeholder);
+        siteManager.getSiteStore().put(placeholder);
 
         JSONObject namedEvent = new JSONObject()
                 .put("MarketID", marketId)
@@ -0,0 +1,69 @@
+package com.zergatstage.monitor.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventDeduplicatorTest {
+
+    private static String depot(String time, long marketId, int provided) {
+        return "{ \"timestamp\":\"" + time + "\", \"event\":\"ColonisationConstructionDepot\", \"MarketID\":"
+                + marketId + ", \"ConstructionProgress\":0.5, \"ResourcesRequired\":[ { \"Name\":\"$steel_name;\","
+                + " \"RequiredAmount\":1000, \"ProvidedAmount\":" + provided + " } ] }";
+    }
+
+    @Test
+    void repeatsDifferingOnlyInTimestampAreDropped() {
+        EventDeduplicator deduplicator = new EventDeduplicator();
+
+        assertFalse(deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:00:00Z", 1, 10)));
+        assertTrue(deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:00:15Z", 1, 10)));
+        assertFalse(deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:00:30Z", 1, 20)));
+        assertEquals(1, deduplicator.getRepeats());
+    }
+
+    @Test
+    void marketsAreTrackedSeparately() {
+        EventDeduplicator deduplicator = new EventDeduplicator();
+
+        assertFalse(deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:00:00Z", 1, 10)));
+        assertFalse(deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:00:01Z", 2, 10)));
+        assertTrue(deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:00:02Z", 1, 10)));
+    }
+
+    @Test
+    void returningToAnEarlierStateIsNotARepeat() {
+        EventDeduplicator deduplicator = new EventDeduplicator();
+        String a = "{ \"timestamp\":\"2025-05-01T10:00:00Z\", \"event\":\"Cargo\", \"Vessel\":\"Ship\", \"Count\":4 }";
+        String b = a.replace("\"Count\":4", "\"Count\":8");
+
+        assertFalse(deduplicator.isRepeat("Cargo", a));
+        assertFalse(deduplicator.isRepeat("Cargo", b));
+        assertFalse(deduplicator.isRepeat("Cargo", a));
+    }
+
+    @Test
+    void leastRecentlyUsedIdentitiesAreForgotten() {
+        EventDeduplicator deduplicator = new EventDeduplicator(2);
+
+        deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:00:00Z", 1, 10));
+        deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:00:00Z", 2, 10));
+        deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:00:00Z", 3, 10));
+
+        assertFalse(deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:01:00Z", 1, 10)));
+        assertTrue(deduplicator.isRepeat("ColonisationConstructionDepot", depot("2025-05-01T10:01:00Z", 3, 10)));
+    }
+
+    @Test
+    void fingerprintIgnoresOnlyTheTimestampValue() {
+        assertEquals(EventDeduplicator.fingerprint(depot("2025-05-01T10:00:00Z", 1, 10)),
+                EventDeduplicator.fingerprint(depot("2031-12-31T23:59:59Z", 1, 10)));
+        assertNotEquals(EventDeduplicator.fingerprint(depot("2025-05-01T10:00:00Z", 1, 10)),
+                EventDeduplicator.fingerprint(depot("2025-05-01T10:00:00Z", 1, 11)));
+        assertEquals(42L, EventDeduplicator.identity("{\"MarketID\": 42}"));
+        assertEquals(0L, EventDeduplicator.identity("{\"event\":\"Cargo\"}"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.handlers.LogEventHandler;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class JournalBackfillServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void dispatchesKnownEventsInTimestampOrderAcrossChunksAndFiles() throws Exception {
+        // The second file starts before the first one ends, so file order alone would be wrong
+        Path first = tempDir.resolve("Journal.2025-11-01T100000.01.log");
+        Files.writeString(first, line("Cargo", "2025-11-01T10:00:00Z", 1)
+                + line("Music", "2025-11-01T10:00:01Z", 2)
+                + line("Cargo", "2025-11-01T10:00:05Z", 3)
+                + "{broken json\n"
+                + line("Cargo", "2025-11-01T10:00:09Z", 5));
+        Path second = tempDir.resolve("Journal.2025-11-01T100002.01.log");
+        Files.writeString(second, line("Cargo", "2025-11-01T10:00:02Z", 6)
+                + line("Cargo", "2025-11-01T10:00:07Z", 7));
+
+        List<Integer> handled = new ArrayList<>();
+        LogEventHandler cargo = new LogEventHandler() {
+            @Override
+            public String getEventType() {
+                return "Cargo";
+            }
+
+            @Override
+            public void handleEvent(JSONObject event) {
+                handled.add(event.optInt("Seq"));
+            }
+        };
+        // tiny chunks force every line into its own parse task
+        JournalBackfillService service = new JournalBackfillService(Map.of("Cargo", cargo),
+                (json, handler) -> handler.handleEvent(json), 16, 4);
+
+        JournalBackfillService.BackfillResult result = service.backfill(List.of(first, second));
+
+        assertEquals(List.of(1, 6, 3, 7, 5), handled);
+        assertEquals(2, result.files());
+        assertEquals(7, result.lines());
+        assertEquals(5, result.events());
+        assertEquals(Files.size(first) + Files.size(second), result.bytes());
+    }
+
+    @Test
+    void coalescesManagerNotificationsUntilBackfillCompletes() throws Exception {
+        Path journal = tempDir.resolve("Journal.2025-11-01T100000.01.log");
+        Files.writeString(journal, line("Cargo", "2025-11-01T10:00:00Z", 1)
+                + line("Cargo", "2025-11-01T10:00:01Z", 2)
+                + line("Cargo", "2025-11-01T10:00:02Z", 3));
+        Object manager = new Object();
+        AtomicInteger notifications = new AtomicInteger();
+        LogEventHandler cargo = new LogEventHandler() {
+            @Override
+            public String getEventType() {
+                return "Cargo";
+            }
+
+            @Override
+            public void handleEvent(JSONObject event) {
+                NotificationGate.publish(manager, notifications::incrementAndGet);
+            }
+        };
+
+        new JournalBackfillService(Map.of("Cargo", cargo), (json, handler) -> handler.handleEvent(json))
+                .backfill(List.of(journal));
+
+        assertEquals(1, notifications.get());
+        assertFalse(NotificationGate.isSuspended());
+    }
+
+    private static String line(String event, String timestamp, int seq) {
+        return "{ \"timestamp\":\"" + timestamp + "\", \"event\":\"" + event + "\", \"Seq\":" + seq + " }\n";
+    }
+}
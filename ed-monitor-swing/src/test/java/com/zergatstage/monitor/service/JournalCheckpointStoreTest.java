@@ -0,0 +1,93 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.service.readers.AppendFileReadStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalCheckpointStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesOncePerBatchAndResumesAfterTheLastRecordedLine() throws IOException {
+        Path journal = tempDir.resolve("Journal.2025-01-01T000000.01.log");
+        Files.writeString(journal, "{\"event\":\"A\"}\r\n{\"event\":\"Über\"}\n{\"event\":\"C\"}\n", StandardCharsets.UTF_8);
+        JournalCheckpointStore store = new JournalCheckpointStore(tempDir.resolve("state/journal.checkpoint"),
+                2, Duration.ofHours(1));
+
+        List<String> lines = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        new AppendFileReadStrategy().readPositionedLines(journal, 0L, (line, endOffset) -> {
+            lines.add(line);
+            offsets.add(endOffset);
+        });
+        store.record(journal, offsets.get(0), lines.get(0));
+        assertEquals(0, store.getWrites());
+        store.record(journal, offsets.get(1), lines.get(1));
+        assertEquals(1, store.getWrites());
+
+        JournalCheckpointStore.Checkpoint checkpoint = store.load();
+        assertEquals(journal.getFileName().toString(), checkpoint.journal());
+        assertEquals(offsets.get(1), checkpoint.offset());
+        assertTrue(JournalCheckpointStore.matches(journal, checkpoint));
+
+        List<String> resumed = new ArrayList<>();
+        new AppendFileReadStrategy().readLines(journal, checkpoint.offset(), resumed::add);
+        assertEquals(List.of("{\"event\":\"C\"}"), resumed);
+    }
+
+    @Test
+    void flushWritesAPartialBatch() {
+        Path journal = tempDir.resolve("Journal.log");
+        JournalCheckpointStore store = new JournalCheckpointStore(tempDir.resolve("journal.checkpoint"),
+                100, Duration.ofHours(1));
+        store.flush();
+        assertEquals(0, store.getWrites());
+
+        store.record(journal, 10, "{\"a\":1}");
+        store.flush();
+        assertEquals(1, store.getWrites());
+        assertEquals(10, store.load().offset());
+        assertFalse(Files.exists(tempDir.resolve("journal.checkpoint.tmp")));
+    }
+
+    @Test
+    void rewrittenJournalNoLongerMatches() throws IOException {
+        Path journal = tempDir.resolve("Journal.log");
+        Files.writeString(journal, "{\"event\":\"A\"}\n{\"event\":\"B\"}\n");
+        JournalCheckpointStore store = new JournalCheckpointStore(tempDir.resolve("journal.checkpoint"));
+        store.record(journal, Files.size(journal), "{\"event\":\"B\"}");
+        store.flush();
+        JournalCheckpointStore.Checkpoint checkpoint = store.load();
+        assertTrue(JournalCheckpointStore.matches(journal, checkpoint));
+
+        Files.writeString(journal, "{\"event\":\"A\"}\n{\"event\":\"X\"}\n");
+        assertFalse(JournalCheckpointStore.matches(journal, checkpoint));
+        Files.writeString(journal, "{\"event\":\"A\"}\n");
+        assertFalse(JournalCheckpointStore.matches(journal, checkpoint));
+    }
+
+    @Test
+    void missingOrCorruptCheckpointLoadsAsNull() throws IOException {
+        Path location = tempDir.resolve("journal.checkpoint");
+        JournalCheckpointStore store = new JournalCheckpointStore(location);
+        assertNull(store.load());
+
+        Files.writeString(location, "offset=not-a-number\n");
+        assertNull(store.load());
+    }
+}
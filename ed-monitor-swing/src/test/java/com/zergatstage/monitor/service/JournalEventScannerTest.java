@@ -0,0 +1,56 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.handlers.LogEventHandler;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+class JournalEventScannerTest {
+
+    private final LogEventHandler cargo = mock(LogEventHandler.class);
+    private final LogEventHandler cargoTransfer = mock(LogEventHandler.class);
+    private final JournalEventScanner scanner = new JournalEventScanner(handlers());
+
+    private Map<String, LogEventHandler> handlers() {
+        Map<String, LogEventHandler> handlers = new LinkedHashMap<>();
+        handlers.put("Cargo", cargo);
+        handlers.put("CargoTransfer", cargoTransfer);
+        return handlers;
+    }
+
+    @Test
+    void findsHandlerForSubscribedEvent() {
+        String line = "{ \"timestamp\":\"2025-11-13T12:00:00Z\", \"event\":\"Cargo\", \"Vessel\":\"Ship\", \"Count\":0 }";
+        assertSame(cargo, scanner.find(line));
+        assertSame(cargoTransfer, scanner.find("{\"event\" : \"CargoTransfer\"}"));
+    }
+
+    @Test
+    void rejectsUnsubscribedAndMalformedLines() {
+        assertNull(scanner.find("{ \"timestamp\":\"2025-11-13T12:00:00Z\", \"event\":\"Music\", \"MusicTrack\":\"Exploration\" }"));
+        assertNull(scanner.find("{ \"event\":\"CargoDepot\" }"));
+        assertNull(scanner.find("{ \"timestamp\":\"2025-11-13T12:00:00Z\" }"));
+        assertNull(scanner.find("{ \"event\":\"Cargo"));
+        assertNull(scanner.find(""));
+    }
+
+    @Test
+    void skipsTheKeyTextWhenItAppearsAsAValue() {
+        assertSame(cargo, scanner.find("{ \"Message\":\"event\", \"event\":\"Cargo\" }"));
+    }
+
+    @Test
+    void scansRawBytesWithinABuffer() {
+        byte[] bytes = "garbage{ \"Name\":\"Ærøskøbing\", \"event\":\"Cargo\" }garbage".getBytes(StandardCharsets.UTF_8);
+        int offset = "garbage".length();
+        int length = bytes.length - 2 * offset;
+        assertSame(cargo, scanner.find(bytes, offset, length));
+        assertNull(scanner.find(bytes, offset, 20));
+    }
+}
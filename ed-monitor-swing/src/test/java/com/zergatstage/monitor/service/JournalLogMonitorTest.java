@@ -74,17 +74,16 @@ class JournalLogMonitorTest {
     @Test
     @Disabled
     void processAppendedLines_dispatchesToAllHandlers() throws Exception {
-        // Reflectively access private processAppendedLines(String)
-        var method = JournalLogMonitor.class.getDeclaredMethod("processAppendedLines", String.class,
-                Map.class);
+        // Reflectively access private processAppendedLine(String, long)
+        var method = JournalLogMonitor.class.getDeclaredMethod("processAppendedLine", String.class, long.class);
         method.setAccessible(true);
 
         String line1 = "{\"event\":\"FooEvent\",\"value\":1}";
         String line2 = "{\"event\":\"BarEvent\",\"value\":2}";
         // Only valid JSON lines; invalid ones removed to avoid exceptions in tests
-        String content = String.join("\n", line1, line2);
         // Act
-        method.invoke(monitor, content, handlers);
+        method.invoke(monitor, line1, -1L);
+        method.invoke(monitor, line2, -1L);
 
         // Each valid JSON line yields one dispatch per handler
         verify(mockDispatcher, times(1)).dispatch(any(JSONObject.class), eq(mockHandlerFoo));
@@ -105,19 +104,92 @@ class JournalLogMonitorTest {
         fmField.setAccessible(true);
         fmField.set(directMonitor, mockFileMonitor);
 
-        // Reflectively access processAppendedLines
-        var method = JournalLogMonitor.class.getDeclaredMethod("processAppendedLines", String.class, Map.class);
+        // Reflectively access processAppendedLine
+        var method = JournalLogMonitor.class.getDeclaredMethod("processAppendedLine", String.class, long.class);
         method.setAccessible(true);
 
         String line1 = "{\"event\":\"FooEvent\",\"value\":1}";
         String line2 = "{\"event\":\"BarEvent\",\"value\":2}";
-        String content = String.join("\n", line1, line2, "");
 
         // Act
-        method.invoke(directMonitor, content, handlers);
+        method.invoke(directMonitor, line1, -1L);
+        method.invoke(directMonitor, line2, -1L);
 
         // Assert: each handler.handleEvent called once per valid JSON (async parsing pool)
         verify(mockHandlerFoo, timeout(500).times(1)).handleEvent(any(JSONObject.class));
         verify(mockHandlerBar, timeout(500).times(1)).handleEvent(any(JSONObject.class));
     }
+
+    @Test
+    void stopMonitoring_stopsTheParserThread() throws Exception {
+        JournalLogMonitor directMonitor = new JournalLogMonitor(
+                tempDir,
+                handlers,
+                (json, handler) -> handler.handleEvent(json)
+        );
+        Field fmField = JournalLogMonitor.class.getDeclaredField("fileMonitor");
+        fmField.setAccessible(true);
+        fmField.set(directMonitor, mockFileMonitor);
+        var method = JournalLogMonitor.class.getDeclaredMethod("processAppendedLine", String.class, long.class);
+        method.setAccessible(true);
+        Field parserField = JournalLogMonitor.class.getDeclaredField("parser");
+        parserField.setAccessible(true);
+
+        method.invoke(directMonitor, "{\"event\":\"FooEvent\",\"value\":1}", -1L);
+        verify(mockHandlerFoo, timeout(500).times(1)).handleEvent(any(JSONObject.class));
+        Thread parser = (Thread) parserField.get(directMonitor);
+        Assertions.assertNotNull(parser);
+
+        directMonitor.stopMonitoring();
+
+        Assertions.assertFalse(parser.isAlive());
+        Assertions.assertNull(parserField.get(directMonitor));
+    }
+
+    @Test
+    void resumingInAnOlderJournalReplaysEveryLaterJournalInOrder() throws Exception {
+        String a1 = "{\"event\":\"FooEvent\",\"n\":1}";
+        Path first = journal("Journal.2026-01-01T000000.01.log", 1_000_000L, a1, "{\"event\":\"FooEvent\",\"n\":2}");
+        journal("Journal.2026-01-02T000000.01.log", 2_000_000L, "{\"event\":\"FooEvent\",\"n\":3}");
+        Path latest = journal("Journal.2026-01-03T000000.01.log", 3_000_000L, "{\"event\":\"FooEvent\",\"n\":4}");
+        JournalCheckpointStore checkpoints = new JournalCheckpointStore(tempDir.resolve("state").resolve("journal.checkpoint"));
+        checkpoints.record(first, a1.length() + 1, a1);
+        checkpoints.flush();
+
+        List<Integer> received = new java.util.concurrent.CopyOnWriteArrayList<>();
+        LogEventHandler foo = new LogEventHandler() {
+            @Override
+            public String getEventType() {
+                return "FooEvent";
+            }
+
+            @Override
+            public void handleEvent(JSONObject event) {
+                received.add(event.optInt("n"));
+            }
+        };
+        JournalLogMonitor resumed = new JournalLogMonitor(tempDir, Map.of("FooEvent", foo),
+                (json, handler) -> handler.handleEvent(json), checkpoints);
+        resumed.startMonitoring();
+        try {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (received.size() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            resumed.stopMonitoring();
+        }
+
+        Assertions.assertEquals(List.of(2, 3, 4), received);
+        JournalCheckpointStore.Checkpoint checkpoint = checkpoints.load();
+        Assertions.assertEquals(latest.getFileName().toString(), checkpoint.journal());
+        Assertions.assertEquals(Files.size(latest), checkpoint.offset());
+    }
+
+    private Path journal(String name, long modifiedMillis, String... lines) throws IOException {
+        Path journal = tempDir.resolve(name);
+        Files.writeString(journal, String.join("\n", lines) + "\n");
+        Assertions.assertTrue(journal.toFile().setLastModified(modifiedMillis));
+        return journal;
+    }
 }
@@ -38,7 +38,7 @@ class MarketDataHttpServiceTest {
         // Enqueue responses
         server.enqueue(new MockResponse().setResponseCode(201));
         MarketDto dto = new MarketDto(1L, "Station", "Type", "System",
-                List.of(new MarketItemDto(new CommodityDto(1L, "Gold", "Gold", "Metals", "Metals"), 1, 2, 3, 4)));
+                List.of(new MarketItemDto(new CommodityDto(1L, "Gold", "Gold", "Metals", "Metals"), 1, 2, 3, 4)), 1_700_000_000_000L);
         String body = mapper.writeValueAsString(new MarketDto[]{dto});
         server.enqueue(new MockResponse().setResponseCode(200).setBody(body).addHeader("Content-Type", "application/json"));
 
@@ -48,6 +48,7 @@ class MarketDataHttpServiceTest {
         List<MarketDto> res = http.getMarkets();
         assertEquals(1, res.size());
         assertEquals("Station", res.get(0).getStationName());
+        assertEquals(1_700_000_000_000L, res.get(0).getUpdatedMillis());
     }
 }
 
@@ -0,0 +1,277 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.handlers.HandlerPriority;
+import com.zergatstage.monitor.handlers.TypedEventHandler;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedEventDispatcherTest {
+
+    private final ShardedEventDispatcher dispatcher = new ShardedEventDispatcher(4);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void keepsOrderPerMarket() throws Exception {
+        Map<Long, List<Double>> seen = new ConcurrentHashMap<>();
+        TypedEventHandler depotHandler = new TypedHandler("ColonisationConstructionDepot", false) {
+            @Override
+            public void handle(JournalEvent event) {
+                var depot = (JournalEvent.ColonisationConstructionDepot) event;
+                seen.computeIfAbsent(depot.marketId(), id -> new CopyOnWriteArrayList<>())
+                        .add(depot.constructionProgress());
+            }
+        };
+
+        for (int i = 0; i < 200; i++) {
+            for (long market = 1; market <= 8; market++) {
+                dispatcher.dispatch(new JournalEvent.ColonisationConstructionDepot(null, market, i,
+                        false, false, List.of(), null), depotHandler);
+            }
+        }
+        assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+
+        assertEquals(8, seen.size());
+        for (List<Double> progress : seen.values()) {
+            assertEquals(200, progress.size());
+            for (int i = 0; i < progress.size(); i++) {
+                assertEquals(i, progress.get(i));
+            }
+        }
+    }
+
+    @Test
+    void slowKeyDoesNotBlockIndependentKeys() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch cargoStarted = new CountDownLatch(1);
+        TypedEventHandler slowCargo = new TypedHandler("Cargo", true) {
+            @Override
+            public void handle(JournalEvent event) {
+                cargoStarted.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        CountDownLatch droneHandled = new CountDownLatch(1);
+        TypedEventHandler drone = new TypedHandler("LaunchDrone", false) {
+            @Override
+            public void handle(JournalEvent event) {
+                droneHandled.countDown();
+            }
+        };
+
+        dispatcher.dispatch(new JournalEvent.Cargo(null, "Ship", 0, List.of()), slowCargo);
+        assertTrue(cargoStarted.await(2, TimeUnit.SECONDS));
+        dispatcher.dispatch(new JournalEvent.Cargo(null, "Ship", 0, List.of()), slowCargo);
+        // the drone shard differs from the ship shard for a 4-shard dispatcher
+        assertTrue(Math.floorMod("LaunchDrone".hashCode(), 4) != Math.floorMod(ShardedEventDispatcher.SHIP_KEY.hashCode(), 4));
+        dispatcher.dispatch(new JournalEvent.LaunchDrone(null, "Prospector"), drone);
+
+        assertTrue(droneHandled.await(2, TimeUnit.SECONDS), "Drone event waited behind the cargo shard");
+        int shipShard = Math.floorMod(ShardedEventDispatcher.SHIP_KEY.hashCode(), 4);
+        assertEquals(1, dispatcher.getQueueDepth(shipShard));
+
+        release.countDown();
+        assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(0, dispatcher.getQueueDepth(shipShard));
+        assertEquals(2, dispatcher.getHandlerLatency(shipShard).count());
+    }
+
+    @Test
+    void jsonEventsWithMarketIdShareTheTypedMarketShard() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        TypedEventHandler docked = new TypedHandler("Docked", false) {
+            @Override
+            public void handleEvent(JSONObject event) {
+                order.add("docked");
+            }
+        };
+        TypedEventHandler depot = new TypedHandler("ColonisationConstructionDepot", false) {
+            @Override
+            public void handle(JournalEvent event) {
+                order.add("depot");
+            }
+        };
+
+        dispatcher.dispatch(new JSONObject("{\"event\":\"Docked\",\"MarketID\":42}"), docked);
+        dispatcher.dispatch(new JournalEvent.ColonisationConstructionDepot(null, 42L, 0, false, false,
+                List.of(), null), depot);
+        assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("docked", "depot"), order);
+    }
+
+    @Test
+    void queuedRunsOfOneHandlerArriveAsOneBatch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        TypedEventHandler blocker = new TypedHandler("Loadout", true) {
+            @Override
+            public void handle(JournalEvent event) {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        List<String> order = new CopyOnWriteArrayList<>();
+        TypedEventHandler buys = new TypedHandler("MarketBuy", true) {
+            @Override
+            public void handleBatch(List<JournalEvent> events) {
+                batchSizes.add(events.size());
+                events.forEach(e -> order.add(((JournalEvent.MarketBuy) e).type()));
+            }
+        };
+        TypedEventHandler cargo = new TypedHandler("Cargo", true) {
+            @Override
+            public void handleBatch(List<JournalEvent> events) {
+                batchSizes.add(events.size());
+                order.add("cargo");
+            }
+        };
+
+        // everything queues up behind the blocked ship shard, then drains in one cycle
+        dispatcher.dispatch(new JournalEvent.Loadout(null, "Cutter", 1, "Ship", 720), blocker);
+        assertTrue(blocked.await(2, TimeUnit.SECONDS));
+        dispatcher.dispatch(new JournalEvent.Cargo(null, "Ship", 0, List.of()), cargo);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(new JournalEvent.MarketBuy(null, 1L, "buy" + i, null, 1, 10, 10), buys);
+        }
+        dispatcher.dispatch(new JournalEvent.Cargo(null, "Ship", 5, List.of()), cargo);
+        release.countDown();
+        assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("cargo", "buy0", "buy1", "buy2", "buy3", "buy4", "cargo"), order);
+        assertEquals(List.of(1, 5, 1), batchSizes);
+    }
+
+    @Test
+    void afterHandledRunsOnceEarlierEventsHaveBeenHandled() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        TypedEventHandler blocker = new TypedHandler("Loadout", true) {
+            @Override
+            public void handle(JournalEvent event) {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                order.add("loadout");
+            }
+        };
+        CountDownLatch handled = new CountDownLatch(1);
+
+        dispatcher.dispatch(new JournalEvent.Loadout(null, "Cutter", 1, "Ship", 720), blocker);
+        assertTrue(blocked.await(2, TimeUnit.SECONDS));
+        dispatcher.afterHandled(() -> {
+            order.add("handled");
+            handled.countDown();
+        });
+
+        // the other shards have passed the mark, the ship shard has not
+        assertFalse(handled.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(handled.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("loadout", "handled"), order);
+    }
+
+    @Test
+    void realtimeEventsBypassBusyShardsAndSuspendedNotifications() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        TypedEventHandler blocker = new TypedHandler("Loadout", true) {
+            @Override
+            public void handle(JournalEvent event) {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        CountDownLatch notified = new CountDownLatch(1);
+        TypedEventHandler prospector = new TypedHandler("ProspectedAsteroid", false) {
+            @Override
+            public HandlerPriority getPriority() {
+                return HandlerPriority.REALTIME;
+            }
+
+            @Override
+            public void handle(JournalEvent event) {
+                NotificationGate.publish(this, notified::countDown);
+            }
+        };
+
+        dispatcher.dispatch(new JournalEvent.Loadout(null, "Cutter", 1, "Ship", 720), blocker);
+        assertTrue(blocked.await(2, TimeUnit.SECONDS));
+        NotificationGate.suspend();
+        try {
+            dispatcher.dispatch(new JournalEvent.ProspectedAsteroid(null, List.of(), "High", 100.0), prospector);
+            assertTrue(notified.await(2, TimeUnit.SECONDS), "realtime notification was held back");
+        } finally {
+            NotificationGate.resume();
+            release.countDown();
+        }
+        assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (dispatcher.getRealtimeLatency().count() == 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(1, dispatcher.getRealtimeLatency().count());
+    }
+
+    private abstract static class TypedHandler implements TypedEventHandler {
+        private final String type;
+        private final boolean cargo;
+
+        TypedHandler(String type, boolean cargo) {
+            this.type = type;
+            this.cargo = cargo;
+        }
+
+        @Override
+        public String getEventType() {
+            return type;
+        }
+
+        @Override
+        public boolean isCargoRelated() {
+            return cargo;
+        }
+
+        @Override
+        public void handle(JournalEvent event) {
+        }
+
+        @Override
+        public void handleEvent(JSONObject event) {
+        }
+    }
+}
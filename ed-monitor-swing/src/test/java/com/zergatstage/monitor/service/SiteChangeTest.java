@@ -0,0 +1,85 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.domain.ConstructionSite;
+import com.zergatstage.domain.MaterialRequirement;
+import com.zergatstage.domain.dictionary.Commodity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SiteChangeTest {
+
+    private static final Commodity STEEL = Commodity.builder().id(128049176L).name("steel").build();
+    private static final Commodity WATER = Commodity.builder().id(128049166L).name("water").build();
+
+    @Test
+    void aDeliveryIsOneRequirementChange() {
+        SiteStore store = new SiteStore();
+        store.put(site(1L, 0));
+        store.put(site(2L, 0));
+        SiteSnapshot before = store.snapshot();
+
+        store.update(2L, site -> {
+            site.updateDeliveredQuantity(STEEL.getId(), 40);
+            return site;
+        });
+
+        assertEquals(List.of(new SiteChange.RequirementChanged(2L, STEEL.getId(), 1_000, 1_000, 0, 40)),
+                SiteChange.between(before, store.snapshot()));
+        assertTrue(SiteChange.between(store.snapshot(), store.snapshot()).isEmpty());
+    }
+
+    @Test
+    void reportsAddedRemovedAndRenamedSitesAndRequirements() {
+        SiteStore store = new SiteStore();
+        store.put(site(1L, 0));
+        store.put(site(2L, 0));
+        SiteSnapshot before = store.snapshot();
+
+        store.update(1L, site -> {
+            site.setSiteId("renamed");
+            site.getRequirements().clear();
+            site.getRequirements().add(MaterialRequirement.builder().commodity(WATER).requiredQuantity(500).build());
+            return site;
+        });
+        ConstructionSite third = site(3L, 0);
+        store.put(third);
+        SiteSnapshot withoutTwo = SiteSnapshot.EMPTY;
+        for (ConstructionSite site : store.snapshot().sites()) {
+            if (site.getMarketId() != 2L) {
+                withoutTwo = next(withoutTwo, site);
+            }
+        }
+
+        List<SiteChange> changes = SiteChange.between(before, withoutTwo);
+        // sites come in index order, removed ones last
+        assertEquals(new SiteChange.Removed(2L), changes.get(changes.size() - 1));
+        assertEquals(Set.of(
+                        new SiteChange.Renamed(1L, "site 1", "renamed"),
+                        new SiteChange.RequirementAdded(1L, WATER.getId(), 500, 0),
+                        new SiteChange.RequirementRemoved(1L, STEEL.getId()),
+                        new SiteChange.Added(third),
+                        new SiteChange.Removed(2L)),
+                new HashSet<>(changes));
+        assertEquals(5, changes.size());
+    }
+
+    private static SiteSnapshot next(SiteSnapshot base, ConstructionSite site) {
+        var index = base.copyIndex();
+        index.put(site.getMarketId(), site);
+        return new SiteSnapshot(base.version() + 1, index);
+    }
+
+    private static ConstructionSite site(long marketId, int delivered) {
+        List<MaterialRequirement> requirements = new ArrayList<>();
+        requirements.add(MaterialRequirement.builder().commodity(STEEL).requiredQuantity(1_000)
+                .deliveredQuantity(delivered).build());
+        return ConstructionSite.builder().marketId(marketId).siteId("site " + marketId).requirements(requirements).build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.domain.ConstructionSite;
+import com.zergatstage.domain.MaterialRequirement;
+import com.zergatstage.domain.dictionary.Commodity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SiteStoreTest {
+
+    private static final Commodity STEEL = Commodity.builder().id(128049176L).name("steel").build();
+
+    @Test
+    void updatesPublishANewSnapshotAndLeaveTheOldOneUntouched() {
+        SiteStore store = new SiteStore();
+        store.put(site(1L, 0));
+        SiteSnapshot before = store.snapshot();
+
+        ConstructionSite updated = store.update(1L, site -> {
+            site.updateDeliveredQuantity(STEEL.getId(), 40);
+            return site;
+        });
+
+        SiteSnapshot after = store.snapshot();
+        assertEquals(before.version() + 1, after.version());
+        assertEquals(0, before.get(1L).getRequirements().get(0).getDeliveredQuantity());
+        assertEquals(40, after.get(1L).getRequirements().get(0).getDeliveredQuantity());
+        assertSame(updated, after.get(1L));
+        assertEquals(List.of(updated), after.changedSince(before));
+        assertTrue(after.changedSince(after).isEmpty());
+    }
+
+    @Test
+    void replaceFailsWhenTheSiteChangedMeanwhile() {
+        SiteStore store = new SiteStore();
+        ConstructionSite original = site(1L, 0);
+        store.put(original);
+        store.update(1L, site -> {
+            site.setSiteId("renamed");
+            return site;
+        });
+
+        assertFalse(store.replace(original, site(1L, 10)));
+        assertEquals("renamed", store.get(1L).getSiteId());
+        assertTrue(store.replace(store.get(1L), site(1L, 10)));
+        assertFalse(store.putIfAbsent(site(1L, 20)));
+        assertEquals(10, store.get(1L).getRequirements().get(0).getDeliveredQuantity());
+    }
+
+    @Test
+    void concurrentWritersLoseNoUpdateAndReadersSeeConsistentSnapshots() throws InterruptedException {
+        SiteStore store = new SiteStore();
+        store.put(site(1L, 0));
+        store.put(site(2L, 0));
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> errors = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        // both sites move together, so every snapshot must show them equal
+                        store.updateAll(site -> site.updateDeliveredQuantity(STEEL.getId(), 1));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        executor.execute(() -> {
+            try {
+                start.await();
+                for (int i = 0; i < 2_000; i++) {
+                    SiteSnapshot snapshot = store.snapshot();
+                    int first = snapshot.get(1L).getRequirements().get(0).getDeliveredQuantity();
+                    int second = snapshot.get(2L).getRequirements().get(0).getDeliveredQuantity();
+                    if (first != second) {
+                        synchronized (errors) {
+                            errors.add(new AssertionError(first + " != " + second));
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertTrue(errors.isEmpty(), () -> errors.get(0).getMessage());
+        assertEquals(threads * perThread, store.get(1L).getRequirements().get(0).getDeliveredQuantity());
+        assertEquals(threads * perThread, store.get(2L).getRequirements().get(0).getDeliveredQuantity());
+    }
+
+    @Test
+    void updateAllPublishesOnlyTheSitesItChanged() {
+        Commodity gold = Commodity.builder().id(128049154L).name("gold").build();
+        SiteStore store = new SiteStore();
+        store.put(site(1L, 0));
+        ConstructionSite other = ConstructionSite.builder().marketId(2L).siteId("site 2")
+                .requirements(new ArrayList<>(List.of(MaterialRequirement.builder().commodity(gold)
+                        .requiredQuantity(10).build()))).build();
+        store.put(other);
+        SiteSnapshot before = store.snapshot();
+
+        assertTrue(store.updateAll(site -> site.updateDeliveredQuantity(STEEL.getId(), 5)));
+
+        SiteSnapshot after = store.snapshot();
+        assertEquals(List.of(after.get(1L)), after.changedSince(before));
+        assertSame(other, after.get(2L));
+        assertFalse(store.updateAll(site -> site.updateDeliveredQuantity(42L, 5)));
+        assertSame(after, store.snapshot());
+    }
+
+    @Test
+    void copyDoesNotShareRequirements() {
+        ConstructionSite site = site(1L, 5);
+        ConstructionSite copy = SiteStore.copy(site);
+        copy.getRequirements().get(0).setDeliveredQuantity(9);
+
+        assertNotSame(site.getRequirements().get(0), copy.getRequirements().get(0));
+        assertEquals(5, site.getRequirements().get(0).getDeliveredQuantity());
+    }
+
+    private static ConstructionSite site(long marketId, int delivered) {
+        List<MaterialRequirement> requirements = new ArrayList<>();
+        requirements.add(MaterialRequirement.builder().commodity(STEEL).requiredQuantity(1_000_000)
+                .deliveredQuantity(delivered).build());
+        return ConstructionSite.builder().marketId(marketId).siteId("site " + marketId).requirements(requirements).build();
+    }
+}
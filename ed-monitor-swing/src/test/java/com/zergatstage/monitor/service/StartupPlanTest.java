@@ -0,0 +1,100 @@
+package com.zergatstage.monitor.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupPlanTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void tasksRunAfterTheirDependenciesAndSeeTheirResults() {
+        StartupPlan plan = new StartupPlan(Duration.ofSeconds(1));
+        List<String> order = new CopyOnWriteArrayList<>();
+        StartupPlan.Task<Integer> a = plan.task("a", executor, () -> {
+            order.add("a");
+            return 20;
+        });
+        StartupPlan.Task<Integer> b = plan.task("b", executor, () -> {
+            order.add("b");
+            return 22;
+        });
+        StartupPlan.Task<Integer> sum = plan.task("sum", executor, () -> {
+            order.add("sum");
+            return a.get() + b.get();
+        }, a, b);
+
+        assertTrue(plan.await());
+        assertEquals(42, sum.get());
+        assertEquals("sum", order.get(2));
+    }
+
+    @Test
+    void independentTasksRunInParallel() {
+        StartupPlan plan = new StartupPlan(Duration.ofSeconds(1));
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable meet = () -> {
+            bothStarted.countDown();
+            try {
+                if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("the other task did not start");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        plan.run("left", executor, meet);
+        plan.run("right", executor, meet);
+
+        assertTrue(plan.await());
+    }
+
+    @Test
+    void aFailedTaskSkipsItsDependentsOnly() {
+        StartupPlan plan = new StartupPlan(Duration.ofSeconds(1));
+        AtomicBoolean dependentRan = new AtomicBoolean();
+        StartupPlan.Task<Void> broken = plan.run("broken", executor, () -> {
+            throw new IllegalStateException("boom");
+        });
+        StartupPlan.Task<Void> dependent = plan.run("dependent", executor, () -> dependentRan.set(true), broken);
+        StartupPlan.Task<String> other = plan.task("other", executor, () -> "ok");
+
+        assertFalse(plan.await());
+        assertFalse(dependentRan.get());
+        assertTrue(dependent.isFailed());
+        CompletionException error = assertThrows(CompletionException.class, dependent::get);
+        assertEquals("boom", error.getCause().getMessage());
+        assertEquals("ok", other.get());
+    }
+
+    @Test
+    void onlyTheFirstFrameIsRecorded() throws InterruptedException {
+        StartupPlan plan = new StartupPlan(Duration.ofMillis(10));
+        assertEquals(-1, plan.getFirstFrameMillis());
+        plan.firstFrame();
+        long first = plan.getFirstFrameMillis();
+        Thread.sleep(20);
+        plan.firstFrame();
+        assertEquals(first, plan.getFirstFrameMillis());
+    }
+}
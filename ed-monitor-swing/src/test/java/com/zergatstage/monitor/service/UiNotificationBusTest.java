@@ -0,0 +1,116 @@
+package com.zergatstage.monitor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UiNotificationBusTest {
+
+    // stand-ins for the EDT and the timer, run by the test
+    private final Queue<Runnable> edt = new ArrayDeque<>();
+    private final List<Duration> delays = new ArrayList<>();
+    private final Queue<Runnable> timer = new ArrayDeque<>();
+
+    private UiNotificationBus bus(int maxFps) {
+        return new UiNotificationBus(maxFps, edt::add, (task, delay) -> {
+            delays.add(delay);
+            timer.add(task);
+        });
+    }
+
+    private void runEdt() {
+        Runnable task;
+        while ((task = edt.poll()) != null) {
+            task.run();
+        }
+    }
+
+    @Test
+    void aBurstFromOneSourceRunsOnce() {
+        UiNotificationBus bus = bus(60);
+        List<Integer> runs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            bus.post("sites", () -> runs.add(value));
+        }
+        runEdt();
+
+        assertEquals(List.of(499), runs);
+        assertEquals(500, bus.getPosts());
+        assertEquals(499, bus.getMerged());
+        assertEquals(1, bus.getFlushes());
+        assertEquals(1, bus.getDelivered());
+    }
+
+    @Test
+    void flushesAreSpacedByAFrame() {
+        UiNotificationBus bus = bus(50);
+        List<String> runs = new ArrayList<>();
+        bus.post("a", () -> runs.add("a1"));
+        runEdt();
+        bus.post("a", () -> runs.add("a2"));
+        bus.post("b", () -> runs.add("b"));
+
+        // the second flush waits for the rest of the 20 ms frame
+        assertTrue(edt.isEmpty());
+        assertEquals(1, delays.size());
+        assertTrue(delays.get(0).toMillis() <= 20);
+        timer.poll().run();
+        runEdt();
+
+        assertEquals(List.of("a1", "a2", "b"), runs);
+        assertEquals(2, bus.getFlushes());
+        assertEquals(2, bus.getMaxBatch());
+    }
+
+    @Test
+    void postsDuringAFlushJoinItOnceAndRepeatsWaitForTheNextFrame() {
+        UiNotificationBus bus = bus(60);
+        Object panel = new Object();
+        List<String> runs = new ArrayList<>();
+        Runnable panelRefresh = () -> bus.post(panel, () -> runs.add("panel"));
+        bus.post("sites", () -> {
+            runs.add("sites");
+            panelRefresh.run();
+        });
+        bus.post("cargo", () -> {
+            runs.add("cargo");
+            panelRefresh.run();
+        });
+        bus.post("markets", () -> {
+            runs.add("markets");
+            panelRefresh.run();
+        });
+        runEdt();
+
+        assertEquals(List.of("sites", "cargo", "markets", "panel"), runs);
+        assertEquals(1, bus.getFlushes());
+        assertEquals(0, bus.getPending());
+    }
+
+    @Test
+    void realtimePostsFlushWithoutWaitingForTheFrame() {
+        UiNotificationBus bus = bus(1);
+        List<String> runs = new ArrayList<>();
+        bus.post("cargo", () -> runs.add("cargo"));
+        runEdt();
+        bus.post("cargo", () -> runs.add("cargo again"));
+        assertTrue(edt.isEmpty());
+
+        NotificationGate.runImmediate(() -> bus.post("asteroids", () -> runs.add("asteroids")));
+        runEdt();
+
+        assertEquals(List.of("cargo", "cargo again", "asteroids"), runs);
+        // the frame timer still fires later, with nothing left to do
+        timer.poll().run();
+        runEdt();
+        assertEquals(2, bus.getFlushes());
+    }
+}
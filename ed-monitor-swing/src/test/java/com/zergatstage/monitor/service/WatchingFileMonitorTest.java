@@ -0,0 +1,97 @@
+package com.zergatstage.monitor.service;
+
+import com.zergatstage.monitor.service.readers.AppendFileReadStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WatchingFileMonitorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void deliversAppendedLinesWithoutWaitingForSafetyPoll() throws Exception {
+        Path journal = tempDir.resolve("Journal.2025-11-13T120000.01.log");
+        Files.writeString(journal, "{\"event\":\"Fileheader\"}\n");
+        List<String> updates = new CopyOnWriteArrayList<>();
+
+        // Safety poll far beyond the test timeout: only the watcher can deliver the second update
+        WatchingFileMonitor monitor = new WatchingFileMonitor(journal, new AppendFileReadStrategy(),
+                updates::add, Duration.ofMinutes(10));
+        monitor.start();
+        try {
+            waitUntil(() -> updates.size() >= 1, Duration.ofSeconds(5));
+            assertEquals("{\"event\":\"Fileheader\"}\n", updates.get(0));
+
+            Files.writeString(journal, "{\"event\":\"Music\"}\n", StandardOpenOption.APPEND);
+
+            waitUntil(() -> updates.size() >= 2, Duration.ofSeconds(5));
+            assertTrue(updates.size() >= 2, "Expected appended line to be delivered by the watcher");
+            assertEquals("{\"event\":\"Music\"}\n", updates.get(1));
+            assertTrue(monitor.getLastModifiedMillis() > 0);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void followsRotationAndKeepsOrderAcrossHandoff() throws Exception {
+        Path oldJournal = tempDir.resolve("Journal.2025-11-13T120000.01.log");
+        Files.writeString(oldJournal, "{\"event\":\"A\"}\n");
+        JournalDirectoryIndex index = new JournalDirectoryIndex(tempDir);
+        List<String> lines = new CopyOnWriteArrayList<>();
+
+        WatchingFileMonitor monitor = new WatchingFileMonitor(tempDir, index.latest(),
+                new AppendFileReadStrategy(), lines::add, GenericFileMonitor.Delivery.LINES,
+                Duration.ofMillis(200));
+        monitor.setOnEntryCreated(created -> index.invalidate());
+        monitor.followRotation(index::latest);
+        monitor.start();
+        try {
+            waitUntil(() -> lines.size() >= 1, Duration.ofSeconds(5));
+
+            // The tail of the old journal and the first lines of the new one arrive back to back
+            Files.writeString(oldJournal, "{\"event\":\"B\"}\n", StandardOpenOption.APPEND);
+            Path newJournal = tempDir.resolve("Journal.2025-11-13T130000.01.log");
+            Files.writeString(newJournal, "{\"event\":\"C\"}\n{\"event\":\"D\"}\n");
+            newJournal.toFile().setLastModified(oldJournal.toFile().lastModified() + 1_000);
+
+            waitUntil(() -> lines.size() >= 4, Duration.ofSeconds(5));
+            assertEquals(List.of("{\"event\":\"A\"}", "{\"event\":\"B\"}",
+                    "{\"event\":\"C\"}", "{\"event\":\"D\"}"), lines);
+            assertEquals(newJournal, monitor.getFile());
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void stopsCleanlyWhenNeverStarted() throws IOException {
+        Path journal = Files.createFile(tempDir.resolve("Journal.log"));
+        WatchingFileMonitor monitor = new WatchingFileMonitor(journal, new AppendFileReadStrategy(), s -> { });
+        monitor.stop();
+    }
+
+    private static void waitUntil(SupplierLike condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.NANOSECONDS.convert(timeout);
+        while (System.nanoTime() < deadline) {
+            if (condition.get()) return;
+            Thread.sleep(20);
+        }
+    }
+
+    @FunctionalInterface
+    interface SupplierLike { boolean get(); }
+}
@@ -0,0 +1,98 @@
+package com.zergatstage.monitor.service.managers;
+
+import com.zergatstage.domain.makret.Market;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MarketCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void keepsTheMostRecentlyUpdatedMarketsWithinTheLimit() {
+        MarketCache cache = new MarketCache(3, Duration.ofDays(1), now::get);
+        cache.put(market(1));
+        cache.put(market(2));
+        cache.put(market(3));
+        cache.put(market(1));
+        cache.put(market(4));
+
+        assertEquals(List.of(4L, 1L, 3L), ids(cache));
+        assertNull(cache.get(2));
+        assertEquals(4L, cache.latest().getMarketId());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void evictsMarketsNotUpdatedWithinTheMaximumAgeButNeverTheLatest() {
+        MarketCache cache = new MarketCache(10, Duration.ofMinutes(10), now::get);
+        cache.put(market(1));
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        cache.put(market(2));
+        now.addAndGet(Duration.ofMinutes(6).toMillis());
+
+        cache.evictExpired();
+        assertEquals(List.of(2L), ids(cache));
+
+        now.addAndGet(Duration.ofHours(1).toMillis());
+        cache.evictExpired();
+        assertEquals(List.of(2L), ids(cache));
+    }
+
+    @Test
+    void snapshotIsImmutableAndStableUntilTheNextChange() {
+        MarketCache cache = new MarketCache(10, Duration.ofDays(1), now::get);
+        cache.put(market(1));
+        List<Market> first = cache.snapshot();
+
+        assertSame(first, cache.snapshot());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(market(9)));
+        cache.put(market(2));
+        assertEquals(1, first.size());
+        assertEquals(List.of(2L, 1L), ids(cache));
+    }
+
+    @Test
+    void putAllMergesBehindTheLatestMarket() {
+        MarketCache cache = new MarketCache(10, Duration.ofDays(1), now::get);
+        cache.put(market(3));
+        cache.put(market(7));
+        cache.putAll(List.of(market(1), market(7), market(2)));
+
+        assertEquals(List.of(7L, 1L, 2L, 3L), ids(cache));
+        assertEquals(7L, cache.latest().getMarketId());
+    }
+
+    @Test
+    void restoredMarketsKeepTheirAgeAndAreOrderedByIt() {
+        MarketCache cache = new MarketCache(10, Duration.ofDays(1), now::get);
+        long day = Duration.ofDays(1).toMillis();
+        cache.putAll(List.of(market(1, now.get() - 3_000), market(2, now.get() - 1_000),
+                market(3, now.get() - 2 * day), market(4, now.get() - 2_000)));
+
+        assertEquals(List.of(2L, 4L, 1L), ids(cache));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    private static List<Long> ids(MarketCache cache) {
+        return cache.snapshot().stream().map(Market::getMarketId).toList();
+    }
+
+    private static Market market(long id) {
+        return Market.builder().marketId(id).stationName("Station " + id).build();
+    }
+
+    private static Market market(long id, long updatedMillis) {
+        Market market = market(id);
+        market.setUpdatedMillis(updatedMillis);
+        return market;
+    }
+}
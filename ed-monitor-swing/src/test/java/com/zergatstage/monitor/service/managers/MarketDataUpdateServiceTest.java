@@ -0,0 +1,54 @@
+package com.zergatstage.monitor.service.managers;
+
+import com.zergatstage.domain.makret.Market;
+import com.zergatstage.monitor.http.MarketDtoMapper;
+import com.zergatstage.monitor.http.dto.MarketDto;
+import com.zergatstage.monitor.service.CommodityRegistry;
+import com.zergatstage.monitor.service.MarketDataHttpService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MarketDataUpdateServiceTest {
+
+    private static final long NOW = System.currentTimeMillis();
+
+    @Test
+    void refreshFromServerKeepsTheNewerCopyOfEachMarket() throws Exception {
+        MarketCache cache = new MarketCache(10, Duration.ofDays(365));
+        MarketDataUpdateService service = new MarketDataUpdateService(mock(CommodityRegistry.class),
+                new MarketDataParser(), cache);
+        MarketDataHttpService http = mock(MarketDataHttpService.class);
+        service.setHttpService(http);
+        Market newerHere = market(1, "Local", 10);
+        Market olderHere = market(2, "Local", 30);
+        Market onlyHere = market(3, "Local", 20);
+        cache.putAll(List.of(newerHere, olderHere, onlyHere));
+        when(http.getMarkets()).thenReturn(List.of(
+                MarketDtoMapper.toDto(market(1, "Server", 30)),
+                MarketDtoMapper.toDto(market(2, "Server", 5))));
+
+        service.refreshFromServer();
+
+        assertSame(newerHere, cache.get(1));
+        assertEquals("Server", cache.get(2).getStationName());
+        assertEquals(NOW - 5_000, cache.get(2).getUpdatedMillis());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MarketDto>> sent = ArgumentCaptor.forClass(List.class);
+        verify(http).postMarkets(sent.capture());
+        assertEquals(List.of(1L, 3L), sent.getValue().stream().map(MarketDto::getMarketId).sorted().toList());
+    }
+
+    private static Market market(long id, String name, long secondsAgo) {
+        return Market.builder().marketId(id).stationName(name)
+                .updatedMillis(NOW - secondsAgo * 1_000).build();
+    }
+}
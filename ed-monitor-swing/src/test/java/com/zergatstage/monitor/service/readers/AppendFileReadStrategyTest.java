@@ -4,8 +4,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,4 +65,41 @@ class AppendFileReadStrategyTest {
         assertEquals("", result.getNewContent());
         assertEquals(0L, result.getNewState());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReadLines_PartialLineIsHeldBackUntilComplete() throws IOException {
+        // Arrange
+        Path tempFile = tempDir.resolve("partial.txt");
+        Files.writeString(tempFile, "Line 1\nLine");
+        AppendFileReadStrategy strategy = new AppendFileReadStrategy();
+        List<String> lines = new ArrayList<>();
+
+        // Act
+        Object state1 = strategy.readLines(tempFile, 0L, lines::add);
+        Files.writeString(tempFile, " 2\n", StandardOpenOption.APPEND);
+        Object state2 = strategy.readLines(tempFile, state1, lines::add);
+
+        // Assert
+        assertEquals(7L, state1);
+        assertEquals(List.of("Line 1", "Line 2"), lines);
+        assertEquals(Files.size(tempFile), state2);
+    }
+
+    @Test
+    void testReadLines_MultiByteCharactersSplitAcrossBlocks() throws IOException {
+        // Arrange: a 4-byte block size forces every multi-byte character across a block boundary
+        Path tempFile = tempDir.resolve("utf8.txt");
+        String first = "{\"Name\":\"Ærøskøbing Σ ✓\"}";
+        String second = "{\"Name\":\"Саратов\"}";
+        Files.writeString(tempFile, first + "\r\n" + second + "\n", StandardCharsets.UTF_8);
+        AppendFileReadStrategy strategy = new AppendFileReadStrategy(4);
+        List<String> lines = new ArrayList<>();
+
+        // Act
+        Object state = strategy.readLines(tempFile, 0L, lines::add);
+
+        // Assert
+        assertEquals(List.of(first, second), lines);
+        assertEquals(Files.size(tempFile), state);
+    }
+}
@@ -0,0 +1,105 @@
+package com.zergatstage.monitor.service.readers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedRewriteFileReadStrategyTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final HashedRewriteFileReadStrategy strategy =
+            new HashedRewriteFileReadStrategy(Duration.ofMillis(1), 2);
+
+    @Test
+    void publishesOnlyRealChanges() throws IOException {
+        Path file = tempDir.resolve("Market.json");
+        Files.writeString(file, "{\"MarketID\":1}", StandardCharsets.UTF_8);
+
+        FileReadStrategy.ReadResult first = strategy.readChanges(file, null);
+        assertEquals("{\"MarketID\":1}", first.getNewContent());
+        assertInstanceOf(HashedRewriteFileReadStrategy.Fingerprint.class, first.getNewState());
+
+        // rewritten with the same bytes: not published again
+        Files.writeString(file, "{\"MarketID\":1}", StandardCharsets.UTF_8);
+        FileReadStrategy.ReadResult same = strategy.readChanges(file, first.getNewState());
+        assertEquals("", same.getNewContent());
+
+        Files.writeString(file, "{\"MarketID\":2}", StandardCharsets.UTF_8);
+        FileReadStrategy.ReadResult changed = strategy.readChanges(file, same.getNewState());
+        assertEquals("{\"MarketID\":2}", changed.getNewContent());
+    }
+
+    @Test
+    void unchangedSizeAndOldTimestampSkipTheRead() throws IOException {
+        Path file = tempDir.resolve("Status.json");
+        Files.writeString(file, "{\"Flags\":1}");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(60)));
+        Object state = strategy.readChanges(file, null).getNewState();
+
+        // same size and timestamp: the content is not even read, so this edit goes unnoticed by design
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        Files.writeString(file, "{\"Flags\":2}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+
+        FileReadStrategy.ReadResult result = strategy.readChanges(file, state);
+        assertEquals("", result.getNewContent());
+        assertSame(state, result.getNewState());
+    }
+
+    @Test
+    void truncatedJsonIsNotPublished() throws IOException {
+        Path file = tempDir.resolve("Market.json");
+        Files.writeString(file, "{\"MarketID\":1,\"Items\":[{\"Name\":\"gold\"");
+
+        FileReadStrategy.ReadResult result = strategy.readChanges(file, null);
+
+        assertEquals("", result.getNewContent());
+        assertNull(result.getNewState());
+
+        Files.writeString(file, "{\"MarketID\":1,\"Items\":[{\"Name\":\"gold\"}]}\r\n");
+        assertEquals("{\"MarketID\":1,\"Items\":[{\"Name\":\"gold\"}]}\r\n",
+                strategy.readChanges(file, result.getNewState()).getNewContent());
+    }
+
+    @Test
+    void recognisesCompleteDocuments() {
+        assertTrue(complete("{\"a\":\"}\\\"{\",\"b\":[1,2,{}]}"));
+        assertTrue(complete(" [ ] \n"));
+        assertTrue(complete("\uFEFF{}"));
+        assertFalse(complete(""));
+        assertFalse(complete("{\"a\":\"}\""));
+        assertFalse(complete("{\"a\":1}}"));
+        assertFalse(complete("{}{}"));
+        assertFalse(complete("{} x"));
+    }
+
+    @Test
+    void largeFilesAreReadWhole() throws IOException {
+        Path file = tempDir.resolve("Market.json");
+        String content = "{\"Items\":[" + "{\"Name\":\"x\"},".repeat(20_000) + "{}]}";
+        Files.writeString(file, content);
+
+        assertEquals(content, strategy.readChanges(file, null).getNewContent());
+    }
+
+    private static boolean complete(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return HashedRewriteFileReadStrategy.isCompleteJson(bytes, bytes.length);
+    }
+}
@@ -0,0 +1,160 @@
+package com.zergatstage.monitor.service.store;
+
+import com.zergatstage.domain.ConstructionSite;
+import com.zergatstage.domain.MaterialRequirement;
+import com.zergatstage.domain.dictionary.Commodity;
+import com.zergatstage.domain.makret.Market;
+import com.zergatstage.domain.makret.MarketItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Commodity STEEL = Commodity.builder()
+            .id(128049176L).name("steel").nameLocalised("Steel").category("$MARKET_category_metals;").categoryLocalised("Metals")
+            .build();
+    private static final Commodity WATER = Commodity.builder()
+            .id(128049166L).name("water").nameLocalised("Water").category("$MARKET_category_chemicals;").categoryLocalised("Chemicals")
+            .build();
+
+    @Test
+    void marketsAndSitesSurviveARestart() throws IOException {
+        LocalStore store = new LocalStore(tempDir);
+        store.load();
+        Market saved = market(1L, "Alpha Port", 10);
+        saved.setUpdatedMillis(1_700_000_000_000L);
+        store.markets().save(saved);
+        store.markets().save(market(2L, "Beta Hub", 20));
+        store.constructionSites().save(site(3L));
+        store.close();
+
+        LocalStore reopened = new LocalStore(tempDir);
+        reopened.load();
+        assertEquals(2, reopened.markets().findAll().size());
+        Market alpha = reopened.markets().findById(1L);
+        assertEquals("Alpha Port", alpha.getStationName());
+        assertEquals(10, alpha.getItem(STEEL.getId()).getStock());
+        assertEquals("Water", alpha.getItem(WATER.getId()).getCommodity().getNameLocalised());
+        assertEquals(1_700_000_000_000L, alpha.getUpdatedMillis());
+        assertNull(reopened.markets().findById(2L).getUpdatedMillis());
+
+        ConstructionSite site = reopened.constructionSites().findById(3L);
+        assertEquals("Orbital Construction Site", site.getSiteId());
+        assertEquals(5L, site.getVersion());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_000L), site.getLastUpdated());
+        MaterialRequirement requirement = site.getRequirements().get(0);
+        assertEquals(STEEL.getId(), requirement.getCommodity().getId());
+        assertEquals(500, requirement.getRequiredQuantity());
+        assertEquals(120, requirement.getDeliveredQuantity());
+        reopened.close();
+    }
+
+    @Test
+    void laterChangesReplaceEarlierOnesAndDeletesAreKept() throws IOException {
+        LocalStore store = new LocalStore(tempDir);
+        store.load();
+        store.markets().save(market(1L, "Alpha Port", 10));
+        store.markets().save(market(2L, "Beta Hub", 20));
+        store.flush();
+        store.markets().save(market(1L, "Alpha Port", 99));
+        store.markets().delete(market(2L, "Beta Hub", 20));
+        store.close();
+
+        LocalStore reopened = new LocalStore(tempDir);
+        reopened.load();
+        assertEquals(99, reopened.markets().findById(1L).getItem(STEEL.getId()).getStock());
+        assertNull(reopened.markets().findById(2L));
+        reopened.close();
+    }
+
+    @Test
+    void aRecordCutShortKeepsEverythingBeforeIt() throws IOException {
+        LocalStore store = new LocalStore(tempDir);
+        store.load();
+        store.markets().save(market(1L, "Alpha Port", 10));
+        store.flush();
+        store.markets().save(market(2L, "Beta Hub", 20));
+        store.close();
+
+        Path file = tempDir.resolve("markets.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+
+        LocalStore reopened = new LocalStore(tempDir);
+        reopened.load();
+        assertNotNull(reopened.markets().findById(1L));
+        assertNull(reopened.markets().findById(2L));
+        // the damaged tail is rewritten, so records saved after it are read again
+        reopened.markets().save(market(3L, "Gamma Dock", 30));
+        reopened.close();
+
+        LocalStore again = new LocalStore(tempDir);
+        again.load();
+        assertEquals(List.of(1L, 3L), again.markets().findAll().stream().map(Market::getMarketId).sorted().toList());
+        again.close();
+    }
+
+    @Test
+    void aFailedAppendMakesTheNextFlushRewriteTheFile() throws IOException {
+        LocalStore store = new LocalStore(tempDir);
+        store.load();
+        store.markets().save(market(1L, "Alpha Port", 10));
+        store.flush();
+        // an item without a commodity cannot be written
+        Map<Long, MarketItem> broken = new HashMap<>(Map.of(0L, MarketItem.builder().build()));
+        store.markets().save(Market.builder().marketId(2L).stationName("Beta Hub").items(broken).build());
+        assertThrows(NullPointerException.class, store::flush);
+        // what a write that failed halfway leaves behind: the start of a record
+        Path file = tempDir.resolve("markets.bin");
+        Files.write(file, new byte[]{1, 0, 0, 0}, StandardOpenOption.APPEND);
+
+        store.markets().save(market(2L, "Beta Hub", 20));
+        store.markets().save(market(3L, "Gamma Dock", 30));
+        store.close();
+
+        LocalStore reopened = new LocalStore(tempDir);
+        reopened.load();
+        assertEquals(List.of(1L, 2L, 3L),
+                reopened.markets().findAll().stream().map(Market::getMarketId).sorted().toList());
+        reopened.close();
+    }
+
+    private static Market market(long id, String name, int steelStock) {
+        Market market = Market.builder().marketId(id).stationName(name).stationType("Coriolis").systemName("Sol").build();
+        market.addItem(MarketItem.builder().commodity(STEEL).market(market).buyPrice(300).sellPrice(280).stock(steelStock).build());
+        market.addItem(MarketItem.builder().commodity(WATER).market(market).buyPrice(120).sellPrice(100).demand(50).build());
+        return market;
+    }
+
+    private static ConstructionSite site(long marketId) {
+        List<MaterialRequirement> requirements = new CopyOnWriteArrayList<>();
+        requirements.add(MaterialRequirement.builder().id(7L).commodity(STEEL).requiredQuantity(500).deliveredQuantity(120).build());
+        return ConstructionSite.builder()
+                .marketId(marketId)
+                .siteId("Orbital Construction Site")
+                .version(5L)
+                .lastUpdated(Instant.ofEpochMilli(1_700_000_000_000L))
+                .requirements(requirements)
+                .build();
+    }
+}
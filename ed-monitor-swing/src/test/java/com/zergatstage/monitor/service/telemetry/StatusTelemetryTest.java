@@ -0,0 +1,126 @@
+package com.zergatstage.monitor.service.telemetry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatusTelemetryTest {
+
+    private static final String DOCKED = "{\"timestamp\":\"2025-05-01T10:00:00Z\",\"event\":\"Status\","
+            + "\"Flags\":16842765,\"Flags2\":0,\"Pips\":[4,8,0],\"FireGroup\":0,\"GuiFocus\":0,"
+            + "\"Fuel\":{\"FuelMain\":32.0,\"FuelReservoir\":0.63},\"Cargo\":0.0,\"LegalState\":\"Clean\","
+            + "\"Balance\":123456789}";
+    private static final String DOCKED_LATER = DOCKED.replace("10:00:00", "10:00:01");
+    private static final String LOADED = DOCKED_LATER.replace("\"Cargo\":0.0", "\"Cargo\":720.0")
+            .replace("10:00:01", "10:00:02");
+    private static final String LANDED = "{\"timestamp\":\"2025-05-01T10:05:00Z\",\"event\":\"Status\","
+            + "\"Flags\":16842762,\"GuiFocus\":0,\"Fuel\":{\"FuelMain\":30.5,\"FuelReservoir\":0.5},"
+            + "\"Cargo\":720.0,\"LegalState\":\"Clean\",\"Latitude\":12.5,\"Longitude\":-45.25,"
+            + "\"Altitude\":0,\"Heading\":270,\"BodyName\":\"Sol 3\",\"Balance\":123456789}";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void decoderReportsOnlyChangedFields() throws Exception {
+        StatusDecoder decoder = new StatusDecoder();
+
+        StatusDecoder.Change first = decoder.decode(DOCKED);
+        assertTrue(first.snapshot().isDocked());
+        assertEquals(32.0, first.snapshot().fuelMain());
+        assertFalse(first.snapshot().hasPosition());
+
+        assertNull(decoder.decode(DOCKED_LATER), "only the timestamp changed");
+
+        StatusDecoder.Change loaded = decoder.decode(LOADED);
+        assertEquals(StatusField.CARGO.bit(), loaded.changedMask());
+        assertEquals(720.0, loaded.snapshot().cargo());
+        assertSame(first.snapshot().legalState(), loaded.snapshot().legalState());
+    }
+
+    @Test
+    void currentStateAndHistoryAreKeptInMemory() {
+        StatusTelemetry telemetry = new StatusTelemetry(null, 2);
+
+        assertSame(StatusSnapshot.EMPTY, telemetry.current());
+        assertTrue(telemetry.accept(DOCKED));
+        assertFalse(telemetry.accept(DOCKED_LATER));
+        assertTrue(telemetry.accept(LOADED));
+        assertTrue(telemetry.accept(LANDED));
+        assertFalse(telemetry.accept("{\"Flags\":"));
+
+        assertEquals(3, telemetry.getUpdates());
+        assertEquals("Sol 3", telemetry.current().bodyName());
+        List<StatusSnapshot> recent = telemetry.recent(10);
+        assertEquals(2, recent.size());
+        assertEquals(720.0, recent.get(0).cargo());
+        assertSame(telemetry.current(), recent.get(1));
+    }
+
+    @Test
+    void recordingReplaysToTheSameStates() throws IOException {
+        Path file = tempDir.resolve("telemetry").resolve("status.bin");
+        StatusTelemetry telemetry = new StatusTelemetry(new StatusRecorder(file));
+        telemetry.accept(DOCKED);
+        telemetry.accept(LOADED);
+        telemetry.accept(LANDED);
+        telemetry.close();
+
+        List<StatusSnapshot> replayed = StatusRecorder.read(file);
+
+        assertEquals(telemetry.recent(3).size(), replayed.size());
+        StatusSnapshot landed = replayed.get(2);
+        assertEquals(telemetry.current().flags(), landed.flags());
+        assertEquals(12.5, landed.latitude());
+        assertEquals(270, landed.heading());
+        assertEquals(30.5, landed.fuelMain(), 1e-6);
+        assertEquals("Clean", landed.legalState());
+        assertTrue(Files.size(file) < (DOCKED.length() + LOADED.length() + LANDED.length()) / 2);
+    }
+
+    @Test
+    void flushWritesBufferedRecordsToTheFile() throws IOException {
+        Path file = tempDir.resolve("status.bin");
+        StatusTelemetry telemetry = new StatusTelemetry(new StatusRecorder(file));
+        telemetry.accept(DOCKED);
+        telemetry.accept(LANDED);
+        long buffered = Files.size(file);
+
+        telemetry.flush();
+
+        assertTrue(Files.size(file) > buffered);
+        assertEquals(2, StatusRecorder.read(file).size());
+        telemetry.close();
+    }
+
+    @Test
+    void openingARecordingDeletesAllButTheNewestSessions() throws Exception {
+        Path dir = tempDir.resolve("telemetry");
+        Files.createDirectories(dir);
+        for (String session : List.of("20250101-100000", "20250102-100000", "20250103-100000")) {
+            Files.writeString(dir.resolve("status-" + session + ".bin"), "old");
+        }
+        Path unrelated = Files.writeString(dir.resolve("notes.txt"), "keep");
+        Path file = dir.resolve("status-20250104-100000.bin");
+        StatusRecorder recorder = new StatusRecorder(file, 2);
+
+        recorder.record(new StatusDecoder().decode(DOCKED));
+        recorder.close();
+
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(dir.resolve("status-20250103-100000.bin")));
+        assertFalse(Files.exists(dir.resolve("status-20250102-100000.bin")));
+        assertFalse(Files.exists(dir.resolve("status-20250101-100000.bin")));
+        assertTrue(Files.exists(unrelated));
+    }
+}
@@ -0,0 +1,388 @@
+package com.zergatstage.tools;
+
+import com.zergatstage.domain.ConstructionSite;
+import com.zergatstage.domain.dictionary.CargoItem;
+import com.zergatstage.monitor.events.JournalEvent;
+import com.zergatstage.monitor.handlers.HandlerConfiguration;
+import com.zergatstage.monitor.handlers.HandlerPriority;
+import com.zergatstage.monitor.handlers.LogEventHandler;
+import com.zergatstage.monitor.handlers.TypedEventHandler;
+import com.zergatstage.monitor.service.ConstructionSiteManager;
+import com.zergatstage.monitor.service.JournalDirectoryIndex;
+import com.zergatstage.monitor.service.JournalLogMonitor;
+import com.zergatstage.monitor.service.ShardedEventDispatcher;
+import com.zergatstage.monitor.service.UiNotificationBus;
+import com.zergatstage.monitor.service.managers.CargoInventoryManager;
+import com.zergatstage.monitor.service.metrics.LatencyStats;
+import lombok.extern.log4j.Log4j2;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Replays recorded journal lines through the real pipeline under controlled load.
+ * <p>
+ * The lines are written into a journal file in a temporary directory at a chosen speed while a real
+ * {@link JournalLogMonitor} with its own {@link ShardedEventDispatcher} tails it. Every handler is wrapped
+ * to measure the time from the moment a line was written until its handler returned. The run reports
+ * lines per second, those end-to-end latency percentiles, the pipeline's own metrics and the final
+ * manager state, so runs of the same recording can be compared.
+ * </p>
+ * <p>
+ * Pacing follows the journal timestamps divided by the speed; idle gaps are capped at {@code maxGap}
+ * so a recorded session with long pauses still replays in reasonable time. Checkpointing is off: every
+ * run starts from the first line.
+ * </p>
+ * Usage: {@code JournalReplayHarness <journal file or directory> [speed|max]}. The harness lives with the tests
+ * and is not shipped; run it with
+ * {@code mvn -pl ed-monitor-swing test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.zergatstage.tools.JournalReplayHarness -Dexec.args="<journal> max"}.
+ */
+@Log4j2
+public class JournalReplayHarness {
+
+    public static final double REAL_TIME = 1.0;
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+    public static final Duration DEFAULT_MAX_GAP = Duration.ofSeconds(2);
+    /** Lines written per write call when replaying as fast as possible. */
+    private static final int BURST_LINES = 64;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final List<String> lines;
+    private final Map<String, LogEventHandler> handlers;
+    private final double speed;
+    private final Duration maxGap;
+    private final Supplier<String> stateProbe;
+
+    /**
+     * @param lines      recorded journal lines, in order.
+     * @param handlers   the handlers to run, as given to the journal monitor.
+     * @param speed      replay speed relative to the recording, or {@link #AS_FAST_AS_POSSIBLE}.
+     * @param maxGap     longest pause between two lines, after scaling.
+     * @param stateProbe describes the final state to report, e.g. {@link #managerState()}.
+     */
+    public JournalReplayHarness(List<String> lines, Map<String, LogEventHandler> handlers, double speed,
+                                Duration maxGap, Supplier<String> stateProbe) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("speed must be positive: " + speed);
+        }
+        this.lines = lines;
+        this.handlers = handlers;
+        this.speed = speed;
+        this.maxGap = maxGap;
+        this.stateProbe = stateProbe;
+    }
+
+    /**
+     * Result of one replay.
+     *
+     * @param lines          lines written.
+     * @param handled        events that reached a handler; repeated snapshots are dropped before that.
+     * @param elapsed        from the first write until the last event was handled.
+     * @param endToEnd       line written to handler returned.
+     * @param pipelineReport the monitor's and dispatcher's own metrics.
+     * @param finalState     what the state probe reported after the run.
+     */
+    public record Result(int lines, long handled, Duration elapsed, LatencyStats endToEnd,
+                         String pipelineReport, String finalState) {
+
+        public double linesPerSecond() {
+            double seconds = elapsed.toNanos() / 1_000_000_000.0;
+            return seconds == 0 ? 0.0 : lines / seconds;
+        }
+
+        public String report() {
+            return String.format("replayed %d lines, %d handled in %d ms: %.0f lines/s%n"
+                            + "end-to-end p50=%.3f ms p99=%.3f ms max=%.3f ms%n%s%nfinal state: %s",
+                    lines, handled, elapsed.toMillis(), linesPerSecond(),
+                    endToEnd.percentileMillis(50), endToEnd.percentileMillis(99), endToEnd.maxMillis(),
+                    pipelineReport, finalState);
+        }
+    }
+
+    /**
+     * Runs the replay in a fresh temporary directory, which is removed afterwards.
+     */
+    public Result run() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("journal-replay");
+        try {
+            return run(directory);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private Result run(Path directory) throws IOException, InterruptedException {
+        Path journal = directory.resolve("Journal.2000-01-01T000000.01.log");
+        Files.createFile(journal);
+
+        Map<EventKey, Queue<Long>> writeTimes = new ConcurrentHashMap<>();
+        LatencyStats endToEnd = new LatencyStats("replay line-to-handled");
+        LongAdder handled = new LongAdder();
+        Map<String, LogEventHandler> timed = new HashMap<>();
+        handlers.forEach((type, handler) ->
+                timed.put(type, handler instanceof TypedEventHandler typed
+                        ? new TypedTimingHandler(typed, writeTimes, endToEnd, handled)
+                        : new TimingHandler(handler, writeTimes, endToEnd, handled)));
+
+        List<EventKey> keys = new ArrayList<>(lines.size());
+        List<Instant> timestamps = new ArrayList<>(lines.size());
+        int expected = 0;
+        for (String line : lines) {
+            EventKey key = EventKey.of(line);
+            keys.add(key != null && handlers.containsKey(key.type()) ? key : null);
+            timestamps.add(key == null ? null : key.timestamp());
+            if (keys.get(keys.size() - 1) != null) {
+                expected++;
+            }
+        }
+
+        ShardedEventDispatcher dispatcher = new ShardedEventDispatcher();
+        JournalLogMonitor monitor = new JournalLogMonitor(directory, timed, dispatcher, null);
+        monitor.startMonitoring();
+        long started = System.nanoTime();
+        try (Writer writer = Files.newBufferedWriter(journal, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+            write(writer, keys, timestamps, writeTimes, started);
+        }
+        // repeated snapshot lines are dropped before they reach a handler
+        waitFor(() -> handled.sum() + monitor.getDuplicateLines(), expected);
+        dispatcher.awaitIdle(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        monitor.stopMonitoring();
+        String pipelineReport = monitor.getDispatchLatency().summary() + '\n'
+                + monitor.getLineQueue().summary() + '\n' + dispatcher.summary() + '\n'
+                + UiNotificationBus.getInstance().summary();
+        dispatcher.shutdown();
+        return new Result(lines.size(), handled.sum(), elapsed, endToEnd, pipelineReport, stateProbe.get());
+    }
+
+    private void write(Writer writer, List<EventKey> keys, List<Instant> timestamps,
+                       Map<EventKey, Queue<Long>> writeTimes, long started) throws IOException, InterruptedException {
+        Instant previous = null;
+        long due = started;
+        for (int i = 0; i < lines.size(); i++) {
+            Instant timestamp = timestamps.get(i);
+            if (speed != AS_FAST_AS_POSSIBLE && previous != null && timestamp != null) {
+                long gap = Math.max(0, Duration.between(previous, timestamp).toNanos());
+                due += Math.min((long) (gap / speed), maxGap.toNanos());
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    writer.flush();
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+            }
+            if (timestamp != null) {
+                previous = timestamp;
+            }
+            EventKey key = keys.get(i);
+            if (key != null) {
+                writeTimes.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(System.nanoTime());
+            }
+            writer.write(lines.get(i));
+            writer.write('\n');
+            if (speed != AS_FAST_AS_POSSIBLE || i % BURST_LINES == BURST_LINES - 1) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private static void waitFor(LongSupplier done, int expected) throws InterruptedException {
+        long lastCount = -1;
+        long lastProgress = System.nanoTime();
+        while (done.getAsLong() < expected) {
+            long count = done.getAsLong();
+            if (count != lastCount) {
+                lastCount = count;
+                lastProgress = System.nanoTime();
+            } else if (System.nanoTime() - lastProgress > DRAIN_TIMEOUT.toNanos()) {
+                log.warn("Replay stalled: {} of {} events handled", count, expected);
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    /**
+     * Describes the cargo hold and construction sites in a stable order, for comparing runs.
+     */
+    public static Supplier<String> managerState() {
+        return () -> {
+            Map<Long, Integer> cargo = new TreeMap<>();
+            ConcurrentLongObjectMap<CargoItem> commodities =
+                    CargoInventoryManager.getInstance().getShipVariant().getCommodities();
+            if (commodities != null) {
+                commodities.forEach((id, item) -> cargo.put(id, item.getCount()));
+            }
+            Map<Long, Integer> sites = new TreeMap<>();
+            for (ConstructionSite site : ConstructionSiteManager.getInstance().getSnapshot().sites()) {
+                sites.put(site.getMarketId(), site.getProgressPercent());
+            }
+            return "cargo " + cargo + ", site progress % " + sites;
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: JournalReplayHarness <journal file or directory> [speed|max]");
+            System.exit(2);
+        }
+        double speed = args.length > 1 && !"max".equalsIgnoreCase(args[1])
+                ? Double.parseDouble(args[1]) : AS_FAST_AS_POSSIBLE;
+        Result result = new JournalReplayHarness(readLines(Path.of(args[0])),
+                HandlerConfiguration.getLogEventHandlers(), speed, DEFAULT_MAX_GAP, managerState()).run();
+        System.out.println(result.report());
+        System.exit(0);
+    }
+
+    /**
+     * Reads a journal, or all journals of a directory in the game's order.
+     */
+    public static List<String> readLines(Path source) throws IOException {
+        List<Path> journals = Files.isDirectory(source)
+                ? new JournalDirectoryIndex(source).journals()
+                : List.of(source);
+        List<String> lines = new ArrayList<>();
+        for (Path journal : journals) {
+            for (String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Matches a written line with the event that reaches a handler.
+     */
+    private record EventKey(String type, Instant timestamp) {
+
+        static EventKey of(String line) {
+            try {
+                JSONObject json = new JSONObject(line);
+                return of(json.optString("event", null), json.optString("timestamp", null));
+            } catch (JSONException e) {
+                return null;
+            }
+        }
+
+        static EventKey of(String type, String timestamp) {
+            if (type == null || timestamp == null) {
+                return null;
+            }
+            try {
+                return new EventKey(type, Instant.parse(timestamp));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Delegates to the real handler and records when it returns.
+     */
+    private static class TimingHandler implements LogEventHandler {
+        private final LogEventHandler delegate;
+        private final Map<EventKey, Queue<Long>> writeTimes;
+        private final LatencyStats latency;
+        private final LongAdder handled;
+
+        private TimingHandler(LogEventHandler delegate, Map<EventKey, Queue<Long>> writeTimes,
+                              LatencyStats latency, LongAdder handled) {
+            this.delegate = delegate;
+            this.writeTimes = writeTimes;
+            this.latency = latency;
+            this.handled = handled;
+        }
+
+        @Override
+        public boolean isCargoRelated() {
+            return delegate.isCargoRelated();
+        }
+
+        @Override
+        public String getEventType() {
+            return delegate.getEventType();
+        }
+
+        @Override
+        public boolean isSnapshot() {
+            return delegate.isSnapshot();
+        }
+
+        @Override
+        public HandlerPriority getPriority() {
+            return delegate.getPriority();
+        }
+
+        @Override
+        public void handleEvent(JSONObject event) {
+            delegate.handleEvent(event);
+            done(EventKey.of(event.optString("event", null), event.optString("timestamp", null)));
+        }
+
+        void done(EventKey key) {
+            long now = System.nanoTime();
+            Queue<Long> written = key == null ? null : writeTimes.get(key);
+            Long writtenAt = written == null ? null : written.poll();
+            if (writtenAt != null) {
+                latency.record(now - writtenAt);
+            }
+            handled.increment();
+        }
+    }
+
+    /**
+     * Timing wrapper for handlers that take typed events, so the dispatcher still sees them as typed.
+     */
+    private static final class TypedTimingHandler extends TimingHandler implements TypedEventHandler {
+        private final TypedEventHandler delegate;
+
+        private TypedTimingHandler(TypedEventHandler delegate, Map<EventKey, Queue<Long>> writeTimes,
+                                   LatencyStats latency, LongAdder handled) {
+            super(delegate, writeTimes, latency, handled);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void handle(JournalEvent event) {
+            delegate.handle(event);
+            done(new EventKey(getEventType(), event.timestamp()));
+        }
+
+        @Override
+        public void handleBatch(List<JournalEvent> events) {
+            delegate.handleBatch(events);
+            for (JournalEvent event : events) {
+                done(new EventKey(getEventType(), event.timestamp()));
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.zergatstage.tools;
+
+import com.zergatstage.monitor.handlers.LogEventHandler;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalReplayHarnessTest {
+
+    @Test
+    void everyHandledLineIsTimedEndToEnd() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String time = String.format("2025-05-01T10:%02d:%02dZ", i / 60, i % 60);
+            String event = i % 3 == 0 ? "Music" : "LaunchDrone";
+            lines.add("{ \"timestamp\":\"" + time + "\", \"event\":\"" + event + "\", \"Type\":\"Collection\" }");
+        }
+        AtomicInteger drones = new AtomicInteger();
+        LogEventHandler handler = new LogEventHandler() {
+            @Override
+            public String getEventType() {
+                return "LaunchDrone";
+            }
+
+            @Override
+            public void handleEvent(JSONObject event) {
+                drones.incrementAndGet();
+            }
+        };
+
+        JournalReplayHarness.Result result = new JournalReplayHarness(lines, Map.of("LaunchDrone", handler),
+                JournalReplayHarness.AS_FAST_AS_POSSIBLE, Duration.ZERO, () -> "drones " + drones.get()).run();
+
+        assertEquals(300, result.lines());
+        assertEquals(200, result.handled());
+        assertEquals(200, result.endToEnd().count());
+        assertEquals("drones 200", result.finalState());
+        assertTrue(result.linesPerSecond() > 0);
+        assertTrue(result.report().contains("end-to-end p50="));
+    }
+
+    @Test
+    void pacingFollowsTheRecordedTimestamps() throws Exception {
+        List<String> lines = List.of(
+                "{ \"timestamp\":\"2025-05-01T10:00:00Z\", \"event\":\"Music\" }",
+                "{ \"timestamp\":\"2025-05-01T10:00:03Z\", \"event\":\"Music\" }");
+
+        JournalReplayHarness.Result result = new JournalReplayHarness(lines, Map.of(), 10.0,
+                Duration.ofSeconds(1), () -> "").run();
+
+        // 3 s of journal time at 10x
+        assertTrue(result.elapsed().toMillis() >= 300, "elapsed " + result.elapsed());
+    }
+}